@@ -50,6 +50,8 @@ import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
     "dataLakeConfig.hdfsConfDir",
     "dataLakeConfig.hdfsConfigs",
     "spoolDirConfig.allowLateDirectory",
+    "spoolDirConfig.fileDiscoveryMode",
+    "spoolDirConfig.splitSizeMB",
     "spoolDirConfig.dataFormatConfig.verifyChecksum",
     "spoolDirConfig.dataFormatConfig.avroSchemaSource",
     "spoolDirConfig.dataFormatConfig.avroSchema",
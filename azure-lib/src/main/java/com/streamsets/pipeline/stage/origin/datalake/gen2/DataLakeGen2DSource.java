@@ -50,6 +50,8 @@ import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
     "dataLakeGen2SourceConfigBean.hdfsConfDir",
     "dataLakeGen2SourceConfigBean.hdfsConfigs",
     "conf.allowLateDirectory",
+    "conf.fileDiscoveryMode",
+    "conf.splitSizeMB",
     "conf.dataFormatConfig.verifyChecksum",
     "conf.dataFormatConfig.avroSchemaSource",
     "conf.dataFormatConfig.avroSchema",
@@ -354,6 +354,11 @@ public class LocalFileSystem implements WrappedFileSystem {
     return !watcher.find().isEmpty();
   }
 
+  @Override
+  public boolean supportsWatchService() {
+    return true;
+  }
+
   @Override
   public AbstractSpoolerFileRef.Builder getFileRefBuilder() {
     return new LocalFileRef.Builder();
@@ -26,7 +26,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
 import com.streamsets.pipeline.api.impl.Utils;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "UDP Multithreaded Source",
     description = "Listens for UDP messages on one or more port(s) and queues incoming packets on an intermediate" +
         " queue, from which multiple worker threads can process them",
@@ -47,7 +47,8 @@ public class MultithreadedUDPDSource extends DPushSource {
       required = true,
       type = ConfigDef.Type.NUMBER,
       label = "Packet Queue Size",
-      description = "Maximum number of datagram packets that will be kept in the intermediate queue.",
+      description = "Maximum number of datagram packets that will be kept in the intermediate queue. With per " +
+          "socket batching, it bounds the records kept in the queues of all the sockets.",
       defaultValue = "200000",
       group = "UDP",
       min = 1,
@@ -57,6 +58,20 @@ public class MultithreadedUDPDSource extends DPushSource {
   )
   public int packetQueueSize;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Per Socket Batching",
+      description = "Parse packets on the receiver threads and queue whole batches for each receiver socket, instead " +
+          "of queuing packets for the worker threads in a single queue. Use with native transports, where each " +
+          "receiver thread has its own socket.",
+      defaultValue = "false",
+      group = "UDP",
+      displayPosition = 205,
+      displayMode = ConfigDef.DisplayMode.ADVANCED
+  )
+  public boolean perSocketBatching;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
@@ -78,7 +93,8 @@ public class MultithreadedUDPDSource extends DPushSource {
     return new MultithreadedUDPSource(
         configs,
         packetQueueSize,
-        numWorkerThreads
+        numWorkerThreads,
+        perSocketBatching
     );
   }
 }
@@ -23,9 +23,13 @@ import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
+import com.streamsets.pipeline.lib.udp.BatchQueueUDPHandler;
 import com.streamsets.pipeline.lib.udp.PacketQueueUDPHandler;
 import com.streamsets.pipeline.lib.udp.UDPConsumingServer;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.DatagramPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +43,7 @@ import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
@@ -48,6 +53,10 @@ public class MultithreadedUDPSource extends BasePushSource {
   private static final boolean IS_TRACE_ENABLED = LOG.isTraceEnabled();
   private static final boolean IS_DEBUG_ENABLED = LOG.isDebugEnabled();
   public static final String PACKET_QUEUE_GAUGE_NAME = "Packet Queue";
+  public static final String SOCKET_METRICS_PREFIX = "Socket ";
+  public static final String RECEIVED_PACKETS = " Received Packets";
+  public static final String PARSED_PACKETS = " Parsed Packets";
+  public static final String DROPPED_PACKETS = " Dropped Packets";
 
   private final SafeScheduledExecutorService executorService;
   private long recordCount;
@@ -55,19 +64,34 @@ public class MultithreadedUDPSource extends BasePushSource {
   private AbstractParser parser;
 
   private PacketQueueUDPHandler handler;
+  // per socket batching, handlers of the sockets in bind order and queued batches of each worker thread
+  private final List<BatchQueueUDPHandler> socketHandlers = new ArrayList<>();
+  private Semaphore[] queuedBatches;
+  private int socketQueueSize;
 
   private final UDPSourceConfigBean configs;
   private final int packetQueueSize;
   private final int numWorkerThreads;
+  private final boolean perSocketBatching;
 
   public MultithreadedUDPSource(
       UDPSourceConfigBean configs,
       int packetQueueSize,
       int numWorkerThreads
+  ) {
+    this(configs, packetQueueSize, numWorkerThreads, false);
+  }
+
+  public MultithreadedUDPSource(
+      UDPSourceConfigBean configs,
+      int packetQueueSize,
+      int numWorkerThreads,
+      boolean perSocketBatching
   ) {
     this.configs = configs;
     this.packetQueueSize = packetQueueSize;
     this.numWorkerThreads = numWorkerThreads;
+    this.perSocketBatching = perSocketBatching;
 
     executorService = new SafeScheduledExecutorService(this.numWorkerThreads, "UDP_Source_Worker_");
 
@@ -84,8 +108,26 @@ public class MultithreadedUDPSource extends BasePushSource {
       final List<InetSocketAddress> addresses = configs.getAddresses();
       if (!addresses.isEmpty()) {
         final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
-        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
-        udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
+        final ChannelHandler channelHandler;
+        if (perSocketBatching) {
+          // with epoll each receiver thread binds its own socket to every address
+          int sockets = addresses.size() * (configs.enableEpoll ? configs.numThreads : 1);
+          socketQueueSize = Math.max(2, packetQueueSize / sockets / configs.batchSize);
+          queuedBatches = new Semaphore[numWorkerThreads];
+          for (int i = 0; i < numWorkerThreads; i++) {
+            queuedBatches[i] = new Semaphore(0);
+          }
+          channelHandler = new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel channel) {
+              channel.pipeline().addLast(createSocketHandler());
+            }
+          };
+        } else {
+          handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
+          channelHandler = handler;
+        }
+        udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, channelHandler);
         try {
           udpServer.listen();
           udpServer.start();
@@ -113,12 +155,96 @@ public class MultithreadedUDPSource extends BasePushSource {
   }
 
 
+  /**
+   * Creates the handler of a new socket, sockets are assigned to the worker threads round robin in bind order.
+   */
+  private synchronized BatchQueueUDPHandler createSocketHandler() {
+    int socket = socketHandlers.size();
+    String prefix = SOCKET_METRICS_PREFIX + socket;
+    BatchQueueUDPHandler socketHandler = new BatchQueueUDPHandler(
+        parser,
+        configs.batchSize,
+        configs.maxWaitTime,
+        socketQueueSize,
+        queuedBatches[socket % numWorkerThreads],
+        getContext().createMeter(prefix + RECEIVED_PACKETS),
+        getContext().createMeter(prefix + PARSED_PACKETS),
+        getContext().createMeter(prefix + DROPPED_PACKETS)
+    );
+    socketHandlers.add(socketHandler);
+    return socketHandler;
+  }
+
+  private synchronized List<BatchQueueUDPHandler> getSocketHandlers(int threadNumber) {
+    List<BatchQueueUDPHandler> handlers = new ArrayList<>();
+    for (int i = threadNumber; i < socketHandlers.size(); i += numWorkerThreads) {
+      handlers.add(socketHandlers.get(i));
+    }
+    return handlers;
+  }
+
+  /**
+   * Runs the batches queued by the sockets of the worker thread, an empty batch is run every batch wait time without
+   * batches.
+   */
+  private void runSocketBatches(int threadNumber, int maxBatchSize) {
+    final List<BatchQueueUDPHandler> handlers = getSocketHandlers(threadNumber);
+    final Semaphore queued = queuedBatches[threadNumber];
+    int next = 0;
+    while (!getContext().isStopped()) {
+      try {
+        if (!queued.tryAcquire(configs.maxWaitTime, TimeUnit.MILLISECONDS)) {
+          getContext().processBatch(getContext().startBatch());
+          continue;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      // each permit is a batch queued by one of the sockets of this thread
+      BatchQueueUDPHandler.Batch batch = null;
+      for (int i = 0; batch == null && i < handlers.size(); i++) {
+        batch = handlers.get(next).poll();
+        next = (next + 1) % handlers.size();
+      }
+      if (batch != null) {
+        runSocketBatch(batch, maxBatchSize);
+      }
+    }
+  }
+
+  private void runSocketBatch(BatchQueueUDPHandler.Batch batch, int maxBatchSize) {
+    BatchContext batchContext = getContext().startBatch();
+    for (Exception error : batch.getErrors()) {
+      if (error instanceof OnRecordErrorException) {
+        OnRecordErrorException ex = (OnRecordErrorException) error;
+        getContext().reportError(ex.getErrorCode(), ex.getParams());
+      } else {
+        getContext().reportError(error);
+      }
+    }
+    int batchRecords = 0;
+    for (Record record : batch.getRecords()) {
+      if (batchRecords == maxBatchSize) {
+        getContext().processBatch(batchContext);
+        batchContext = getContext().startBatch();
+        batchRecords = 0;
+      }
+      batchContext.getBatchMaker().addRecord(record);
+      batchRecords++;
+    }
+    getContext().processBatch(batchContext);
+  }
+
   @Override
   public void destroy() {
     if (udpServer != null) {
       udpServer.destroy();
       udpServer = null;
     }
+    synchronized (this) {
+      socketHandlers.clear();
+    }
     super.destroy();
   }
 
@@ -142,6 +268,10 @@ public class MultithreadedUDPSource extends BasePushSource {
 
       List<Future> allFutures = new LinkedList<>();
       IntStream.range(0, numWorkerThreads).forEach(threadNumber -> {
+        if (perSocketBatching) {
+          allFutures.add(completionService.submit(() -> runSocketBatches(threadNumber, finalMaxBatchSize), null));
+          return;
+        }
         Runnable runnable = new Runnable() {
           @Override
           public void run() {
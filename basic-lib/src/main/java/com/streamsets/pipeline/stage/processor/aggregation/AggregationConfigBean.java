@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.ValueChooserModel;
 import com.streamsets.pipeline.config.TimeZoneChooserValues;
+import com.streamsets.pipeline.stage.processor.aggregation.aggregator.GroupByAggregator;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -118,6 +119,35 @@ public class AggregationConfigBean {
   @ListBeanModel
   public List<AggregatorConfig> aggregatorConfigs;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "10000",
+      label = "Max Groups per Aggregation",
+      description = "Maximum number of groups a group-by aggregation tracks per time window, values of additional " +
+          "groups are aggregated into the '" + GroupByAggregator.OVERFLOW_GROUP + "' group. Use 0 for no limit",
+      group = "AGGREGATIONS",
+      displayPosition = 50,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 0
+  )
+  public int maxGroups = 10000;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Accumulator Stripes",
+      description = "Number of independent accumulators group-by aggregations spread concurrent updates over, they " +
+          "are merged when the time window rolls. Increase it for multithreaded pipelines with few hot groups",
+      group = "AGGREGATIONS",
+      displayPosition = 60,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 1,
+      max = 64
+  )
+  public int accumulatorStripes = 1;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.BOOLEAN,
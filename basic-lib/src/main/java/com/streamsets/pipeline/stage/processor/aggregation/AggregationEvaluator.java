@@ -99,7 +99,7 @@ public class AggregationEvaluator {
     RecordEL.setRecordInContext(vars, record);
     TimeNowEL.setTimeNowInContext(vars, new Date());
     if (filterEval == null || filterEval.eval(vars, config.filterPredicate, Boolean.class)) {
-      Number aggregationValue = (Number) valueEval.eval(vars, config.aggregationExpression, aggregator.getValueType());
+      Object aggregationValue = valueEval.eval(vars, config.aggregationExpression, aggregator.getInputType());
       if (groupBy) {
         String group = groupByEval.eval(vars, config.groupByExpression, String.class);
         ((GroupByAggregator) aggregator).process(group, aggregationValue);
@@ -72,7 +72,12 @@ public class AggregationEvaluators {
     this.config = config;
     this.queue = queue;
     evaluators = new ArrayList<>();
-    aggregators = new Aggregators(config.getNumberOfTimeWindows(), config.windowType);
+    aggregators = new Aggregators(
+        config.getNumberOfTimeWindows(),
+        config.windowType,
+        config.maxGroups,
+        config.accumulatorStripes
+    );
     executor = new SafeScheduledExecutorService(1, context.getStageInfo().getInstanceName() + "_" + config.windowType);
   }
 
@@ -71,6 +71,15 @@ public abstract class Aggregator<A extends Aggregator, T> {
     return valueType;
   }
 
+  /**
+   * Returns the type of the values to process, by default the numeric type this aggregator aggregates.
+   *
+   * @return the type of the values to process.
+   */
+  public Class<?> getInputType() {
+    return getValueType();
+  }
+
   /**
    * Returns the name of the aggregator.
    * @return the name of the aggregator.
@@ -41,7 +41,11 @@ public class Aggregators {
       LongMaxAggregator.class,
       DoubleStdDevAggregator.class,
       DoubleSumAggregator.class,
-      LongSumAggregator.class
+      LongSumAggregator.class,
+      DistinctCountAggregator.class,
+      DoubleP50Aggregator.class,
+      DoubleP95Aggregator.class,
+      DoubleP99Aggregator.class
   );
 
   private static final Map<Class<? extends SimpleAggregator>, Constructor<? extends SimpleAggregator>> CONSTRUCTORS =
@@ -62,16 +66,33 @@ public class Aggregators {
   }
 
   private final AggregatorDataProvider dataProvider;
+  private final int maxGroups;
+  private final int stripes;
   private boolean started;
   private boolean stopped;
 
   /**
-   * Creates an Aggregators.
+   * Creates an Aggregators with unbounded, single stripe, group-by aggregators.
    *
    * @param windowsToKeep datawindows to remember, including the active one.
    */
   public Aggregators(int windowsToKeep, WindowType windowType) {
+    this(windowsToKeep, windowType, 0, 1);
+  }
+
+  /**
+   * Creates an Aggregators.
+   *
+   * @param windowsToKeep datawindows to remember, including the active one.
+   * @param maxGroups maximum number of groups of each group-by aggregator in a datawindow, zero for unbounded.
+   * @param stripes number of stripes the group-by aggregators spread concurrent updates over.
+   */
+  public Aggregators(int windowsToKeep, WindowType windowType, int maxGroups, int stripes) {
+    Utils.checkArgument(maxGroups >= 0, "maxGroups cannot be negative");
+    Utils.checkArgument(stripes > 0, "stripes must be greater than zero");
     dataProvider = new AggregatorDataProvider(windowsToKeep, windowType);
+    this.maxGroups = maxGroups;
+    this.stripes = stripes;
   }
 
   /**
@@ -118,6 +139,39 @@ public class Aggregators {
     }
   }
 
+  /**
+   * Returns the type of the values an aggregator processes.
+   *
+   * @param klass the aggregator class.
+   * @return the type of the values an aggregator processes.
+   */
+  <A extends SimpleAggregator> Class<?> getAggregatorInputType(Class<A> klass) {
+    try {
+      A aggregator = (A) CONSTRUCTORS.get(klass).newInstance("forAggregatorTypeDiscoveryOnly");
+      return aggregator.getInputType();
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Returns the maximum number of groups of each group-by aggregator in a datawindow, zero if unbounded.
+   *
+   * @return the maximum number of groups of each group-by aggregator in a datawindow.
+   */
+  int getMaxGroups() {
+    return maxGroups;
+  }
+
+  /**
+   * Returns the number of stripes the group-by aggregators spread concurrent updates over.
+   *
+   * @return the number of stripes the group-by aggregators spread concurrent updates over.
+   */
+  int getStripes() {
+    return stripes;
+  }
+
   /**
    * Creates an AggregatorData.
    *
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.streamsets.pipeline.api.impl.Utils;
+
+/**
+ * Distinct Count Aggregator, an approximate count backed by a {@link HyperLogLog} estimator.
+ * <p/>
+ * Values are processed as Strings.
+ */
+public class DistinctCountAggregator extends SimpleAggregator<DistinctCountAggregator, Object> {
+
+  public static class DistinctCountAggregatable implements Aggregatable<DistinctCountAggregator> {
+    private String name;
+    private long count;
+    private HyperLogLog estimator;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    public DistinctCountAggregatable setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public DistinctCountAggregatable setCount(long count) {
+      this.count = count;
+      return this;
+    }
+
+    @JsonIgnore
+    HyperLogLog getEstimator() {
+      return estimator;
+    }
+
+    DistinctCountAggregatable setEstimator(HyperLogLog estimator) {
+      this.estimator = estimator;
+      return this;
+    }
+  }
+
+  private class Data extends AggregatorData<DistinctCountAggregator, Object> {
+    private final HyperLogLog estimator;
+
+    public Data(String name, long time) {
+      super(name, time);
+      estimator = new HyperLogLog();
+    }
+
+    @Override
+    public String getName() {
+      return DistinctCountAggregator.this.getName();
+    }
+
+    @Override
+    public void process(Object value) {
+      if (value != null) {
+        String str = value.toString();
+        synchronized (this) {
+          estimator.add(str);
+        }
+      }
+    }
+
+    @Override
+    public synchronized Long get() {
+      return estimator.estimate();
+    }
+
+    @Override
+    public synchronized Aggregatable<DistinctCountAggregator> getAggregatable() {
+      return new DistinctCountAggregatable().setName(getName()).setCount(get()).setEstimator(estimator.copy());
+    }
+
+    @Override
+    public void aggregate(Aggregatable<DistinctCountAggregator> aggregatable) {
+      Utils.checkNotNull(aggregatable, "aggregatable");
+      Utils.checkArgument(
+          getName().equals(aggregatable.getName()),
+          Utils.formatL("Aggregable '{}' does not match this aggregation '{}", aggregatable.getName(), getName())
+      );
+      Utils.checkArgument(aggregatable instanceof DistinctCountAggregatable, Utils.formatL(
+          "Aggregatable '{}' is a '{}' it should be '{}'",
+          getName(),
+          aggregatable.getClass().getSimpleName(),
+          DistinctCountAggregatable.class.getSimpleName()
+      ));
+      synchronized (this) {
+        estimator.merge(((DistinctCountAggregatable) aggregatable).getEstimator());
+      }
+    }
+  }
+
+  public DistinctCountAggregator(String name) {
+    super(Long.class, name);
+  }
+
+  @Override
+  public Class<?> getInputType() {
+    return String.class;
+  }
+
+  @Override
+  public AggregatorData createAggregatorData(long timeWindowMillis) {
+    return new Data(getName(), timeWindowMillis);
+  }
+
+}
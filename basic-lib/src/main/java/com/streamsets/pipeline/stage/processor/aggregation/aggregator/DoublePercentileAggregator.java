@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.streamsets.pipeline.api.impl.Utils;
+
+/**
+ * Base class for the Double Percentile Aggregators, the percentile is approximated by a {@link QuantileSketch}.
+ */
+public abstract class DoublePercentileAggregator<A extends DoublePercentileAggregator>
+    extends SimpleAggregator<A, Double> {
+
+  public static class DoublePercentileAggregatable implements Aggregatable<DoublePercentileAggregator> {
+    private String name;
+    private long count;
+    private Double percentile;
+    private QuantileSketch sketch;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    public DoublePercentileAggregatable setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public DoublePercentileAggregatable setCount(long count) {
+      this.count = count;
+      return this;
+    }
+
+    public Double getPercentile() {
+      return percentile;
+    }
+
+    public DoublePercentileAggregatable setPercentile(Double percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    @JsonIgnore
+    QuantileSketch getSketch() {
+      return sketch;
+    }
+
+    DoublePercentileAggregatable setSketch(QuantileSketch sketch) {
+      this.sketch = sketch;
+      return this;
+    }
+  }
+
+  private class Data extends AggregatorData<A, Double> {
+    private final QuantileSketch sketch;
+
+    public Data(String name, long time) {
+      super(name, time);
+      sketch = new QuantileSketch();
+    }
+
+    @Override
+    public String getName() {
+      return DoublePercentileAggregator.this.getName();
+    }
+
+    @Override
+    public void process(Double value) {
+      if (value != null) {
+        synchronized (this) {
+          sketch.add(value);
+        }
+      }
+    }
+
+    @Override
+    public synchronized Double get() {
+      return sketch.getQuantile(quantile);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Aggregatable<A> getAggregatable() {
+      return (Aggregatable) new DoublePercentileAggregatable()
+          .setName(getName())
+          .setCount(sketch.getCount())
+          .setPercentile(get())
+          .setSketch(sketch.copy());
+    }
+
+    @Override
+    public void aggregate(Aggregatable<A> aggregatable) {
+      Utils.checkNotNull(aggregatable, "aggregatable");
+      Utils.checkArgument(
+          getName().equals(aggregatable.getName()),
+          Utils.formatL("Aggregable '{}' does not match this aggregation '{}", aggregatable.getName(), getName())
+      );
+      Utils.checkArgument(aggregatable instanceof DoublePercentileAggregatable, Utils.formatL(
+          "Aggregatable '{}' is a '{}' it should be '{}'",
+          getName(),
+          aggregatable.getClass().getSimpleName(),
+          DoublePercentileAggregatable.class.getSimpleName()
+      ));
+      synchronized (this) {
+        sketch.merge(((DoublePercentileAggregatable) aggregatable).getSketch());
+      }
+    }
+  }
+
+  private final double quantile;
+
+  /**
+   * Constructor
+   *
+   * @param name name of the aggregator.
+   * @param quantile quantile to compute, between 0 and 1.
+   */
+  protected DoublePercentileAggregator(String name, double quantile) {
+    super(Double.class, name);
+    this.quantile = quantile;
+  }
+
+  @Override
+  public AggregatorData createAggregatorData(long timeWindowMillis) {
+    return new Data(getName(), timeWindowMillis);
+  }
+
+}
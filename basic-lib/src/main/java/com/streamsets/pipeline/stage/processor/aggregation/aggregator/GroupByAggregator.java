@@ -18,17 +18,26 @@ package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Group-by Aggregator supporting all Simple Aggregators as group-by element.
  */
 public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator<GroupByAggregator, Map<String, T>> {
 
+  /**
+   * Group aggregating the values of all the groups beyond the maximum number of groups of a datawindow.
+   */
+  public static final String OVERFLOW_GROUP = "__OTHER__";
+
   public static class GroupByAggregatable implements Aggregatable<GroupByAggregator> {
     private String name;
     private Map<String, Aggregatable> groups;
@@ -53,14 +62,26 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
     }
   }
 
+  /**
+   * Group-by data, lookups of existing groups do not lock, only the element data of the group synchronizes.
+   * <p/>
+   * With more than one stripe each thread updates the element data of its own stripe and the stripes are merged when
+   * the data is read, typically when the window rolls or the gauges refresh. If the Aggregators bounds the number of
+   * groups, values of groups beyond the limit are aggregated into the {@link #OVERFLOW_GROUP} group.
+   */
   class Data extends AggregatorData<GroupByAggregator<A, T>, Map<String, T>> {
-    private final Map<String, AggregatorData<SimpleAggregator, Number>> groups;
-    private final ReentrantReadWriteLock rwLock;
+    private final List<ConcurrentMap<String, AggregatorData<SimpleAggregator, Number>>> stripes;
+    private final Set<String> admittedGroups;
+    private final AtomicInteger admittedCount;
 
     public Data(String name, long time) {
       super(name, time);
-      groups = new HashMap<>();
-      rwLock = new ReentrantReadWriteLock(true);
+      stripes = new ArrayList<>(getAggregators().getStripes());
+      for (int i = 0; i < getAggregators().getStripes(); i++) {
+        stripes.add(new ConcurrentHashMap<>());
+      }
+      admittedGroups = ConcurrentHashMap.newKeySet();
+      admittedCount = new AtomicInteger();
     }
 
     @Override
@@ -75,69 +96,101 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
       }
     }
 
+    private ConcurrentMap<String, AggregatorData<SimpleAggregator, Number>> getStripe() {
+      return stripes.get((int) (Thread.currentThread().getId() % stripes.size()));
+    }
+
+    private String admit(String group) {
+      int maxGroups = getAggregators().getMaxGroups();
+      if (maxGroups == 0 || admittedGroups.contains(group)) {
+        return group;
+      }
+      if (admittedCount.get() >= maxGroups) {
+        return OVERFLOW_GROUP;
+      }
+      if (admittedCount.incrementAndGet() > maxGroups) {
+        admittedCount.decrementAndGet();
+        return OVERFLOW_GROUP;
+      }
+      if (!admittedGroups.add(group)) {
+        // admitted concurrently by another thread
+        admittedCount.decrementAndGet();
+      }
+      return group;
+    }
+
     @SuppressWarnings("unchecked")
     protected void process(String group, T value) {
-      AggregatorData aggregatorData;
-      rwLock.writeLock().lock();
-      try {
-        aggregatorData = groups.computeIfAbsent(group,
-            k -> GroupByAggregator.this.createElementAggregatorData(group, getTime())
+      ConcurrentMap<String, AggregatorData<SimpleAggregator, Number>> stripe = getStripe();
+      AggregatorData aggregatorData = stripe.get(group);
+      if (aggregatorData == null) {
+        aggregatorData = stripe.computeIfAbsent(admit(group),
+            k -> GroupByAggregator.this.createElementAggregatorData(k, getTime())
         );
-      } finally {
-        rwLock.writeLock().unlock();
       }
       aggregatorData.process(value);
     }
 
+    @SuppressWarnings("unchecked")
+    private Map<String, AggregatorData<SimpleAggregator, Number>> getGroups() {
+      if (stripes.size() == 1) {
+        return stripes.get(0);
+      }
+      Map<String, AggregatorData<SimpleAggregator, Number>> merged = new HashMap<>();
+      for (Map<String, AggregatorData<SimpleAggregator, Number>> stripe : stripes) {
+        for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : stripe.entrySet()) {
+          merged.computeIfAbsent(group.getKey(), k -> GroupByAggregator.this.createElementAggregatorData(k, getTime()))
+              .aggregate(group.getValue().getAggregatable());
+        }
+      }
+      return merged;
+    }
 
     @Override
     @SuppressWarnings("unchecked")
     public Map<String, T> get() {
-      rwLock.readLock().lock();
-      try {
-        Map<String, T> map = new HashMap<>();
-        for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
-          map.put(group.getKey(), (T) group.getValue().get());
-        }
-        return map;
-      } finally {
-        rwLock.readLock().unlock();
+      Map<String, T> map = new HashMap<>();
+      for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : getGroups().entrySet()) {
+        map.put(group.getKey(), (T) group.getValue().get());
       }
+      return map;
     }
 
     @SuppressWarnings("unchecked")
     public AggregatorData<SimpleAggregator, Number> getGroupByElementData(String groupName) {
-      rwLock.readLock().lock();
-      try {
-        return groups.get(groupName);
-      } finally {
-        rwLock.readLock().unlock();
+      if (stripes.size() == 1) {
+        return stripes.get(0).get(groupName);
+      }
+      AggregatorData<SimpleAggregator, Number> merged = null;
+      for (Map<String, AggregatorData<SimpleAggregator, Number>> stripe : stripes) {
+        AggregatorData<SimpleAggregator, Number> data = stripe.get(groupName);
+        if (data != null) {
+          if (merged == null) {
+            merged = GroupByAggregator.this.createElementAggregatorData(groupName, getTime());
+          }
+          merged.aggregate(data.getAggregatable());
+        }
       }
+      return merged;
     }
 
     public Set<String> getGroupByElements() {
-      rwLock.readLock().lock();
-      try {
-        return new HashSet<>(groups.keySet());
-      } finally {
-        rwLock.readLock().unlock();
+      Set<String> elements = new HashSet<>();
+      for (Map<String, AggregatorData<SimpleAggregator, Number>> stripe : stripes) {
+        elements.addAll(stripe.keySet());
       }
+      return elements;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public Aggregatable<GroupByAggregator<A, T>> getAggregatable() {
       GroupByAggregatable aggregatable = new GroupByAggregatable().setName(getName());
-      rwLock.readLock().lock();
-      try {
-        Map<String, Aggregatable> aggregatableGroups = new HashMap<>();
-        for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : groups.entrySet()) {
-          aggregatableGroups.put(group.getKey(), group.getValue().getAggregatable());
-        }
-        aggregatable.setGroups(aggregatableGroups);
-      } finally {
-        rwLock.readLock().unlock();
+      Map<String, Aggregatable> aggregatableGroups = new HashMap<>();
+      for (Map.Entry<String, AggregatorData<SimpleAggregator, Number>> group : getGroups().entrySet()) {
+        aggregatableGroups.put(group.getKey(), group.getValue().getAggregatable());
       }
+      aggregatable.setGroups(aggregatableGroups);
       return (Aggregatable) aggregatable;
     }
 
@@ -154,21 +207,18 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
           GroupByAggregatable.class.getSimpleName()
       ));
 
-      rwLock.writeLock().lock();
-      try {
-        for (Map.Entry<String, Aggregatable> entry : ((GroupByAggregatable) aggregatable).getGroups().entrySet()) {
-          AggregatorData aggregatorData = groups.computeIfAbsent(entry.getKey(),
-              groupByElementName -> GroupByAggregator.this.createElementAggregatorData(groupByElementName, getTime())
-          );
-          aggregatorData.aggregate(entry.getValue());
-        }
-      } finally {
-        rwLock.writeLock().unlock();
+      ConcurrentMap<String, AggregatorData<SimpleAggregator, Number>> stripe = getStripe();
+      for (Map.Entry<String, Aggregatable> entry : ((GroupByAggregatable) aggregatable).getGroups().entrySet()) {
+        AggregatorData aggregatorData = stripe.computeIfAbsent(entry.getKey(),
+            groupByElementName -> GroupByAggregator.this.createElementAggregatorData(groupByElementName, getTime())
+        );
+        aggregatorData.aggregate(entry.getValue());
       }
     }
   }
 
   private final Class<A> aggregatorKlass;
+  private final Class<?> inputType;
   private final Aggregators aggregators;
 
   /**
@@ -184,6 +234,12 @@ public class GroupByAggregator<A extends SimpleAggregator, T> extends Aggregator
     super(aggregators.getAggregatorUnit(aggregatorKlass), name);
     this.aggregators = aggregators;
     this.aggregatorKlass = aggregatorKlass;
+    this.inputType = aggregators.getAggregatorInputType(aggregatorKlass);
+  }
+
+  @Override
+  public Class<?> getInputType() {
+    return inputType;
   }
 
   /**
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+/**
+ * Quantile sketch with a relative error guarantee, values are counted in buckets whose bounds grow geometrically
+ * (the DDSketch approach) so any quantile is returned within {@link #RELATIVE_ACCURACY} of an actual value using a
+ * bounded amount of memory. Sketches are mergeable.
+ * <p/>
+ * If the values span more than {@link #MAX_BUCKETS} buckets the lowest ones are collapsed, trading accuracy of the
+ * lowest quantiles for bounded memory.
+ * <p/>
+ * Not thread safe.
+ */
+final class QuantileSketch {
+  static final double RELATIVE_ACCURACY = 0.01;
+  static final int MAX_BUCKETS = 2048;
+  private static final int INITIAL_BUCKETS = 64;
+  private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+  private static final double LOG_GAMMA = Math.log(GAMMA);
+  private static final double MIN_INDEXABLE = Double.MIN_NORMAL * GAMMA;
+
+  /**
+   * Counts per bucket index, backed by an array covering the range of indexes seen so far.
+   */
+  private static final class Store {
+    private long[] counts;
+    private int offset;
+    private int minIndex;
+    private int maxIndex;
+    private long total;
+
+    Store copy() {
+      Store copy = new Store();
+      copy.counts = (counts == null) ? null : counts.clone();
+      copy.offset = offset;
+      copy.minIndex = minIndex;
+      copy.maxIndex = maxIndex;
+      copy.total = total;
+      return copy;
+    }
+
+    void add(int index, long count) {
+      if (counts == null) {
+        counts = new long[INITIAL_BUCKETS];
+        offset = index;
+        minIndex = index;
+        maxIndex = index;
+      } else if (index > maxIndex) {
+        long collapsed = 0;
+        int newMinIndex = Math.max(minIndex, index - MAX_BUCKETS + 1);
+        for (int i = minIndex; i < newMinIndex && i <= maxIndex; i++) {
+          collapsed += counts[i - offset];
+          counts[i - offset] = 0;
+        }
+        minIndex = newMinIndex;
+        maxIndex = index;
+        ensureCapacity();
+        counts[minIndex - offset] += collapsed;
+      } else if (index < minIndex) {
+        index = Math.max(index, maxIndex - MAX_BUCKETS + 1);
+        minIndex = Math.min(minIndex, index);
+        ensureCapacity();
+      }
+      counts[index - offset] += count;
+      total += count;
+    }
+
+    private void ensureCapacity() {
+      if (minIndex < offset || maxIndex >= offset + counts.length) {
+        int used = maxIndex - minIndex + 1;
+        int length = Math.max(used, Math.min(MAX_BUCKETS, counts.length * 2));
+        // leave the spare room on the side that is growing
+        int newOffset = (minIndex < offset) ? maxIndex - length + 1 : minIndex;
+        long[] newCounts = new long[length];
+        int from = Math.max(newOffset, offset);
+        int to = Math.min(newOffset + length, offset + counts.length);
+        if (from < to) {
+          System.arraycopy(counts, from - offset, newCounts, from - newOffset, to - from);
+        }
+        counts = newCounts;
+        offset = newOffset;
+      }
+    }
+
+    /**
+     * Returns the bucket index holding the value of the given rank, ranks are zero based in ascending index order.
+     */
+    int indexOf(long rank) {
+      long seen = 0;
+      for (int i = minIndex; i < maxIndex; i++) {
+        seen += counts[i - offset];
+        if (seen > rank) {
+          return i;
+        }
+      }
+      return maxIndex;
+    }
+
+    void merge(Store other) {
+      for (int i = other.minIndex; other.counts != null && i <= other.maxIndex; i++) {
+        long count = other.counts[i - other.offset];
+        if (count > 0) {
+          add(i, count);
+        }
+      }
+    }
+  }
+
+  private final Store positive;
+  private final Store negative;
+  private long zeroCount;
+
+  QuantileSketch() {
+    positive = new Store();
+    negative = new Store();
+  }
+
+  private QuantileSketch(QuantileSketch other) {
+    positive = other.positive.copy();
+    negative = other.negative.copy();
+    zeroCount = other.zeroCount;
+  }
+
+  QuantileSketch copy() {
+    return new QuantileSketch(this);
+  }
+
+  private static int index(double value) {
+    return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+  }
+
+  private static double value(int index) {
+    return 2 * Math.pow(GAMMA, index) / (1 + GAMMA);
+  }
+
+  void add(double value) {
+    if (value > MIN_INDEXABLE) {
+      positive.add(index(value), 1);
+    } else if (value < -MIN_INDEXABLE) {
+      negative.add(index(-value), 1);
+    } else {
+      zeroCount++;
+    }
+  }
+
+  long getCount() {
+    return negative.total + zeroCount + positive.total;
+  }
+
+  /**
+   * Returns the value at the given quantile, NULL if the sketch is empty.
+   *
+   * @param quantile quantile, between 0 and 1.
+   */
+  Double getQuantile(double quantile) {
+    long count = getCount();
+    if (count == 0) {
+      return null;
+    }
+    long rank = (long) (quantile * (count - 1));
+    if (rank < negative.total) {
+      // negative values are stored by magnitude, the lowest ranks have the highest magnitudes
+      return -value(negative.indexOf(negative.total - 1 - rank));
+    } else if (rank < negative.total + zeroCount) {
+      return 0d;
+    } else {
+      return value(positive.indexOf(rank - negative.total - zeroCount));
+    }
+  }
+
+  void merge(QuantileSketch other) {
+    positive.merge(other.positive);
+    negative.merge(other.negative);
+    zeroCount += other.zeroCount;
+  }
+
+}
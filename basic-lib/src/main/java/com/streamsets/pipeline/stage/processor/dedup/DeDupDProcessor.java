@@ -30,7 +30,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 import java.util.List;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Record Deduplicator",
     description = "Separates unique and duplicate records based on field comparison",
     icon="dedup.png",
@@ -96,9 +96,59 @@ public class DeDupDProcessor extends DProcessor {
   @FieldSelectorModel
   public List<String> fieldsToCompare;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "HEAP",
+      label = "Index Type",
+      description = "Off-heap index keeps record hashes outside of the Java heap and uses less memory per record",
+      displayPosition = 50,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DE_DUP"
+  )
+  @ValueChooserModel(IndexTypeChooserValues.class)
+  public IndexType indexType;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Persist Index",
+      description = "Keeps the index in a file so that records seen before a pipeline restart are still detected as duplicates",
+      displayPosition = 60,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DE_DUP",
+      dependsOn = "indexType",
+      triggeredByValue = "OFF_HEAP"
+  )
+  public boolean persistIndex;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.STRING,
+      defaultValue = "",
+      label = "Index Directory",
+      description = "Directory for the index file. Leave empty to use a directory of the pipeline in the Data " +
+          "Collector resources directory.",
+      displayPosition = 70,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DE_DUP",
+      dependsOn = "persistIndex",
+      triggeredByValue = "true"
+  )
+  public String indexDirectory;
+
   @Override
   protected Processor createProcessor() {
-    return new DeDupProcessor(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare);
+    return new DeDupProcessor(
+        recordCountWindow,
+        timeWindowSecs,
+        compareFields,
+        fieldsToCompare,
+        indexType,
+        persistIndex,
+        indexDirectory
+    );
   }
 
 }
@@ -25,12 +25,18 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.base.RecordProcessor;
+import com.streamsets.pipeline.api.impl.PipelineUtils;
 import com.streamsets.pipeline.lib.cache.CacheCleaner;
 import com.streamsets.pipeline.lib.hashing.HashingUtil;
 import com.streamsets.pipeline.lib.queue.XEvictingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -39,20 +45,33 @@ import java.util.concurrent.TimeUnit;
 
 public class DeDupProcessor extends RecordProcessor {
   private static final String CACHE_KEY = "cache";
+  private static final String INDEX_KEY = "index";
   private static final Logger LOG = LoggerFactory.getLogger(DeDupProcessor.class);
 
   private final  int recordCountWindow;
   private final  int timeWindowSecs;
   private final  SelectFields compareFields;
   private final  List<String> fieldsToCompare;
+  private final  IndexType indexType;
+  private final  boolean persistIndex;
+  private final  String indexDirectory;
   private CacheCleaner cacheCleaner;
 
   public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
       SelectFields compareFields, List<String> fieldsToCompare) {
+    this(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare, IndexType.HEAP, false, null);
+  }
+
+  public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
+      SelectFields compareFields, List<String> fieldsToCompare,
+      IndexType indexType, boolean persistIndex, String indexDirectory) {
     this.recordCountWindow = recordCountWindow;
     this.timeWindowSecs = timeWindowSecs;
     this.compareFields = compareFields;
     this.fieldsToCompare = fieldsToCompare;
+    this.indexType = indexType;
+    this.persistIndex = persistIndex;
+    this.indexDirectory = indexDirectory;
   }
 
   private static final Object VOID = new Object();
@@ -61,6 +80,7 @@ public class DeDupProcessor extends RecordProcessor {
   private HashingUtil.RecordFunnel funnel;
   private Cache<HashCode, HashCode> hashCache;
   private XEvictingQueue<HashCode> hashBuffer;
+  private OffHeapHashIndex hashIndex;
   private String uniqueLane;
   private String duplicateLane;
 
@@ -92,6 +112,15 @@ public class DeDupProcessor extends RecordProcessor {
           '\u0000'
       ) : HashingUtil.getRecordFunnel(fieldsToCompare, false, true, '\u0000');
 
+      hashAttrName = getInfo() + ".hash";
+      uniqueLane = getContext().getOutputLanes().get(OutputStreams.UNIQUE.ordinal());
+      duplicateLane = getContext().getOutputLanes().get(OutputStreams.DUPLICATE.ordinal());
+
+      if (indexType == IndexType.OFF_HEAP) {
+        initHashIndex(issues);
+        return issues;
+      }
+
       Map<String, Object> runnerSharedMap = getContext().getStageRunnerSharedMap();
       synchronized (runnerSharedMap) {
         if(!runnerSharedMap.containsKey(CACHE_KEY)) {
@@ -112,17 +141,66 @@ public class DeDupProcessor extends RecordProcessor {
       cacheCleaner = new CacheCleaner(hashCache, "DeDupProcessor", 10 * 60 * 1000);
 
       hashBuffer = XEvictingQueue.create(recordCountWindow);
-      hashAttrName = getInfo() + ".hash";
-      uniqueLane = getContext().getOutputLanes().get(OutputStreams.UNIQUE.ordinal());
-      duplicateLane = getContext().getOutputLanes().get(OutputStreams.DUPLICATE.ordinal());
     }
     return issues;
   }
 
+  private void initHashIndex(List<ConfigIssue> issues) {
+    File indexFile = null;
+    if (persistIndex) {
+      String directory = indexDirectory;
+      if (directory == null || directory.isEmpty()) {
+        String resourcesDir = getContext().getResourcesDirectory();
+        if (resourcesDir == null || resourcesDir.isEmpty()) {
+          issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "indexDirectory", Errors.DEDUP_05));
+          return;
+        }
+        // Directory of the pipeline in the resources directory
+        directory = Paths.get(
+            resourcesDir,
+            "dedup",
+            PipelineUtils.escapedPipelineName(getContext().getPipelineId())
+        ).toString();
+      }
+      indexFile = new File(directory, getContext().getStageInfo().getInstanceName() + ".index");
+    }
+
+    // All runners of a multithreaded pipeline share one index, each of them releases it on destroy
+    Map<String, Object> runnerSharedMap = getContext().getStageRunnerSharedMap();
+    synchronized (runnerSharedMap) {
+      OffHeapHashIndex shared = (OffHeapHashIndex) runnerSharedMap.get(INDEX_KEY);
+      if (shared == null) {
+        try {
+          hashIndex = (indexFile == null)
+              ? OffHeapHashIndex.create(recordCountWindow, timeWindowSecs)
+              : OffHeapHashIndex.open(recordCountWindow, timeWindowSecs, indexFile);
+        } catch (IOException | RuntimeException e) {
+          LOG.error("Can't open de-duplication index '{}': {}", indexFile, e.toString(), e);
+          issues.add(getContext().createConfigIssue(
+              Groups.DE_DUP.name(),
+              "indexType",
+              Errors.DEDUP_06,
+              indexFile == null ? "off-heap" : indexFile,
+              e.toString()
+          ));
+          return;
+        }
+        runnerSharedMap.put(INDEX_KEY, hashIndex);
+      } else {
+        hashIndex = shared.retain();
+      }
+    }
+  }
+
   boolean duplicateCheck(Record record) throws ExecutionException {
     HashCode hash = hasher.hashObject(record, funnel);
     record.getHeader().setAttribute(hashAttrName, hash.toString());
 
+    if (hashIndex != null) {
+      ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+      return !hashIndex.add(bytes.getLong(0), bytes.getLong(8), System.currentTimeMillis());
+    }
+
     HashCode hashInstance = hashCache.get(hash, () -> hash);
     // We are riding on the fact that if the instance is the same we just added and it is not a dup
     boolean dup = hashInstance != hash;
@@ -141,7 +219,7 @@ public class DeDupProcessor extends RecordProcessor {
 
   @Override
   public void process(Batch batch, BatchMaker batchMaker) throws StageException {
-    if (!batch.getRecords().hasNext()) {
+    if (cacheCleaner != null && !batch.getRecords().hasNext()) {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
@@ -162,4 +240,24 @@ public class DeDupProcessor extends RecordProcessor {
     }
   }
 
+  @Override
+  public void destroy() {
+    if (hashIndex != null) {
+      Map<String, Object> runnerSharedMap = getContext().getStageRunnerSharedMap();
+      synchronized (runnerSharedMap) {
+        try {
+          // Releases the off-heap memory once the last runner is done with the index
+          hashIndex.close();
+        } catch (IOException e) {
+          LOG.error("Error closing de-duplication index: {}", e.toString(), e);
+        }
+        if (!hashIndex.isOpen()) {
+          runnerSharedMap.remove(INDEX_KEY);
+        }
+      }
+      hashIndex = null;
+    }
+    super.destroy();
+  }
+
 }
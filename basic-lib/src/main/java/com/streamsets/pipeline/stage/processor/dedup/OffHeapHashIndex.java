@@ -0,0 +1,424 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Set of 128-bit hashes kept outside of the Java heap, either in direct memory or in a memory mapped file (in which
+ * case the set survives restarts).
+ *
+ * Hashes are stored in a ring in insertion order, so that the oldest one can be evicted once the ring is full (record
+ * count window) or once it is older than the time window. Lookups go through an open addressing table (linear
+ * probing, backward shift deletion) of ring positions. With the time window disabled an entry takes about 21 bytes
+ * (16 bytes of hash plus the table slot), the time window adds 4 more bytes per entry.
+ *
+ * All methods are synchronized, one index can be shared by all pipeline runners.
+ */
+final class OffHeapHashIndex implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffHeapHashIndex.class);
+
+  private static final long MAGIC = 0x5344434465447570L;
+  private static final int VERSION = 1;
+
+  // Header layout
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 8;
+  private static final int DIRTY_OFFSET = 12;
+  private static final int CAPACITY_OFFSET = 16;
+  private static final int TABLE_SIZE_OFFSET = 24;
+  private static final int HEAD_OFFSET = 32;
+  private static final int TAIL_OFFSET = 40;
+  private static final int EPOCH_OFFSET = 48;
+  private static final int TIME_WINDOW_OFFSET = 56;
+  private static final int HEADER_SIZE = 64;
+
+  private static final int HASH_SIZE = 16;
+  private static final int TIME_SIZE = 4;
+  private static final int SLOT_SIZE = 4;
+
+  private final int capacity;
+  private final int timeWindowSecs;
+  private final long tableSize;
+  private final long timesOffset;
+  private final long tableOffset;
+  private final Memory memory;
+  private final long epochMillis;
+
+  // Ring positions grow forever, the ring index is position % capacity
+  private long head;
+  private long tail;
+  private int references = 1;
+
+  private OffHeapHashIndex(int capacity, int timeWindowSecs, File file) throws IOException {
+    Preconditions.checkArgument(capacity > 0, "capacity must be greater than zero");
+    this.capacity = capacity;
+    this.timeWindowSecs = timeWindowSecs;
+    // Keeps the load factor of the table at 0.75
+    this.tableSize = capacity + capacity / 3L + 1;
+    this.timesOffset = HEADER_SIZE + (long) HASH_SIZE * capacity;
+    this.tableOffset = timesOffset + (timeWindowSecs > 0 ? (long) TIME_SIZE * capacity : 0);
+    long size = tableOffset + SLOT_SIZE * tableSize;
+
+    if (file == null) {
+      memory = Memory.allocate(size);
+    } else {
+      boolean existing = file.exists() && file.length() == size;
+      memory = Memory.map(file, size);
+      if (existing && !isCompatible()) {
+        LOG.info("Existing de-duplication index '{}' was created with different settings, starting empty", file);
+        memory.clear();
+        existing = false;
+      }
+      if (existing) {
+        head = memory.getLong(HEAD_OFFSET);
+        tail = memory.getLong(TAIL_OFFSET);
+        if (memory.getInt(DIRTY_OFFSET) != 0) {
+          LOG.warn("De-duplication index '{}' was not closed properly, rebuilding it", file);
+          rebuildTable();
+        }
+        LOG.info("Loaded {} hashes from de-duplication index '{}'", tail - head, file);
+      }
+    }
+
+    if (head == 0 && tail == 0) {
+      memory.putLong(MAGIC_OFFSET, MAGIC);
+      memory.putInt(VERSION_OFFSET, VERSION);
+      memory.putLong(CAPACITY_OFFSET, capacity);
+      memory.putLong(TABLE_SIZE_OFFSET, tableSize);
+      memory.putLong(EPOCH_OFFSET, System.currentTimeMillis());
+      memory.putInt(TIME_WINDOW_OFFSET, timeWindowSecs);
+    }
+    epochMillis = memory.getLong(EPOCH_OFFSET);
+    memory.putInt(DIRTY_OFFSET, 1);
+  }
+
+  /**
+   * Creates an index in direct memory.
+   */
+  static OffHeapHashIndex create(int capacity, int timeWindowSecs) throws IOException {
+    return new OffHeapHashIndex(capacity, timeWindowSecs, null);
+  }
+
+  /**
+   * Creates an index in the given file, or loads it if the file exists and was created with the same settings.
+   */
+  static OffHeapHashIndex open(int capacity, int timeWindowSecs, File file) throws IOException {
+    Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+    return new OffHeapHashIndex(capacity, timeWindowSecs, file);
+  }
+
+  /**
+   * Adds the hash unless it is already present.
+   *
+   * @return true if the hash was added, false if it was already in the index.
+   */
+  synchronized boolean add(long hash1, long hash2, long nowMillis) {
+    Preconditions.checkState(references > 0, "Index is closed");
+    int now = (int) ((nowMillis - epochMillis) / 1000);
+    if (timeWindowSecs > 0) {
+      // Times are kept in whole seconds, an entry expires between timeWindowSecs and timeWindowSecs + 1 seconds
+      while (head < tail && memory.getInt(timeOffset(head % capacity)) < now - timeWindowSecs) {
+        evictHead();
+      }
+    }
+
+    long slot = home(hash1);
+    int entry;
+    while ((entry = memory.getInt(slotOffset(slot))) != 0) {
+      long hashOffset = hashOffset(entry - 1);
+      if (memory.getLong(hashOffset) == hash1 && memory.getLong(hashOffset + 8) == hash2) {
+        return false;
+      }
+      slot = next(slot);
+    }
+
+    if (tail - head == capacity) {
+      evictHead();
+      // Deletion might have shifted other entries into the probe sequence
+      slot = home(hash1);
+      while (memory.getInt(slotOffset(slot)) != 0) {
+        slot = next(slot);
+      }
+    }
+
+    int index = (int) (tail % capacity);
+    memory.putLong(hashOffset(index), hash1);
+    memory.putLong(hashOffset(index) + 8, hash2);
+    if (timeWindowSecs > 0) {
+      memory.putInt(timeOffset(index), now);
+    }
+    memory.putInt(slotOffset(slot), index + 1);
+    tail++;
+    memory.putLong(TAIL_OFFSET, tail);
+    return true;
+  }
+
+  synchronized long size() {
+    return tail - head;
+  }
+
+  /**
+   * Adds a user of a shared index, each of them must call {@link #close()}.
+   */
+  synchronized OffHeapHashIndex retain() {
+    Preconditions.checkState(references > 0, "Index is closed");
+    references++;
+    return this;
+  }
+
+  synchronized boolean isOpen() {
+    return references > 0;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (references > 0 && --references == 0) {
+      memory.putInt(DIRTY_OFFSET, 0);
+      memory.close();
+    }
+  }
+
+  private boolean isCompatible() {
+    return memory.getLong(MAGIC_OFFSET) == MAGIC &&
+        memory.getInt(VERSION_OFFSET) == VERSION &&
+        memory.getLong(CAPACITY_OFFSET) == capacity &&
+        memory.getLong(TABLE_SIZE_OFFSET) == tableSize &&
+        memory.getInt(TIME_WINDOW_OFFSET) == timeWindowSecs;
+  }
+
+  private void evictHead() {
+    int index = (int) (head % capacity);
+    long slot = home(memory.getLong(hashOffset(index)));
+    while (memory.getInt(slotOffset(slot)) != index + 1) {
+      slot = next(slot);
+    }
+    // Backward shift deletion, moves entries that would not be reachable anymore into the freed slot
+    long free = slot;
+    long current = next(slot);
+    int entry;
+    while ((entry = memory.getInt(slotOffset(current))) != 0) {
+      long entryHome = home(memory.getLong(hashOffset(entry - 1)));
+      boolean reachable = (current > free) ? (entryHome > free && entryHome <= current)
+          : (entryHome > free || entryHome <= current);
+      if (!reachable) {
+        memory.putInt(slotOffset(free), entry);
+        free = current;
+      }
+      current = next(current);
+    }
+    memory.putInt(slotOffset(free), 0);
+    head++;
+    memory.putLong(HEAD_OFFSET, head);
+  }
+
+  private void rebuildTable() {
+    for (long slot = 0; slot < tableSize; slot++) {
+      memory.putInt(slotOffset(slot), 0);
+    }
+    for (long position = head; position < tail; position++) {
+      int index = (int) (position % capacity);
+      long slot = home(memory.getLong(hashOffset(index)));
+      while (memory.getInt(slotOffset(slot)) != 0) {
+        slot = next(slot);
+      }
+      memory.putInt(slotOffset(slot), index + 1);
+    }
+  }
+
+  private long home(long hash1) {
+    // Maps the upper 32 bits of the hash uniformly to [0, tableSize) without a division
+    return ((hash1 >>> 32) * tableSize) >>> 32;
+  }
+
+  private long next(long slot) {
+    return (slot + 1 == tableSize) ? 0 : slot + 1;
+  }
+
+  private long hashOffset(int index) {
+    return HEADER_SIZE + (long) HASH_SIZE * index;
+  }
+
+  private long timeOffset(long index) {
+    return timesOffset + TIME_SIZE * index;
+  }
+
+  private long slotOffset(long slot) {
+    return tableOffset + SLOT_SIZE * slot;
+  }
+
+  /**
+   * Memory split into pages, a single ByteBuffer can't address more than 2GB. Values never cross pages as all of
+   * them are aligned to their size.
+   */
+  private static final class Memory {
+    private static final int PAGE_SHIFT = 30;
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+    private final ByteBuffer[] pages;
+    private final FileChannel channel;
+
+    private Memory(ByteBuffer[] pages, FileChannel channel) {
+      this.pages = pages;
+      this.channel = channel;
+    }
+
+    static Memory allocate(long size) {
+      ByteBuffer[] pages = new ByteBuffer[pageCount(size)];
+      for (int i = 0; i < pages.length; i++) {
+        pages[i] = ByteBuffer.allocateDirect(pageSize(size, i)).order(ByteOrder.nativeOrder());
+      }
+      return new Memory(pages, null);
+    }
+
+    static Memory map(File file, long size) throws IOException {
+      FileChannel channel = FileChannel.open(
+          file.toPath(),
+          StandardOpenOption.CREATE,
+          StandardOpenOption.READ,
+          StandardOpenOption.WRITE
+      );
+      try {
+        if (channel.size() != size) {
+          channel.truncate(0);
+        }
+        ByteBuffer[] pages = new ByteBuffer[pageCount(size)];
+        for (int i = 0; i < pages.length; i++) {
+          pages[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i << PAGE_SHIFT, pageSize(size, i))
+              .order(ByteOrder.nativeOrder());
+        }
+        return new Memory(pages, channel);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    private static int pageCount(long size) {
+      return (int) ((size + PAGE_MASK) >>> PAGE_SHIFT);
+    }
+
+    private static int pageSize(long size, int page) {
+      return (int) Math.min(1L << PAGE_SHIFT, size - ((long) page << PAGE_SHIFT));
+    }
+
+    long getLong(long offset) {
+      return pages[(int) (offset >>> PAGE_SHIFT)].getLong((int) (offset & PAGE_MASK));
+    }
+
+    void putLong(long offset, long value) {
+      pages[(int) (offset >>> PAGE_SHIFT)].putLong((int) (offset & PAGE_MASK), value);
+    }
+
+    int getInt(long offset) {
+      return pages[(int) (offset >>> PAGE_SHIFT)].getInt((int) (offset & PAGE_MASK));
+    }
+
+    void putInt(long offset, int value) {
+      pages[(int) (offset >>> PAGE_SHIFT)].putInt((int) (offset & PAGE_MASK), value);
+    }
+
+    void clear() {
+      for (ByteBuffer page : pages) {
+        for (int i = 0; i < page.capacity(); i += 8) {
+          page.putLong(i, 0);
+        }
+      }
+    }
+
+    /**
+     * Writes mapped pages back to the file and releases all pages right away, rather than once the garbage collector
+     * gets to them. Pages must not be accessed afterwards.
+     */
+    void close() throws IOException {
+      try {
+        for (int i = 0; i < pages.length; i++) {
+          if (channel != null) {
+            ((MappedByteBuffer) pages[i]).force();
+          }
+          BufferCleaner.clean(pages[i]);
+          // Any further access fails with NullPointerException instead of touching released memory
+          pages[i] = null;
+        }
+      } finally {
+        if (channel != null) {
+          channel.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Releases the native memory of direct and memory mapped buffers, through sun.misc.Unsafe.invokeCleaner() on Java 9
+   * and later and through the cleaner of the buffer on Java 8. If neither is accessible the buffer is left to the
+   * garbage collector.
+   */
+  private static final class BufferCleaner {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        unsafe = theUnsafe.get(null);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // Java 8, the cleaner of each buffer is used
+        invokeCleaner = null;
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+    }
+
+    static void clean(ByteBuffer buffer) {
+      if (buffer == null || !buffer.isDirect()) {
+        return;
+      }
+      try {
+        if (INVOKE_CLEANER != null) {
+          INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } else {
+          Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+          cleanerMethod.setAccessible(true);
+          Object cleaner = cleanerMethod.invoke(buffer);
+          if (cleaner != null) {
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+          }
+        }
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        LOG.debug("Can't release buffer, leaving it to the garbage collector: {}", e.toString());
+      }
+    }
+  }
+}
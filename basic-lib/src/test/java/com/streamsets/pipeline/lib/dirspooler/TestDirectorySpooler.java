@@ -826,4 +826,84 @@ public class TestDirectorySpooler {
 
     spooler.destroy();
   }
+
+  @Test
+  public void testWatchServiceDiscovery() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+
+    File logFile1 = new File(spoolDir, "x1.log").getAbsoluteFile();
+    new FileWriter(logFile1).close();
+
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setFileDiscoveryMode(FileDiscoveryMode.WATCH_SERVICE);
+
+    DirectorySpooler spooler = builder.build();
+
+    spooler.init("");
+    try {
+      Assert.assertNull(spooler.finder);
+      Assert.assertNotNull(spooler.watcher);
+
+      // found by the initial scan
+      Assert.assertEquals(logFile1.getAbsolutePath(), spooler.poolForFile(intervalMillis, TimeUnit.MILLISECONDS).getAbsolutePath());
+
+      // found by the watcher, non matching files are ignored
+      new FileWriter(new File(spoolDir, "y2.log")).close();
+      File logFile2 = new File(spoolDir, "x2.log").getAbsoluteFile();
+      new FileWriter(logFile2).close();
+      Assert.assertEquals(logFile2.getAbsolutePath(), spooler.poolForFile(3 * intervalMillis, TimeUnit.MILLISECONDS).getAbsolutePath());
+      Assert.assertNull(spooler.poolForFile(0, TimeUnit.MILLISECONDS));
+    } finally {
+      spooler.destroy();
+    }
+    Assert.assertNull(spooler.watcher);
+  }
+
+  @Test
+  public void testWatchServiceDiscoverySubdirectories() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setUseLastModifiedTimestamp(true)
+        .processSubdirectories(true)
+        .setFileDiscoveryMode(FileDiscoveryMode.WATCH_SERVICE);
+
+    DirectorySpooler spooler = builder.build();
+
+    spooler.init("");
+    try {
+      // the file could be created before the new directory is registered, it has to be found either way
+      File subDir = new File(spoolDir, "sub");
+      assertTrue(subDir.mkdirs());
+      File logFile = new File(subDir, "x1.log").getAbsoluteFile();
+      new FileWriter(logFile).close();
+      Assert.assertEquals(logFile.getAbsolutePath(), spooler.poolForFile(3 * intervalMillis, TimeUnit.MILLISECONDS).getAbsolutePath());
+    } finally {
+      spooler.destroy();
+    }
+  }
+
+  @Test
+  public void testWatchServiceFallsBackToPolling() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setFileDiscoveryMode(FileDiscoveryMode.WATCH_SERVICE)
+        .setWrappedFileSystem(new LocalFileSystem("x[0-9]*.log", GLOB) {
+          @Override
+          public boolean supportsWatchService() {
+            return false;
+          }
+        });
+
+    DirectorySpooler spooler = builder.build();
+
+    spooler.init("");
+    Assert.assertNotNull(spooler.finder);
+    Assert.assertNull(spooler.watcher);
+    spooler.destroy();
+  }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.lib.dirspooler.FileSplit.Range;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+import static com.streamsets.pipeline.lib.dirspooler.PathMatcherMode.GLOB;
+
+public class TestFileSplit {
+  private WrappedFileSystem fs = new LocalFileSystem("*", GLOB);
+  private WrappedFile file;
+
+  @Before
+  public void setUp() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    File f = new File(dir, "file.txt");
+    // 10 lines of 10 bytes
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sb.append("line-").append(i).append("...\n");
+    }
+    Files.write(f.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+    file = fs.getFile(f.getAbsolutePath());
+  }
+
+  private static String read(Range range) throws Exception {
+    try (InputStream is = range.open()) {
+      return IOUtils.toString(is, StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void testCreate() throws Exception {
+    FileSplit split = FileSplit.create(file, "file.txt", 25);
+    List<Range> ranges = split.getRanges();
+    Assert.assertEquals(4, ranges.size());
+    Assert.assertEquals(0, ranges.get(0).getStart());
+    Assert.assertEquals(30, ranges.get(0).getEnd());
+    Assert.assertEquals(30, ranges.get(1).getStart());
+    Assert.assertEquals(60, ranges.get(1).getEnd());
+    Assert.assertEquals(90, ranges.get(3).getStart());
+    Assert.assertEquals(100, ranges.get(3).getEnd());
+    Assert.assertEquals("line-0...\nline-1...\nline-2...\n", read(ranges.get(0)));
+    Assert.assertEquals("line-9...\n", read(ranges.get(3)));
+
+    // a range size ending right on a line feed does not add the next line
+    split = FileSplit.create(file, "file.txt", 19);
+    Assert.assertEquals(20, split.getRanges().get(0).getEnd());
+
+    split = FileSplit.create(file, "file.txt", 200);
+    Assert.assertEquals(1, split.getRanges().size());
+    Assert.assertEquals(100, split.getRanges().get(0).getEnd());
+  }
+
+  @Test
+  public void testRangesAndOffsets() throws Exception {
+    FileSplit split = FileSplit.create(file, "file.txt", 45);
+    Range first = split.nextRange();
+    Range second = split.nextRange();
+    Assert.assertNotNull(second);
+    Assert.assertNull(split.nextRange());
+    Assert.assertFalse(split.hasNextRange());
+
+    Offset offset = split.getOffset(first, "10");
+    Assert.assertEquals("file.txt", offset.getFile());
+    Assert.assertEquals("0:50:10,50:100:0", offset.getRanges());
+
+    Assert.assertFalse(split.update(first, "-1", 5, 0));
+    Assert.assertEquals("0:50:-1,50:100:20", split.getOffset(second, "20").getRanges());
+    Assert.assertFalse(split.update(second, "20", 2, 1));
+    Assert.assertTrue(split.update(second, "-1", 3, 0));
+    Assert.assertEquals(10, split.getRecordCount());
+    Assert.assertEquals(1, split.getErrorCount());
+  }
+
+  @Test
+  public void testRestore() throws Exception {
+    FileSplit split = FileSplit.restore(file, "file.txt", "0:50:-1,50:100:20");
+    Range range = split.nextRange();
+    Assert.assertEquals(50, range.getStart());
+    Assert.assertEquals("20", range.getOffset());
+    Assert.assertNull(split.nextRange());
+    Assert.assertTrue(split.update(range, "-1", 3, 0));
+  }
+
+  @Test
+  public void testFail() throws Exception {
+    FileSplit split = FileSplit.create(file, "file.txt", 25);
+    Assert.assertNotNull(split.nextRange());
+    Assert.assertTrue(split.fail());
+    Assert.assertFalse(split.fail());
+    Assert.assertFalse(split.hasNextRange());
+    Assert.assertNull(split.nextRange());
+  }
+
+  @Test
+  public void testIsSplittable() {
+    SpoolDirConfigBean conf = new SpoolDirConfigBean();
+    conf.dataFormat = DataFormat.JSON;
+    conf.dataFormatConfig.jsonContent = JsonMode.MULTIPLE_OBJECTS;
+    Assert.assertTrue(FileSplit.isSplittable(conf));
+    conf.dataFormatConfig.jsonContent = JsonMode.ARRAY_OBJECTS;
+    Assert.assertFalse(FileSplit.isSplittable(conf));
+
+    conf.dataFormat = DataFormat.DELIMITED;
+    conf.dataFormatConfig.csvHeader = CsvHeader.WITH_HEADER;
+    Assert.assertFalse(FileSplit.isSplittable(conf));
+    conf.dataFormatConfig.csvHeader = CsvHeader.NO_HEADER;
+    Assert.assertTrue(FileSplit.isSplittable(conf));
+
+    conf.dataFormatConfig.charset = "ISO-8859-1";
+    Assert.assertTrue(FileSplit.isSplittable(conf));
+    conf.dataFormatConfig.charset = "UTF-16";
+    Assert.assertFalse(FileSplit.isSplittable(conf));
+    conf.dataFormatConfig.charset = "not-a-charset";
+    Assert.assertFalse(FileSplit.isSplittable(conf));
+    conf.dataFormatConfig.charset = "UTF-8";
+
+    conf.dataFormat = DataFormat.AVRO;
+    Assert.assertFalse(FileSplit.isSplittable(conf));
+  }
+}
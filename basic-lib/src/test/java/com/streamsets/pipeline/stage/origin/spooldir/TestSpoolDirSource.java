@@ -55,9 +55,14 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
@@ -1097,4 +1102,235 @@ public class TestSpoolDirSource {
       runner.runDestroy();
     }
   }
+
+  // lines of 16 bytes, with a 1 MB split size each range holds 65537 lines and the file has 3 ranges
+  private static final int SPLIT_FILE_LINES = 150000;
+  private static final int SPLIT_RANGE_LINES = 65537;
+  private static final long SPLIT_RANGE_BYTES = SPLIT_RANGE_LINES * 16L;
+
+  private SpoolDirConfigBean createSplitConf(String spoolDir, DataFormat dataFormat) {
+    SpoolDirConfigBean conf = new SpoolDirConfigBean();
+    conf.dataFormat = dataFormat;
+    conf.spoolDir = spoolDir;
+    conf.batchSize = 1000;
+    conf.overrunLimit = 100;
+    conf.poolingTimeoutSecs = 1;
+    conf.filePattern = "file-[0-9].log";
+    conf.pathMatcherMode = PathMatcherMode.GLOB;
+    conf.maxSpoolFiles = 10;
+    conf.initialFileToProcess = null;
+    conf.dataFormatConfig.compression = Compression.NONE;
+    conf.dataFormatConfig.filePatternInArchive = "*";
+    conf.dataFormatConfig.jsonContent = JsonMode.MULTIPLE_OBJECTS;
+    conf.errorArchiveDir = createTestDir();
+    conf.postProcessing = PostProcessingOptions.ARCHIVE;
+    conf.archiveDir = createTestDir();
+    conf.retentionTimeMins = 10;
+    conf.allowLateDirectory = false;
+    conf.dataFormatConfig.textMaxLineLen = 100;
+    conf.dataFormatConfig.onParseError = OnParseError.ERROR;
+    conf.dataFormatConfig.maxStackTraceLines = 0;
+    conf.numberOfThreads = 3;
+    conf.splitSizeMB = 1;
+    return conf;
+  }
+
+  private File createSplitFile(String spoolDir, String format, int badLine) throws IOException {
+    List<String> lines = new ArrayList<>(SPLIT_FILE_LINES);
+    for (int i = 0; i < SPLIT_FILE_LINES; i++) {
+      lines.add(i == badLine ? "{aaaaaaaaaaaaaa" : String.format(format, i));
+    }
+    File file = new File(spoolDir, "file-0.log");
+    try (FileOutputStream outputStream = new FileOutputStream(file)) {
+      IOUtils.writeLines(lines, "\n", outputStream);
+    }
+    Assert.assertEquals(SPLIT_FILE_LINES * 16L, file.length());
+    return file;
+  }
+
+  private static List<EventRecord> getEvents(PushSourceRunner runner, String type) throws StageException {
+    List<EventRecord> events = new ArrayList<>();
+    for (EventRecord event : runner.getEventRecords()) {
+      if (type.equals(event.getEventType())) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  @Test
+  public void testSplitFileReadInParallel() throws Exception {
+    SpoolDirConfigBean conf = createSplitConf(createTestDir(), DataFormat.TEXT);
+    File file = createSplitFile(conf.spoolDir, "%015d", -1);
+    String finishedOffset = new Offset(OFFSET_VERSION_ONE, file.getAbsolutePath(), "-1").getOffsetString();
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SpoolDirDSource.class, source).addOutputLane("lane").build();
+
+    AtomicInteger batchCount = new AtomicInteger(0);
+    final List<Record> records = Collections.synchronizedList(new ArrayList<>(SPLIT_FILE_LINES));
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    // the first threads reading wait for a second one, so ranges are read at the same time
+    final CountDownLatch parallel = new CountDownLatch(2);
+    runner.runInit();
+
+    try {
+      runner.runProduce(new HashMap<>(), conf.batchSize, output -> {
+        batchCount.incrementAndGet();
+        List<Record> batch = output.getRecords().get("lane");
+        records.addAll(batch);
+        if (!batch.isEmpty() && threads.add(Thread.currentThread().getName())) {
+          parallel.countDown();
+          try {
+            parallel.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        }
+
+        if (finishedOffset.equals(output.getNewOffset()) || batchCount.get() > 1000) {
+          runner.setStop();
+        }
+      });
+
+      runner.waitOnProduce();
+
+      Assert.assertEquals(0, parallel.getCount());
+      Assert.assertTrue(threads.size() > 1);
+      Assert.assertEquals(SPLIT_FILE_LINES, records.size());
+      Set<String> lines = new HashSet<>();
+      for (Record record : records) {
+        lines.add(record.get("/text").getValueAsString());
+      }
+      Assert.assertEquals(SPLIT_FILE_LINES, lines.size());
+
+      Assert.assertEquals(1, getEvents(runner, "new-file").size());
+      List<EventRecord> finished = getEvents(runner, "finished-file");
+      Assert.assertEquals(1, finished.size());
+      Assert.assertEquals(SPLIT_FILE_LINES, finished.get(0).get("/record-count").getValueAsLong());
+      Assert.assertEquals(0, finished.get(0).get("/error-count").getValueAsLong());
+      Assert.assertEquals(1, runner.getLineageEvents().size());
+
+      // post processed once, the file was archived
+      Assert.assertFalse(file.exists());
+      Assert.assertTrue(new File(conf.archiveDir, file.getName()).exists());
+      Assert.assertEquals(0, new File(conf.errorArchiveDir).list().length);
+    } finally {
+      source.destroy();
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testSplitFileRestartFromRangeOffsets() throws Exception {
+    SpoolDirConfigBean conf = createSplitConf(createTestDir(), DataFormat.TEXT);
+    File file = createSplitFile(conf.spoolDir, "%015d", -1);
+    String finishedOffset = new Offset(OFFSET_VERSION_ONE, file.getAbsolutePath(), "-1").getOffsetString();
+
+    // the first range was read, the second one up to its 1000th line and the third one not at all
+    int resumeLine = SPLIT_RANGE_LINES + 1000;
+    String ranges = Utils.format(
+        "0:{}:-1,{}:{}:{},{}:{}:0",
+        SPLIT_RANGE_BYTES,
+        SPLIT_RANGE_BYTES,
+        2 * SPLIT_RANGE_BYTES,
+        1000 * 16,
+        2 * SPLIT_RANGE_BYTES,
+        file.length()
+    );
+    Map<String, String> lastSourceOffsetMap = ImmutableMap.of(
+        SpoolDirSource.OFFSET_VERSION, OFFSET_VERSION_ONE,
+        file.getAbsolutePath(), new Offset(OFFSET_VERSION_ONE, file.getAbsolutePath(), "0", ranges).getOffsetString()
+    );
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SpoolDirDSource.class, source).addOutputLane("lane").build();
+
+    AtomicInteger batchCount = new AtomicInteger(0);
+    final List<Record> records = Collections.synchronizedList(new ArrayList<>(SPLIT_FILE_LINES));
+    runner.runInit();
+
+    try {
+      runner.runProduce(lastSourceOffsetMap, conf.batchSize, output -> {
+        batchCount.incrementAndGet();
+        records.addAll(output.getRecords().get("lane"));
+
+        if (finishedOffset.equals(output.getNewOffset()) || batchCount.get() > 1000) {
+          runner.setStop();
+        }
+      });
+
+      runner.waitOnProduce();
+
+      // each range resumed from its own offset, nothing before the offsets was read again
+      Set<Integer> lines = new HashSet<>();
+      for (Record record : records) {
+        lines.add(Integer.parseInt(record.get("/text").getValueAsString()));
+      }
+      Assert.assertEquals(SPLIT_FILE_LINES - resumeLine, records.size());
+      Assert.assertEquals(SPLIT_FILE_LINES - resumeLine, lines.size());
+      Assert.assertEquals(resumeLine, (int) Collections.min(lines));
+      Assert.assertEquals(SPLIT_FILE_LINES - 1, (int) Collections.max(lines));
+
+      Assert.assertEquals(1, getEvents(runner, "new-file").size());
+      List<EventRecord> finished = getEvents(runner, "finished-file");
+      Assert.assertEquals(1, finished.size());
+      Assert.assertEquals(SPLIT_FILE_LINES - resumeLine, finished.get(0).get("/record-count").getValueAsLong());
+
+      Assert.assertFalse(file.exists());
+      Assert.assertTrue(new File(conf.archiveDir, file.getName()).exists());
+    } finally {
+      source.destroy();
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testSplitFileParseErrorSendsFileToError() throws Exception {
+    SpoolDirConfigBean conf = createSplitConf(createTestDir(), DataFormat.JSON);
+    // the bad line is in the second range
+    File file = createSplitFile(conf.spoolDir, "{\"a\":\"%07d\"}", SPLIT_RANGE_LINES + 5000);
+    File errorDir = new File(conf.errorArchiveDir);
+
+    SpoolDirSource source = new SpoolDirSource(conf);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SpoolDirDSource.class, source)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("lane")
+        .build();
+
+    AtomicInteger batchCount = new AtomicInteger(0);
+    final List<Record> records = Collections.synchronizedList(new ArrayList<>(SPLIT_FILE_LINES));
+    runner.runInit();
+
+    try {
+      runner.runProduce(new HashMap<>(), conf.batchSize, output -> {
+        batchCount.incrementAndGet();
+        records.addAll(output.getRecords().get("lane"));
+
+        // the file is moved to the error directory before the batch of the failed range
+        if (errorDir.list().length > 0 || batchCount.get() > 1000) {
+          runner.setStop();
+        }
+      });
+
+      runner.waitOnProduce();
+
+      Assert.assertTrue(records.size() < SPLIT_FILE_LINES);
+      Assert.assertEquals(1, runner.getErrors().size());
+      Assert.assertTrue(runner.getErrors().get(0).startsWith("SPOOLDIR_01"));
+
+      // the whole file went to the error directory once, without being post processed or finished
+      Assert.assertFalse(file.exists());
+      Assert.assertArrayEquals(new String[]{file.getName()}, errorDir.list());
+      Assert.assertEquals(0, new File(conf.archiveDir).list().length);
+      Assert.assertEquals(0, getEvents(runner, "finished-file").size());
+
+      // the range offsets of the failed file are not kept
+      Assert.assertFalse(runner.getOffsets().containsKey(file.getName()));
+      Assert.assertFalse(runner.getOffsets().containsKey(file.getAbsolutePath()));
+    } finally {
+      source.destroy();
+      runner.runDestroy();
+    }
+  }
 }
@@ -107,4 +107,31 @@ public class TestSpoolDirSourceUpgrader {
 
     UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "preserveRootElement", false);
   }
+
+  @Test
+  public void testV12ToV13() {
+    Mockito.doReturn(12).when(context).getFromVersion();
+    Mockito.doReturn(13).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "conf.dataFormatConfig.jsonParser", "LEGACY_PARSER");
+  }
+
+  @Test
+  public void testV13ToV14() {
+    Mockito.doReturn(13).when(context).getFromVersion();
+    Mockito.doReturn(14).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "conf.fileDiscoveryMode", "POLLING");
+  }
+
+  @Test
+  public void testV14ToV15() {
+    Mockito.doReturn(14).when(context).getFromVersion();
+    Mockito.doReturn(15).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "conf.splitSizeMB", 0);
+  }
 }
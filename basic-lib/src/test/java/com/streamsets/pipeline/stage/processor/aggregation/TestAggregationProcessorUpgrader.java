@@ -16,9 +16,14 @@
 package com.streamsets.pipeline.stage.processor.aggregation;
 
 import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.StageUpgrader;
+import com.streamsets.pipeline.config.upgrade.UpgraderTestUtils;
+import com.streamsets.pipeline.upgrader.SelectorStageUpgrader;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,4 +46,19 @@ public class TestAggregationProcessorUpgrader {
     );
     Assert.assertEquals(true, config.getValue());
   }
+
+  @Test
+  public void testV2ToV3() throws Exception {
+    URL yamlResource = ClassLoader.getSystemClassLoader().getResource("upgrader/AggregationDProcessor.yaml");
+    StageUpgrader upgrader = new SelectorStageUpgrader("stage", new AggregationProcessorUpgrader(), yamlResource);
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(2).when(context).getFromVersion();
+    Mockito.doReturn(3).when(context).getToVersion();
+
+    List<Config> configs = upgrader.upgrade(new ArrayList<>(), context);
+
+    // existing pipelines keep unbounded, single stripe, group-by aggregations
+    UpgraderTestUtils.assertExists(configs, "config.maxGroups", 0);
+    UpgraderTestUtils.assertExists(configs, "config.accumulatorStripes", 1);
+  }
 }
@@ -80,4 +80,20 @@ public class TestAggregationFunction {
     Assert.assertEquals("SUM (int)", AggregationFunction.SUM_INTEGER.getLabel());
     Assert.assertEquals(LongSumAggregator.class, AggregationFunction.SUM_INTEGER.getAggregatorClass());
   }
+
+  @Test
+  public void testDistinctCount() {
+    Assert.assertEquals("DISTINCT COUNT (approx)", AggregationFunction.DISTINCT_COUNT.getLabel());
+    Assert.assertEquals(DistinctCountAggregator.class, AggregationFunction.DISTINCT_COUNT.getAggregatorClass());
+  }
+
+  @Test
+  public void testPercentiles() {
+    Assert.assertEquals("P50 (double, approx)", AggregationFunction.P50_DOUBLE.getLabel());
+    Assert.assertEquals(DoubleP50Aggregator.class, AggregationFunction.P50_DOUBLE.getAggregatorClass());
+    Assert.assertEquals("P95 (double, approx)", AggregationFunction.P95_DOUBLE.getLabel());
+    Assert.assertEquals(DoubleP95Aggregator.class, AggregationFunction.P95_DOUBLE.getAggregatorClass());
+    Assert.assertEquals("P99 (double, approx)", AggregationFunction.P99_DOUBLE.getLabel());
+    Assert.assertEquals(DoubleP99Aggregator.class, AggregationFunction.P99_DOUBLE.getAggregatorClass());
+  }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.streamsets.pipeline.stage.processor.aggregation.WindowType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDistinctCountAggregator {
+
+  @Test
+  public void testAggregator() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    DistinctCountAggregator aggregator = aggregators.createSimple("a", DistinctCountAggregator.class);
+    aggregators.start(1);
+
+    Aggregators aggregatorsA = new Aggregators(2, WindowType.ROLLING);
+    DistinctCountAggregator aggregatorA = aggregatorsA.createSimple("a", DistinctCountAggregator.class);
+    aggregatorsA.start(1);
+
+    Assert.assertEquals("a", aggregator.getName());
+    Assert.assertEquals(String.class, aggregator.getInputType());
+    Assert.assertNotNull(aggregator.createAggregatorData(1L));
+
+    Assert.assertEquals(0L, aggregator.get());
+
+    aggregator.process("x");
+    aggregator.process("y");
+    aggregator.process("x");
+    aggregator.process(null);
+    Assert.assertEquals(2L, aggregator.get());
+
+    Assert.assertEquals("a", aggregator.getAggregatable().getName());
+    Assert.assertEquals(
+        DistinctCountAggregator.DistinctCountAggregatable.class.getSimpleName(),
+        aggregator.getAggregatable().getType()
+    );
+    Assert.assertEquals(2L,
+        ((DistinctCountAggregator.DistinctCountAggregatable) aggregator.getAggregatable()).getCount()
+    );
+
+    aggregatorA.process("y");
+    aggregatorA.process("z");
+
+    aggregatorA.aggregate(aggregator.getAggregatable());
+    Assert.assertEquals(3L, aggregatorA.get());
+
+    aggregatorsA.stop();
+
+    aggregators.stop();
+  }
+
+  @Test
+  public void testEstimate() {
+    HyperLogLog estimator = new HyperLogLog();
+    HyperLogLog other = new HyperLogLog();
+    for (int i = 0; i < 100000; i++) {
+      estimator.add("v" + i);
+      other.add("v" + (i + 50000));
+    }
+    Assert.assertEquals(100000, estimator.estimate(), 100000 * 0.05);
+
+    estimator.merge(other);
+    Assert.assertEquals(150000, estimator.estimate(), 150000 * 0.05);
+
+    // exact below the conversion to registers, estimated once merged into registers
+    HyperLogLog small = new HyperLogLog();
+    for (int i = 0; i < 100; i++) {
+      small.add("s" + i);
+    }
+    Assert.assertEquals(100, small.estimate());
+    small.merge(estimator);
+    Assert.assertEquals(150100, small.estimate(), 150100 * 0.05);
+  }
+
+}
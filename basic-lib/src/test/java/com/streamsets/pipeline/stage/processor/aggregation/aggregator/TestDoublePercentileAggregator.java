@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
+
+import com.streamsets.pipeline.stage.processor.aggregation.WindowType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDoublePercentileAggregator {
+
+  @Test
+  public void testAggregator() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    DoubleP50Aggregator aggregator = aggregators.createSimple("a", DoubleP50Aggregator.class);
+    aggregators.start(1);
+
+    Aggregators aggregatorsA = new Aggregators(2, WindowType.ROLLING);
+    DoubleP50Aggregator aggregatorA = aggregatorsA.createSimple("a", DoubleP50Aggregator.class);
+    aggregatorsA.start(1);
+
+    Assert.assertEquals("a", aggregator.getName());
+    Assert.assertNotNull(aggregator.createAggregatorData(1L));
+
+    Assert.assertNull(aggregator.get());
+
+    aggregator.process(1d);
+    aggregator.process(2d);
+    aggregator.process(3d);
+    Assert.assertEquals(2d, (double) aggregator.get(), 2d * QuantileSketch.RELATIVE_ACCURACY);
+
+    Assert.assertEquals("a", aggregator.getAggregatable().getName());
+    Assert.assertEquals(
+        DoublePercentileAggregator.DoublePercentileAggregatable.class.getSimpleName(),
+        aggregator.getAggregatable().getType()
+    );
+    Assert.assertEquals(3L,
+        ((DoublePercentileAggregator.DoublePercentileAggregatable) aggregator.getAggregatable()).getCount()
+    );
+
+    aggregatorA.process(10d);
+    aggregatorA.process(20d);
+
+    aggregatorA.aggregate(aggregator.getAggregatable());
+    Assert.assertEquals(3d, (double) aggregatorA.get(), 3d * QuantileSketch.RELATIVE_ACCURACY);
+
+    aggregatorsA.stop();
+
+    aggregators.stop();
+  }
+
+  @Test
+  public void testSketch() {
+    QuantileSketch sketch = new QuantileSketch();
+    for (int i = -1000; i <= 10000; i++) {
+      sketch.add(i);
+    }
+    Assert.assertEquals(11001, sketch.getCount());
+    Assert.assertEquals(-1000d, sketch.getQuantile(0), 1000d * QuantileSketch.RELATIVE_ACCURACY);
+    Assert.assertEquals(0d, sketch.getQuantile(1000.5 / 11000), 0d);
+    Assert.assertEquals(4500d, sketch.getQuantile(0.5), 4500d * QuantileSketch.RELATIVE_ACCURACY);
+    Assert.assertEquals(9450d, sketch.getQuantile(0.95), 9450d * QuantileSketch.RELATIVE_ACCURACY);
+    Assert.assertEquals(10000d, sketch.getQuantile(1), 10000d * QuantileSketch.RELATIVE_ACCURACY);
+
+    QuantileSketch copy = sketch.copy();
+    copy.merge(sketch);
+    Assert.assertEquals(22002, copy.getCount());
+    Assert.assertEquals(4500d, copy.getQuantile(0.5), 4500d * QuantileSketch.RELATIVE_ACCURACY);
+  }
+
+  @Test
+  public void testSketchCollapsesLowestBuckets() {
+    QuantileSketch sketch = new QuantileSketch();
+    for (int exponent = -300; exponent <= 300; exponent++) {
+      sketch.add(Math.pow(10, exponent));
+    }
+    Assert.assertEquals(601, sketch.getCount());
+    Assert.assertEquals(1e300, sketch.getQuantile(1), 1e300 * QuantileSketch.RELATIVE_ACCURACY);
+    Assert.assertEquals(1e290, sketch.getQuantile(590.5 / 600), 1e290 * QuantileSketch.RELATIVE_ACCURACY);
+    // the lowest values were collapsed into the lowest bucket kept
+    Assert.assertTrue(sketch.getQuantile(0) > 1e200);
+  }
+
+}
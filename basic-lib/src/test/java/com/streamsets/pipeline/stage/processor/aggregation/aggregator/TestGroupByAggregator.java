@@ -21,6 +21,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.Map;
 
 public class TestGroupByAggregator {
 
@@ -70,4 +71,56 @@ public class TestGroupByAggregator {
     aggregators.stop();
   }
 
+
+  @Test
+  public void testMaxGroups() {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING, 2, 1);
+    GroupByAggregator aggregator = aggregators.createGroupBy("g", CountAggregator.class);
+    aggregators.start(1);
+
+    aggregator.process("a", 1L);
+    aggregator.process("b", 1L);
+    aggregator.process("c", 1L);
+    aggregator.process("d", 1L);
+    aggregator.process("a", 1L);
+    Assert.assertEquals(ImmutableMap.of("a", 2L, "b", 1L, GroupByAggregator.OVERFLOW_GROUP, 2L), aggregator.get());
+
+    // the limit applies per datawindow
+    aggregators.roll(2);
+    aggregator.process("c", 1L);
+    Assert.assertEquals(ImmutableMap.of("c", 1L), aggregator.get());
+
+    aggregators.stop();
+  }
+
+  @Test
+  public void testStripes() throws Exception {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING, 0, 4);
+    GroupByAggregator aggregator = aggregators.createGroupBy("g", CountAggregator.class);
+    aggregators.start(1);
+
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          aggregator.process((j % 2 == 0) ? "a" : "b", 1L);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(ImmutableMap.of("a", 4000L, "b", 4000L), aggregator.get());
+
+    GroupByAggregator.GroupByAggregatable aggregatable =
+        (GroupByAggregator.GroupByAggregatable) aggregator.getAggregatable();
+    Assert.assertEquals((Long) 4000L, ((CountAggregator.CounterAggregatable) aggregatable.getGroups().get("a")).getCount());
+
+    Map<Aggregator, AggregatorData> closed = aggregators.roll(2);
+    Assert.assertEquals(ImmutableMap.of("a", 4000L, "b", 4000L), closed.get(aggregator).get());
+
+    aggregators.stop();
+  }
+
 }
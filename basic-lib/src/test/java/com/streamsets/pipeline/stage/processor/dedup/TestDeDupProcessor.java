@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
@@ -27,12 +28,17 @@ import com.streamsets.pipeline.sdk.StageRunner;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 public class TestDeDupProcessor {
 
@@ -426,6 +432,89 @@ public class TestDeDupProcessor {
     }
   }
 
+  @Test
+  public void testOffHeapIndex() throws Exception {
+    Processor processor = new DeDupProcessor(3, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+        IndexType.OFF_HEAP, false, null);
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+    try {
+      List<Record> input = ImmutableList.of(
+          createRecordWithValue("a"),
+          createRecordWithValue("b"),
+          createRecordWithValue("a"),
+          createRecordWithValue("c"),
+          createRecordWithValue("d"),
+          createRecordWithValue("a")
+      );
+      StageRunner.Output output = runner.runProcess(input);
+      Assert.assertEquals(5, output.getRecords().get("unique").size());
+      Assert.assertEquals(1, output.getRecords().get("duplicate").size());
+      Assert.assertEquals("a", output.getRecords().get("duplicate").get(0).get("/value").getValueAsString());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testOffHeapIndexPersisted() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    for (int i = 0; i < 2; i++) {
+      Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+          IndexType.OFF_HEAP, true, dir.getAbsolutePath());
+      ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+          .addOutputLane("unique")
+          .addOutputLane("duplicate")
+          .build();
+      runner.runInit();
+      try {
+        StageRunner.Output output = runner.runProcess(ImmutableList.of(createRecordWithValue("a")));
+        // Second run of the pipeline still knows the record from the first one
+        Assert.assertEquals(i == 0 ? 1 : 0, output.getRecords().get("unique").size());
+        Assert.assertEquals(i == 0 ? 0 : 1, output.getRecords().get("duplicate").size());
+      } finally {
+        runner.runDestroy();
+      }
+    }
+  }
+
+  @Test
+  public void testOffHeapIndexInResourcesDir() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+        IndexType.OFF_HEAP, true, "");
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .setResourcesDir(dir.getPath())
+        .build();
+    runner.runInit();
+    try {
+      runner.runProcess(ImmutableList.of(createRecordWithValue("a")));
+    } finally {
+      runner.runDestroy();
+    }
+    try (Stream<Path> files = Files.walk(new File(dir, "dedup").toPath())) {
+      Assert.assertEquals(1, files.filter(path -> path.toString().endsWith(".index")).count());
+    }
+  }
+
+  @Test
+  public void testOffHeapIndexNoResourcesDir() throws Exception {
+    Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+        IndexType.OFF_HEAP, true, "");
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    List<Stage.ConfigIssue> issues = runner.runValidateConfigs();
+    Assert.assertEquals(1, issues.size());
+    Assert.assertTrue(issues.get(0).toString().contains(Errors.DEDUP_05.name()));
+  }
+
   private Record createRecord(String name, String anotherName) {
     Field name1 = Field.create(name);
     Field name2 = Field.create(anotherName);
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class TestOffHeapHashIndex {
+
+  @Test
+  public void testCountWindow() throws Exception {
+    try (OffHeapHashIndex index = OffHeapHashIndex.create(3, 0)) {
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(2, 2, 0));
+      Assert.assertFalse(index.add(1, 1, 0));
+      // Same first half, different second half is a different hash
+      Assert.assertTrue(index.add(1, 2, 0));
+      Assert.assertEquals(3, index.size());
+
+      // Evicts the oldest one
+      Assert.assertTrue(index.add(3, 3, 0));
+      Assert.assertEquals(3, index.size());
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertFalse(index.add(3, 3, 0));
+    }
+  }
+
+  @Test
+  public void testTimeWindow() throws Exception {
+    long now = System.currentTimeMillis();
+    try (OffHeapHashIndex index = OffHeapHashIndex.create(10, 5)) {
+      Assert.assertTrue(index.add(1, 1, now));
+      Assert.assertTrue(index.add(2, 2, now + 3000));
+      Assert.assertFalse(index.add(1, 1, now + 4000));
+      Assert.assertTrue(index.add(1, 1, now + 7000));
+      Assert.assertFalse(index.add(2, 2, now + 7000));
+      Assert.assertEquals(2, index.size());
+      Assert.assertTrue(index.add(3, 3, now + 20000));
+      Assert.assertEquals(1, index.size());
+    }
+  }
+
+  @Test
+  public void testCollisions() throws Exception {
+    // All hashes have the same home slot, deletion has to keep the probe sequences intact
+    int capacity = 100;
+    try (OffHeapHashIndex index = OffHeapHashIndex.create(capacity, 0)) {
+      for (int i = 0; i < 10 * capacity; i++) {
+        Assert.assertTrue(index.add(7, i, 0));
+        for (int j = Math.max(0, i - capacity + 1); j <= i; j++) {
+          Assert.assertFalse(index.add(7, j, 0));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameAsEvictingSet() throws Exception {
+    int capacity = 1000;
+    Random random = new Random(42);
+    Set<Long> expected = new LinkedHashSet<>();
+    try (OffHeapHashIndex index = OffHeapHashIndex.create(capacity, 0)) {
+      for (int i = 0; i < 100 * capacity; i++) {
+        long hash = random.nextInt(3 * capacity) * 0x9E3779B97F4A7C15L;
+        boolean added = !expected.contains(hash);
+        if (added) {
+          if (expected.size() == capacity) {
+            expected.remove(expected.iterator().next());
+          }
+          expected.add(hash);
+        }
+        Assert.assertEquals(added, index.add(hash, ~hash, 0));
+      }
+      Assert.assertEquals(capacity, index.size());
+    }
+  }
+
+  @Test
+  public void testPersisted() throws Exception {
+    File file = new File(new File("target", UUID.randomUUID().toString()), "index");
+    try (OffHeapHashIndex index = OffHeapHashIndex.open(2, 0, file)) {
+      Assert.assertTrue(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(2, 2, 0));
+    }
+    try (OffHeapHashIndex index = OffHeapHashIndex.open(2, 0, file)) {
+      Assert.assertEquals(2, index.size());
+      Assert.assertFalse(index.add(1, 1, 0));
+      Assert.assertTrue(index.add(3, 3, 0));
+      Assert.assertTrue(index.add(1, 1, 0));
+    }
+    // Different settings start with an empty index
+    try (OffHeapHashIndex index = OffHeapHashIndex.open(5, 0, file)) {
+      Assert.assertEquals(0, index.size());
+      Assert.assertTrue(index.add(3, 3, 0));
+    }
+  }
+
+  @Test
+  public void testSharedIndex() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.create(2, 0);
+    index.retain();
+    index.close();
+    Assert.assertTrue(index.isOpen());
+    Assert.assertTrue(index.add(1, 1, 0));
+    index.close();
+    Assert.assertFalse(index.isOpen());
+  }
+
+  @Test
+  public void testCloseReleasesDirectMemory() throws Exception {
+    BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+        .filter(pool -> "direct".equals(pool.getName()))
+        .findFirst()
+        .orElseThrow(IllegalStateException::new);
+    long before = direct.getMemoryUsed();
+    // About 21 MB of direct memory
+    OffHeapHashIndex index = OffHeapHashIndex.create(1000000, 0);
+    long allocated = direct.getMemoryUsed() - before;
+    Assert.assertTrue(allocated >= 16000000);
+    index.close();
+    // Released without waiting for the garbage collector
+    Assert.assertTrue(direct.getMemoryUsed() - before < allocated / 2);
+    try {
+      index.add(1, 1, 0);
+      Assert.fail();
+    } catch (IllegalStateException ex) {
+      // expected, the index is closed
+    }
+  }
+
+}
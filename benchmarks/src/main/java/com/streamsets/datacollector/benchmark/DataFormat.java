@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.OriginAvroSchemaSource;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data formats covered by the parser and generator benchmarks, configured the way the stages configure them.
+ */
+public enum DataFormat {
+  JSON(DataParserFormat.JSON, DataGeneratorFormat.JSON) {
+    @Override
+    void configure(DataParserFactoryBuilder builder, RecordShape shape) {
+      builder.setMode(JsonMode.MULTIPLE_OBJECTS);
+    }
+
+    @Override
+    void configure(DataGeneratorFactoryBuilder builder, RecordShape shape) {
+      builder.setMode(com.streamsets.pipeline.api.ext.json.Mode.MULTIPLE_OBJECTS);
+    }
+  },
+  AVRO(DataParserFormat.AVRO, DataGeneratorFormat.AVRO) {
+    @Override
+    void configure(DataParserFactoryBuilder builder, RecordShape shape) {
+      builder.setConfig(AvroSchemaHelper.SCHEMA_SOURCE_KEY, OriginAvroSchemaSource.SOURCE);
+    }
+
+    @Override
+    void configure(DataGeneratorFactoryBuilder builder, RecordShape shape) {
+      builder.setConfig(AvroSchemaHelper.SCHEMA_KEY, shape.getAvroSchema());
+    }
+  },
+  SDC_RECORD(DataParserFormat.SDC_RECORD, DataGeneratorFormat.SDC_RECORD) {
+    @Override
+    void configure(DataParserFactoryBuilder builder, RecordShape shape) {
+    }
+
+    @Override
+    void configure(DataGeneratorFactoryBuilder builder, RecordShape shape) {
+    }
+  },
+  /** Flat shapes only, delimited data can't represent nested fields. */
+  DELIMITED(DataParserFormat.DELIMITED, DataGeneratorFormat.DELIMITED) {
+    @Override
+    void configure(DataParserFactoryBuilder builder, RecordShape shape) {
+      builder.setMode(CsvMode.CSV).setMode(CsvHeader.WITH_HEADER).setMode(CsvRecordType.LIST_MAP);
+    }
+
+    @Override
+    void configure(DataGeneratorFactoryBuilder builder, RecordShape shape) {
+      builder.setMode(CsvMode.CSV).setMode(CsvHeader.WITH_HEADER);
+    }
+  },
+  ;
+
+  private static final int MAX_DATA_LEN = 1024 * 1024;
+
+  private final DataParserFormat parserFormat;
+  private final DataGeneratorFormat generatorFormat;
+
+  DataFormat(DataParserFormat parserFormat, DataGeneratorFormat generatorFormat) {
+    this.parserFormat = parserFormat;
+    this.generatorFormat = generatorFormat;
+  }
+
+  abstract void configure(DataParserFactoryBuilder builder, RecordShape shape);
+
+  abstract void configure(DataGeneratorFactoryBuilder builder, RecordShape shape);
+
+  /**
+   * Returns a parser factory builder, callers can still change format specific configs before building it.
+   */
+  public DataParserFactoryBuilder createParserFactoryBuilder(RecordShape shape) {
+    Stage.Context context = ContextInfoCreator.createSourceContext(
+        "benchmark",
+        false,
+        OnRecordError.TO_ERROR,
+        Collections.emptyList()
+    );
+    DataParserFactoryBuilder builder = new DataParserFactoryBuilder(context, parserFormat)
+        .setCharset(StandardCharsets.UTF_8)
+        .setMaxDataLen(MAX_DATA_LEN);
+    configure(builder, shape);
+    return builder;
+  }
+
+  public DataGeneratorFactory createGeneratorFactory(RecordShape shape) {
+    Stage.Context context = ContextInfoCreator.createTargetContext("benchmark", false, OnRecordError.TO_ERROR);
+    DataGeneratorFactoryBuilder builder = new DataGeneratorFactoryBuilder(context, generatorFormat)
+        .setCharset(StandardCharsets.UTF_8);
+    configure(builder, shape);
+    return builder.build();
+  }
+
+  /**
+   * Serializes the records, used to prepare the input of the parser benchmarks.
+   */
+  public byte[] generate(RecordShape shape, List<Record> records) throws IOException, DataGeneratorException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try (DataGenerator generator = createGeneratorFactory(shape).getGenerator(os)) {
+      for (Record record : records) {
+        generator.write(record);
+      }
+    }
+    return os.toByteArray();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record layouts used by the benchmarks.
+ *
+ * Values are derived from the record index so that every record is different (no interned strings, no shared boxed
+ * values) but runs are reproducible. Only types that all data formats can represent are used.
+ */
+public enum RecordShape {
+  /** A dozen scalar fields, typical for database or CSV origins. */
+  FLAT {
+    @Override
+    public Field createField(int index) {
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      map.put("id", Field.create((long) index));
+      map.put("name", Field.create("customer-" + index));
+      map.put("email", Field.create("customer-" + index + "@example.com"));
+      map.put("age", Field.create(18 + index % 60));
+      map.put("balance", Field.create(index * 1.25));
+      map.put("active", Field.create(index % 2 == 0));
+      map.put("street", Field.create(index + " Main Street"));
+      map.put("city", Field.create("City " + index % 100));
+      map.put("zip", Field.create(String.valueOf(10000 + index % 90000)));
+      map.put("country", Field.create("US"));
+      map.put("created", Field.create(1600000000000L + index));
+      map.put("score", Field.create(index % 1000));
+      return Field.createListMap(map);
+    }
+  },
+
+  /** Nested maps and a list of maps, typical for JSON payloads. */
+  NESTED {
+    @Override
+    public Field createField(int index) {
+      Map<String, Field> address = new LinkedHashMap<>();
+      address.put("street", Field.create(index + " Main Street"));
+      address.put("city", Field.create("City " + index % 100));
+      address.put("zip", Field.create(String.valueOf(10000 + index % 90000)));
+
+      Map<String, Field> customer = new LinkedHashMap<>();
+      customer.put("id", Field.create((long) index));
+      customer.put("name", Field.create("customer-" + index));
+      customer.put("address", Field.create(address));
+      List<Field> tags = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        tags.add(Field.create("tag-" + (index + i) % 50));
+      }
+      customer.put("tags", Field.create(tags));
+
+      List<Field> items = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        Map<String, Field> item = new LinkedHashMap<>();
+        item.put("sku", Field.create("sku-" + (index * 5 + i)));
+        item.put("quantity", Field.create(1 + i));
+        item.put("price", Field.create((index % 100) + i * 0.5));
+        items.add(Field.create(item));
+      }
+
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      map.put("orderId", Field.create("order-" + index));
+      map.put("created", Field.create(1600000000000L + index));
+      map.put("customer", Field.create(customer));
+      map.put("items", Field.create(items));
+      return Field.createListMap(map);
+    }
+  },
+
+  /** Two hundred scalar fields, typical for wide tables and denormalized events. */
+  WIDE {
+    @Override
+    public Field createField(int index) {
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      for (int i = 0; i < 200; i++) {
+        switch (i % 4) {
+          case 0:
+            map.put("column_" + i, Field.create("value-" + index + "-" + i));
+            break;
+          case 1:
+            map.put("column_" + i, Field.create((long) index * i));
+            break;
+          case 2:
+            map.put("column_" + i, Field.create(index + i / 100.0));
+            break;
+          default:
+            map.put("column_" + i, Field.create((index + i) % 3 == 0));
+            break;
+        }
+      }
+      return Field.createListMap(map);
+    }
+  },
+  ;
+
+  public abstract Field createField(int index);
+
+  public Record createRecord(int index) {
+    RecordImpl record = new RecordImpl("benchmark", "benchmark::" + index, null, null);
+    record.set(createField(index));
+    return record;
+  }
+
+  public List<Record> createRecords(int count) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(createRecord(i));
+    }
+    return records;
+  }
+
+  /**
+   * Avro schema matching the fields created by {@link #createField(int)}.
+   */
+  public String getAvroSchema() {
+    return toAvroSchema("record", createField(0));
+  }
+
+  private static String toAvroSchema(String name, Field field) {
+    switch (field.getType()) {
+      case MAP:
+      case LIST_MAP:
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"type\":\"record\",\"name\":\"").append(name).append("\",\"fields\":[");
+        String separator = "";
+        for (Map.Entry<String, Field> entry : field.getValueAsMap().entrySet()) {
+          sb.append(separator)
+              .append("{\"name\":\"").append(entry.getKey()).append("\",\"type\":")
+              .append(toAvroSchema(name + "_" + entry.getKey(), entry.getValue()))
+              .append("}");
+          separator = ",";
+        }
+        return sb.append("]}").toString();
+      case LIST:
+        // Lists of the shapes are homogeneous
+        return "{\"type\":\"array\",\"items\":" + toAvroSchema(name, field.getValueAsList().get(0)) + "}";
+      case STRING:
+        return "\"string\"";
+      case INTEGER:
+        return "\"int\"";
+      case LONG:
+        return "\"long\"";
+      case DOUBLE:
+        return "\"double\"";
+      case BOOLEAN:
+        return "\"boolean\"";
+      default:
+        throw new IllegalArgumentException("Unsupported field type " + field.getType());
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.datacollector.definition.ConcreteELDefinitionExtractor;
+import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.lib.el.RecordEL;
+import com.streamsets.pipeline.lib.el.StringEL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of typical per-record expressions against a nested record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ELEvaluatorBenchmark {
+
+  public enum Expression {
+    STATIC("static text"),
+    FIELD("${record:value('/orderId')}"),
+    FUNCTION("${str:toUpper(record:value('/customer/name'))}"),
+    CONCAT("${str:concat(record:value('/customer/address/city'), record:value('/customer/address/zip'))}"),
+    CONDITIONAL("${record:value('/items[0]/price') * record:value('/items[0]/quantity') > 10 ? 'large' : 'small'}"),
+    TEMPLATE("${record:value('/orderId')}-${record:value('/customer/id')}.json"),
+    ;
+
+    private final String el;
+
+    Expression(String el) {
+      this.el = el;
+    }
+  }
+
+  @Param
+  public Expression expression;
+
+  private ELEvaluator evaluator;
+  private ELVars variables;
+
+  @Setup
+  public void setUp() {
+    evaluator = new ELEvaluator("benchmark", ConcreteELDefinitionExtractor.get(), RecordEL.class, StringEL.class);
+    variables = evaluator.createVariables();
+    RecordEL.setRecordInContext(variables, RecordShape.NESTED.createRecord(1));
+  }
+
+  @Benchmark
+  public Object evaluate() throws Exception {
+    return evaluator.evaluate(variables, expression.el, Object.class);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.streamsets.datacollector.benchmark.RecordShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record operations the runtime performs for every record moving between stages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordImplBenchmark {
+
+  @Param
+  public RecordShape shape;
+
+  private RecordImpl record;
+
+  @Setup
+  public void setUp() {
+    record = (RecordImpl) shape.createRecord(1);
+  }
+
+  @Benchmark
+  public RecordImpl cloneRecord() {
+    return record.clone();
+  }
+
+  @Benchmark
+  public Set<String> escapedFieldPaths() {
+    return record.getEscapedFieldPaths();
+  }
+
+  @Benchmark
+  public List<String> escapedFieldPathsOrdered() {
+    return record.getEscapedFieldPathsOrdered();
+  }
+
+  @Benchmark
+  public int recordHashCode() {
+    return record.hashCode();
+  }
+}
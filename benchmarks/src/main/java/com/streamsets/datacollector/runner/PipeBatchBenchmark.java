@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BaseProcessor;
+import com.streamsets.pipeline.api.base.BaseSource;
+import com.streamsets.pipeline.api.base.BaseTarget;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a batch through a pipeline built from the mock stages, the stages themselves do as little as possible so that
+ * the time is spent in StagePipe, BatchMakerImpl and FullPipeBatch (lane movement, record copies and fan-out).
+ *
+ * Scores are in records per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipeBatchBenchmark {
+  private static final int BATCH_SIZE = 1000;
+
+  public enum Topology {
+    SOURCE_PROCESSOR_TARGET,
+    SOURCE_TWO_TARGETS,
+  }
+
+  @Param
+  public RecordShape shape;
+
+  @Param
+  public Topology topology;
+
+  @Param({"false", "true"})
+  public boolean copyOnWriteFanOut;
+
+  private List<Record> records;
+  private Pipeline pipeline;
+  private StagePipe sourcePipe;
+  private PipeRunner pipeRunner;
+  private long written;
+
+  @Setup
+  public void setUp() throws Exception {
+    records = shape.createRecords(BATCH_SIZE);
+
+    MockStages.resetStageCaptures();
+    MockStages.setSourceCapture(new BaseSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) {
+        for (Record record : records) {
+          batchMaker.addRecord(record);
+        }
+        return "offset";
+      }
+    });
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          batchMaker.addRecord(it.next());
+        }
+      }
+    });
+    MockStages.setTargetCapture(new BaseTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+        Iterator<Record> it = batch.getRecords();
+        while (it.hasNext()) {
+          it.next();
+          written++;
+        }
+      }
+    });
+
+    PipelineConfiguration pipelineConf = (topology == Topology.SOURCE_PROCESSOR_TARGET)
+        ? MockStages.createPipelineConfigurationSourceProcessorTarget()
+        : MockStages.createPipelineConfigurationSourceTwoTargets();
+    PipelineRunner runner = Mockito.mock(PipelineRunner.class);
+    Mockito.when(runner.getMetrics()).thenReturn(new MetricRegistry());
+    Mockito.when(runner.getRuntimeInfo()).thenReturn(Mockito.mock(RuntimeInfo.class));
+    pipeline = new MockPipelineBuilder().withPipelineConf(pipelineConf).build(runner);
+    if (!pipeline.init(false).isEmpty()) {
+      throw new IllegalStateException("Benchmark pipeline failed to initialize");
+    }
+    sourcePipe = (StagePipe) pipeline.getSourcePipe();
+    pipeRunner = pipeline.getRunners().get(0);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    pipeline.destroy(false, PipelineStopReason.FINISHED);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public long runBatch() throws Exception {
+    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, BATCH_SIZE, false);
+    pipeBatch.setCopyOnWriteFanOut(copyOnWriteFanOut);
+    sourcePipe.process(pipeBatch);
+    pipeRunner.executeBatch(null, null, System.currentTimeMillis(), pipe -> pipe.process(pipeBatch));
+    return written;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public int addRecords() {
+    BatchMakerImpl batchMaker = new BatchMakerImpl(sourcePipe, false, BATCH_SIZE);
+    for (Record record : records) {
+      batchMaker.addRecord(record);
+    }
+    return batchMaker.getSize();
+  }
+}
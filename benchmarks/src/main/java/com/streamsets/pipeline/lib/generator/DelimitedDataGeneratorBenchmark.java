@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.datacollector.benchmark.DataFormat;
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.pipeline.api.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes flat records as CSV with a header line. Scores are in records per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelimitedDataGeneratorBenchmark {
+
+  @Param({"FLAT", "WIDE"})
+  public RecordShape shape;
+
+  private DataGeneratorFactory factory;
+  private List<Record> records;
+  private ByteArrayOutputStream os;
+
+  @Setup
+  public void setUp() {
+    records = shape.createRecords(DataGeneratorBenchmark.RECORDS);
+    factory = DataFormat.DELIMITED.createGeneratorFactory(shape);
+    os = new ByteArrayOutputStream();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DataGeneratorBenchmark.RECORDS)
+  public int generate() throws Exception {
+    return DataGeneratorBenchmark.generateAll(factory, records, os);
+  }
+}
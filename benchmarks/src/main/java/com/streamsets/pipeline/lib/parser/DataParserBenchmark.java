@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.datacollector.benchmark.DataFormat;
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.pipeline.api.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a stream of records the way file and message origins do. Scores are in records per second.
+ *
+ * Delimited data is covered by {@link DelimitedDataParserBenchmark} as it supports flat records only.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataParserBenchmark {
+  static final int RECORDS = 1000;
+
+  @Param({"JSON", "AVRO", "SDC_RECORD"})
+  public DataFormat format;
+
+  @Param
+  public RecordShape shape;
+
+  private DataParserFactory factory;
+  private byte[] data;
+
+  @Setup
+  public void setUp() throws Exception {
+    data = format.generate(shape, shape.createRecords(RECORDS));
+    factory = format.createParserFactoryBuilder(shape).build();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void parse(Blackhole blackhole) throws Exception {
+    parseAll(factory, data, blackhole);
+  }
+
+  static void parseAll(DataParserFactory factory, byte[] data, Blackhole blackhole) throws Exception {
+    // Not a ByteArrayInputStream, the Avro factory would otherwise treat the data as a single message
+    BufferedInputStream is = new BufferedInputStream(new ByteArrayInputStream(data));
+    try (DataParser parser = factory.getParser("benchmark", is, "0")) {
+      Record record;
+      while ((record = parser.parse()) != null) {
+        blackhole.consume(record);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.datacollector.benchmark.DataFormat;
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.pipeline.config.CsvParser;
+import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses CSV data with a header line with both delimited parser implementations. Scores are in records per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelimitedDataParserBenchmark {
+
+  @Param({"FLAT", "WIDE"})
+  public RecordShape shape;
+
+  @Param
+  public CsvParser parser;
+
+  private DataParserFactory factory;
+  private byte[] data;
+
+  @Setup
+  public void setUp() throws Exception {
+    data = DataFormat.DELIMITED.generate(shape, shape.createRecords(DataParserBenchmark.RECORDS));
+    factory = DataFormat.DELIMITED.createParserFactoryBuilder(shape)
+        .setConfig(DelimitedDataConstants.PARSER, parser.name())
+        .build();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DataParserBenchmark.RECORDS)
+  public void parse(Blackhole blackhole) throws Exception {
+    DataParserBenchmark.parseAll(factory, data, blackhole);
+  }
+}
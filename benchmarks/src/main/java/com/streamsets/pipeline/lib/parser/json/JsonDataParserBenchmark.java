@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.json;
+
+import com.streamsets.datacollector.benchmark.DataFormat;
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.config.JsonParserType;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JsonCharDataParser} (object graph first, then fields) with {@link JsonStreamingCharDataParser}
+ * (fields straight from the token stream). Scores are in records per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDataParserBenchmark {
+  private static final int RECORDS = 1000;
+
+  @Param
+  public JsonParserType parser;
+
+  @Param
+  public RecordShape shape;
+
+  private DataParserFactory factory;
+  private String data;
+
+  @Setup
+  public void setUp() throws Exception {
+    data = new String(DataFormat.JSON.generate(shape, shape.createRecords(RECORDS)), StandardCharsets.UTF_8);
+    factory = DataFormat.JSON.createParserFactoryBuilder(shape)
+        .setConfig(JsonDataParserFactory.PARSER_KEY, parser.name())
+        .build();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void parse(Blackhole blackhole) throws Exception {
+    try (DataParser dataParser = factory.getParser("benchmark", new StringReader(data), 0)) {
+      Record record;
+      while ((record = dataParser.parse()) != null) {
+        blackhole.consume(record);
+      }
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.oracle.cdc;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lifecycle of small concurrent transactions in the Oracle CDC transaction buffer: each operation buffers the
+ * records of a batch of interleaved transactions and then commits them one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TransactionBufferBenchmark {
+
+  public enum Buffering {
+    IN_MEMORY,
+    /** One MapDB file per transaction. */
+    FILE_BACKED,
+    SPILL_LOG,
+  }
+
+  @Param
+  public Buffering buffering;
+
+  @Param({"1", "16"})
+  public int stripes;
+
+  @Param({"100"})
+  public int transactions;
+
+  @Param({"4"})
+  public int recordsPerTransaction;
+
+  private final AtomicLong txnIds = new AtomicLong();
+  private File directory;
+  private SpillLog spillLog;
+  private TransactionBuffer<String, RecordSequence> buffer;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("txn-buffer").toFile();
+    spillLog = new SpillLog(new File(directory, "spill"), SpillLog.DEFAULT_SEGMENT_SIZE);
+    buffer = new TransactionBuffer<>(stripes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    buffer.close();
+    spillLog.close();
+    FileUtils.deleteDirectory(directory);
+  }
+
+  private HashQueue<RecordSequence> createTransactionBuffer(String txnId) {
+    try {
+      switch (buffering) {
+        case IN_MEMORY:
+          return new InMemoryHashQueue<>();
+        case FILE_BACKED:
+          return new FileBackedHashQueue<>(new File(directory, txnId));
+        case SPILL_LOG:
+          // spill every record, buffering on disk is meant for transactions that do not fit in memory
+          return new SpillLogHashQueue(spillLog, 0);
+        default:
+          throw new IllegalStateException("Unknown buffering " + buffering);
+      }
+    } catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private static RecordSequence createRecord(String txnId, int seq) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("oracle.cdc.xid", txnId);
+    headers.put("oracle.cdc.rowId", "AAAR0bAAEAAAAFkAA" + seq);
+    headers.put("oracle.cdc.table", "ORDERS");
+    return new RecordSequence(
+        headers,
+        "insert into \"SDC\".\"ORDERS\"(\"ID\",\"CUSTOMER\",\"TOTAL\") values ('" + seq + "','ACME','10.5')",
+        seq,
+        1,
+        txnId + "-" + seq,
+        new BigDecimal(seq),
+        LocalDateTime.now()
+    );
+  }
+
+  @Benchmark
+  public void bufferAndCommit(Blackhole blackhole) {
+    String[] txnIds = new String[transactions];
+    for (int t = 0; t < transactions; t++) {
+      txnIds[t] = "txn-" + this.txnIds.incrementAndGet();
+    }
+    for (int seq = 1; seq <= recordsPerTransaction; seq++) {
+      for (String txnId : txnIds) {
+        RecordSequence record = createRecord(txnId, seq);
+        buffer.update(txnId, this::createTransactionBuffer, records -> records.add(record));
+      }
+    }
+    for (String txnId : txnIds) {
+      HashQueue<RecordSequence> records = buffer.remove(txnId);
+      records.completeInserts();
+      while (!records.isEmpty()) {
+        blackhole.consume(records.remove());
+      }
+      records.close();
+    }
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.cluster;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.streamsets.pipeline.BootstrapCluster;
 import com.streamsets.pipeline.EmbeddedSDC;
 import com.streamsets.pipeline.EmbeddedSDCPool;
@@ -57,6 +58,16 @@ public class ClusterFunctionImpl implements ClusterFunction  {
     File dataDir = new File(System.getProperty("user.dir"), "data");
     FileUtils.copyDirectory(new File(rootDataDir), dataDir);
     System.setProperty("sdc.data.dir", dataDir.getAbsolutePath());
+    String slots = properties.getProperty(DataChannel.SLOTS_CONFIG);
+    if (slots != null && System.getProperty(DataChannel.SLOTS_PROPERTY) == null) {
+      System.setProperty(DataChannel.SLOTS_PROPERTY, slots.trim());
+    }
+    // spark processors read the batch back right after it is put, so the batch must be processed before put returns
+    if (!BootstrapCluster.getSparkProcessorLibraryNames().isEmpty()
+        && System.getProperty(DataChannel.SLOTS_PROPERTY) != null) {
+      LOG.warn("Ignoring '{}', pipelines with Spark processors use a single slot", DataChannel.SLOTS_PROPERTY);
+      System.clearProperty(DataChannel.SLOTS_PROPERTY);
+    }
     // must occur before creating the EmbeddedSDCPool as
     // the hdfs target validation evaluates the sdc:id EL
     Utils.setSdcIdCallable(() -> id);
@@ -64,6 +75,13 @@ public class ClusterFunctionImpl implements ClusterFunction  {
     initialized = true;
   }
 
+  @VisibleForTesting
+  static synchronized void initialize(EmbeddedSDCPool pool) {
+    sdcPool = pool;
+    errorStackTrace = null;
+    initialized = true;
+  }
+
   public void setSparkProcessorCount(int count) {
     sdcPool.setSparkProcessorCount(count);
   }
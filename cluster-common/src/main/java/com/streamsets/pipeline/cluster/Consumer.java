@@ -39,6 +39,7 @@ public class Consumer {
   private volatile Throwable producerError;
   private volatile Throwable consumerError;
   private String lastCommittedOffset;
+  private boolean completed;
 
   public Consumer(ControlChannel controlChannel, DataChannel dataChannel) {
     this.controlChannel = controlChannel;
@@ -62,7 +63,7 @@ public class Consumer {
     }
     try {
       Utils.checkState(batchCommitted, "Cannot take messages when last batch is uncommitted");
-      while (running) {
+      while (true) {
         for (ControlChannel.Message controlMessage : controlChannel.getConsumerMessages()) {
           switch (controlMessage.getType()) {
             case PRODUCER_COMPLETE:
@@ -85,8 +86,13 @@ public class Consumer {
           batchCommitted = false; // got a new batch
           return batch;
         }
+        if (!running) {
+          // producer is complete and the channel is drained
+          break;
+        }
       }
       LOG.trace("Returning null");
+      complete();
       return null;
     } catch (Throwable throwable) {
       if (!(throwable instanceof ProducerRuntimeException)) {
@@ -119,6 +125,16 @@ public class Consumer {
     }
   }
 
+  /**
+   * Send a control message indicating the consumer will not commit any more batches.
+   */
+  public void complete() {
+    if (!completed) {
+      completed = true;
+      controlChannel.consumerComplete();
+    }
+  }
+
   public boolean inErrorState() {
     return consumerError != null || producerError != null;
   }
@@ -44,6 +44,16 @@ public class ControlChannel {
     }
   }
 
+  public void consumerComplete() {
+    LOG.info("Consumer complete");
+    try {
+      producerQueue.put(new Message(MessageType.CONSUMER_COMPLETE));
+    } catch (InterruptedException e) {
+      LOG.info("Interrupted while queuing '{}'", MessageType.CONSUMER_COMPLETE.name());
+      Thread.currentThread().interrupt();
+    }
+  }
+
   public List<Message> getProducerMessages() {
     List<Message> result = new ArrayList<>();
     producerQueue.drainTo(result);
@@ -130,7 +140,8 @@ public class ControlChannel {
     PRODUCER_COMPLETE(false), // inform consumer to return null offset, thus shutting down the pipeline
     CONSUMER_ERROR(true), // inform producer consumer is dead due to an error condition
     PRODUCER_ERROR(true), // inform consumer producer is dead due to an error condition
-    CONSUMER_COMMIT(true); // inform producer offset has been committed
+    CONSUMER_COMMIT(true), // inform producer offset has been committed
+    CONSUMER_COMPLETE(false); // inform producer no more batches will be committed
 
     private boolean hasPayload;
     MessageType(boolean hasPayload) {
@@ -15,25 +15,100 @@
  */
 package com.streamsets.pipeline.cluster;
 
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.impl.OffsetAndResult;
 
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implements a uni-directional data flow from producer to consumer.
+ * <p/>
+ * The channel holds up to {@link #getSlots()} batches. With a single slot the producer hands over one batch at a time
+ * and waits for its commit, with more slots the producer can queue further batches while the consumer is still
+ * processing the previous ones.
  */
 public class DataChannel {
 
-  private final BlockingQueue<OffsetAndResult<Map.Entry>> dataQueue = new ArrayBlockingQueue<>(1);
+  /**
+   * Java system property with the number of batches the channel can hold, one if not set.
+   */
+  public static final String SLOTS_PROPERTY = "sdc.cluster.dataChannel.slots";
+
+  /**
+   * Data collector configuration with the number of batches the channel can hold, passed on to the cluster pipelines
+   * as the {@link #SLOTS_PROPERTY} system property unless that one is set.
+   */
+  public static final String SLOTS_CONFIG = "cluster.dataChannel.slots";
+
+  /**
+   * Commits of all queued batches must fit in the control channel queue without blocking the consumer.
+   */
+  public static final int MAX_SLOTS = 8;
+
+  public static final String GAUGE_NAME = "Cluster Handoff";
+  public static final String SLOTS = "Slots";
+  public static final String QUEUED_BATCHES = "Queued Batches";
+  public static final String PRODUCER_WAIT_MILLIS = "Producer Wait (ms)";
+  public static final String CONSUMER_WAIT_MILLIS = "Consumer Wait (ms)";
+
+  private final int slots;
+  private final BlockingQueue<OffsetAndResult<Map.Entry>> dataQueue;
+  private final AtomicLong producerWaitNanos = new AtomicLong();
+  private final AtomicLong consumerWaitNanos = new AtomicLong();
+
+  public DataChannel() {
+    this(Integer.getInteger(SLOTS_PROPERTY, 1));
+  }
+
+  public DataChannel(int slots) {
+    Utils.checkArgument(slots > 0 && slots <= MAX_SLOTS, "Data channel slots must be between 1 and " + MAX_SLOTS);
+    this.slots = slots;
+    this.dataQueue = new ArrayBlockingQueue<>(slots);
+  }
+
+  public int getSlots() {
+    return slots;
+  }
+
+  /**
+   * Returns the number of batches queued and not yet taken by the consumer.
+   */
+  public int size() {
+    return dataQueue.size();
+  }
 
   public boolean offer(OffsetAndResult<Map.Entry> batch, long timeout, TimeUnit unit) throws InterruptedException {
-    return dataQueue.offer(batch, timeout, unit);
+    long start = System.nanoTime();
+    boolean offered = dataQueue.offer(batch, timeout, unit);
+    producerWaitNanos.addAndGet(System.nanoTime() - start);
+    return offered;
   }
 
   public OffsetAndResult<Map.Entry> take(long timeout, TimeUnit unit) throws InterruptedException {
-    return dataQueue.poll(timeout, unit);
+    long start = System.nanoTime();
+    OffsetAndResult<Map.Entry> batch = dataQueue.poll(timeout, unit);
+    consumerWaitNanos.addAndGet(System.nanoTime() - start);
+    return batch;
+  }
+
+  /**
+   * Accounts time the producer spent waiting for commits, outside of {@link #offer}.
+   */
+  void addProducerWait(long nanos) {
+    producerWaitNanos.addAndGet(nanos);
+  }
+
+  /**
+   * Reports the channel occupancy and the accumulated producer and consumer wait times into the given gauge map.
+   */
+  public void updateGauge(Map<String, Object> gauge) {
+    gauge.put(SLOTS, slots);
+    gauge.put(QUEUED_BATCHES, dataQueue.size());
+    gauge.put(PRODUCER_WAIT_MILLIS, TimeUnit.NANOSECONDS.toMillis(producerWaitNanos.get()));
+    gauge.put(CONSUMER_WAIT_MILLIS, TimeUnit.NANOSECONDS.toMillis(consumerWaitNanos.get()));
   }
 }
@@ -21,7 +21,9 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Deque;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -31,8 +33,13 @@ public class Producer {
   private static final Logger LOG = LoggerFactory.getLogger(Producer.class);
   private final ControlChannel controlChannel;
   private final DataChannel dataChannel;
+  // expected offsets of the batches put and not committed yet, in order
+  private final Deque<Object> uncommitted = new ConcurrentLinkedDeque<>();
+  // expected offsets of the batches put and not acknowledged to the caller yet, in order
+  private final Deque<Object> unacknowledged = new ConcurrentLinkedDeque<>();
   private volatile Throwable consumerError;
   private volatile Throwable producerError;
+  private volatile boolean consumerComplete;
 
   public Producer(ControlChannel controlChannel, DataChannel dataChannel) {
     this.controlChannel = controlChannel;
@@ -40,17 +47,36 @@ public class Producer {
   }
 
   /**
-   * Send a control message indicating the producer has completed.
+   * Send a control message indicating the producer has completed and
+   * wait until the batches already put are committed, unless the
+   * consumer completes or fails first.
    */
   public void complete() {
     controlChannel.producerComplete();
+    try {
+      while (true) {
+        for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
+          handleMessage(controlMessage);
+        }
+        if (uncommitted.isEmpty() || consumerError != null || consumerComplete) {
+          break;
+        }
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+    } catch (InterruptedException e) {
+      LOG.info("Interrupted while waiting for the commit of {} batches", uncommitted.size());
+      Thread.currentThread().interrupt();
+    }
+    if (!uncommitted.isEmpty()) {
+      LOG.warn("Producer completed with {} uncommitted batches", uncommitted.size());
+    }
   }
 
   /**
-   * Queues the batch for the consumer and waits until the consumer
-   * successfully commits the batch. While waiting processes any
-   * control messages from the consumer. Throws an exception
-   * when the consumer has indicated it encountered an error.
+   * Queues the batch for the consumer, waiting while all the slots of
+   * the data channel hold uncommitted batches. While waiting processes
+   * any control messages from the consumer. Throws an exception when
+   * the consumer has indicated it encountered an error.
    */
   public Object put(OffsetAndResult<Map.Entry> batch) {
     if (consumerError != null) {
@@ -64,19 +90,17 @@ public class Producer {
       if (!batch.getResult().isEmpty()) {
         expectedOffset = batch.getResult().get(batch.getResult().size() - 1).getKey(); // get the last one
       }
-      while (!dataChannel.offer(batch, 10, TimeUnit.MILLISECONDS)) {
+      while (uncommitted.size() >= dataChannel.getSlots() || !dataChannel.offer(batch, 10, TimeUnit.MILLISECONDS)) {
         for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
-          switch (controlMessage.getType()) {
-            case CONSUMER_ERROR:
-              Throwable throwable = (Throwable) controlMessage.getPayload();
-              consumerError = throwable;
-              throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
-            default:
-              String msg = Utils.format("Illegal control message type: '{}'", controlMessage.getType());
-              throw new IllegalStateException(msg);
-          }
+          handleMessage(controlMessage);
+        }
+        checkConsumer();
+        if (uncommitted.size() >= dataChannel.getSlots()) {
+          TimeUnit.MILLISECONDS.sleep(10);
         }
       }
+      uncommitted.addLast(expectedOffset);
+      unacknowledged.addLast(expectedOffset);
       return expectedOffset;
     } catch (Throwable throwable) {
       controlChannel.producerComplete();
@@ -92,25 +116,107 @@ public class Producer {
     }
   }
 
+  /**
+   * Waits until the consumer commits the oldest batch put and not
+   * acknowledged yet, and acknowledges it. Batches are acknowledged in
+   * the order they were put, each one only after its own commit. Throws
+   * an exception when the consumer encountered an error or completed
+   * before committing the batch.
+   */
   public void waitForCommit() throws InterruptedException {
-    while (true) {
-      for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
-        switch (controlMessage.getType()) {
-          case CONSUMER_COMMIT:
-            if (LOG.isTraceEnabled()) {
-              LOG.trace("Commit of: '{}'", controlMessage.getPayload());
-            }
-            return;
-          case CONSUMER_ERROR:
-            Throwable throwable = (Throwable) controlMessage.getPayload();
-            consumerError = throwable;
-            throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
-          default:
-            throw new IllegalStateException(Utils.format("Illegal control message type: '{}'",
-              controlMessage.getType()));
+    Utils.checkState(!unacknowledged.isEmpty(), "No batch waiting for its commit");
+    long start = System.nanoTime();
+    try {
+      while (true) {
+        for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
+          handleMessage(controlMessage);
+        }
+        // commits arrive in order, so the oldest batches are the committed ones
+        if (unacknowledged.size() > uncommitted.size()) {
+          Object expectedOffset = unacknowledged.pollFirst();
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("Acknowledging commit of: '{}'", expectedOffset);
+          }
+          return;
+        }
+        checkConsumer();
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+    } finally {
+      dataChannel.addProducerWait(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Acknowledges the batches committed so far and waits until fewer
+   * than {@link DataChannel#getSlots()} batches are left unacknowledged,
+   * so that the caller can hand over its next batch while the previous
+   * ones are still being processed: returning for batch N only requires
+   * the commit of batch N - slots + 1. With a single slot this waits for
+   * the commit of the batch just put. Throws an exception when the
+   * consumer encountered an error or completed with batches still
+   * uncommitted, so that the binding replays them.
+   */
+  public void waitForSlot() throws InterruptedException {
+    long start = System.nanoTime();
+    try {
+      while (true) {
+        for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
+          handleMessage(controlMessage);
         }
+        // commits arrive in order, so the oldest batches are the committed ones
+        while (unacknowledged.size() > uncommitted.size()) {
+          Object expectedOffset = unacknowledged.pollFirst();
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("Acknowledging commit of: '{}'", expectedOffset);
+          }
+        }
+        if (!uncommitted.isEmpty()) {
+          checkConsumer();
+        }
+        if (unacknowledged.size() < dataChannel.getSlots()) {
+          return;
+        }
+        TimeUnit.MILLISECONDS.sleep(10);
       }
-      TimeUnit.MILLISECONDS.sleep(10);
+    } finally {
+      dataChannel.addProducerWait(System.nanoTime() - start);
+    }
+  }
+
+  private void checkConsumer() {
+    if (consumerError != null) {
+      throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", consumerError), consumerError);
+    }
+    if (consumerComplete) {
+      throw new ConsumerRuntimeException(
+          Utils.format("Consumer completed with {} uncommitted batches", uncommitted.size()),
+          null
+      );
+    }
+  }
+
+  private void handleMessage(ControlChannel.Message controlMessage) {
+    switch (controlMessage.getType()) {
+      case CONSUMER_COMMIT:
+        Object expectedOffset = uncommitted.pollFirst();
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("Commit of: '{}', expected: '{}'", controlMessage.getPayload(), expectedOffset);
+        }
+        if (expectedOffset == null) {
+          LOG.warn("Commit of '{}' without an uncommitted batch", controlMessage.getPayload());
+        }
+        break;
+      case CONSUMER_ERROR:
+        // batches committed before the error can still be acknowledged
+        consumerError = (Throwable) controlMessage.getPayload();
+        break;
+      case CONSUMER_COMPLETE:
+        consumerComplete = true;
+        break;
+      default:
+        throw new IllegalStateException(Utils.format("Illegal control message type: '{}'",
+          controlMessage.getType()));
     }
   }
 
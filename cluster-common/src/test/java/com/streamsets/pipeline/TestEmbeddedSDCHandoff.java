@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline;
+
+import com.streamsets.pipeline.api.impl.ClusterSource;
+import com.streamsets.pipeline.cluster.Consumer;
+import com.streamsets.pipeline.cluster.ConsumerRuntimeException;
+import com.streamsets.pipeline.cluster.ControlChannel;
+import com.streamsets.pipeline.cluster.DataChannel;
+import com.streamsets.pipeline.cluster.Producer;
+import com.streamsets.pipeline.impl.OffsetAndResult;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+public class TestEmbeddedSDCHandoff {
+  private Producer producer;
+  private Consumer consumer;
+  private EmbeddedSDCPool pool;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() throws Exception {
+    ControlChannel controlChannel = new ControlChannel();
+    DataChannel dataChannel = new DataChannel(2);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+
+    ClusterSource source = Mockito.mock(ClusterSource.class);
+    Mockito.doAnswer(invocation -> producer.put(
+        new OffsetAndResult<>(0L, (List<Map.Entry>) invocation.getArguments()[0])
+    )).when(source).put(Mockito.anyList());
+    Mockito.doAnswer(invocation -> {
+      producer.waitForSlot();
+      return null;
+    }).when(source).completeBatch();
+    Mockito.doAnswer(invocation -> producer.inErrorState()).when(source).inErrorState();
+
+    pool = new EmbeddedSDCPool(new Properties()) {
+      @Override
+      protected EmbeddedSDC create() throws Exception {
+        EmbeddedSDC sdc = new EmbeddedSDC();
+        sdc.setSource(source);
+        return sdc;
+      }
+    };
+    pool.setSparkProcessorCount(0);
+  }
+
+  @Test(timeout = 5000)
+  public void testConsumerKilledMidWindow() throws Exception {
+    // the first batch is checked in before its commit, a second slot is still free
+    EmbeddedSDC sdc = pool.getNotStartedSDC();
+    sdc.getSource().put(createBatch("b1"));
+    pool.checkInAfterReadingBatch(0, sdc);
+    Assert.assertSame(sdc, pool.getNotStartedSDC());
+
+    // the second batch needs the commit of the first one
+    sdc.getSource().put(createBatch("b2"));
+    Assert.assertEquals("b1", consumer.take().getResult().get(0).getKey());
+    consumer.commit("b1");
+    pool.checkInAfterReadingBatch(0, sdc);
+    Assert.assertSame(sdc, pool.getNotStartedSDC());
+
+    // the pipeline dies while processing the second batch, the binding is told before handing over more data
+    Assert.assertEquals("b2", consumer.take().getResult().get(0).getKey());
+    consumer.error(new RuntimeException("Pipeline killed"));
+    sdc.getSource().put(createBatch("b3"));
+    try {
+      pool.checkInAfterReadingBatch(0, sdc);
+      Assert.fail("Uncommitted batches must not be acknowledged");
+    } catch (ConsumerRuntimeException ex) {
+      // expected
+    }
+    Assert.assertTrue(sdc.inErrorState());
+  }
+
+  @Test(timeout = 5000)
+  public void testConsumerCompleteWithUncommittedBatch() throws Exception {
+    EmbeddedSDC sdc = pool.getNotStartedSDC();
+    sdc.getSource().put(createBatch("b1"));
+    pool.checkInAfterReadingBatch(0, sdc);
+
+    sdc = pool.getNotStartedSDC();
+    sdc.getSource().put(createBatch("b2"));
+    consumer.take();
+    // the pipeline stops without committing the first batch
+    consumer.complete();
+    try {
+      pool.checkInAfterReadingBatch(0, sdc);
+      Assert.fail("Uncommitted batch must not be acknowledged");
+    } catch (ConsumerRuntimeException ex) {
+      // expected
+    }
+  }
+
+  private static List<Map.Entry> createBatch(String key) {
+    return Collections.singletonList(new AbstractMap.SimpleEntry<>(key, key));
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.cluster;
+
+import com.streamsets.pipeline.EmbeddedSDC;
+import com.streamsets.pipeline.EmbeddedSDCPool;
+import com.streamsets.pipeline.api.impl.ClusterSource;
+import com.streamsets.pipeline.impl.OffsetAndResult;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TestClusterFunctionImpl {
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private Producer producer;
+  private Consumer consumer;
+
+  @After
+  public void teardown() {
+    executorService.shutdownNow();
+  }
+
+  @SuppressWarnings("unchecked")
+  private ClusterFunctionImpl createFunction(int slots) throws Exception {
+    ControlChannel controlChannel = new ControlChannel();
+    DataChannel dataChannel = new DataChannel(slots);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+
+    // the same calls the cluster origins make
+    ClusterSource source = Mockito.mock(ClusterSource.class);
+    Mockito.doAnswer(invocation -> producer.put(
+        new OffsetAndResult<>(0L, (List<Map.Entry>) invocation.getArguments()[0])
+    )).when(source).put(Mockito.anyList());
+    Mockito.doAnswer(invocation -> {
+      producer.waitForSlot();
+      return null;
+    }).when(source).completeBatch();
+    Mockito.doAnswer(invocation -> producer.inErrorState()).when(source).inErrorState();
+
+    EmbeddedSDCPool pool = new EmbeddedSDCPool(new Properties()) {
+      @Override
+      protected EmbeddedSDC create() throws Exception {
+        EmbeddedSDC sdc = new EmbeddedSDC();
+        sdc.setSource(source);
+        sdc.setSparkProcessors(Collections.emptyList());
+        return sdc;
+      }
+    };
+    ClusterFunctionImpl.initialize(pool);
+    ClusterFunctionImpl fn = new ClusterFunctionImpl();
+    fn.setSparkProcessorCount(0);
+    return fn;
+  }
+
+  @Test(timeout = 5000)
+  public void testStartBatchHandsOverWithinSlots() throws Exception {
+    ClusterFunctionImpl fn = createFunction(2);
+
+    // returns before the pipeline even took the batch, there is a second slot
+    fn.startBatch(createBatch("b1"));
+
+    // the window is full, the second batch waits for the commit of the first one
+    Future<?> secondBatch = startBatch(fn, "b2");
+    assertWaiting(secondBatch, "Second batch should wait for the commit of the first one");
+    Assert.assertEquals("b1", consumer.take().getResult().get(0).getKey());
+    consumer.commit("b1");
+    secondBatch.get();
+
+    // the pipeline fails on the second batch, the next one is refused
+    Assert.assertEquals("b2", consumer.take().getResult().get(0).getKey());
+    consumer.error(new RuntimeException("Pipeline killed"));
+    try {
+      fn.startBatch(createBatch("b3"));
+      Assert.fail("Batch must fail once the pipeline failed with uncommitted batches");
+    } catch (RuntimeException ex) {
+      // expected
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testStartBatchSingleSlotWaitsForCommit() throws Exception {
+    ClusterFunctionImpl fn = createFunction(1);
+
+    Future<?> batch = startBatch(fn, "b1");
+    assertWaiting(batch, "Batch should wait for its commit");
+    Assert.assertEquals("b1", consumer.take().getResult().get(0).getKey());
+    consumer.commit("b1");
+    batch.get();
+  }
+
+  private Future<?> startBatch(ClusterFunctionImpl fn, String key) {
+    return executorService.submit(() -> fn.startBatch(createBatch(key)));
+  }
+
+  private static List<Map.Entry> createBatch(String key) {
+    return Collections.singletonList(new AbstractMap.SimpleEntry<>(key, key));
+  }
+
+  private static void assertWaiting(Future<?> future, String message) throws Exception {
+    try {
+      future.get(200, TimeUnit.MILLISECONDS);
+      Assert.fail(message);
+    } catch (TimeoutException ex) {
+      // expected
+    }
+  }
+}
@@ -23,6 +23,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -58,9 +59,10 @@ public class TestProducerConsumer {
   @Test(timeout = 5000)
   public void testProducerComplete() throws Exception {
     Future<?> putFuture = put(1);
-    producer.complete();
+    Future<?> completeFuture = executorService.submit(producer::complete);
     Future<List<Map.Entry>> takeFuture = take(true);
     putFuture.get();
+    completeFuture.get();
     Assert.assertEquals(createBatch(1), takeFuture.get());
     Assert.assertNull(consumer.take()); // should not block and should return null
   }
@@ -117,6 +119,141 @@ public class TestProducerConsumer {
     Assert.assertSame(producerError, getError(take(true)));
   }
 
+  @Test(timeout = 5000)
+  public void testMultipleSlotsAcknowledgeInOrder() throws Exception {
+    dataChannel = new DataChannel(2);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+    putOnly(1).get();
+    putOnly(2).get();
+    Assert.assertEquals(2, dataChannel.size());
+    Future<?> putFuture = putOnly(3);
+    Future<?> ackFuture = executorService.submit(() -> {
+      producer.waitForCommit();
+      return null;
+    });
+    assertWaiting(putFuture, "Producer should wait with all slots uncommitted");
+    assertWaiting(ackFuture, "Batch should not be acknowledged before its commit");
+
+    Assert.assertEquals(createBatch(1), take(true).get());
+    putFuture.get();
+    ackFuture.get();
+    Future<?> secondAckFuture = executorService.submit(() -> {
+      producer.waitForCommit();
+      return null;
+    });
+    Assert.assertEquals(createBatch(2), take(false).get());
+    assertWaiting(secondAckFuture, "Batch should not be acknowledged before its commit");
+    consumer.commit("123");
+    secondAckFuture.get();
+  }
+
+  @Test(timeout = 5000)
+  public void testWaitForSlotDefersCommit() throws Exception {
+    dataChannel = new DataChannel(2);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+    // a slot is left, the first batch does not have to be committed yet
+    putOnly(1).get();
+    producer.waitForSlot();
+
+    // the second batch fills the window, it waits for the commit of the first one
+    putOnly(2).get();
+    Future<?> slotFuture = executorService.submit(() -> {
+      producer.waitForSlot();
+      return null;
+    });
+    assertWaiting(slotFuture, "Producer should wait for the commit of the oldest batch");
+    Assert.assertEquals(createBatch(1), take(true).get());
+    slotFuture.get();
+
+    // once complete, the producer waits for the remaining batch
+    Future<?> completeFuture = executorService.submit(producer::complete);
+    assertWaiting(completeFuture, "Producer should not complete before all batches are committed");
+    Assert.assertEquals(createBatch(2), take(true).get());
+    completeFuture.get();
+  }
+
+  @Test(timeout = 5000)
+  public void testWaitForSlotSingleSlotWaitsForCommit() throws Exception {
+    putOnly(1).get();
+    Future<?> slotFuture = executorService.submit(() -> {
+      producer.waitForSlot();
+      return null;
+    });
+    assertWaiting(slotFuture, "Batch should not be acknowledged before its commit");
+    Assert.assertEquals(createBatch(1), take(true).get());
+    slotFuture.get();
+  }
+
+  @Test(timeout = 5000)
+  public void testConsumerErrorAcknowledgesOnlyCommittedBatches() throws Exception {
+    dataChannel = new DataChannel(2);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+    putOnly(1).get();
+    putOnly(2).get();
+    Assert.assertEquals(createBatch(1), take(true).get());
+    Assert.assertEquals(createBatch(2), take(false).get());
+    RuntimeException consumerError = new RuntimeException();
+    consumer.error(consumerError);
+
+    producer.waitForCommit();
+    try {
+      producer.waitForCommit();
+      Assert.fail("Uncommitted batch must not be acknowledged");
+    } catch (ConsumerRuntimeException ex) {
+      Assert.assertSame(consumerError, ex.getCause());
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testConsumerCompleteFailsAcknowledge() throws Exception {
+    putOnly(1).get();
+    consumer.complete();
+    try {
+      producer.waitForCommit();
+      Assert.fail("Uncommitted batch must not be acknowledged");
+    } catch (ConsumerRuntimeException ex) {
+      // expected
+    }
+    // nothing to wait for once the consumer is complete
+    producer.complete();
+  }
+
+  @Test(timeout = 5000)
+  public void testQueuedBatchesTakenAfterProducerComplete() throws Exception {
+    dataChannel = new DataChannel(3);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+    putOnly(1).get();
+    putOnly(2).get();
+    Future<?> completeFuture = executorService.submit(producer::complete);
+    Assert.assertEquals(createBatch(1), take(true).get());
+    assertWaiting(completeFuture, "Producer should not complete before all batches are committed");
+    Assert.assertEquals(createBatch(2), take(true).get());
+    completeFuture.get();
+    Assert.assertNull(consumer.take());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSlots() throws Exception {
+    new DataChannel(DataChannel.MAX_SLOTS + 1);
+  }
+
+  @Test(timeout = 5000)
+  public void testGauge() throws Exception {
+    dataChannel = new DataChannel(2);
+    producer = new Producer(controlChannel, dataChannel);
+    putOnly(1).get();
+    Map<String, Object> gauge = new HashMap<>();
+    dataChannel.updateGauge(gauge);
+    Assert.assertEquals(2, gauge.get(DataChannel.SLOTS));
+    Assert.assertEquals(1, gauge.get(DataChannel.QUEUED_BATCHES));
+    Assert.assertTrue(gauge.containsKey(DataChannel.PRODUCER_WAIT_MILLIS));
+    Assert.assertTrue(gauge.containsKey(DataChannel.CONSUMER_WAIT_MILLIS));
+  }
+
   private Throwable getError(Future future) throws InterruptedException {
     try {
       future.get();
@@ -157,6 +294,19 @@ public class TestProducerConsumer {
 
   }
 
+  private Future<?> putOnly(final int size) {
+    return executorService.submit(() -> producer.put(new OffsetAndResult<>("123", createBatch(size))));
+  }
+
+  private static void assertWaiting(Future<?> future, String message) throws Exception {
+    try {
+      future.get(200, TimeUnit.MILLISECONDS);
+      Assert.fail(message);
+    } catch (TimeoutException ex) {
+      // expected
+    }
+  }
+
   private List<Map.Entry> createBatch(int size) {
     List<Map.Entry> batch = new ArrayList<>(size);
     for (int i = 0; i < size; i++) {
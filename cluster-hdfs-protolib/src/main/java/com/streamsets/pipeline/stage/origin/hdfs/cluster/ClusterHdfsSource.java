@@ -142,6 +142,7 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
     REQUIRE_URI_AUTHORITY = uriAuthority;
   }
 
+  private final DataChannel dataChannel;
   private final Producer producer;
   private final Consumer consumer;
   private final Map<String, Object> previewBuffer;
@@ -155,12 +156,13 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
   private long recordsProduced;
   private boolean hasHeader;
   private String proxyUser;
+  private Map<String, Object> handoffGauge;
 
   private final Set<String> visitedFiles;
 
   public ClusterHdfsSource(ClusterHdfsConfigBean conf) {
     ControlChannel controlChannel = new ControlChannel();
-    DataChannel dataChannel = new DataChannel();
+    dataChannel = new DataChannel();
     producer = new Producer(controlChannel, dataChannel);
     consumer = new Consumer(controlChannel, dataChannel);
     this.recordsProduced = 0;
@@ -240,6 +242,8 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
 
     hasHeader = conf.dataFormat == DataFormat.DELIMITED && CsvHeader.NO_HEADER != conf.dataFormatConfig.csvHeader;
 
+    handoffGauge = getContext().createGauge(DataChannel.GAUGE_NAME).getValue();
+
     LOG.error("Issues: {}", issues.toArray());
     return issues;
   }
@@ -750,6 +754,7 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
       offsetAndResult = new OffsetAndResult<>(recordsProduced, records);
     } else {
       offsetAndResult = consumer.take();
+      dataChannel.updateGauge(handoffGauge);
     }
     if (offsetAndResult == null) {
       LOG.info("Received null batch, returning null");
@@ -889,7 +894,7 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
 
   @Override
   public void completeBatch() throws InterruptedException {
-    producer.waitForCommit();
+    producer.waitForSlot();
   }
 
   @Override
@@ -914,6 +919,8 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
 
   @Override
   public void destroy() {
+    // the pipeline does not commit any more batches, the producer must not wait for them
+    consumer.complete();
     producer.complete();
     super.destroy();
   }
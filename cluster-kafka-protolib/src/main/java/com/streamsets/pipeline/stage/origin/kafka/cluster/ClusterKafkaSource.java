@@ -56,6 +56,7 @@ public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitt
   private final Producer producer;
   private final Consumer consumer;
   private long recordsProduced;
+  private Map<String, Object> handoffGauge;
 
   public ClusterKafkaSource(KafkaConfigBean conf) {
     super(conf);
@@ -70,6 +71,7 @@ public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitt
   public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
     // Ignore the batch size
     OffsetAndResult<Map.Entry> offsetAndResult = consumer.take();
+    dataChannel.updateGauge(handoffGauge);
     long offset = (Long)offsetAndResult.getOffset();
     String messageId = String.format("kafka::%s::unknown", offset); // don't inc as we have not progressed
     for (Map.Entry  messageAndPartition : offsetAndResult.getResult()) {
@@ -97,6 +99,7 @@ public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitt
   @Override
   protected List<ConfigIssue> init() {
     List<ConfigIssue> errors = super.init();
+    handoffGauge = getContext().createGauge(DataChannel.GAUGE_NAME).getValue();
     if (errors.isEmpty()) {
       LOG.info("Successfully initialized Spark Kafka Consumer");
     }
@@ -105,6 +108,8 @@ public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitt
 
   @Override
   public void destroy() {
+    // the pipeline does not commit any more batches, the producer must not wait for them
+    consumer.complete();
     shutdown();
     if(kafkaConsumer != null) {
       kafkaConsumer.destroy();
@@ -126,7 +131,7 @@ public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitt
 
   @Override
   public void completeBatch() throws InterruptedException {
-    producer.waitForCommit();
+    producer.waitForSlot();
   }
 
   @Override
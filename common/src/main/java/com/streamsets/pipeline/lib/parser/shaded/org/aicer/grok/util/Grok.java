@@ -20,6 +20,8 @@ import com.streamsets.pipeline.lib.parser.shaded.com.google.code.regexp.Matcher;
 import com.streamsets.pipeline.lib.parser.shaded.com.google.code.regexp.Pattern;
 import com.streamsets.pipeline.lib.parser.shaded.org.aicer.grok.dictionary.GrokDictionary;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,12 +32,46 @@ import java.util.Map;
 public final class Grok {
 
   private final Pattern compiledPattern;
+  private final String expression;
 
   /**
    * Constructor
    */
   public Grok(final Pattern compiledPattern) {
+     this(compiledPattern, compiledPattern.namedPattern());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param compiledPattern
+   * @param expression Grok expression the pattern was compiled from
+   */
+  public Grok(final Pattern compiledPattern, final String expression) {
      this.compiledPattern = compiledPattern;
+     this.expression = expression;
+  }
+
+  /**
+   * @return the Grok expression the pattern was compiled from
+   */
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * @return the regular expression the Grok expression expanded to, without named groups
+   */
+  public String getPattern() {
+    return compiledPattern.standardPattern();
+  }
+
+  /**
+   * Creates a matcher for {@link #extractNamedGroups(Matcher, CharSequence)}, it can be reused for many inputs but
+   * not by concurrent threads.
+   */
+  public Matcher matcher() {
+    return compiledPattern.matcher("");
   }
 
   /**
@@ -56,6 +92,30 @@ public final class Grok {
     return null;
   }
 
+  /**
+   * Extracts named groups from the raw data resetting the given matcher, which must have been created by
+   * {@link #matcher()}. Unlike {@link #extractNamedGroups(CharSequence)} the input is matched only once.
+   *
+   * @param matcher
+   * @param rawData
+   * @return A map of group names mapped to their extracted values or null if there are no matches
+   */
+  public Map<String, String> extractNamedGroups(final Matcher matcher, final CharSequence rawData) {
+    matcher.reset(rawData);
+    if (matcher.find()) {
+      List<String> groupNames = compiledPattern.groupNames();
+      if (!groupNames.isEmpty()) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String groupName : groupNames) {
+          result.put(groupName, matcher.group(groupName));
+        }
+        return result;
+      }
+    }
+
+    return null;
+  }
+
   private static final void displayResults(final Map<String, String> results) {
     if (results != null) {
       for(Map.Entry<String, String> entry : results.entrySet()) {
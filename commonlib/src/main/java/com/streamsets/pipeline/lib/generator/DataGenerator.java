@@ -26,6 +26,20 @@ public interface DataGenerator extends Closeable {
 
   public void flush() throws IOException;
 
+  /**
+   * Flushes everything written so far and starts over on the same output, the next record is written as if it was the
+   * first one given to a brand new generator. Used to keep a single generator when serializing one message at a time
+   * into a reusable buffer (see {@link RecordSerializer}).
+   * <p/>
+   * Generators that frame their output (headers, schemas, enclosing arrays, magic bytes) can't be reset and return
+   * <code>false</code>, the caller has to close them and get a new one instead.
+   *
+   * @return <code>true</code> if the generator was reset, <code>false</code> if it does not support it.
+   */
+  public default boolean reset() throws IOException {
+    return false;
+  }
+
   @Override
   public void close() throws IOException;
 
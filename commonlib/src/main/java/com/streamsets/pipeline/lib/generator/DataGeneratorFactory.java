@@ -54,6 +54,9 @@ public abstract class DataGeneratorFactory extends DataFactory {
   public abstract DataGenerator getGenerator(OutputStream os) throws IOException;
 
   public Writer createWriter(OutputStream os) {
+    if (os instanceof SerializationBuffer) {
+      return ((SerializationBuffer) os).getWriter(getSettings().getCharset());
+    }
     return new OutputStreamWriter(os, getSettings().getCharset());
   }
 
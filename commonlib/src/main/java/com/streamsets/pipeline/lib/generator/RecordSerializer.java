@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Record;
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Serializes records into standalone messages (a byte array each) for destinations that send one message per record
+ * or per group of records.
+ * <p/>
+ * The output buffer is reused across messages and so is the generator whenever it supports
+ * {@link DataGenerator#reset()}, which leaves a single copy of the serialized bytes as the only allocation per message
+ * made here. Not thread safe, stages create one per instance and every pipeline runner has its own stage instances.
+ */
+public class RecordSerializer implements Closeable {
+
+  private final DataGeneratorFactory factory;
+  private final SerializationBuffer buffer;
+  private DataGenerator generator;
+
+  public RecordSerializer(DataGeneratorFactory factory, int initialBufferSize) {
+    this.factory = factory;
+    this.buffer = new SerializationBuffer(initialBufferSize);
+  }
+
+  /**
+   * Serializes a single record into its own message.
+   */
+  public byte[] serialize(Record record) throws IOException, DataGeneratorException {
+    write(record);
+    return finish();
+  }
+
+  /**
+   * Adds the record to the message being built, the message is complete on {@link #finish()}.
+   */
+  public void write(Record record) throws IOException, DataGeneratorException {
+    try {
+      if (generator == null) {
+        generator = factory.getGenerator(buffer);
+      }
+      generator.write(record);
+    } catch (IOException | DataGeneratorException | RuntimeException ex) {
+      discard();
+      throw ex;
+    }
+  }
+
+  /**
+   * Completes the message with all the records written since the previous one and returns it.
+   */
+  public byte[] finish() throws IOException {
+    try {
+      if (generator != null && !generator.reset()) {
+        // The generator has to end its output (trailers, closing brackets, ...) and can't be used for the next message
+        DataGenerator finished = generator;
+        generator = null;
+        finished.close();
+      }
+      return buffer.drain();
+    } catch (IOException | RuntimeException ex) {
+      discard();
+      throw ex;
+    }
+  }
+
+  /**
+   * Drops the message being built, whatever was partially written goes away with the generator that wrote it.
+   */
+  public void discard() {
+    IOUtils.closeQuietly(generator);
+    generator = null;
+    buffer.reset();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (generator != null) {
+      generator.close();
+      generator = null;
+    }
+    buffer.reset();
+  }
+
+}
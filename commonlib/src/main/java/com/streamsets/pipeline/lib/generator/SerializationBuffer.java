@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Growable in-memory output that is reused from one message to the next instead of allocating a new
+ * <code>ByteArrayOutputStream</code> (and a new writer with its own encoding buffer) for every message.
+ * <p/>
+ * Closing the buffer, or the writer returned by {@link #getWriter(Charset)}, only flushes so that generators can be
+ * closed without losing the buffer. Not thread safe, each thread needs its own buffer.
+ */
+public class SerializationBuffer extends ByteArrayOutputStream {
+
+  private Charset writerCharset;
+  private Writer writer;
+
+  public SerializationBuffer(int initialSize) {
+    super(initialSize);
+  }
+
+  /**
+   * Returns a writer over this buffer, the same instance is returned for as long as the charset does not change.
+   */
+  public Writer getWriter(Charset charset) {
+    if (writer == null || !charset.equals(writerCharset)) {
+      writerCharset = charset;
+      writer = new OutputStreamWriter(this, charset) {
+        @Override
+        public void close() throws IOException {
+          flush();
+        }
+      };
+    }
+    return writer;
+  }
+
+  /**
+   * Returns the contents of the buffer (the only copy made) and empties it for the next message.
+   */
+  public synchronized byte[] drain() {
+    byte[] bytes = toByteArray();
+    reset();
+    return bytes;
+  }
+
+  /**
+   * Returns the current capacity, once it has grown large enough for the messages written no more allocations happen.
+   */
+  public synchronized int capacity() {
+    return buf.length;
+  }
+
+}
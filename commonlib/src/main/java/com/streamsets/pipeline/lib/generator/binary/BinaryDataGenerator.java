@@ -67,6 +67,13 @@ public class BinaryDataGenerator implements DataGenerator {
     outputStream.flush();
   }
 
+  @Override
+  public boolean reset() throws IOException {
+    // Nothing is kept between records
+    flush();
+    return true;
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
@@ -24,18 +24,24 @@ import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.Writer;
 
 public class JsonCharDataGenerator implements DataGenerator {
 
-  private final JsonRecordWriter recordWriter;
+  private final ContextExtensions ext;
+  private final Writer writer;
+  private final RecordWriterOutput recordWriterOutput;
   private final Mode mode;
+  private final JsonRecordWriter recordWriter;
 
   public JsonCharDataGenerator(ProtoConfigurableEntity.Context context, Writer writer, Mode mode) throws IOException {
     this.mode = mode;
-    ContextExtensions ext = ((ContextExtensions) context);
-    recordWriter = ext.createJsonRecordWriter(writer, mode);
+    this.writer = writer;
+    this.recordWriterOutput = new RecordWriterOutput(writer);
+    ext = ((ContextExtensions) context);
+    recordWriter = ext.createJsonRecordWriter(recordWriterOutput, mode);
   }
 
   @VisibleForTesting
@@ -61,8 +67,83 @@ public class JsonCharDataGenerator implements DataGenerator {
     recordWriter.flush();
   }
 
+  @Override
+  public boolean reset() throws IOException {
+    // Array mode must close the array, multiple objects keep the same record writer and only drop the line break it
+    // writes before its next object
+    if (mode != Mode.MULTIPLE_OBJECTS) {
+      return false;
+    }
+    recordWriter.flush();
+    recordWriterOutput.startMessage();
+    return true;
+  }
+
   @Override
   public void close() throws IOException {
-    recordWriter.close();
+    try {
+      recordWriter.close();
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Output of the record writer. Record writers close what they write to, here closing only flushes and the generator
+   * closes the writer itself. After {@link #startMessage()} the line breaks that separate the objects are dropped
+   * until the next object starts, JSON objects never start with one.
+   */
+  private static final class RecordWriterOutput extends FilterWriter {
+    private boolean startOfMessage;
+
+    private RecordWriterOutput(Writer writer) {
+      super(writer);
+    }
+
+    private void startMessage() {
+      startOfMessage = true;
+    }
+
+    private static boolean isLineBreak(char c) {
+      return c == '\n' || c == '\r';
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      if (startOfMessage && isLineBreak((char) c)) {
+        return;
+      }
+      startOfMessage = false;
+      out.write(c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      while (startOfMessage && len > 0 && isLineBreak(cbuf[off])) {
+        off++;
+        len--;
+      }
+      if (len > 0) {
+        startOfMessage = false;
+        out.write(cbuf, off, len);
+      }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      while (startOfMessage && len > 0 && isLineBreak(str.charAt(off))) {
+        off++;
+        len--;
+      }
+      if (len > 0) {
+        startOfMessage = false;
+        out.write(str, off, len);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
   }
 }
@@ -76,6 +76,13 @@ public class ProtobufDataGenerator implements DataGenerator {
     outputStream.flush();
   }
 
+  @Override
+  public boolean reset() throws IOException {
+    // Nothing is kept between records
+    flush();
+    return true;
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
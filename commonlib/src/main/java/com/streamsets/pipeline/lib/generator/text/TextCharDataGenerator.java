@@ -97,6 +97,13 @@ public class TextCharDataGenerator implements DataGenerator {
     writer.flush();
   }
 
+  @Override
+  public boolean reset() throws IOException {
+    // Nothing is kept between records
+    flush();
+    return true;
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
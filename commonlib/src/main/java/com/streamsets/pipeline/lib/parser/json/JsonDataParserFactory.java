@@ -15,10 +15,12 @@
  */
 package com.streamsets.pipeline.lib.parser.json;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.JsonParserType;
 import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
@@ -26,12 +28,15 @@ import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
 public class JsonDataParserFactory extends DataParserFactory {
-  public static final Map<String, Object> CONFIGS = Collections.emptyMap();
+  static final String KEY_PREFIX = "json.";
+  public static final String PARSER_KEY = KEY_PREFIX + "parser";
+  static final String PARSER_DEFAULT = JsonParserType.LEGACY_PARSER.name();
+
+  public static final Map<String, Object> CONFIGS = ImmutableMap.of(PARSER_KEY, PARSER_DEFAULT);
 
   @SuppressWarnings("umchecked")
   public static final Set<Class<? extends Enum>> MODES = ImmutableSet.of(JsonMode.class);
@@ -54,6 +59,10 @@ public class JsonDataParserFactory extends DataParserFactory {
     Utils.checkState(reader.getPos() == 0, Utils.formatL("reader must be in position '0', it is at '{}'",
                                                          reader.getPos()));
     try {
+      if (JsonParserType.valueOf(getSettings().getConfig(PARSER_KEY)) == JsonParserType.STREAMING) {
+        return new JsonStreamingCharDataParser(getSettings().getContext(), id, reader, offset,
+            getSettings().getMode(JsonMode.class).getFormat(), getSettings().getMaxRecordLen());
+      }
       return new JsonCharDataParser(getSettings().getContext(), id, reader, offset,
                                     getSettings().getMode(JsonMode.class).getFormat(), getSettings().getMaxRecordLen());
     } catch (IOException ex) {
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.ProtoConfigurableEntity;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.io.OverrunException;
+import com.streamsets.pipeline.api.ext.io.OverrunReader;
+import com.streamsets.pipeline.api.ext.json.Mode;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.AbstractDataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON parser that builds the record fields directly from the Jackson token stream, without reading each object into
+ * an intermediate Java object graph first (which is what {@link JsonCharDataParser} does).
+ *
+ * The produced fields, the record ids and the offsets are the same as the ones of {@link JsonCharDataParser}, so the
+ * two parsers can be switched on an existing pipeline. The maximum object length is checked against the position of
+ * the parser whenever a map or a list is completed (and periodically while reading large ones) rather than on every
+ * single insert.
+ */
+public class JsonStreamingCharDataParser extends AbstractDataParser {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory()
+      .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+  private static final int MAX_CHARS_TO_READ_FORWARD = 64;
+  // Length of maps and lists is verified every this many entries even before they are complete
+  private static final int LENGTH_CHECK_INTERVAL = 128;
+
+  private final ProtoConfigurableEntity.Context context;
+  private final String readerId;
+  private final OverrunReader reader;
+  private final Mode mode;
+  private final int maxObjectLen;
+  private final JsonParser jsonParser;
+
+  private boolean starting;
+  private JsonStreamContext rootContext;
+  private long posCorrection;
+  private Byte firstNonSpaceChar;
+  private JsonToken nextToken;
+  private long startOffset;
+  private boolean overrun;
+  private boolean closed;
+  private boolean eof;
+
+  public JsonStreamingCharDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      OverrunReader reader,
+      long readerOffset,
+      Mode mode,
+      int maxObjectLen
+  ) throws IOException {
+    this.context = context;
+    this.readerId = readerId;
+    this.reader = reader;
+    this.mode = mode;
+    this.maxObjectLen = maxObjectLen;
+
+    starting = true;
+    reader.setEnabled(false);
+    if (mode == Mode.MULTIPLE_OBJECTS) {
+      if (readerOffset > 0) {
+        IOUtils.skipFully(reader, readerOffset);
+        posCorrection += readerOffset;
+      }
+      if (reader.markSupported()) {
+        reader.mark(MAX_CHARS_TO_READ_FORWARD);
+        int count = 0;
+        byte firstByte = -1;
+        while (count++ < MAX_CHARS_TO_READ_FORWARD &&
+            (firstByte = (byte) reader.read()) != -1 &&
+            firstByte <= ' '); // everything less than a space is whitespace
+        if (firstByte > ' ') {
+          firstNonSpaceChar = firstByte;
+        }
+        reader.reset();
+      }
+    }
+    jsonParser = JSON_FACTORY.createParser(reader);
+    if (mode == Mode.ARRAY_OBJECTS && readerOffset > 0) {
+      while (jsonParser.getTokenLocation().getCharOffset() < readerOffset) {
+        jsonParser.nextToken();
+        if (starting) {
+          rootContext = jsonParser.getParsingContext();
+          starting = false;
+        }
+      }
+    }
+    reader.setEnabled(true);
+  }
+
+  @Override
+  public Record parse() throws IOException, DataParserException {
+    Record record = null;
+    long offset = getReaderPosition();
+    Field field = read(offset);
+    if (field != null) {
+      record = context.createRecord(readerId + "::" + offset);
+      record.set(field);
+    } else {
+      eof = true;
+    }
+    return record;
+  }
+
+  public Field parseAsField() throws IOException, DataParserException {
+    return read(getReaderPosition());
+  }
+
+  @Override
+  public String getOffset() {
+    return eof ? String.valueOf(-1) : String.valueOf(getReaderPosition());
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    jsonParser.close();
+  }
+
+  private long getReaderPosition() {
+    // Jackson returns -1 as token location before the first token is read
+    long position = Math.max(jsonParser.getTokenLocation().getCharOffset(), 0);
+    return (mode == Mode.ARRAY_OBJECTS) ? position : position + posCorrection;
+  }
+
+  // Returns null on EOF, JSON null values are returned as a null STRING field
+  private Field read(long offset) throws IOException, DataParserException {
+    if (closed) {
+      throw new IOException("The parser is closed");
+    }
+    Utils.checkState(!overrun, "The underlying input stream had an overrun, the parser is not usable anymore");
+    reader.resetCount();
+    try {
+      return (mode == Mode.ARRAY_OBJECTS) ? readFromArray(offset) : readFromStream(offset);
+    } catch (OverrunException ex) {
+      overrun = true;
+      throw ex;
+    }
+  }
+
+  private Field readFromArray(long offset) throws IOException, DataParserException {
+    if (starting) {
+      starting = false;
+      JsonToken token = jsonParser.nextToken();
+      rootContext = jsonParser.getParsingContext();
+      if (token != JsonToken.START_ARRAY) {
+        throw new JsonParseException(
+            jsonParser,
+            Utils.format("JSON array expected but stream starts with '{}'", token)
+        );
+      }
+    }
+    JsonToken token = jsonParser.nextToken();
+    if (token == null || token == JsonToken.END_ARRAY) {
+      return null;
+    }
+    startOffset = jsonParser.getTokenLocation().getCharOffset();
+    return readField(token, offset);
+  }
+
+  private Field readFromStream(long offset) throws IOException, DataParserException {
+    if (starting) {
+      starting = false;
+      nextToken = jsonParser.nextToken();
+    }
+    if (nextToken == null) {
+      return null;
+    }
+    startOffset = jsonParser.getTokenLocation().getCharOffset();
+    Field field = readField(nextToken, offset);
+    nextToken = jsonParser.nextToken();
+    if (nextToken == null) {
+      // on EOF Jackson keeps the location of the last token as token location, we need to adjust by 1 to make sure
+      // we are after it if getReaderPosition() is called
+      posCorrection++;
+    }
+    return field;
+  }
+
+  private Field readField(JsonToken token, long offset) throws IOException, DataParserException {
+    if (token == null) {
+      throw new JsonParseException(jsonParser, "Unexpected end of input");
+    }
+    int entries = 0;
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Field> map = new LinkedHashMap<>();
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = jsonParser.getCurrentName();
+          map.put(name, readField(jsonParser.nextToken(), offset));
+          if (++entries % LENGTH_CHECK_INTERVAL == 0) {
+            checkLength(offset);
+          }
+        }
+        checkLength(offset);
+        return Field.create(map);
+      case START_ARRAY:
+        List<Field> list = new ArrayList<>();
+        while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+          list.add(readField(token, offset));
+          if (++entries % LENGTH_CHECK_INTERVAL == 0) {
+            checkLength(offset);
+          }
+        }
+        checkLength(offset);
+        return Field.create(list);
+      case VALUE_STRING:
+        return Field.create(jsonParser.getText());
+      case VALUE_NUMBER_INT:
+        switch (jsonParser.getNumberType()) {
+          case INT:
+            return Field.create(jsonParser.getIntValue());
+          case LONG:
+            return Field.create(jsonParser.getLongValue());
+          default:
+            return Field.create(new BigDecimal(jsonParser.getBigIntegerValue()));
+        }
+      case VALUE_NUMBER_FLOAT:
+        return Field.create(jsonParser.getDoubleValue());
+      case VALUE_TRUE:
+        return Field.create(true);
+      case VALUE_FALSE:
+        return Field.create(false);
+      case VALUE_NULL:
+        return Field.create(Field.Type.STRING, null);
+      default:
+        throw new DataParserException(Errors.JSON_PARSER_01, readerId, offset, token);
+    }
+  }
+
+  private void checkLength(long offset) throws IOException, DataParserException {
+    if (maxObjectLen > -1 && jsonParser.getCurrentLocation().getCharOffset() - startOffset > maxObjectLen) {
+      skipToNextRootValue();
+      throw new DataParserException(Errors.JSON_PARSER_02, readerId, offset, maxObjectLen);
+    }
+  }
+
+  private void skipToNextRootValue() throws IOException {
+    JsonToken token = jsonParser.getCurrentToken();
+    if (mode == Mode.ARRAY_OBJECTS) {
+      while (token != null && jsonParser.getParsingContext() != rootContext) {
+        token = jsonParser.nextToken();
+      }
+    } else {
+      try {
+        while (token != null && !jsonParser.getParsingContext().inRoot()) {
+          token = jsonParser.nextToken();
+        }
+        nextToken = jsonParser.nextToken();
+      } catch (OverrunException e) {
+        if (firstNonSpaceChar == null || firstNonSpaceChar != '[') {
+          throw e;
+        } else {
+          String msg = Utils.format("Overrun exception occurred on a file starting with '[', which may " +
+              "indicate the incorrect processor mode '{}' is being used: {}", mode.name(), e);
+          throw new OverrunException(msg, e.getStreamOffset(), e);
+        }
+      }
+    }
+  }
+
+}
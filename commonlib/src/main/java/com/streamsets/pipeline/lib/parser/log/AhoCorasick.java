@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton finding which of a set of keywords occur in a text in a single pass.
+ */
+final class AhoCorasick {
+
+  private static final int[] NO_OUTPUT = new int[0];
+
+  // transitions of each state, keys sorted for binary search
+  private final char[][] keys;
+  private final int[][] targets;
+  private final int[] failure;
+  // keywords ending at each state, including the ones reached through failure links
+  private final int[][] outputs;
+
+  /**
+   * @param keywords keywords to search, identified by their index in the list.
+   */
+  AhoCorasick(List<String> keywords) {
+    List<Map<Character, Integer>> trie = new ArrayList<>();
+    List<List<Integer>> trieOutputs = new ArrayList<>();
+    trie.add(new TreeMap<>());
+    trieOutputs.add(new ArrayList<>());
+    for (int k = 0; k < keywords.size(); k++) {
+      int state = 0;
+      for (char c : keywords.get(k).toCharArray()) {
+        Integer next = trie.get(state).get(c);
+        if (next == null) {
+          next = trie.size();
+          trie.add(new TreeMap<>());
+          trieOutputs.add(new ArrayList<>());
+          trie.get(state).put(c, next);
+        }
+        state = next;
+      }
+      trieOutputs.get(state).add(k);
+    }
+
+    int size = trie.size();
+    keys = new char[size][];
+    targets = new int[size][];
+    failure = new int[size];
+    outputs = new int[size][];
+    for (int state = 0; state < size; state++) {
+      Map<Character, Integer> transitions = trie.get(state);
+      keys[state] = new char[transitions.size()];
+      targets[state] = new int[transitions.size()];
+      int i = 0;
+      for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+        keys[state][i] = transition.getKey();
+        targets[state][i] = transition.getValue();
+        i++;
+      }
+    }
+
+    // breadth first so the failure state of a state is always resolved before the state itself
+    Deque<Integer> queue = new ArrayDeque<>();
+    outputs[0] = NO_OUTPUT;
+    for (int child : targets[0]) {
+      failure[child] = 0;
+      outputs[child] = toArray(trieOutputs.get(child), NO_OUTPUT);
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (int i = 0; i < keys[state].length; i++) {
+        int child = targets[state][i];
+        int fallback = failure[state];
+        int next = transition(fallback, keys[state][i]);
+        while (next < 0 && fallback != 0) {
+          fallback = failure[fallback];
+          next = transition(fallback, keys[state][i]);
+        }
+        failure[child] = next < 0 ? 0 : next;
+        outputs[child] = toArray(trieOutputs.get(child), outputs[failure[child]]);
+        queue.add(child);
+      }
+    }
+  }
+
+  private static int[] toArray(List<Integer> own, int[] inherited) {
+    if (own.isEmpty()) {
+      return inherited;
+    }
+    int[] result = Arrays.copyOf(inherited, inherited.length + own.size());
+    for (int i = 0; i < own.size(); i++) {
+      result[inherited.length + i] = own.get(i);
+    }
+    return result;
+  }
+
+  private int transition(int state, char c) {
+    int i = Arrays.binarySearch(keys[state], c);
+    return i < 0 ? -1 : targets[state][i];
+  }
+
+  /**
+   * Marks in the given array, indexed by keyword, the keywords found in the text. The array is not cleared first.
+   *
+   * @return the number of keyword occurrences found.
+   */
+  int find(CharSequence text, boolean[] found) {
+    int occurrences = 0;
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      int next = transition(state, c);
+      while (next < 0 && state != 0) {
+        state = failure[state];
+        next = transition(state, c);
+      }
+      state = next < 0 ? 0 : next;
+      for (int keyword : outputs[state]) {
+        found[keyword] = true;
+        occurrences++;
+      }
+    }
+    return occurrences;
+  }
+}
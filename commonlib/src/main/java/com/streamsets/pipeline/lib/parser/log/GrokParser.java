@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.lib.parser.log;
 
+import com.codahale.metrics.Gauge;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
@@ -29,7 +30,7 @@ import java.util.Map;
 
 public class GrokParser extends LogCharDataParser {
 
-  private final List<Grok> compiledPatterns;
+  private final GrokPatternMatcher matcher;
   private final String formatName;
 
   public GrokParser(
@@ -46,24 +47,23 @@ public class GrokParser extends LogCharDataParser {
       GenericObjectPool<StringBuilder> previousLineBuilderPool
   ) throws IOException {
     super(context, readerId, reader, readerOffset, maxObjectLen, retainOriginalText, maxStackTraceLines, currentLineBuilderPool, previousLineBuilderPool);
-    this.compiledPatterns = compiledPattern;
+    Gauge<Map<String, Object>> gauge = context == null
+        ? null
+        : context.createGauge(GrokPatternMatcher.GAUGE_NAME);
+    this.matcher = new GrokPatternMatcher(compiledPattern, gauge == null ? null : gauge.getValue());
     this.formatName = formatName;
   }
 
   @Override
   public Map<String, Field> parseLogLine(StringBuilder logLine) throws DataParserException {
-    Map<String, String> namedGroupToValuesMap;
+    Map<String, String> namedGroupToValuesMap = matcher.match(logLine);
 
-    for (Grok compiledPattern : compiledPatterns) {
-      namedGroupToValuesMap = compiledPattern.extractNamedGroups(logLine.toString());
-
-      if (namedGroupToValuesMap != null) {
-        Map<String, Field> map = new LinkedHashMap<>();
-        for(Map.Entry<String, String> e : namedGroupToValuesMap.entrySet()) {
-          map.put(e.getKey(), Field.create(e.getValue()));
-        }
-        return map;
+    if (namedGroupToValuesMap != null) {
+      Map<String, Field> map = new LinkedHashMap<>();
+      for(Map.Entry<String, String> e : namedGroupToValuesMap.entrySet()) {
+        map.put(e.getKey(), Field.create(e.getValue()));
       }
+      return map;
     }
 
     //Did not match
@@ -72,6 +72,12 @@ public class GrokParser extends LogCharDataParser {
     return null;
   }
 
+  @Override
+  public void close() throws IOException {
+    matcher.flush();
+    super.close();
+  }
+
   protected void handleNoMatch(String logLine) throws DataParserException {
     throw new DataParserException(Errors.LOG_PARSER_03, logLine, formatName);
   }
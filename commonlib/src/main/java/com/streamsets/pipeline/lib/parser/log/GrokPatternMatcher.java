@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.log;
+
+import com.streamsets.pipeline.lib.parser.shaded.com.google.code.regexp.Matcher;
+import com.streamsets.pipeline.lib.parser.shaded.org.aicer.grok.util.Grok;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches lines against a list of Grok patterns, returning the named groups of the first pattern, in list order,
+ * that matches.
+ * <p/>
+ * The literal strings required by each pattern are searched in the line in a single pass with an Aho-Corasick
+ * automaton, patterns missing any of their literals are not evaluated. Matchers are reused across lines and lines are
+ * matched as they are, without copying them to a String.
+ * <p/>
+ * Instances are not thread safe. Hits, misses and skips of each pattern are counted locally and periodically added to
+ * a gauge that can be shared by several matchers.
+ */
+class GrokPatternMatcher {
+  static final String GAUGE_NAME = "Grok Pattern Matches";
+  static final String HITS = " Hits";
+  static final String MISSES = " Misses";
+  static final String SKIPPED = " Skipped";
+
+  private static final int FLUSH_INTERVAL = 1000;
+
+  private final Grok[] patterns;
+  private final Matcher[] matchers;
+  // indexes in the prefilter of the literals required by each pattern
+  private final int[][] requiredLiterals;
+  private final AhoCorasick prefilter;
+  private final boolean[] found;
+  private final long[] hits;
+  private final long[] misses;
+  private final long[] skipped;
+  private final Map<String, Object> gauge;
+  private int unflushed;
+
+  /**
+   * @param patterns Grok patterns in match order.
+   * @param gauge gauge to report pattern metrics to, or null.
+   */
+  GrokPatternMatcher(List<Grok> patterns, Map<String, Object> gauge) {
+    this.patterns = patterns.toArray(new Grok[0]);
+    this.gauge = gauge;
+    matchers = new Matcher[this.patterns.length];
+    requiredLiterals = new int[this.patterns.length][];
+    hits = new long[this.patterns.length];
+    misses = new long[this.patterns.length];
+    skipped = new long[this.patterns.length];
+
+    Map<String, Integer> literalIndexes = new HashMap<>();
+    List<String> literals = new ArrayList<>();
+    for (int i = 0; i < this.patterns.length; i++) {
+      matchers[i] = this.patterns[i].matcher();
+      // a single pattern is cheaper to evaluate than to prefilter
+      List<String> patternLiterals = this.patterns.length > 1
+          ? RegexLiterals.requiredLiterals(this.patterns[i].getPattern())
+          : new ArrayList<>();
+      requiredLiterals[i] = new int[patternLiterals.size()];
+      for (int j = 0; j < patternLiterals.size(); j++) {
+        requiredLiterals[i][j] = literalIndexes.computeIfAbsent(patternLiterals.get(j), literal -> {
+          literals.add(literal);
+          return literals.size() - 1;
+        });
+      }
+    }
+    prefilter = literals.isEmpty() ? null : new AhoCorasick(literals);
+    found = new boolean[literals.size()];
+  }
+
+  /**
+   * Returns the named groups of the first pattern matching the line, or null if none matches.
+   */
+  Map<String, String> match(CharSequence line) {
+    if (prefilter != null) {
+      Arrays.fill(found, false);
+      prefilter.find(line, found);
+    }
+    Map<String, String> groups = null;
+    for (int i = 0; i < patterns.length && groups == null; i++) {
+      if (!hasRequiredLiterals(i)) {
+        skipped[i]++;
+        continue;
+      }
+      groups = patterns[i].extractNamedGroups(matchers[i], line);
+      if (groups != null) {
+        hits[i]++;
+      } else {
+        misses[i]++;
+      }
+    }
+    if (++unflushed >= FLUSH_INTERVAL) {
+      flush();
+    }
+    return groups;
+  }
+
+  private boolean hasRequiredLiterals(int pattern) {
+    for (int literal : requiredLiterals[pattern]) {
+      if (!found[literal]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the counters to the gauge and resets them.
+   */
+  void flush() {
+    if (gauge != null && unflushed > 0) {
+      for (int i = 0; i < patterns.length; i++) {
+        String expression = patterns[i].getExpression();
+        add(expression + HITS, hits[i]);
+        add(expression + MISSES, misses[i]);
+        add(expression + SKIPPED, skipped[i]);
+      }
+    }
+    Arrays.fill(hits, 0);
+    Arrays.fill(misses, 0);
+    Arrays.fill(skipped, 0);
+    unflushed = 0;
+  }
+
+  private void add(String key, long value) {
+    gauge.merge(key, value, (current, delta) -> (Long) current + (Long) delta);
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts the literal strings that any match of a regular expression must contain.
+ * <p/>
+ * Only literal runs in the top level concatenation of the expression are considered, groups, character classes and
+ * escape sequences end a run. Expressions with top level alternations, inline flags or quoting yield no literals.
+ */
+final class RegexLiterals {
+
+  static final int MIN_LITERAL_LENGTH = 2;
+
+  private static final int UNSUPPORTED = -1;
+  private static final String INLINE_FLAGS = "idmsuxU-";
+
+  private RegexLiterals() {
+  }
+
+  /**
+   * Returns the literal strings of at least {@link #MIN_LITERAL_LENGTH} characters required by the expression,
+   * empty if none could be determined.
+   */
+  static List<String> requiredLiterals(String regex) {
+    Set<String> literals = new LinkedHashSet<>();
+    StringBuilder run = new StringBuilder();
+    int i = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      char literal;
+      switch (c) {
+        case '\\':
+          if (i + 1 >= regex.length()) {
+            return Collections.emptyList();
+          }
+          char escaped = regex.charAt(i + 1);
+          if (!Character.isLetterOrDigit(escaped)) {
+            literal = escaped;
+            i += 2;
+            break;
+          }
+          if (escaped == 'Q') {
+            return Collections.emptyList();
+          }
+          endRun(run, literals);
+          i = skipQuantifier(regex, skipEscape(regex, i));
+          continue;
+        case '[':
+          i = skipClass(regex, i);
+          if (i == UNSUPPORTED) {
+            return Collections.emptyList();
+          }
+          endRun(run, literals);
+          i = skipQuantifier(regex, i);
+          continue;
+        case '(':
+          i = skipGroup(regex, i);
+          if (i == UNSUPPORTED) {
+            return Collections.emptyList();
+          }
+          endRun(run, literals);
+          i = skipQuantifier(regex, i);
+          continue;
+        case '|':
+        case ')':
+          return Collections.emptyList();
+        case '.':
+        case '^':
+        case '$':
+          endRun(run, literals);
+          i = skipQuantifier(regex, i + 1);
+          continue;
+        case '*':
+        case '+':
+        case '?':
+        case '{':
+          endRun(run, literals);
+          i++;
+          continue;
+        default:
+          literal = c;
+          i++;
+      }
+      int quantifierEnd = skipQuantifier(regex, i);
+      if (quantifierEnd == i) {
+        run.append(literal);
+      } else {
+        if (!isOptional(regex, i)) {
+          // the first occurrence is required, the repetitions end the run
+          run.append(literal);
+        }
+        endRun(run, literals);
+        i = quantifierEnd;
+      }
+    }
+    endRun(run, literals);
+    return new ArrayList<>(literals);
+  }
+
+  private static void endRun(StringBuilder run, Set<String> literals) {
+    if (run.length() >= MIN_LITERAL_LENGTH) {
+      literals.add(run.toString());
+    }
+    run.setLength(0);
+  }
+
+  private static boolean isOptional(String regex, int i) {
+    char c = regex.charAt(i);
+    return c == '*' || c == '?' || (c == '{' && regex.charAt(i + 1) == '0');
+  }
+
+  /**
+   * Returns the index after the quantifier at the given index, the same index if there is none.
+   */
+  private static int skipQuantifier(String regex, int i) {
+    if (i >= regex.length()) {
+      return i;
+    }
+    int end;
+    char c = regex.charAt(i);
+    if (c == '*' || c == '+' || c == '?') {
+      end = i + 1;
+    } else if (c == '{') {
+      end = i + 1;
+      int digits = 0;
+      while (end < regex.length() && (Character.isDigit(regex.charAt(end)) || regex.charAt(end) == ',')) {
+        digits += Character.isDigit(regex.charAt(end)) ? 1 : 0;
+        end++;
+      }
+      if (digits == 0 || end >= regex.length() || regex.charAt(end) != '}') {
+        return i;
+      }
+      end++;
+    } else {
+      return i;
+    }
+    // reluctant and possessive quantifiers
+    if (end < regex.length() && (regex.charAt(end) == '?' || regex.charAt(end) == '+')) {
+      end++;
+    }
+    return end;
+  }
+
+  /**
+   * Returns the index after the escape sequence, starting with a letter or digit, at the given index.
+   */
+  private static int skipEscape(String regex, int i) {
+    int j = i + 2;
+    switch (regex.charAt(i + 1)) {
+      case 'x':
+        j = regex.startsWith("{", j) ? regex.indexOf('}', j) + 1 : j + 2;
+        break;
+      case 'u':
+        j += 4;
+        break;
+      case '0':
+        while (j < i + 5 && j < regex.length() && regex.charAt(j) >= '0' && regex.charAt(j) <= '7') {
+          j++;
+        }
+        break;
+      case 'c':
+        j++;
+        break;
+      case 'p':
+      case 'P':
+        j = regex.startsWith("{", j) ? regex.indexOf('}', j) + 1 : j + 1;
+        break;
+      case 'k':
+        j = regex.indexOf('>', j) + 1;
+        break;
+      default:
+        // back references
+        while (Character.isDigit(regex.charAt(j - 1)) && j < regex.length() && Character.isDigit(regex.charAt(j))) {
+          j++;
+        }
+    }
+    // indexOf returning -1 leaves j at 0, the rest of the expression can't be trusted
+    return j <= i ? regex.length() : Math.min(j, regex.length());
+  }
+
+  /**
+   * Returns the index after the character class at the given index.
+   */
+  private static int skipClass(String regex, int i) {
+    int j = i + 1;
+    if (j < regex.length() && regex.charAt(j) == '^') {
+      j++;
+    }
+    if (j < regex.length() && regex.charAt(j) == ']') {
+      j++;
+    }
+    while (j < regex.length()) {
+      char c = regex.charAt(j);
+      if (c == '\\') {
+        j += 2;
+      } else if (c == '[') {
+        j = skipClass(regex, j);
+        if (j == UNSUPPORTED) {
+          return UNSUPPORTED;
+        }
+      } else if (c == ']') {
+        return j + 1;
+      } else {
+        j++;
+      }
+    }
+    return UNSUPPORTED;
+  }
+
+  /**
+   * Returns the index after the group at the given index, unsupported if the group sets inline flags.
+   */
+  private static int skipGroup(String regex, int i) {
+    int depth = 0;
+    int j = i;
+    while (j < regex.length()) {
+      char c = regex.charAt(j);
+      if (c == '\\') {
+        j += 2;
+      } else if (c == '[') {
+        j = skipClass(regex, j);
+        if (j == UNSUPPORTED) {
+          return UNSUPPORTED;
+        }
+      } else if (c == '(') {
+        if (regex.startsWith("?", j + 1) && j + 2 < regex.length() && INLINE_FLAGS.indexOf(regex.charAt(j + 2)) >= 0) {
+          return UNSUPPORTED;
+        }
+        depth++;
+        j++;
+      } else if (c == ')') {
+        depth--;
+        j++;
+        if (depth == 0) {
+          return j;
+        }
+      } else {
+        j++;
+      }
+    }
+    return UNSUPPORTED;
+  }
+}
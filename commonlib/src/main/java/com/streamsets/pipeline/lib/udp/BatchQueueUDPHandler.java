@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.codahale.metrics.Meter;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handler for a single socket that parses packets on the event loop of the socket and queues the parsed records in
+ * whole batches.
+ * <p/>
+ * A batch is queued when its records and parsing errors reach the batch size and, if not empty, every batch wait
+ * time. The queue is bounded, a batch that does not fit is dropped. The queue is meant to be drained by a single
+ * consumer, which is notified of each queued batch by the semaphore, the semaphore can be shared by the handlers of
+ * all the sockets of a consumer.
+ * <p/>
+ * The handler is not sharable, the batch being built is only accessed by the event loop of its channel.
+ */
+public class BatchQueueUDPHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+  private static final Logger LOG = LoggerFactory.getLogger(BatchQueueUDPHandler.class);
+
+  /**
+   * Records and parsing errors of the packets received by a socket.
+   */
+  public static class Batch {
+    private final List<Record> records;
+    private final List<Exception> errors = new ArrayList<>();
+    private int packets;
+
+    Batch(int batchSize) {
+      records = new ArrayList<>(batchSize);
+    }
+
+    public List<Record> getRecords() {
+      return records;
+    }
+
+    public List<Exception> getErrors() {
+      return errors;
+    }
+
+    public int getPackets() {
+      return packets;
+    }
+  }
+
+  private final AbstractParser parser;
+  private final int batchSize;
+  private final long maxWaitTimeMillis;
+  private final BlockingQueue<Batch> queue;
+  private final Semaphore queuedBatches;
+  private final Meter receivedPackets;
+  private final Meter parsedPackets;
+  private final Meter droppedPackets;
+  private Batch batch;
+  private ScheduledFuture<?> flushFuture;
+
+  /**
+   * @param parser parser for the packets, invoked from the event loop of the socket.
+   * @param batchSize number of records that closes a batch.
+   * @param maxWaitTimeMillis period to queue batches that did not reach the batch size.
+   * @param queueSize maximum number of batches waiting for the consumer.
+   * @param queuedBatches released for each queued batch.
+   * @param receivedPackets marked for each packet received.
+   * @param parsedPackets marked for each packet parsed without errors.
+   * @param droppedPackets marked for each packet of the batches that did not fit in the queue.
+   */
+  public BatchQueueUDPHandler(
+      AbstractParser parser,
+      int batchSize,
+      long maxWaitTimeMillis,
+      int queueSize,
+      Semaphore queuedBatches,
+      Meter receivedPackets,
+      Meter parsedPackets,
+      Meter droppedPackets
+  ) {
+    this.parser = parser;
+    this.batchSize = batchSize;
+    this.maxWaitTimeMillis = maxWaitTimeMillis;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.queuedBatches = queuedBatches;
+    this.receivedPackets = receivedPackets;
+    this.parsedPackets = parsedPackets;
+    this.droppedPackets = droppedPackets;
+    batch = new Batch(batchSize);
+  }
+
+  @Override
+  public void handlerAdded(ChannelHandlerContext ctx) {
+    flushFuture = ctx.executor().scheduleAtFixedRate(
+        this::queueBatch,
+        maxWaitTimeMillis,
+        maxWaitTimeMillis,
+        TimeUnit.MILLISECONDS
+    );
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) {
+    if (flushFuture != null) {
+      flushFuture.cancel(false);
+    }
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    String msg = "Uncaught throwable in UDP Server: " + cause;
+    LOG.error(msg, cause);
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+    receivedPackets.mark();
+    batch.packets++;
+    try {
+      batch.records.addAll(parser.parse(packet.content(), packet.recipient(), packet.sender()));
+      parsedPackets.mark();
+    } catch (Exception ex) {
+      batch.errors.add(ex);
+    }
+    if (batch.records.size() + batch.errors.size() >= batchSize) {
+      queueBatch();
+    }
+  }
+
+  private void queueBatch() {
+    if (batch.packets == 0) {
+      return;
+    }
+    if (queue.offer(batch)) {
+      queuedBatches.release();
+    } else {
+      droppedPackets.mark(batch.packets);
+    }
+    batch = new Batch(batchSize);
+  }
+
+  /**
+   * Returns the next queued batch, or null if there is none.
+   */
+  public Batch poll() {
+    return queue.poll();
+  }
+}
@@ -18,14 +18,13 @@ package com.streamsets.pipeline.lib.udp;
 import com.streamsets.pipeline.lib.network.BaseNettyServer;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 
 import java.net.InetSocketAddress;
@@ -33,7 +32,7 @@ import java.util.List;
 
 public class UDPConsumingServer extends BaseNettyServer {
 
-  private final SimpleChannelInboundHandler<DatagramPacket> handler;
+  private final ChannelHandler handler;
 
   public UDPConsumingServer(
       boolean enableEpoll,
@@ -53,7 +52,7 @@ public class UDPConsumingServer extends BaseNettyServer {
       boolean enableEpoll,
       int numThreads,
       List<InetSocketAddress> addresses,
-      SimpleChannelInboundHandler<DatagramPacket> handler
+      ChannelHandler handler
   ) {
     super(
         enableEpoll,
@@ -44,6 +44,8 @@ import com.streamsets.pipeline.config.ExcelHeader;
 import com.streamsets.pipeline.config.ExcelHeaderChooserValues;
 import com.streamsets.pipeline.config.JsonMode;
 import com.streamsets.pipeline.config.JsonModeChooserValues;
+import com.streamsets.pipeline.config.JsonParserType;
+import com.streamsets.pipeline.config.JsonParserTypeChooserValues;
 import com.streamsets.pipeline.config.LogMode;
 import com.streamsets.pipeline.config.LogModeChooserValues;
 import com.streamsets.pipeline.config.OnParseError;
@@ -56,6 +58,7 @@ import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
 import com.streamsets.pipeline.lib.parser.DataParserFormat;
 import com.streamsets.pipeline.lib.parser.excel.WorkbookParserConstants;
+import com.streamsets.pipeline.lib.parser.json.JsonDataParserFactory;
 import com.streamsets.pipeline.lib.parser.log.LogDataFormatValidator;
 import com.streamsets.pipeline.lib.parser.log.LogDataParserFactory;
 import com.streamsets.pipeline.lib.parser.log.RegExConfig;
@@ -266,6 +269,21 @@ public class DataParserFormatConfig implements DataFormatConfig {
   )
   public int jsonMaxObjectLen = 4096;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "LEGACY_PARSER",
+      label = "JSON Parser",
+      description = "JSON parser to use. The streaming parser builds fields directly from the input in a single pass",
+      displayPosition = 365,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "DATA_FORMAT",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "JSON"
+  )
+  @ValueChooserModel(JsonParserTypeChooserValues.class)
+  public JsonParserType jsonParser = JsonParserType.LEGACY_PARSER;
+
   //
   // CSV (Delimited configuration)
   //
@@ -1814,7 +1832,8 @@ public class DataParserFormatConfig implements DataFormatConfig {
         buildTextParser(builder, multiLines);
         break;
       case JSON:
-        builder.setMaxDataLen(jsonMaxObjectLen).setMode(jsonContent);
+        builder.setMaxDataLen(jsonMaxObjectLen).setMode(jsonContent)
+            .setConfig(JsonDataParserFactory.PARSER_KEY, jsonParser.name());
         break;
       case DELIMITED:
         buildDelimitedParser(builder);
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.ext.json.Mode;
+import com.streamsets.pipeline.config.TextFieldMissingAction;
+import com.streamsets.pipeline.lib.generator.text.TextDataGeneratorFactory;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TestRecordSerializer {
+
+  private static DataGeneratorFactory createJsonFactory(Mode mode) {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    return Mockito.spy(new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.JSON)
+        .setMode(mode)
+        .setCharset(StandardCharsets.UTF_8)
+        .build());
+  }
+
+  private static Record createRecord(String value) {
+    Record record = RecordCreator.create();
+    record.set(Field.create(value));
+    return record;
+  }
+
+  private static byte[] generate(DataGeneratorFactory factory, Record... records) throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try (DataGenerator generator = factory.getGenerator(os)) {
+      for (Record record : records) {
+        generator.write(record);
+      }
+    }
+    return os.toByteArray();
+  }
+
+  @Test
+  public void testReusedGenerator() throws Exception {
+    DataGeneratorFactory factory = createJsonFactory(Mode.MULTIPLE_OBJECTS);
+    List<Record> records = Arrays.asList(createRecord("a"), createRecord("b"), createRecord("c"));
+
+    try (RecordSerializer serializer = new RecordSerializer(factory, 4)) {
+      for (Record record : records) {
+        // Every message looks as if it had been written by its own generator, no separator from the previous one
+        Assert.assertArrayEquals(generate(factory, record), serializer.serialize(record));
+      }
+    }
+    Mockito.verify(factory, Mockito.times(1)).getGenerator(Mockito.isA(SerializationBuffer.class));
+  }
+
+  @Test
+  public void testNonResettableGenerator() throws Exception {
+    DataGeneratorFactory factory = createJsonFactory(Mode.ARRAY_OBJECTS);
+    Record record = createRecord("a");
+
+    try (RecordSerializer serializer = new RecordSerializer(factory, 4)) {
+      Assert.assertEquals("[\"a\"]", new String(serializer.serialize(record), StandardCharsets.UTF_8));
+      Assert.assertEquals("[\"a\"]", new String(serializer.serialize(record), StandardCharsets.UTF_8));
+    }
+    Mockito.verify(factory, Mockito.times(2)).getGenerator(Mockito.isA(SerializationBuffer.class));
+  }
+
+  @Test
+  public void testMultipleRecordsPerMessage() throws Exception {
+    DataGeneratorFactory factory = createJsonFactory(Mode.MULTIPLE_OBJECTS);
+    Record a = createRecord("a");
+    Record b = createRecord("b");
+
+    try (RecordSerializer serializer = new RecordSerializer(factory, 4)) {
+      serializer.write(a);
+      serializer.write(b);
+      Assert.assertArrayEquals(generate(factory, a, b), serializer.finish());
+      serializer.write(b);
+      Assert.assertArrayEquals(generate(factory, b), serializer.finish());
+    }
+  }
+
+  @Test
+  public void testDiscardAfterError() throws Exception {
+    Stage.Context context = ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(context, DataGeneratorFormat.TEXT)
+        .setConfig(TextDataGeneratorFactory.FIELD_PATH_KEY, "/text")
+        .setConfig(TextDataGeneratorFactory.MISSING_FIELD_ACTION_KEY, TextFieldMissingAction.ERROR)
+        .setCharset(StandardCharsets.UTF_8)
+        .build();
+    Record good = RecordCreator.create();
+    good.set(Field.create(Field.Type.MAP, Collections.singletonMap("text", Field.create("hello"))));
+    Record bad = createRecord("no text field");
+
+    try (RecordSerializer serializer = new RecordSerializer(factory, 4)) {
+      serializer.write(good);
+      try {
+        serializer.write(bad);
+        Assert.fail();
+      } catch (DataGeneratorException ex) {
+        // expected
+      }
+      // Nothing of the failed message leaks into the next one
+      Assert.assertArrayEquals(generate(factory, good), serializer.serialize(good));
+    }
+  }
+
+  @Test
+  public void testBuffer() throws Exception {
+    SerializationBuffer buffer = new SerializationBuffer(2);
+    Writer writer = buffer.getWriter(StandardCharsets.UTF_8);
+    Assert.assertSame(writer, buffer.getWriter(StandardCharsets.UTF_8));
+    Assert.assertNotSame(writer, buffer.getWriter(StandardCharsets.UTF_16));
+
+    writer = buffer.getWriter(StandardCharsets.UTF_8);
+    writer.write("hello");
+    writer.close();
+    buffer.close();
+    Assert.assertEquals("hello", new String(buffer.drain(), StandardCharsets.UTF_8));
+    Assert.assertEquals(0, buffer.size());
+    Assert.assertTrue(buffer.capacity() >= 5);
+
+    // Closing the writer only flushed it, it is still usable for the next message
+    writer.write("bye");
+    writer.flush();
+    Assert.assertEquals("bye", new String(buffer.drain(), StandardCharsets.UTF_8));
+  }
+
+}
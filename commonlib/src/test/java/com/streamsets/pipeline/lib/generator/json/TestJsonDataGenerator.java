@@ -47,6 +47,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TestJsonDataGenerator {
 
@@ -150,6 +151,46 @@ public class TestJsonDataGenerator {
     gen.close();
   }
 
+  @Test
+  public void testReset() throws Exception {
+    AtomicBoolean closed = new AtomicBoolean();
+    StringWriter writer = new StringWriter() {
+      @Override
+      public void close() throws IOException {
+        closed.set(true);
+        super.close();
+      }
+    };
+    DataGenerator gen = new JsonCharDataGenerator(getContext(), writer, Mode.MULTIPLE_OBJECTS);
+    Record record = RecordCreator.create();
+    record.set(Field.create("Hello"));
+    gen.write(record);
+    Assert.assertTrue(gen.reset());
+    // The previous record writer is done, the writer stays open for the next message
+    Assert.assertFalse(closed.get());
+    Assert.assertEquals("\"Hello\"", writer.toString());
+    writer.getBuffer().setLength(0);
+
+    // No separator before the first record of the new message
+    gen.write(record);
+    gen.flush();
+    Assert.assertEquals("\"Hello\"", writer.toString());
+
+    // The records of the same message are still separated, the same record writer is used for all messages
+    gen.write(record);
+    Assert.assertTrue(gen.reset());
+    Assert.assertEquals("\"Hello\"" + System.lineSeparator() + "\"Hello\"", writer.toString());
+    gen.close();
+    Assert.assertTrue(closed.get());
+  }
+
+  @Test
+  public void testResetArrayObjects() throws Exception {
+    DataGenerator gen = new JsonCharDataGenerator(getContext(), new StringWriter(), Mode.ARRAY_OBJECTS);
+    Assert.assertFalse(gen.reset());
+    gen.close();
+  }
+
   @Test(expected = IOException.class)
   public void testWriteAfterClose() throws Exception {
     StringWriter writer = new StringWriter();
@@ -19,6 +19,7 @@ import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.JsonParserType;
 import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
@@ -54,6 +55,25 @@ public class TestJsonDataParserFactory {
     parser.close();
   }
 
+  @Test
+  public void testGetStreamingParser() throws Exception {
+    DataParserFactoryBuilder dataParserFactoryBuilder =
+        new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON);
+    DataParserFactory factory = dataParserFactoryBuilder
+        .setMaxDataLen(1000)
+        .setMode(JsonMode.MULTIPLE_OBJECTS)
+        .setConfig(JsonDataParserFactory.PARSER_KEY, JsonParserType.STREAMING.name())
+        .build();
+
+    DataParser parser = factory.getParser("id", "[\"Hello\"]\n".getBytes());
+    Assert.assertTrue(parser instanceof JsonStreamingCharDataParser);
+    Assert.assertEquals(0, Long.parseLong(parser.getOffset()));
+    Record record = parser.parse();
+    Assert.assertTrue(record.has(""));
+    Assert.assertEquals(9, Long.parseLong(parser.getOffset()));
+    parser.close();
+  }
+
   @Test
   public void testGetParserReader() throws Exception {
     DataParserFactoryBuilder dataParserFactoryBuilder =
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.json;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.ext.io.OverrunReader;
+import com.streamsets.pipeline.api.ext.json.Mode;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+public class TestJsonStreamingCharDataParser {
+
+  private static final String MULTIPLE_OBJECTS = "{\"s\":\"str\",\"i\":1,\"l\":10000000000,\"d\":1.5,\"b\":true," +
+      "\"n\":null,\"big\":100000000000100000000000100000000000,\"list\":[1,\"a\",[false],{\"x\":null}]," +
+      "\"map\":{\"a\":{\"b\":[]},\"c\":{}}}\n" +
+      "[1, 2.0, \"three\"]\n" +
+      "\"str\"  false null\n" +
+      "{\"dup\":1,\"other\":2,\"dup\":3}";
+
+  private Stage.Context getContext() {
+    return ContextInfoCreator.createSourceContext("i", false, OnRecordError.TO_ERROR, Collections.emptyList());
+  }
+
+  private static OverrunReader createReader(String data) {
+    return new OverrunReader(new StringReader(data), 1000, true, false);
+  }
+
+  private void assertSameAsLegacyParser(String data, Mode mode, long offset) throws Exception {
+    DataParser legacy = new JsonCharDataParser(getContext(), "id", createReader(data), offset, mode, 1000);
+    DataParser streaming = new JsonStreamingCharDataParser(getContext(), "id", createReader(data), offset, mode, 1000);
+    Record expected;
+    do {
+      Assert.assertEquals(legacy.getOffset(), streaming.getOffset());
+      expected = legacy.parse();
+      Record actual = streaming.parse();
+      if (expected == null) {
+        Assert.assertNull(actual);
+      } else {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getHeader().getSourceId(), actual.getHeader().getSourceId());
+        Assert.assertEquals(expected.get(), actual.get());
+      }
+    } while (expected != null);
+    Assert.assertEquals(legacy.getOffset(), streaming.getOffset());
+    legacy.close();
+    streaming.close();
+  }
+
+  @Test
+  public void testSameAsLegacyParserMultipleObjects() throws Exception {
+    assertSameAsLegacyParser(MULTIPLE_OBJECTS, Mode.MULTIPLE_OBJECTS, 0);
+    assertSameAsLegacyParser(MULTIPLE_OBJECTS, Mode.MULTIPLE_OBJECTS, MULTIPLE_OBJECTS.indexOf("\n[") + 1);
+  }
+
+  @Test
+  public void testSameAsLegacyParserArray() throws Exception {
+    String data = "[" + MULTIPLE_OBJECTS.replace("\n", ",").replace("\"str\"  false null", "\"str\",false,null") + "]";
+    assertSameAsLegacyParser(data, Mode.ARRAY_OBJECTS, 0);
+    assertSameAsLegacyParser(data, Mode.ARRAY_OBJECTS, data.indexOf("},["));
+  }
+
+  @Test
+  public void testParseFieldTypes() throws Exception {
+    DataParser parser = new JsonStreamingCharDataParser(getContext(), "id", createReader(MULTIPLE_OBJECTS), 0,
+        Mode.MULTIPLE_OBJECTS, 1000);
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("id::0", record.getHeader().getSourceId());
+    Assert.assertEquals(Field.Type.STRING, record.get("/s").getType());
+    Assert.assertEquals(Field.Type.INTEGER, record.get("/i").getType());
+    Assert.assertEquals(Field.Type.LONG, record.get("/l").getType());
+    Assert.assertEquals(Field.Type.DOUBLE, record.get("/d").getType());
+    Assert.assertEquals(Field.Type.BOOLEAN, record.get("/b").getType());
+    Assert.assertEquals(Field.Type.STRING, record.get("/n").getType());
+    Assert.assertNull(record.get("/n").getValue());
+    Assert.assertEquals(Field.Type.DECIMAL, record.get("/big").getType());
+    Assert.assertEquals("100000000000100000000000100000000000", record.get("/big").getValueAsString());
+    Assert.assertEquals(Field.Type.LIST, record.get("/list").getType());
+    Assert.assertEquals(Field.Type.LIST, record.get("/list[2]").getType());
+    Assert.assertEquals(Field.Type.MAP, record.get("/list[3]").getType());
+    Assert.assertEquals(Field.Type.LIST, record.get("/map/a/b").getType());
+    Assert.assertTrue(record.get("/map/c").getValueAsMap().isEmpty());
+
+    record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals(3, record.get().getValueAsList().size());
+
+    record = parser.parse();
+    Assert.assertEquals("str", record.get().getValueAsString());
+    record = parser.parse();
+    Assert.assertEquals(false, record.get().getValueAsBoolean());
+    record = parser.parse();
+    Assert.assertEquals(Field.Type.STRING, record.get().getType());
+    Assert.assertNull(record.get().getValue());
+
+    record = parser.parse();
+    Assert.assertEquals(3, record.get("/dup").getValueAsInteger());
+    Assert.assertEquals("[dup, other]", record.get().getValueAsMap().keySet().toString());
+
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals(-1, Long.parseLong(parser.getOffset()));
+    parser.close();
+  }
+
+  @Test
+  public void testMaxObjectLenMultipleObjects() throws Exception {
+    OverrunReader reader = createReader("{\"a\":\"xxxxxxxxxxxxxxxxxxxx\"}\n{\"b\":1}");
+    DataParser parser = new JsonStreamingCharDataParser(getContext(), "id", reader, 0, Mode.MULTIPLE_OBJECTS, 10);
+    try {
+      parser.parse();
+      Assert.fail();
+    } catch (DataParserException ex) {
+      Assert.assertEquals(Errors.JSON_PARSER_02, ex.getErrorCode());
+    }
+    Assert.assertEquals(29, Long.parseLong(parser.getOffset()));
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("id::29", record.getHeader().getSourceId());
+    Assert.assertEquals(1, record.get("/b").getValueAsInteger());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
+  @Test
+  public void testMaxObjectLenArray() throws Exception {
+    OverrunReader reader = createReader("[{\"a\":[\"xxxxxxxxxx\",\"xxxxxxxxxx\"]},{\"b\":1}]");
+    DataParser parser = new JsonStreamingCharDataParser(getContext(), "id", reader, 0, Mode.ARRAY_OBJECTS, 10);
+    try {
+      parser.parse();
+      Assert.fail();
+    } catch (DataParserException ex) {
+      Assert.assertEquals(Errors.JSON_PARSER_02, ex.getErrorCode());
+    }
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals(1, record.get("/b").getValueAsInteger());
+    Assert.assertNull(parser.parse());
+    Assert.assertEquals(-1, Long.parseLong(parser.getOffset()));
+    parser.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testClose() throws Exception {
+    DataParser parser = new JsonStreamingCharDataParser(getContext(), "id", createReader("\"Hello\"\"Bye\""), 0,
+        Mode.MULTIPLE_OBJECTS, 10);
+    parser.close();
+    parser.parse();
+  }
+
+  @Test(expected = IOException.class)
+  public void testArrayExpected() throws Exception {
+    DataParser parser = new JsonStreamingCharDataParser(getContext(), "id", createReader("{\"a\":1}"), 0,
+        Mode.ARRAY_OBJECTS, 10);
+    try {
+      parser.parse();
+    } finally {
+      parser.close();
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.log;
+
+import com.streamsets.pipeline.lib.parser.shaded.org.aicer.grok.dictionary.GrokDictionary;
+import com.streamsets.pipeline.lib.parser.shaded.org.aicer.grok.util.Grok;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestGrokPatternMatcher {
+
+  @Test
+  public void testRequiredLiterals() {
+    Assert.assertEquals(
+        Arrays.asList("ERROR [", "] failed to ", " at port "),
+        RegexLiterals.requiredLiterals("ERROR \\[(?<c>\\w+)\\] failed to (?:connect|bind) at port \\d+")
+    );
+    Assert.assertEquals(Arrays.asList("GET ", " HTTP/"), RegexLiterals.requiredLiterals("GET (\\S+) HTTP/([\\d.]+)"));
+    // optional characters split literals
+    Assert.assertEquals(Arrays.asList("abc", "de"), RegexLiterals.requiredLiterals("abcx?de"));
+  }
+
+  @Test
+  public void testNoRequiredLiterals() {
+    Assert.assertEquals(Collections.emptyList(), RegexLiterals.requiredLiterals("ERROR .*|WARN .*"));
+    Assert.assertEquals(Collections.emptyList(), RegexLiterals.requiredLiterals("(?i)error \\d+"));
+    Assert.assertEquals(Collections.emptyList(), RegexLiterals.requiredLiterals("\\QERROR\\E \\d+"));
+    Assert.assertEquals(Collections.emptyList(), RegexLiterals.requiredLiterals("(\\w+)\\s(\\d+)"));
+  }
+
+  @Test
+  public void testAhoCorasick() {
+    AhoCorasick automaton = new AhoCorasick(Arrays.asList("he", "she", "his", "hers", "xyz"));
+    boolean[] found = new boolean[5];
+    automaton.find(new StringBuilder("ushers"), found);
+    Assert.assertArrayEquals(new boolean[]{true, true, false, true, false}, found);
+  }
+
+  @Test
+  public void testFirstMatchInPatternOrder() {
+    List<Grok> patterns = compile("%{IP:ip} GET %{URIPATH:path}", "ERROR %{GREEDYDATA:message}", "%{GREEDYDATA:line}");
+    Map<String, Object> gauge = new HashMap<>();
+    GrokPatternMatcher matcher = new GrokPatternMatcher(patterns, gauge);
+
+    StringBuilder line = new StringBuilder("10.0.0.1 GET /index.html");
+    Assert.assertEquals("/index.html", matcher.match(line).get("path"));
+    line.setLength(0);
+    line.append("ERROR GET failed");
+    Assert.assertEquals("GET failed", matcher.match(line).get("message"));
+    line.setLength(0);
+    line.append("INFO started");
+    Assert.assertEquals("INFO started", matcher.match(line).get("line"));
+
+    Assert.assertTrue(gauge.isEmpty());
+    matcher.flush();
+    Assert.assertEquals(1L, gauge.get("%{IP:ip} GET %{URIPATH:path}" + GrokPatternMatcher.HITS));
+    // " GET " is in the second line, the pattern is evaluated but does not match
+    Assert.assertEquals(1L, gauge.get("%{IP:ip} GET %{URIPATH:path}" + GrokPatternMatcher.MISSES));
+    Assert.assertEquals(1L, gauge.get("%{IP:ip} GET %{URIPATH:path}" + GrokPatternMatcher.SKIPPED));
+    Assert.assertEquals(1L, gauge.get("ERROR %{GREEDYDATA:message}" + GrokPatternMatcher.HITS));
+    Assert.assertEquals(1L, gauge.get("ERROR %{GREEDYDATA:message}" + GrokPatternMatcher.SKIPPED));
+    Assert.assertEquals(1L, gauge.get("%{GREEDYDATA:line}" + GrokPatternMatcher.HITS));
+
+    matcher.match(line);
+    matcher.flush();
+    Assert.assertEquals(2L, gauge.get("%{GREEDYDATA:line}" + GrokPatternMatcher.HITS));
+  }
+
+  @Test
+  public void testNoMatch() {
+    GrokPatternMatcher matcher = new GrokPatternMatcher(compile("ERROR %{INT:code}", "WARN %{INT:code}"), null);
+    Assert.assertNull(matcher.match("ERROR none"));
+    Assert.assertNull(matcher.match("INFO 1"));
+    Assert.assertEquals("2", matcher.match("WARN 2").get("code"));
+    matcher.flush();
+  }
+
+  private List<Grok> compile(String... expressions) {
+    GrokDictionary dictionary = new GrokDictionary();
+    dictionary.addDictionary(getClass().getClassLoader().getResourceAsStream(Constants.GROK_PATTERNS_FILE_NAME));
+    dictionary.bind();
+    Grok[] patterns = new Grok[expressions.length];
+    for (int i = 0; i < expressions.length; i++) {
+      patterns[i] = dictionary.compileExpression(expressions[i]);
+    }
+    return Arrays.asList(patterns);
+  }
+}
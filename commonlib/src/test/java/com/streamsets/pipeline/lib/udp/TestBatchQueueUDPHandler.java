@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.codahale.metrics.Meter;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+
+public class TestBatchQueueUDPHandler {
+  private static final InetSocketAddress RECIPIENT = new InetSocketAddress("localhost", 9999);
+  private static final InetSocketAddress SENDER = new InetSocketAddress("localhost", 10000);
+
+  private final AbstractParser parser = Mockito.mock(AbstractParser.class);
+  private final Semaphore queuedBatches = new Semaphore(0);
+  private final Meter received = new Meter();
+  private final Meter parsed = new Meter();
+  private final Meter dropped = new Meter();
+
+  private BatchQueueUDPHandler createHandler(int batchSize, long maxWaitTime, int queueSize) throws Exception {
+    Mockito.when(parser.parse(Mockito.any(ByteBuf.class), Mockito.any(), Mockito.any()))
+        .thenAnswer(invocation -> Collections.singletonList(Mockito.mock(Record.class)));
+    return new BatchQueueUDPHandler(
+        parser,
+        batchSize,
+        maxWaitTime,
+        queueSize,
+        queuedBatches,
+        received,
+        parsed,
+        dropped
+    );
+  }
+
+  private static DatagramPacket packet() {
+    return new DatagramPacket(Unpooled.wrappedBuffer(new byte[]{1, 2, 3}), RECIPIENT, SENDER);
+  }
+
+  @Test
+  public void testBatchQueuedWhenFull() throws Exception {
+    BatchQueueUDPHandler handler = createHandler(2, 60000, 10);
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+
+    channel.writeInbound(packet());
+    Assert.assertNull(handler.poll());
+    channel.writeInbound(packet());
+    Assert.assertEquals(1, queuedBatches.availablePermits());
+
+    BatchQueueUDPHandler.Batch batch = handler.poll();
+    Assert.assertNotNull(batch);
+    Assert.assertEquals(2, batch.getRecords().size());
+    Assert.assertEquals(2, batch.getPackets());
+    Assert.assertTrue(batch.getErrors().isEmpty());
+    Assert.assertEquals(2, received.getCount());
+    Assert.assertEquals(2, parsed.getCount());
+    Assert.assertEquals(0, dropped.getCount());
+    channel.finish();
+  }
+
+  @Test
+  public void testBatchQueuedAfterWaitTime() throws Exception {
+    BatchQueueUDPHandler handler = createHandler(10, 10, 10);
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+
+    channel.writeInbound(packet());
+    Assert.assertNull(handler.poll());
+    Thread.sleep(50);
+    channel.runScheduledPendingTasks();
+    BatchQueueUDPHandler.Batch batch = handler.poll();
+    Assert.assertNotNull(batch);
+    Assert.assertEquals(1, batch.getRecords().size());
+
+    // empty batches are not queued
+    Thread.sleep(50);
+    channel.runScheduledPendingTasks();
+    Assert.assertNull(handler.poll());
+    Assert.assertEquals(1, queuedBatches.availablePermits());
+    channel.finish();
+  }
+
+  @Test
+  public void testParseErrors() throws Exception {
+    BatchQueueUDPHandler handler = createHandler(1, 60000, 10);
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+    Mockito.when(parser.parse(Mockito.any(ByteBuf.class), Mockito.any(), Mockito.any()))
+        .thenThrow(new IllegalArgumentException("invalid packet"));
+
+    channel.writeInbound(packet());
+    Assert.assertEquals(1, received.getCount());
+    Assert.assertEquals(0, parsed.getCount());
+    BatchQueueUDPHandler.Batch batch = handler.poll();
+    Assert.assertNotNull(batch);
+    Assert.assertTrue(batch.getRecords().isEmpty());
+    Assert.assertEquals(1, batch.getErrors().size());
+    channel.finish();
+  }
+
+  @Test
+  public void testDroppedWhenQueueFull() throws Exception {
+    BatchQueueUDPHandler handler = createHandler(1, 60000, 1);
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+
+    channel.writeInbound(packet(), packet(), packet());
+    Assert.assertEquals(3, received.getCount());
+    Assert.assertEquals(2, dropped.getCount());
+    Assert.assertEquals(1, queuedBatches.availablePermits());
+    Assert.assertNotNull(handler.poll());
+    Assert.assertNull(handler.poll());
+    channel.finish();
+  }
+}
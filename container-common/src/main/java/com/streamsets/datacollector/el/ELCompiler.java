@@ -0,0 +1,316 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import org.apache.commons.el.BinaryOperator;
+import org.apache.commons.el.BinaryOperatorExpression;
+import org.apache.commons.el.Coercions;
+import org.apache.commons.el.ComplexValue;
+import org.apache.commons.el.ConditionalExpression;
+import org.apache.commons.el.Constants;
+import org.apache.commons.el.Expression;
+import org.apache.commons.el.ExpressionString;
+import org.apache.commons.el.FunctionInvocation;
+import org.apache.commons.el.Logger;
+import org.apache.commons.el.LruExpressionEvaluatorImpl;
+import org.apache.commons.el.NamedValue;
+import org.apache.commons.el.UnaryOperator;
+import org.apache.commons.el.UnaryOperatorExpression;
+import org.apache.commons.el.ValueSuffix;
+
+import javax.servlet.jsp.el.ELException;
+import javax.servlet.jsp.el.FunctionMapper;
+import javax.servlet.jsp.el.VariableResolver;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Turns expressions parsed by commons-el into trees of nodes that can be evaluated repeatedly. Functions are resolved
+ * once during compilation and called through method handles rather than through reflection, everything else follows
+ * exactly what the commons-el nodes do during evaluation (including the coercion rules), so the result of a compiled
+ * expression is the same as the result of interpreting it.
+ *
+ * Node types that are not compiled (literals, value suffixes, ...) are evaluated by commons-el itself.
+ */
+final class ELCompiler {
+
+  // Same logger as commons-el is using, it converts errors to ELException
+  private static final Logger LOGGER = new Logger(System.out);
+
+  private final LruExpressionEvaluatorImpl parser;
+  private final FunctionMapper functionMapper;
+
+  ELCompiler(LruExpressionEvaluatorImpl parser, FunctionMapper functionMapper) {
+    this.parser = parser;
+    this.functionMapper = functionMapper;
+  }
+
+  /**
+   * Evaluable form of a single EL string.
+   */
+  interface CompiledExpression {
+    <T> T evaluate(VariableResolver variableResolver, Class<T> returnType) throws ELException;
+  }
+
+  /**
+   * Compiled form of a single (sub)expression.
+   */
+  private interface Node {
+    Object evaluate(VariableResolver variableResolver) throws ELException;
+  }
+
+  CompiledExpression compile(String expression) throws ELException {
+    if (expression == null) {
+      throw new ELException(Constants.NULL_EXPRESSION_STRING);
+    }
+    Object parsed = parser.parseExpressionString(expression);
+    if (parsed instanceof String) {
+      return new StaticExpression((String) parsed);
+    } else if (parsed instanceof Expression) {
+      return new DynamicExpression(compile((Expression) parsed));
+    } else if (parsed instanceof ExpressionString) {
+      return new DynamicExpression(compile((ExpressionString) parsed));
+    }
+    return new StaticExpression(null);
+  }
+
+  private Node compile(Expression expression) {
+    if (expression instanceof NamedValue) {
+      String name = ((NamedValue) expression).getName();
+      return resolver -> resolver == null ? null : resolver.resolveVariable(name);
+    } else if (expression instanceof FunctionInvocation) {
+      return compile((FunctionInvocation) expression);
+    } else if (expression instanceof BinaryOperatorExpression) {
+      return compile((BinaryOperatorExpression) expression);
+    } else if (expression instanceof UnaryOperatorExpression) {
+      return compile((UnaryOperatorExpression) expression);
+    } else if (expression instanceof ConditionalExpression) {
+      ConditionalExpression conditional = (ConditionalExpression) expression;
+      Node condition = compile(conditional.getCondition());
+      Node trueBranch = compile(conditional.getTrueBranch());
+      Node falseBranch = compile(conditional.getFalseBranch());
+      return resolver -> Coercions.coerceToBoolean(condition.evaluate(resolver), LOGGER)
+          ? trueBranch.evaluate(resolver)
+          : falseBranch.evaluate(resolver);
+    } else if (expression instanceof ComplexValue) {
+      return compile((ComplexValue) expression);
+    }
+    return resolver -> expression.evaluate(resolver, functionMapper, LOGGER);
+  }
+
+  private Node compile(ExpressionString expressionString) {
+    Object[] elements = expressionString.getElements();
+    Node[] nodes = new Node[elements.length];
+    for (int i = 0; i < elements.length; i++) {
+      Object element = elements[i];
+      if (element instanceof String) {
+        nodes[i] = resolver -> element;
+      } else if (element instanceof Expression) {
+        nodes[i] = compile((Expression) element);
+      } else {
+        nodes[i] = resolver -> null;
+      }
+    }
+    return resolver -> {
+      StringBuilder sb = new StringBuilder();
+      for (Node node : nodes) {
+        Object value = node.evaluate(resolver);
+        if (value != null) {
+          sb.append(value.toString());
+        }
+      }
+      return sb.toString();
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node compile(BinaryOperatorExpression expression) {
+    Node first = compile(expression.getExpression());
+    List<BinaryOperator> operators = expression.getOperators();
+    List<Expression> expressions = expression.getExpressions();
+    BinaryOperator[] ops = operators.toArray(new BinaryOperator[0]);
+    Node[] nodes = new Node[ops.length];
+    for (int i = 0; i < ops.length; i++) {
+      nodes[i] = compile(expressions.get(i));
+    }
+    return resolver -> {
+      Object value = first.evaluate(resolver);
+      for (int i = 0; i < ops.length; i++) {
+        if (ops[i].shouldCoerceToBoolean()) {
+          value = Coercions.coerceToBoolean(value, LOGGER);
+        }
+        if (ops[i].shouldEvaluate(value)) {
+          value = ops[i].apply(value, nodes[i].evaluate(resolver), LOGGER);
+        }
+      }
+      return value;
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node compile(UnaryOperatorExpression expression) {
+    Node operand = compile(expression.getExpression());
+    UnaryOperator operator = expression.getOperator();
+    if (operator != null) {
+      return resolver -> operator.apply(operand.evaluate(resolver), LOGGER);
+    }
+    List<UnaryOperator> operators = expression.getOperators();
+    UnaryOperator[] ops = operators.toArray(new UnaryOperator[0]);
+    return resolver -> {
+      Object value = operand.evaluate(resolver);
+      for (int i = ops.length - 1; i >= 0; i--) {
+        value = ops[i].apply(value, LOGGER);
+      }
+      return value;
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node compile(ComplexValue expression) {
+    Node prefix = compile(expression.getPrefix());
+    List<ValueSuffix> suffixes = expression.getSuffixes();
+    if (suffixes == null || suffixes.isEmpty()) {
+      return prefix;
+    }
+    ValueSuffix[] sfx = suffixes.toArray(new ValueSuffix[0]);
+    return resolver -> {
+      Object value = prefix.evaluate(resolver);
+      for (ValueSuffix suffix : sfx) {
+        value = suffix.evaluate(value, resolver, functionMapper, LOGGER);
+      }
+      return value;
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node compile(FunctionInvocation invocation) {
+    String functionName = invocation.getFunctionName();
+    int index = functionName.indexOf(':');
+    String prefix = (index == -1) ? "" : functionName.substring(0, index);
+    String localName = (index == -1) ? functionName : functionName.substring(index + 1);
+
+    // Unknown functions and wrong arity are reported only when (and if) the function is actually evaluated
+    Method method = functionMapper.resolveFunction(prefix, localName);
+    if (method == null) {
+      return resolver -> {
+        LOGGER.logError(Constants.UNKNOWN_FUNCTION, functionName);
+        return null;
+      };
+    }
+    Class<?>[] params = method.getParameterTypes();
+    List<Expression> arguments = invocation.getArgumentList();
+    if (params.length != arguments.size()) {
+      return resolver -> {
+        LOGGER.logError(
+            Constants.INAPPROPRIATE_FUNCTION_ARG_COUNT,
+            functionName,
+            params.length,
+            arguments.size()
+        );
+        return null;
+      };
+    }
+
+    Node[] argumentNodes = new Node[params.length];
+    for (int i = 0; i < params.length; i++) {
+      argumentNodes[i] = compile(arguments.get(i));
+    }
+    FunctionCall call = createFunctionCall(method);
+    return resolver -> {
+      Object[] values = new Object[argumentNodes.length];
+      for (int i = 0; i < argumentNodes.length; i++) {
+        values[i] = Coercions.coerce(argumentNodes[i].evaluate(resolver), params[i], LOGGER);
+      }
+      try {
+        return call.invoke(values);
+      } catch (Throwable e) {
+        LOGGER.logError(Constants.FUNCTION_INVOCATION_ERROR, e, functionName);
+        return null;
+      }
+    };
+  }
+
+  private interface FunctionCall {
+    Object invoke(Object[] arguments) throws Throwable;
+  }
+
+  private static FunctionCall createFunctionCall(Method method) {
+    int arity = method.getParameterCount();
+    try {
+      MethodHandle handle;
+      try {
+        handle = MethodHandles.lookup().unreflect(method);
+      } catch (IllegalAccessException e) {
+        method.setAccessible(true);
+        handle = MethodHandles.lookup().unreflect(method);
+      }
+      MethodHandle spreader = handle
+          .asFixedArity()
+          .asType(MethodType.genericMethodType(arity))
+          .asSpreader(Object[].class, arity);
+      return arguments -> spreader.invokeExact(arguments);
+    } catch (IllegalAccessException | RuntimeException e) {
+      // Fall back to reflection that commons-el is using
+      return arguments -> {
+        try {
+          return method.invoke(null, arguments);
+        } catch (java.lang.reflect.InvocationTargetException ex) {
+          throw ex.getTargetException();
+        }
+      };
+    }
+  }
+
+  /**
+   * Expression without any EL, only the coercion to the expected type is needed.
+   */
+  private static class StaticExpression implements CompiledExpression {
+    private final String value;
+
+    StaticExpression(String value) {
+      this.value = value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T evaluate(VariableResolver variableResolver, Class<T> returnType) throws ELException {
+      if (value == null) {
+        return null;
+      }
+      if (returnType == String.class || returnType == Object.class) {
+        return (T) value;
+      }
+      return (T) Coercions.coerce(value, returnType, LOGGER);
+    }
+  }
+
+  private static class DynamicExpression implements CompiledExpression {
+    private final Node root;
+
+    DynamicExpression(Node root) {
+      this.root = root;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T evaluate(VariableResolver variableResolver, Class<T> returnType) throws ELException {
+      return (T) Coercions.coerce(root.evaluate(variableResolver), returnType, LOGGER);
+    }
+  }
+}
@@ -15,6 +15,9 @@
  */
 package com.streamsets.datacollector.el;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.streamsets.datacollector.definition.ELDefinitionExtractor;
 import com.streamsets.datacollector.util.ContainerCommonError;
 import com.streamsets.pipeline.api.el.ELEval;
@@ -43,10 +46,16 @@ public class ELEvaluator extends ELEval {
   private final List<ElFunctionDefinition> elFunctionDefinitions;
   private final List<ElConstantDefinition> elConstantDefinitions;
   private final ELDefinitionExtractor elDefinitionExtractor;
+  private final ELCompiler compiler;
+  // Expressions compiled by this evaluator, the same expressions are usually evaluated over and over for each record
+  private final Cache<String, ELCompiler.CompiledExpression> compiledExpressions;
 
   // ExpressionEvaluatorImpl can be used as a singleton
   private static final LruExpressionEvaluatorImpl EVALUATOR = new LruExpressionEvaluatorImpl();
 
+  // Upper bound for number of compiled expressions kept by single evaluator
+  private static final int MAX_COMPILED_EXPRESSIONS = 1000;
+
   public ELEvaluator(String configName, boolean explicit, Map<String, Object> constants, ELDefinitionExtractor elDefinitionExtractor, List<Class> elFuncConstDefClasses) {
     this(configName, explicit, constants, elDefinitionExtractor, elFuncConstDefClasses.toArray(new Class[elFuncConstDefClasses.size()]));
   }
@@ -60,6 +69,10 @@ public class ELEvaluator extends ELEval {
     this.elDefinitionExtractor = elDefinitionExtractor;
     populateConstantsAndFunctions(explicit, elFuncConstDefClasses);
     this.functionMapper = new FunctionMapperImpl();
+    this.compiler = new ELCompiler(EVALUATOR, functionMapper);
+    // Least recently used expressions are evicted, expressions generated on the fly (for example per record) would
+    // otherwise push out the ones that are evaluated for every record
+    this.compiledExpressions = CacheBuilder.newBuilder().maximumSize(MAX_COMPILED_EXPRESSIONS).build();
   }
 
   public ELEvaluator(String configName, ELDefinitionExtractor elDefinitionExtractor, Class<?>... elFuncConstDefClasses) {
@@ -144,7 +157,7 @@ public class ELEvaluator extends ELEval {
       }
     };
     try {
-      return (T) EVALUATOR.evaluate(expression, returnType, variableResolver, functionMapper);
+      return getCompiledExpression(expression).evaluate(variableResolver, returnType);
     } catch (ELException e) {
       // Apache evaluator is not using the getCause exception chaining that is available in Java but rather a custom
       // chaining mechanism. This doesn't work well for us as we're effectively swallowing the cause that is not
@@ -161,6 +174,24 @@ public class ELEvaluator extends ELEval {
     }
   }
 
+  @VisibleForTesting
+  ELCompiler.CompiledExpression getCompiledExpression(String expression) throws ELException {
+    if (expression == null) {
+      return compiler.compile(null);
+    }
+    ELCompiler.CompiledExpression compiled = compiledExpressions.getIfPresent(expression);
+    if (compiled == null) {
+      compiled = compiler.compile(expression);
+      compiledExpressions.put(expression, compiled);
+    }
+    return compiled;
+  }
+
+  @VisibleForTesting
+  long getCompiledExpressionCount() {
+    return compiledExpressions.size();
+  }
+
   private class FunctionMapperImpl implements FunctionMapper {
 
     @Override
@@ -25,7 +25,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import static java.lang.Math.exp;
 
 public class ExtendedMeter extends Meter {
-  private static final int INTERVAL = 5;
+  protected static final int INTERVAL = 5;
   private static final double SECONDS_PER_MINUTE = 60.0;
   private static final int THIRTY_MINUTES = 30;
   private static final int ONE_HOUR_MINUTES = 60;
@@ -33,13 +33,13 @@ public class ExtendedMeter extends Meter {
   private static final int TWELVE_HOURS_MINUTES = 12 * 60;
   private static final int TWENTY_HOURS_MINUTES = 24 * 60;
 
-  private static final double M30_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / THIRTY_MINUTES);
-  private static final double H1_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / ONE_HOUR_MINUTES);
-  private static final double H6_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / SIX_HOURS_MINUTES);
-  private static final double H12_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / TWELVE_HOURS_MINUTES);
-  private static final double H24_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / TWENTY_HOURS_MINUTES);
+  protected static final double M30_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / THIRTY_MINUTES);
+  protected static final double H1_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / ONE_HOUR_MINUTES);
+  protected static final double H6_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / SIX_HOURS_MINUTES);
+  protected static final double H12_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / TWELVE_HOURS_MINUTES);
+  protected static final double H24_ALPHA = 1 - exp(-INTERVAL / SECONDS_PER_MINUTE / TWENTY_HOURS_MINUTES);
 
-  private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+  protected static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
 
   private final EWMA m30Rate;
   private final EWMA h1Rate;
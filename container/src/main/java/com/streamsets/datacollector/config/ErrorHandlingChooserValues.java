@@ -15,7 +15,6 @@
  */
 package com.streamsets.datacollector.config;
 
-import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.pipeline.api.ChooserValues;
 import com.streamsets.pipeline.api.StageType;
 
@@ -28,9 +27,9 @@ public class ErrorHandlingChooserValues implements ChooserValues {
   private static List<String> values;
   private static List<String> labels;
 
-  private static List<String> getOptions(List<StageDefinition> errorStageDefinitions, boolean value) {
+  private static List<String> getOptions(List<StageDefinitionSummary> errorStageDefinitions, boolean value) {
     List<String> list = new ArrayList<>();
-    for (StageDefinition def : errorStageDefinitions) {
+    for (StageDefinitionSummary def : errorStageDefinitions) {
       if (value) {
         list.add(def.getLibrary() + "::" + def.getName() + "::" + def.getVersion());
       } else {
@@ -40,17 +39,17 @@ public class ErrorHandlingChooserValues implements ChooserValues {
     return list;
   }
 
-  public static void setErrorHandlingOptions(StageLibraryTask stageLibraryTask) {
-    List<StageDefinition> errorStageDefinitions = new ArrayList<>();
-    for (StageDefinition def : stageLibraryTask.getStages()) {
+  public static void setErrorHandlingOptions(List<StageDefinitionSummary> stages) {
+    List<StageDefinitionSummary> errorStageDefinitions = new ArrayList<>();
+    for (StageDefinitionSummary def : stages) {
       if (def.getType() == StageType.TARGET && def.isErrorStage()) {
         errorStageDefinitions.add(def);
       }
     }
 
-    Collections.sort(errorStageDefinitions, new Comparator<StageDefinition>() {
+    Collections.sort(errorStageDefinitions, new Comparator<StageDefinitionSummary>() {
       @Override
-      public int compare(StageDefinition o1, StageDefinition o2) {
+      public int compare(StageDefinitionSummary o1, StageDefinitionSummary o2) {
         return o1.getLabel().compareToIgnoreCase(o2.getLabel());
       }
     });
@@ -15,7 +15,6 @@
  */
 package com.streamsets.datacollector.config;
 
-import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.pipeline.api.ChooserValues;
 import com.streamsets.pipeline.api.StageType;
 
@@ -26,9 +25,9 @@ public class PipelineTestStageChooserValues implements ChooserValues {
   private static List<String> values;
   private static List<String> labels;
 
-  private static List<String> getOptions(List<StageDefinition> stageDefinitions, boolean value) {
+  private static List<String> getOptions(List<StageDefinitionSummary> stageDefinitions, boolean value) {
     List<String> list = new ArrayList<>();
-    for (StageDefinition def : stageDefinitions) {
+    for (StageDefinitionSummary def : stageDefinitions) {
       if (value) {
         list.add(def.getLibrary() + "::" + def.getName() + "::" + def.getVersion());
       } else {
@@ -38,9 +37,9 @@ public class PipelineTestStageChooserValues implements ChooserValues {
     return list;
   }
 
-  public static void setHandlingOptions(StageLibraryTask stageLibraryTask) {
-    List<StageDefinition> stageDefinitions = new ArrayList<>();
-    for (StageDefinition def : stageLibraryTask.getStages()) {
+  public static void setHandlingOptions(List<StageDefinitionSummary> stages) {
+    List<StageDefinitionSummary> stageDefinitions = new ArrayList<>();
+    for (StageDefinitionSummary def : stages) {
       if (def.getType().equals(StageType.SOURCE)) {
         stageDefinitions.add(def);
       }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.StageType;
+
+import java.util.List;
+
+/**
+ * Descriptive part of a {@link StageDefinition} that doesn't require the stage classes to be loaded, it's what the
+ * stage library keeps for libraries whose definitions come from the on-disk definition cache.
+ */
+public class StageDefinitionSummary {
+  private final String library;
+  private final String libraryLabel;
+  private final String name;
+  private final int version;
+  private final String label;
+  private final String description;
+  private final StageType type;
+  private final boolean errorStage;
+  private final boolean statsAggregatorStage;
+  private final boolean pipelineLifecycleStage;
+  private final boolean connectionVerifierStage;
+  private final boolean beta;
+  private final String icon;
+  private final List<String> tags;
+
+  public StageDefinitionSummary(StageDefinition def) {
+    this(
+        def.getLibrary(),
+        def.getLibraryLabel(),
+        def.getName(),
+        def.getVersion(),
+        def.getLabel(),
+        def.getDescription(),
+        def.getType(),
+        def.isErrorStage(),
+        def.isStatsAggregatorStage(),
+        def.isPipelineLifecycleStage(),
+        def.isConnectionVerifierStage(),
+        def.isBeta(),
+        def.getIcon(),
+        def.getTags()
+    );
+  }
+
+  @JsonCreator
+  public StageDefinitionSummary(
+      @JsonProperty("library") String library,
+      @JsonProperty("libraryLabel") String libraryLabel,
+      @JsonProperty("name") String name,
+      @JsonProperty("version") int version,
+      @JsonProperty("label") String label,
+      @JsonProperty("description") String description,
+      @JsonProperty("type") StageType type,
+      @JsonProperty("errorStage") boolean errorStage,
+      @JsonProperty("statsAggregatorStage") boolean statsAggregatorStage,
+      @JsonProperty("pipelineLifecycleStage") boolean pipelineLifecycleStage,
+      @JsonProperty("connectionVerifierStage") boolean connectionVerifierStage,
+      @JsonProperty("beta") boolean beta,
+      @JsonProperty("icon") String icon,
+      @JsonProperty("tags") List<String> tags
+  ) {
+    this.library = library;
+    this.libraryLabel = libraryLabel;
+    this.name = name;
+    this.version = version;
+    this.label = label;
+    this.description = description;
+    this.type = type;
+    this.errorStage = errorStage;
+    this.statsAggregatorStage = statsAggregatorStage;
+    this.pipelineLifecycleStage = pipelineLifecycleStage;
+    this.connectionVerifierStage = connectionVerifierStage;
+    this.beta = beta;
+    this.icon = icon;
+    this.tags = tags == null ? ImmutableList.of() : ImmutableList.copyOf(tags);
+  }
+
+  public String getLibrary() {
+    return library;
+  }
+
+  public String getLibraryLabel() {
+    return libraryLabel;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public StageType getType() {
+    return type;
+  }
+
+  public boolean isErrorStage() {
+    return errorStage;
+  }
+
+  public boolean isStatsAggregatorStage() {
+    return statsAggregatorStage;
+  }
+
+  public boolean isPipelineLifecycleStage() {
+    return pipelineLifecycleStage;
+  }
+
+  public boolean isConnectionVerifierStage() {
+    return connectionVerifierStage;
+  }
+
+  public boolean isBeta() {
+    return beta;
+  }
+
+  public String getIcon() {
+    return icon;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+}
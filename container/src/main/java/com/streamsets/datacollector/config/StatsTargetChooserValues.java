@@ -15,7 +15,6 @@
  */
 package com.streamsets.datacollector.config;
 
-import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.pipeline.api.ChooserValues;
 import com.streamsets.pipeline.api.StageType;
 
@@ -28,9 +27,9 @@ public class StatsTargetChooserValues implements ChooserValues {
   private static List<String> values;
   private static List<String> labels;
 
-  private static List<String> getOptions(List<StageDefinition> aggregatorStageDefs, boolean value) {
+  private static List<String> getOptions(List<StageDefinitionSummary> aggregatorStageDefs, boolean value) {
     List<String> list = new ArrayList<>();
-    for (StageDefinition def : aggregatorStageDefs) {
+    for (StageDefinitionSummary def : aggregatorStageDefs) {
       if (value) {
         list.add(def.getLibrary() + "::" + def.getName() + "::" + def.getVersion());
       } else {
@@ -40,17 +39,17 @@ public class StatsTargetChooserValues implements ChooserValues {
     return list;
   }
 
-  public static void setStatsTargetOptions(StageLibraryTask stageLibraryTask) {
-    List<StageDefinition> stageDefinitions = new ArrayList<>();
-    for (StageDefinition def : stageLibraryTask.getStages()) {
+  public static void setStatsTargetOptions(List<StageDefinitionSummary> stages) {
+    List<StageDefinitionSummary> stageDefinitions = new ArrayList<>();
+    for (StageDefinitionSummary def : stages) {
       if (def.getType() == StageType.TARGET && def.isStatsAggregatorStage()) {
         stageDefinitions.add(def);
       }
     }
 
-    Collections.sort(stageDefinitions, new Comparator<StageDefinition>() {
+    Collections.sort(stageDefinitions, new Comparator<StageDefinitionSummary>() {
       @Override
-      public int compare(StageDefinition o1, StageDefinition o2) {
+      public int compare(StageDefinitionSummary o1, StageDefinitionSummary o2) {
         return o1.getLabel().compareToIgnoreCase(o2.getLabel());
       }
     });
@@ -78,7 +78,7 @@ import java.util.Map;
 @ConfigGroups(PipelineGroups.class)
 public class PipelineConfigBean implements Stage {
 
-  public static final int VERSION = 23;
+  public static final int VERSION = 25;
 
   public static final String DEFAULT_STATS_AGGREGATOR_LIBRARY_NAME = "streamsets-datacollector-basic-lib";
 
@@ -295,6 +295,38 @@ public class PipelineConfigBean implements Stage {
   )
   public boolean advancedErrorHandling;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Copy-on-Write Fan-out",
+      description = "Records sent to several stages share their fields until a stage needs its own copy." +
+          " Stages must modify records through the record API only",
+      dependencies = {
+          @Dependency(configName = "executionMode", triggeredByValues = "STANDALONE")
+      },
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      displayPosition = 65
+  )
+  public boolean copyOnWriteFanOut;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Origin Prefetch Depth",
+      description = "Number of batches that a single-threaded origin can read ahead while the rest of the pipeline" +
+          " processes the current batch. Offsets are still committed in batch order. Use 0 to disable",
+      dependencies = {
+          @Dependency(configName = "executionMode", triggeredByValues = "STANDALONE")
+      },
+      min = 0,
+      max = 100,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      displayPosition = 66
+  )
+  public int originPrefetchDepth;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.MODEL,
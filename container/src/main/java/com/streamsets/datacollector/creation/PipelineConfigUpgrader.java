@@ -193,6 +193,18 @@ public class PipelineConfigUpgrader implements StageUpgrader {
         if (to == 23) {
           break;
         }
+        // fall through
+      case 23:
+        upgradeV23ToV24(configs);
+        if (to == 24) {
+          break;
+        }
+        // fall through
+      case 24:
+        upgradeV24ToV25(configs);
+        if (to == 25) {
+          break;
+        }
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", context.getFromVersion()));
     }
@@ -554,6 +566,14 @@ public class PipelineConfigUpgrader implements StageUpgrader {
     configs.add(new Config("transformerEmrConnection.bootstrapActionScripts", new ArrayList<>()));
   }
 
+  private void upgradeV23ToV24(List<Config> configs) {
+    configs.add(new Config("copyOnWriteFanOut", false));
+  }
+
+  private void upgradeV24ToV25(List<Config> configs) {
+    configs.add(new Config("originPrefetchDepth", 0));
+  }
+
   private static void moveCommonEMRConfigsToConnection(
       List<Config> configs,
       String currentConfigFieldName,
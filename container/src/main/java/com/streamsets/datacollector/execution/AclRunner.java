@@ -204,6 +204,15 @@ public class AclRunner implements Runner {
     return runner.getErrorRecords(stage, max);
   }
 
+  @Override
+  public List<Record> getErrorRecords(
+      String stage,
+      int offset,
+      int max
+  ) throws PipelineRunnerException, PipelineStoreException {
+    return runner.getErrorRecords(stage, offset, max);
+  }
+
   @Override
   public List<ErrorMessage> getErrorMessages(
       String stage,
@@ -22,6 +22,7 @@ import com.streamsets.datacollector.alerts.AlertEventListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.metrics.MetricsEventListener;
+import com.streamsets.datacollector.metrics.MetricsUpdate;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.dc.execution.manager.standalone.ThreadUsage;
 import org.slf4j.Logger;
@@ -31,6 +32,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class EventListenerManager {
   private static final Logger LOG = LoggerFactory.getLogger(EventListenerManager.class);
@@ -148,6 +150,14 @@ public class EventListenerManager {
   }
 
   public void broadcastMetrics(String pipelineName, String metricsJSONStr) {
+    broadcastMetrics(pipelineName, listener -> listener.notification(metricsJSONStr));
+  }
+
+  public void broadcastMetrics(String pipelineName, MetricsUpdate metricsUpdate) {
+    broadcastMetrics(pipelineName, listener -> listener.notification(metricsUpdate));
+  }
+
+  private void broadcastMetrics(String pipelineName, Consumer<MetricsEventListener> notification) {
     if(metricsEventListenerMap.containsKey(pipelineName) && metricsEventListenerMap.get(pipelineName).size() > 0) {
       List<MetricsEventListener> metricsEventListenerListCopy;
       synchronized (metricsEventListenerMap) {
@@ -156,7 +166,7 @@ public class EventListenerManager {
 
       for(MetricsEventListener metricsEventListener : metricsEventListenerListCopy) {
         try {
-          metricsEventListener.notification(metricsJSONStr);
+          notification.accept(metricsEventListener);
         } catch(Exception ex) {
           LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
         }
@@ -177,6 +177,16 @@ public interface Runner {
   // delegates to the ErrorStore
   public List<Record> getErrorRecords(String stage, int max) throws PipelineRunnerException, PipelineStoreException;
 
+  // returns a page of the error records for a given stage, runners that don't page return the first ones
+  public default List<Record> getErrorRecords(
+      String stage,
+      int offset,
+      int max
+  ) throws PipelineRunnerException, PipelineStoreException {
+    List<Record> records = getErrorRecords(stage, offset + max);
+    return records.subList(Math.min(offset, records.size()), records.size());
+  }
+
   // returns pipeline error for a give stage
   // delegates to the ErrorStore
   public List<ErrorMessage> getErrorMessages(String stage, int max) throws PipelineRunnerException, PipelineStoreException;
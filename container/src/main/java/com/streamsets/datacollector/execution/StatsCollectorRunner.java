@@ -223,6 +223,15 @@ public class StatsCollectorRunner implements Runner {
     return runner.getErrorRecords(stage, max);
   }
 
+  @Override
+  public List<Record> getErrorRecords(
+      String stage,
+      int offset,
+      int max
+  ) throws PipelineRunnerException, PipelineStoreException {
+    return runner.getErrorRecords(stage, offset, max);
+  }
+
   @Override
   public List<ErrorMessage> getErrorMessages(String stage, int max)
       throws PipelineRunnerException, PipelineStoreException {
@@ -69,6 +69,7 @@ public class SlavePipelineManager extends AbstractTask implements Manager {
     this.objectGraph = objectGraph;
     this.objectGraph.inject(this);
     MetricsConfigurator.registerJmxMetrics(runtimeInfo.getMetrics());
+    MetricsConfigurator.configureBackend(configuration);
   }
 
   @Override
@@ -119,6 +119,7 @@ public class StandaloneAndClusterPipelineManager extends AbstractTask implements
     this.objectGraph.inject(this);
     eventListenerManager.addStateEventListener(resourceManager);
     MetricsConfigurator.registerJmxMetrics(runtimeInfo.getMetrics());
+    MetricsConfigurator.configureBackend(configuration);
     kafkaKerberosUtil = new KafkaKerberosUtil(configuration);
   }
 
@@ -36,6 +36,7 @@ import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner
 import com.streamsets.datacollector.http.SnappyWriterInterceptor;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
 import com.streamsets.datacollector.event.json.CounterJson;
 import com.streamsets.datacollector.event.json.MeterJson;
 import com.streamsets.datacollector.event.json.MetricRegistryJson;
@@ -102,6 +103,7 @@ public class MetricsEventRunnable implements Runnable {
   private BlockingQueue<Record> statsQueue;
   private PipelineConfiguration pipelineConfiguration;
   private MetricRegistryJson metricRegistryJson;
+  private final MetricsDeltaEncoder metricsDeltaEncoder = new MetricsDeltaEncoder();
 
   private boolean isDPMPipeline = false;
   private String pipelineCommitId;
@@ -208,7 +210,7 @@ public class MetricsEventRunnable implements Runnable {
           metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
         }
         if (hasMetricEventListeners(state)) {
-          eventListenerManager.broadcastMetrics(name, metricsJSONStr);
+          eventListenerManager.broadcastMetrics(name, metricsDeltaEncoder.encode(metricsJSONStr));
         }
         // don't queue stats record when pipeline is stopped as runner is not going to process any more batches
         if (isStatAggregationEnabled() && !isPipelineStopped) {
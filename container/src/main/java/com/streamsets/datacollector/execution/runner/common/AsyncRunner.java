@@ -224,6 +224,15 @@ public class AsyncRunner implements Runner, PipelineInfo {
     return runner.getErrorRecords(stage, max);
   }
 
+  @Override
+  public List<Record> getErrorRecords(
+      String stage,
+      int offset,
+      int max
+  ) throws PipelineRunnerException, PipelineStoreException {
+    return runner.getErrorRecords(stage, offset, max);
+  }
+
   @Override
   public List<ErrorMessage> getErrorMessages(String stage, int max) throws PipelineRunnerException,
     PipelineStoreException {
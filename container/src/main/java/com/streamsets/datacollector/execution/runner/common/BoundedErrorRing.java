@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Retains the most recent errors of a stage, bounded by count and by an estimate of the memory they use.
+ * <p/>
+ * Runner threads add to it without locking: every addition claims a sequence number and publishes its entry in the
+ * slot for that sequence. Entries that are pushed out, because their slot is reused or because the byte budget is
+ * exceeded, are handed to the eviction listener, and so are entries too large for the budget to begin with. Readers
+ * get a page of the retained entries, oldest first, without copying the rest of the ring.
+ */
+public class BoundedErrorRing<T> {
+
+  private static final class Entry<T> {
+    private final long seq;
+    private final T item;
+    private final long weight;
+
+    private Entry(long seq, T item, long weight) {
+      this.seq = seq;
+      this.item = item;
+      this.weight = weight;
+    }
+  }
+
+  private final int capacity;
+  private final long maxBytes;
+  private final ToLongFunction<T> weigher;
+  private final Consumer<T> evictionListener;
+  private final AtomicReferenceArray<Entry<T>> slots;
+  // Next sequence to be claimed by a writer
+  private final AtomicLong head = new AtomicLong();
+  // Oldest sequence that is still retained, anything before it is either gone or about to be overwritten
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+
+  public BoundedErrorRing(int capacity, long maxBytes, ToLongFunction<T> weigher, Consumer<T> evictionListener) {
+    Utils.checkArgument(capacity >= 0, Utils.formatL("Capacity cannot be negative: {}", capacity));
+    Utils.checkArgument(maxBytes >= 0, Utils.formatL("Max bytes cannot be negative: {}", maxBytes));
+    this.capacity = capacity;
+    this.maxBytes = maxBytes;
+    this.weigher = weigher;
+    this.evictionListener = evictionListener;
+    this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+  }
+
+  public void add(T item) {
+    if (capacity == 0) {
+      return;
+    }
+    long weight = weigher.applyAsLong(item);
+    if (weight > maxBytes) {
+      evictionListener.accept(item);
+      return;
+    }
+
+    long seq = head.getAndIncrement();
+    advanceTail(seq + 1 - capacity);
+    Entry<T> entry = new Entry<>(seq, item, weight);
+    Entry<T> displaced = slots.getAndSet(index(seq), entry);
+    bytes.addAndGet(weight);
+    if (displaced != null) {
+      release(displaced);
+    }
+    if (seq < tail.get()) {
+      // Other writers moved past this entry before it was published, unless one of them already released it
+      if (slots.compareAndSet(index(seq), entry, null)) {
+        release(entry);
+      }
+      return;
+    }
+
+    // Evict from the oldest end until we are back within budget, never evicting the entry we just added
+    while (bytes.get() > maxBytes) {
+      long oldest = tail.get();
+      if (oldest >= seq) {
+        break;
+      }
+      if (tail.compareAndSet(oldest, oldest + 1)) {
+        Entry<T> evicted = slots.get(index(oldest));
+        // A writer reusing the slot at the same time gets the entry from getAndSet() and releases it instead
+        if (evicted != null && evicted.seq == oldest && slots.compareAndSet(index(oldest), evicted, null)) {
+          release(evicted);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns up to <code>max</code> retained entries, oldest first, skipping the first <code>offset</code> ones.
+   */
+  public List<T> get(int offset, int max) {
+    long end = head.get();
+    long start = Math.max(tail.get(), end - capacity) + Math.max(offset, 0);
+    List<T> page = new ArrayList<>((int) Math.max(0, Math.min(max, end - start)));
+    for (long seq = start; seq < end && page.size() < max; seq++) {
+      Entry<T> entry = slots.get(index(seq));
+      // Skip slots that were already reused or that a writer has not published yet
+      if (entry != null && entry.seq == seq) {
+        page.add(entry.item);
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Returns the number of retained entries, it can be off by the additions that are in progress.
+   */
+  public int size() {
+    long end = head.get();
+    return (int) Math.max(0, end - Math.max(tail.get(), end - capacity));
+  }
+
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  private int index(long seq) {
+    return (int) (seq % slots.length());
+  }
+
+  private void advanceTail(long seq) {
+    long current = tail.get();
+    while (current < seq && !tail.compareAndSet(current, seq)) {
+      current = tail.get();
+    }
+  }
+
+  private void release(Entry<T> entry) {
+    bytes.addAndGet(-entry.weight);
+    evictionListener.accept(entry.item);
+  }
+
+}
@@ -33,6 +33,11 @@ public class Constants {
   public static final int MAX_BACKUP_INDEX_DEFAULT = 5;
   public static final String MAX_ERROR_RECORDS_PER_STAGE_KEY = "production.maxErrorRecordsPerStage";
   public static final int MAX_ERROR_RECORDS_PER_STAGE_DEFAULT = 100;
+  public static final String MAX_ERROR_RECORDS_BYTES_PER_STAGE_KEY = "production.maxErrorRecordsBytesPerStage";
+  public static final long MAX_ERROR_RECORDS_BYTES_PER_STAGE_DEFAULT = 16L * 1024 * 1024;
+  public static final String MAX_ERROR_RECORDS_SPILL_BYTES_PER_STAGE_KEY =
+      "production.maxErrorRecordsSpillBytesPerStage";
+  public static final long MAX_ERROR_RECORDS_SPILL_BYTES_PER_STAGE_DEFAULT = 64L * 1024 * 1024;
   public static final String MAX_PIPELINE_ERRORS_KEY = "production.maxPipelineErrors";
   public static final int MAX_PIPELINE_ERRORS_DEFAULT = 100;
   public static final String OBSERVER_QUEUE_SIZE_KEY = "observer.queue.size";
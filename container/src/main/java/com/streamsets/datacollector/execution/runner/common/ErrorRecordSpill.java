@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.io.CountingOutputStream;
+import com.streamsets.datacollector.record.io.KryoRecordReader;
+import com.streamsets.datacollector.record.io.KryoRecordWriter;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Error records of a stage that did not fit in memory, kept on disk in the compact Kryo record encoding.
+ * <p/>
+ * Records are appended to the current segment. Once it reaches half of the byte budget it replaces the previous
+ * segment and a new one is started, so the spill stays within the budget and always holds the most recent records.
+ * The segments are dropped when the spill is created, they only cover the current run of the pipeline.
+ * <p/>
+ * Readers never flush the writer, they only see the records written up to the last {@link #flush()}.
+ */
+public class ErrorRecordSpill implements Closeable {
+  private static final String CURRENT_SEGMENT = "current.spill";
+  private static final String PREVIOUS_SEGMENT = "previous.spill";
+
+  private final File currentSegment;
+  private final File previousSegment;
+  private final long maxSegmentBytes;
+  private CountingOutputStream outputStream;
+  private KryoRecordWriter writer;
+  private int currentRecords;
+  // Records of the current segment that were flushed and thus can be read back
+  private int flushedRecords;
+  private int previousRecords;
+
+  public ErrorRecordSpill(File dir, long maxBytes) throws IOException {
+    if (dir.exists()) {
+      FileUtils.cleanDirectory(dir);
+    } else if (!dir.mkdirs()) {
+      throw new IOException(Utils.format("Could not create directory '{}'", dir.getAbsolutePath()));
+    }
+    this.currentSegment = new File(dir, CURRENT_SEGMENT);
+    this.previousSegment = new File(dir, PREVIOUS_SEGMENT);
+    this.maxSegmentBytes = Math.max(maxBytes / 2, 1);
+  }
+
+  public synchronized void append(Record record) throws IOException {
+    if (writer == null) {
+      outputStream = new CountingOutputStream(new FileOutputStream(currentSegment, true));
+      writer = new KryoRecordWriter(outputStream);
+    }
+    writer.write(record);
+    currentRecords++;
+    // Kryo buffers its output, the count lags behind by at most the size of that buffer
+    if (outputStream.getCount() >= maxSegmentBytes) {
+      closeWriter();
+      Files.move(currentSegment.toPath(), previousSegment.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      previousRecords = currentRecords;
+      currentRecords = 0;
+      flushedRecords = 0;
+    }
+  }
+
+  /**
+   * Makes the records appended so far readable.
+   */
+  public synchronized void flush() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+    flushedRecords = currentRecords;
+  }
+
+  /**
+   * Returns up to <code>max</code> spilled records, oldest first, skipping the first <code>offset</code> ones.
+   */
+  public synchronized List<Record> read(int offset, int max) throws IOException {
+    List<Record> page = new ArrayList<>();
+    int skipped = 0;
+    for (File segment : new File[] {previousSegment, currentSegment}) {
+      if (page.size() >= max || !segment.exists()) {
+        continue;
+      }
+      // Past the flushed records the current segment can end in the middle of a record
+      int readable = segment == previousSegment ? previousRecords : flushedRecords;
+      try (RecordReader reader = new KryoRecordReader(new BufferedInputStream(new FileInputStream(segment)), 0)) {
+        Record record;
+        for (int i = 0; i < readable && page.size() < max && (record = reader.readRecord()) != null; i++) {
+          if (skipped < offset) {
+            skipped++;
+          } else {
+            page.add(record);
+          }
+        }
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Returns up to <code>max</code> spilled records, newest first, skipping the <code>offset</code> newest ones.
+   */
+  public synchronized List<Record> readLatest(int offset, int max) throws IOException {
+    int end = size() - Math.max(offset, 0);
+    if (end <= 0 || max <= 0) {
+      return new ArrayList<>();
+    }
+    int start = Math.max(0, end - max);
+    List<Record> page = read(start, end - start);
+    Collections.reverse(page);
+    return page;
+  }
+
+  /**
+   * Returns the number of spilled records that can be read.
+   */
+  public synchronized int size() {
+    return previousRecords + flushedRecords;
+  }
+
+  @Override
+  public synchronized void close() {
+    closeWriter();
+    flushedRecords = currentRecords;
+  }
+
+  private void closeWriter() {
+    if (writer != null) {
+      // Closes the file as well
+      writer.close();
+      writer = null;
+      outputStream = null;
+    }
+  }
+
+}
@@ -24,6 +24,7 @@ import com.streamsets.datacollector.metrics.MetricsConfigurator;
 import com.streamsets.datacollector.restapi.bean.IssuesJson;
 import com.streamsets.datacollector.runner.Pipeline;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.PipelineException;
@@ -38,6 +39,8 @@ import com.streamsets.pipeline.api.impl.ErrorMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -212,10 +215,22 @@ public class ProductionPipeline {
         }
       }
     } finally {
+      closeOffsetTracker();
       MetricsConfigurator.cleanUpJmxMetrics(name, rev);
     }
   }
 
+  private void closeOffsetTracker() {
+    SourceOffsetTracker offsetTracker = pipelineRunner.getOffSetTracker();
+    if (offsetTracker instanceof Closeable) {
+      try {
+        ((Closeable) offsetTracker).close();
+      } catch (IOException | RuntimeException e) {
+        LOG.warn("Error while closing offset tracker: {}", e.toString(), e);
+      }
+    }
+  }
+
   /**
    * Does it make sense to re-run the pipeline (if allowed) after
    * given Throwable was thrown while running the pipeline.
@@ -271,6 +286,10 @@ public class ProductionPipeline {
     return pipelineRunner.getErrorRecords(instanceName, size);
   }
 
+  public List<Record> getErrorRecords(String instanceName, int offset, int size) {
+    return pipelineRunner.getErrorRecords(instanceName, offset, size);
+  }
+
   public List<ErrorMessage> getErrorMessages(String instanceName, int size) {
     return pipelineRunner.getErrorMessages(instanceName, size);
   }
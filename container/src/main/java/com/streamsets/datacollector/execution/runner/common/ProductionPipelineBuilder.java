@@ -140,7 +140,7 @@ public class ProductionPipelineBuilder {
       sourceOffsetTracker = new ProductionSourceOffsetCommitterOffsetTracker(name, rev, runtimeInfo,
         (OffsetCommitter) pipeline.getSource());
     } else {
-      sourceOffsetTracker = new ProductionSourceOffsetTracker(name, rev, runtimeInfo);
+      sourceOffsetTracker = new ProductionSourceOffsetTracker(name, rev, runtimeInfo, configuration);
     }
     runner.setOffsetTracker(sourceOffsetTracker);
     runner.setPipelineStartTime(startTime);
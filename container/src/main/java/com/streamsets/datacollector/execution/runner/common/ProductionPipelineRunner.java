@@ -22,12 +22,12 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
-import com.google.common.collect.EvictingQueue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.bundles.SupportBundleManager;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.creation.PipelineConfigBean;
@@ -73,6 +73,7 @@ import com.streamsets.datacollector.usagestats.StatsCollector;
 import com.streamsets.datacollector.util.AggregatorUtil;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.util.PipelineDirectoryUtil;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.datacollector.util.ValidationUtil;
 import com.streamsets.pipeline.api.Batch;
@@ -80,6 +81,8 @@ import com.streamsets.pipeline.api.BatchContext;
 import com.streamsets.pipeline.api.DeliveryGuarantee;
 import com.streamsets.pipeline.api.ErrorListener;
 import com.streamsets.pipeline.api.OffsetCommitTrigger;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OffsetCommitter;
 import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Source;
@@ -93,17 +96,29 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -113,6 +128,12 @@ import java.util.stream.Collectors;
 public class ProductionPipelineRunner implements PipelineRunner, PushSourceContextDelegate, ReportErrorDelegate {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionPipelineRunner.class);
+  private static final String ERROR_RECORDS_SPILL_DIR = "errorRecords";
+  // Evicted error records waiting for the spill writer, beyond that they are dropped rather than blocking the runners
+  private static final int ERROR_RECORDS_SPILL_QUEUE_CAPACITY = 10000;
+  private static final long ERROR_RECORDS_SPILL_WAIT_SECS = 5;
+  private static final long RECORD_HEADER_SIZE_ESTIMATE = 512;
+  private static final long FIELD_SIZE_ESTIMATE = 48;
 
   private final BuildInfo buildInfo;
   private final RuntimeInfo runtimeInfo;
@@ -149,8 +170,12 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private final Counter batchErrorRecordsCounter;
   private final Counter batchErrorMessagesCounter;
   private final Histogram runnersHistogram;
+  private final Counter sharedRecordsCounter;
+  private final Counter materializedRecordsCounter;
   private MetricRegistryJson metricRegistryJson;
   private Long rateLimit;
+  private boolean copyOnWriteFanOut;
+  private int originPrefetchDepth;
 
   private RateLimiter rateLimiter;
 
@@ -170,10 +195,14 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private volatile int snapshotBatchSize;
   // Exception thrown while executing the pipeline
   private volatile Throwable exceptionFromExecution = null;
-  /*Cache last N error records per stage in memory*/
-  private final Map<String, EvictingQueue<Record>> stageToErrorRecordsMap;
+  /*Cache last N error records per stage in memory, within a byte budget*/
+  private final ConcurrentMap<String, BoundedErrorRing<Record>> stageToErrorRecordsMap;
+  /*Error records that were evicted from memory or too large for it, per stage*/
+  private final ConcurrentMap<String, Optional<ErrorRecordSpill>> stageToErrorRecordSpillMap;
+  // Writes the evicted error records to the spill, off the runner threads; its thread ends once idle
+  private final ThreadPoolExecutor errorRecordSpillExecutor;
   /*Cache last N error messages in memory*/
-  private final Map<String, EvictingQueue<ErrorMessage>> stageToErrorMessagesMap;
+  private final ConcurrentMap<String, BoundedErrorRing<ErrorMessage>> stageToErrorMessagesMap;
   /**/
   private BlockingQueue<Object> observeRequests;
   private Observer observer;
@@ -211,8 +240,18 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     this.pipelineName = pipelineName;
     this.revision = revision;
     this.supportBundleManager = supportBundleManager;
-    stageToErrorRecordsMap = new HashMap<>();
-    stageToErrorMessagesMap = new HashMap<>();
+    stageToErrorRecordsMap = new ConcurrentHashMap<>();
+    stageToErrorRecordSpillMap = new ConcurrentHashMap<>();
+    errorRecordSpillExecutor = new ThreadPoolExecutor(
+        0,
+        1,
+        60,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(ERROR_RECORDS_SPILL_QUEUE_CAPACITY),
+        new ThreadFactoryBuilder().setNameFormat("ErrorRecordSpill-" + pipelineName + "-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.DiscardPolicy()
+    );
+    stageToErrorMessagesMap = new ConcurrentHashMap<>();
     this.errorListeners = new ArrayList<>();
     this.statsCollector = statsCollector;
 
@@ -245,6 +284,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     batchErrorMessagesCounter = MetricsConfigurator.createCounter(metrics, "pipeline.batchErrorMessages", pipelineName,
       revision);
     runnersHistogram = MetricsConfigurator.createHistogram5Min(metrics, "pipeline.runners", pipelineName, revision);
+    sharedRecordsCounter = MetricsConfigurator.createCounter(metrics, "pipeline.copyOnWriteSharedRecords",
+      pipelineName, revision);
+    materializedRecordsCounter = MetricsConfigurator.createCounter(metrics, "pipeline.copyOnWriteMaterializedRecords",
+      pipelineName, revision);
   }
 
   public void setObserveRequests(BlockingQueue<Object> observeRequests) {
@@ -300,6 +343,14 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     rateLimiter = RateLimiter.create(rateLimit.doubleValue());
   }
 
+  public void setCopyOnWriteFanOut(boolean copyOnWriteFanOut) {
+    this.copyOnWriteFanOut = copyOnWriteFanOut;
+  }
+
+  public void setOriginPrefetchDepth(int originPrefetchDepth) {
+    this.originPrefetchDepth = originPrefetchDepth;
+  }
+
   public void setOffsetTracker(SourceOffsetTracker offsetTracker) {
     this.offsetTracker = offsetTracker;
   }
@@ -464,6 +515,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       pipeBatch = new FullPipeBatch(entityName, previousOffset, configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT), false);
     }
     pipeBatch.setRateLimiter(rateLimiter);
+    pipeBatch.setCopyOnWriteFanOut(copyOnWriteFanOut);
 
     return pipeBatch;
   }
@@ -571,6 +623,16 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   public void runPollSource() throws StageException, PipelineException {
+    if (originPrefetchDepth > 0) {
+      if (originPipe.getStage().getStage() instanceof OffsetCommitter) {
+        // Such origins are notified about committed offsets and hence can't produce ahead of the commit
+        LOG.warn("Origin prefetch is not supported for origins committing offsets on their own, ignoring it");
+      } else {
+        runPollSourcePrefetching();
+        return;
+      }
+    }
+
     while (!offsetTracker.isFinished() && !stop && !finished) {
       if (threadHealthReporter != null) {
         threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
@@ -601,44 +663,213 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         stageBatchMetrics
       );
 
-      // Since the origin already run, the FullPipeBatch will have a new offset
-      String newOffset = pipeBatch.getNewOffset();
+      // Since the origin already run, the FullPipeBatch will have a new offset and we can run rest of the pipeline
+      runPolledBatch(start, pipeBatch, memoryConsumedByStage, stageBatchMetrics);
 
-      try {
-        // Run rest of the pipeline
-        runSourceLessBatch(
-          start,
-          pipeBatch,
-          Source.POLL_SOURCE_OFFSET_KEY,
-          newOffset,
-          memoryConsumedByStage,
-          stageBatchMetrics
-        );
-      } catch (Throwable t) {
-        // We try to create partial batch on processing failure
-        createFailureBatch(pipeBatch);
-
-        // If applicable record the error codes
-        if(statsCollector != null) {
-          if(exceptionFromExecution instanceof StageException) {
-            statsCollector.errorCode(((StageException) exceptionFromExecution).getErrorCode());
-          }
-          if(exceptionFromExecution instanceof PipelineRuntimeException) {
-            statsCollector.errorCode(((PipelineRuntimeException) exceptionFromExecution).getErrorCode());
+      for (BatchListener batchListener : batchListenerList) {
+        batchListener.postBatch();
+      }
+    }
+  }
+
+  /**
+   * Variant of runPollSource() where the origin runs on its own thread and produces up to originPrefetchDepth batches
+   * ahead while the current batch goes through the rest of the pipeline. Batches are processed and their offsets
+   * committed strictly in the order in which the origin produced them. Batches that were prefetched but not processed
+   * when the pipeline stops are dropped without committing their offsets, so they will be read again on next start.
+   */
+  private void runPollSourcePrefetching() throws StageException, PipelineException {
+    BlockingQueue<PrefetchedBatch> prefetchedBatches = new ArrayBlockingQueue<>(originPrefetchDepth);
+    AtomicBoolean prefetchStopped = new AtomicBoolean(false);
+    ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("OriginPrefetch-" + pipelineName + "-%d").setDaemon(true).build()
+    );
+    prefetchExecutor.submit(() -> prefetchBatches(prefetchedBatches, prefetchStopped));
+
+    try {
+      while (!offsetTracker.isFinished() && !stop && !finished) {
+        if (threadHealthReporter != null) {
+          threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
+        }
+
+        PrefetchedBatch prefetchedBatch = prefetchedBatches.poll(1, TimeUnit.SECONDS);
+        if (prefetchedBatch == null) {
+          // Origin is still working on the next batch
+          continue;
+        }
+        if (prefetchedBatch.pipeBatch == null) {
+          // Origin is not going to produce any more batches
+          if (prefetchedBatch.failure != null) {
+            Throwables.propagateIfInstanceOf(prefetchedBatch.failure, StageException.class);
+            Throwables.propagateIfInstanceOf(prefetchedBatch.failure, PipelineException.class);
+            Throwables.propagate(prefetchedBatch.failure);
           }
+          break;
+        }
+
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.preBatch();
+        }
+
+        if(observer != null) {
+          observer.reconfigure();
+        }
+
+        runPolledBatch(
+            prefetchedBatch.start,
+            prefetchedBatch.pipeBatch,
+            prefetchedBatch.memoryConsumedByStage,
+            prefetchedBatch.stageBatchMetrics
+        );
+
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.postBatch();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0801, e);
+    } finally {
+      // Origin must not be running any more when we return as the pipeline is going to be destroyed. Like without
+      // prefetch, the batch the origin is producing is let finish, it's then dropped. The origin is only interrupted
+      // when this thread is interrupted itself.
+      prefetchStopped.set(true);
+      prefetchedBatches.clear();
+      prefetchExecutor.shutdown();
+      try {
+        while (!prefetchExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+          LOG.info("Waiting on origin to finish prefetching");
         }
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted while waiting on origin to finish prefetching, interrupting the origin");
+        prefetchExecutor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
 
-        Throwables.propagateIfInstanceOf(t, StageException.class);
-        Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
-        Throwables.propagate(t);
+  /**
+   * Body of the origin prefetch thread, runs the origin until it's finished or the pipeline is stopping. The last
+   * element put to the queue never carries a batch, it only signals end of the prefetching and optionally the failure.
+   */
+  private void prefetchBatches(BlockingQueue<PrefetchedBatch> prefetchedBatches, AtomicBoolean prefetchStopped) {
+    PipelineEL.setConstantsInContext(
+        pipelineConfiguration,
+        originPipe.getStage().getContext().getUserContext(),
+        pipelineStartTime
+    );
+    JobEL.setConstantsInContext(parameters);
+
+    PrefetchedBatch last = new PrefetchedBatch(0, null, null, null, null);
+    try {
+      // The origin gets offset of the previous produced batch rather than the last committed one
+      String offset = offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY);
+      boolean originFinished = offsetTracker.isFinished();
+      while (!originFinished && !prefetchStopped.get() && !stop && !finished) {
+        long start = System.currentTimeMillis();
+        FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, offset);
+        Map<String, Long> memoryConsumedByStage = new HashMap<>();
+        Map<String, Object> stageBatchMetrics = new HashMap<>();
+        processPipe(originPipe, pipeBatch, false, null, null, memoryConsumedByStage, stageBatchMetrics);
+
+        offset = pipeBatch.getNewOffset();
+        originFinished = offset == null;
+        PrefetchedBatch prefetchedBatch =
+            new PrefetchedBatch(start, pipeBatch, memoryConsumedByStage, stageBatchMetrics, null);
+        // Batch is dropped without committing its offset if the pipeline stops while it waits for the queue
+        while (!prefetchStopped.get() && !prefetchedBatches.offer(prefetchedBatch, 1, TimeUnit.SECONDS)) {
+          LOG.trace("Waiting on the pipeline to take the prefetched batch");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      if (!prefetchStopped.get()) {
+        LOG.error("Origin failed while prefetching", t);
       }
+      last = new PrefetchedBatch(0, null, null, null, t);
+    } finally {
+      PipelineEL.unsetConstantsInContext();
+      JobEL.unsetConstantsInContext();
+    }
 
-      for (BatchListener batchListener : batchListenerList) {
-        batchListener.postBatch();
+    // Consumer is not reading the queue anymore if prefetch was stopped
+    while (!prefetchStopped.get()) {
+      try {
+        if (prefetchedBatches.offer(last, 1, TimeUnit.SECONDS)) {
+          break;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
       }
     }
   }
 
+  /**
+   * Batch already produced by the origin that is waiting to be processed by the rest of the pipeline.
+   */
+  private static class PrefetchedBatch {
+    private final long start;
+    private final FullPipeBatch pipeBatch;
+    private final Map<String, Long> memoryConsumedByStage;
+    private final Map<String, Object> stageBatchMetrics;
+    private final Throwable failure;
+
+    PrefetchedBatch(
+        long start,
+        FullPipeBatch pipeBatch,
+        Map<String, Long> memoryConsumedByStage,
+        Map<String, Object> stageBatchMetrics,
+        Throwable failure
+    ) {
+      this.start = start;
+      this.pipeBatch = pipeBatch;
+      this.memoryConsumedByStage = memoryConsumedByStage;
+      this.stageBatchMetrics = stageBatchMetrics;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * Runs rest of the pipeline for batch that was already produced by a poll origin.
+   */
+  private void runPolledBatch(
+      long start,
+      FullPipeBatch pipeBatch,
+      Map<String, Long> memoryConsumedByStage,
+      Map<String, Object> stageBatchMetrics
+  ) throws StageException, PipelineException {
+    try {
+      // Run rest of the pipeline
+      runSourceLessBatch(
+        start,
+        pipeBatch,
+        Source.POLL_SOURCE_OFFSET_KEY,
+        pipeBatch.getNewOffset(),
+        memoryConsumedByStage,
+        stageBatchMetrics
+      );
+    } catch (Throwable t) {
+      // We try to create partial batch on processing failure
+      createFailureBatch(pipeBatch);
+
+      // If applicable record the error codes
+      if(statsCollector != null) {
+        if(exceptionFromExecution instanceof StageException) {
+          statsCollector.errorCode(((StageException) exceptionFromExecution).getErrorCode());
+        }
+        if(exceptionFromExecution instanceof PipelineRuntimeException) {
+          statsCollector.errorCode(((PipelineRuntimeException) exceptionFromExecution).getErrorCode());
+        }
+      }
+
+      Throwables.propagateIfInstanceOf(t, StageException.class);
+      Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
+      Throwables.propagate(t);
+    }
+  }
+
   @Override
   public void errorNotification(SourcePipe originPipe, List<PipeRunner> pipes, Throwable throwable) {
     Set<ErrorListener> listeners = Sets.newIdentityHashSet();
@@ -794,7 +1025,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         statsAggregationHandler.handle(null, null, stats);
       }
     } finally {
-        destroyLock.unlock();
+      // Spilled error records stay readable after the pipeline stops, only the files are closed
+      awaitErrorRecordSpill();
+      stageToErrorRecordSpillMap.values().forEach(spill -> spill.ifPresent(ErrorRecordSpill::close));
+      destroyLock.unlock();
     }
   }
 
@@ -937,6 +1171,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     batchOutputRecordsCounter.inc(pipeBatch.getOutputRecords());
     batchErrorRecordsCounter.inc(pipeBatch.getErrorRecords());
     batchErrorMessagesCounter.inc(pipeBatch.getErrorMessages());
+    if (copyOnWriteFanOut) {
+      sharedRecordsCounter.inc(pipeBatch.getSharedRecords());
+      materializedRecordsCounter.inc(pipeBatch.getMaterializedRecords());
+    }
 
     if (pipeContext != null) {
       pipeContext.getRuntimeStats().setLastBatchInputRecordsCount(pipeBatch.getInputRecords());
@@ -1079,69 +1317,178 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   private void retainErrorMessagesInMemory(Map<String, List<ErrorMessage>> errorMessages) {
-    // Shortcut to avoid synchronization
-    if(errorMessages.isEmpty()) {
-      return;
+    for (Map.Entry<String, List<ErrorMessage>> e : errorMessages.entrySet()) {
+      BoundedErrorRing<ErrorMessage> errorMessageRing = stageToErrorMessagesMap.computeIfAbsent(e.getKey(),
+          k -> new BoundedErrorRing<>(
+              configuration.get(Constants.MAX_PIPELINE_ERRORS_KEY, Constants.MAX_PIPELINE_ERRORS_DEFAULT),
+              Long.MAX_VALUE,
+              errorMessage -> 0,
+              errorMessage -> {}
+          )
+      );
+      for (ErrorMessage errorMessage : e.getValue()) {
+        errorMessageRing.add(errorMessage);
+      }
     }
+  }
 
-    synchronized (stageToErrorMessagesMap) {
-      for (Map.Entry<String, List<ErrorMessage>> e : errorMessages.entrySet()) {
-        EvictingQueue<ErrorMessage> errorMessageList = stageToErrorMessagesMap.computeIfAbsent(e.getKey(),
-            k -> EvictingQueue.create(configuration.get(Constants.MAX_PIPELINE_ERRORS_KEY,
-                Constants.MAX_PIPELINE_ERRORS_DEFAULT
-            ))
-        );
-        errorMessageList.addAll(errorMessages.get(e.getKey()));
+  private void retainErrorRecordsInMemory(Map<String, List<Record>> errorRecords) {
+    for (Map.Entry<String, List<Record>> e : errorRecords.entrySet()) {
+      String stage = e.getKey();
+      BoundedErrorRing<Record> errorRecordRing = stageToErrorRecordsMap.computeIfAbsent(stage,
+          k -> new BoundedErrorRing<>(
+              configuration.get(
+                  Constants.MAX_ERROR_RECORDS_PER_STAGE_KEY,
+                  Constants.MAX_ERROR_RECORDS_PER_STAGE_DEFAULT
+              ),
+              configuration.get(
+                  Constants.MAX_ERROR_RECORDS_BYTES_PER_STAGE_KEY,
+                  Constants.MAX_ERROR_RECORDS_BYTES_PER_STAGE_DEFAULT
+              ),
+              ProductionPipelineRunner::estimateSize,
+              record -> spillErrorRecord(stage, record)
+          )
+      );
+      for (Record record : e.getValue()) {
+        errorRecordRing.add(record);
       }
     }
   }
 
-  private void retainErrorRecordsInMemory(Map<String, List<Record>> errorRecords) {
-    // Shortcut to avoid synchronization
-    if(errorRecords.isEmpty()) {
-      return;
+  /**
+   * Called by the runner threads while they add to the error record ring, the record is written by the spill thread.
+   */
+  private void spillErrorRecord(String stage, Record record) {
+    long maxBytes = configuration.get(
+        Constants.MAX_ERROR_RECORDS_SPILL_BYTES_PER_STAGE_KEY,
+        Constants.MAX_ERROR_RECORDS_SPILL_BYTES_PER_STAGE_DEFAULT
+    );
+    if (maxBytes > 0) {
+      errorRecordSpillExecutor.execute(() -> writeSpilledErrorRecord(stage, record, maxBytes));
     }
+  }
 
-    synchronized (stageToErrorRecordsMap) {
-      for (Map.Entry<String, List<Record>> e : errorRecords.entrySet()) {
-        EvictingQueue<Record> errorRecordList = stageToErrorRecordsMap.computeIfAbsent(e.getKey(),
-            k -> EvictingQueue.create(configuration.get(Constants.MAX_ERROR_RECORDS_PER_STAGE_KEY,
-                Constants.MAX_ERROR_RECORDS_PER_STAGE_DEFAULT
-            ))
-        );
-        // replace with a data structure with an upper cap
-        errorRecordList.addAll(errorRecords.get(e.getKey()));
+  private void writeSpilledErrorRecord(String stage, Record record, long maxBytes) {
+    Optional<ErrorRecordSpill> spill = stageToErrorRecordSpillMap.computeIfAbsent(stage, k -> {
+      File dir = new File(
+          new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, revision), ERROR_RECORDS_SPILL_DIR),
+          stage.replaceAll("[^A-Za-z0-9_.-]", "_")
+      );
+      try {
+        return Optional.of(new ErrorRecordSpill(dir, maxBytes));
+      } catch (IOException | RuntimeException ex) {
+        LOG.warn("Can't spill error records of stage '{}' to '{}': {}", stage, dir, ex.toString(), ex);
+        return Optional.empty();
+      }
+    });
+    if (spill.isPresent()) {
+      try {
+        spill.get().append(record);
+        if (errorRecordSpillExecutor.getQueue().isEmpty()) {
+          // Make what was written readable once the backlog is drained rather than flushing every record
+          spill.get().flush();
+        }
+      } catch (IOException ex) {
+        // The spill is best effort, it is not worth failing the pipeline over it
+        LOG.warn("Can't spill error record of stage '{}': {}", stage, ex.toString(), ex);
       }
     }
   }
 
+  /**
+   * Waits until the error records evicted so far are in the spill.
+   */
+  private void awaitErrorRecordSpill() {
+    if (errorRecordSpillExecutor.getTaskCount() == errorRecordSpillExecutor.getCompletedTaskCount()) {
+      return;
+    }
+    try {
+      // Single thread, so everything queued before it is written once it runs
+      errorRecordSpillExecutor.submit(() -> {}).get(ERROR_RECORDS_SPILL_WAIT_SECS, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException ex) {
+      LOG.warn("Spilled error records may be incomplete: {}", ex.toString());
+    }
+  }
+
+  /**
+   * Rough estimate of the heap used by a record: the fields and their values, the header is counted as a constant.
+   */
+  static long estimateSize(Record record) {
+    return RECORD_HEADER_SIZE_ESTIMATE + estimateSize(record.get());
+  }
+
   @SuppressWarnings("unchecked")
-  public List<Record> getErrorRecords(String instanceName, int size) {
-    synchronized (stageToErrorRecordsMap) {
-      if (stageToErrorRecordsMap == null || stageToErrorRecordsMap.isEmpty()
-        || stageToErrorRecordsMap.get(instanceName) == null || stageToErrorRecordsMap.get(instanceName).isEmpty()) {
-        return Collections.emptyList();
+  private static long estimateSize(Field field) {
+    if (field == null) {
+      return 0;
+    }
+    long size = FIELD_SIZE_ESTIMATE;
+    Object value = field.getValue();
+    if (value instanceof String) {
+      size += 2L * ((String) value).length();
+    } else if (value instanceof byte[]) {
+      size += ((byte[]) value).length;
+    } else if (value instanceof Map) {
+      for (Map.Entry<String, Field> entry : ((Map<String, Field>) value).entrySet()) {
+        size += FIELD_SIZE_ESTIMATE + 2L * entry.getKey().length() + estimateSize(entry.getValue());
       }
-      if (stageToErrorRecordsMap.get(instanceName).size() > size) {
-        return new CopyOnWriteArrayList<>(stageToErrorRecordsMap.get(instanceName)).subList(0, size);
-      } else {
-        return new CopyOnWriteArrayList<>(stageToErrorRecordsMap.get(instanceName));
+    } else if (value instanceof List) {
+      for (Field element : (List<Field>) value) {
+        size += estimateSize(element);
       }
     }
+    return size;
   }
 
-  public List<ErrorMessage> getErrorMessages(String instanceName, int size) {
-    synchronized (stageToErrorMessagesMap) {
-      if (stageToErrorMessagesMap == null || stageToErrorMessagesMap.isEmpty()
-        || stageToErrorMessagesMap.get(instanceName) == null || stageToErrorMessagesMap.get(instanceName).isEmpty()) {
-        return Collections.emptyList();
+  public List<Record> getErrorRecords(String instanceName, int size) {
+    return getErrorRecords(instanceName, 0, size);
+  }
+
+  /**
+   * Returns a page of the error records of a stage: first the ones retained in memory, which are the most recent, then
+   * the ones spilled to disk, newest first. The spill is not waited for, records still being written are not listed.
+   */
+  public List<Record> getErrorRecords(String instanceName, int offset, int size) {
+    return getErrorRecords(
+        stageToErrorRecordSpillMap.getOrDefault(instanceName, Optional.empty()),
+        stageToErrorRecordsMap.get(instanceName),
+        offset,
+        size
+    );
+  }
+
+  static List<Record> getErrorRecords(
+      Optional<ErrorRecordSpill> spill,
+      BoundedErrorRing<Record> errorRecordRing,
+      int offset,
+      int size
+  ) {
+    List<Record> page = new ArrayList<>();
+    int retained = 0;
+    if (errorRecordRing != null) {
+      retained = errorRecordRing.size();
+      if (offset < retained) {
+        page.addAll(errorRecordRing.get(offset, size));
       }
-      if (stageToErrorMessagesMap.get(instanceName).size() > size) {
-        return new CopyOnWriteArrayList<>(stageToErrorMessagesMap.get(instanceName)).subList(0, size);
-      } else {
-        return new CopyOnWriteArrayList<>(stageToErrorMessagesMap.get(instanceName));
+    }
+    if (spill.isPresent() && page.size() < size) {
+      try {
+        page.addAll(spill.get().readLatest(Math.max(0, offset - retained), size - page.size()));
+      } catch (IOException ex) {
+        LOG.warn("Can't read spilled error records: {}", ex.toString(), ex);
       }
     }
+    return page;
+  }
+
+  public List<ErrorMessage> getErrorMessages(String instanceName, int size) {
+    BoundedErrorRing<ErrorMessage> errorMessageRing = stageToErrorMessagesMap.get(instanceName);
+    if (errorMessageRing == null) {
+      return Collections.emptyList();
+    }
+    return errorMessageRing.get(0, size);
   }
 
   /**
@@ -221,6 +221,15 @@ public class SlaveStandaloneRunner implements Runner, PipelineInfo  {
     return standaloneRunner.getErrorRecords(stage, max);
   }
 
+  @Override
+  public List<Record> getErrorRecords(
+      String stage,
+      int offset,
+      int max
+  ) throws PipelineRunnerException, PipelineStoreException {
+    return standaloneRunner.getErrorRecords(stage, offset, max);
+  }
+
   @Override
   public List<ErrorMessage> getErrorMessages(String stage, int max) throws PipelineRunnerException,
     PipelineStoreException {
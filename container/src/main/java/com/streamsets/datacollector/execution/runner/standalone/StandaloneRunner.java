@@ -557,8 +557,13 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
 
   @Override
   public List<Record> getErrorRecords(String stage, int max) {
+    return getErrorRecords(stage, 0, max);
+  }
+
+  @Override
+  public List<Record> getErrorRecords(String stage, int offset, int max) {
     if (prodPipeline != null) {
-      return prodPipeline.getErrorRecords(stage, max);
+      return prodPipeline.getErrorRecords(stage, offset, max);
     }
     return Collections.emptyList();
   }
@@ -866,6 +871,8 @@ public class StandaloneRunner extends AbstractRunner implements StateListener {
         if (pipelineConfigBean.rateLimit > 0) {
           runner.setRateLimit(pipelineConfigBean.rateLimit);
         }
+        runner.setCopyOnWriteFanOut(pipelineConfigBean.copyOnWriteFanOut);
+        runner.setOriginPrefetchDepth(pipelineConfigBean.originPrefetchDepth);
         ProductionPipelineBuilder builder = objectGraph.get(ProductionPipelineBuilder.class);
 
         //register email notifier & webhook notifier with event listener manager
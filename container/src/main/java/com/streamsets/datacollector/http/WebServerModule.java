@@ -37,6 +37,7 @@ import com.streamsets.datacollector.restapi.configuration.BuildInfoInjector;
 import com.streamsets.datacollector.restapi.configuration.ConfigurationInjector;
 import com.streamsets.datacollector.restapi.configuration.CredentialStoreTaskInjector;
 import com.streamsets.datacollector.restapi.configuration.EventHandlerTaskInjector;
+import com.streamsets.datacollector.restapi.configuration.EventListenerManagerInjector;
 import com.streamsets.datacollector.restapi.configuration.PipelineStoreInjector;
 import com.streamsets.datacollector.restapi.configuration.RestAPIResourceConfig;
 import com.streamsets.datacollector.restapi.configuration.RuntimeInfoInjector;
@@ -403,6 +404,16 @@ public class WebServerModule {
     };
   }
 
+  @Provides(type = Type.SET)
+  ContextConfigurator provideEventListenerManager(final EventListenerManager eventListenerManager) {
+    return new ContextConfigurator() {
+      @Override
+      public void init(ServletContextHandler context) {
+        context.setAttribute(EventListenerManagerInjector.EVENT_LISTENER_MANAGER, eventListenerManager);
+      }
+    };
+  }
+
   @Provides(type = Type.SET)
   ContextConfigurator provideActivation(final Activation activation) {
     return new ContextConfigurator() {
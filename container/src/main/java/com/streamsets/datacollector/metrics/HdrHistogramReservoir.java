@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time window reservoir backed by HdrHistogram.
+ *
+ * Updates are recorded by a wait-free {@link Recorder}, so unlike
+ * {@link com.codahale.metrics.SlidingTimeWindowReservoir} it does not keep a sample per update and unlike
+ * {@link com.codahale.metrics.ExponentiallyDecayingReservoir} it does not take a lock. The window is split into chunks,
+ * recorded values are moved into their chunk on the first update after the chunk ends or when a snapshot is taken, and
+ * a snapshot merges all chunks that are still in the window. Values are kept with two significant digits, negative
+ * values are recorded as zero.
+ */
+public class HdrHistogramReservoir implements Reservoir {
+  private static final int SIGNIFICANT_DIGITS = 2;
+  private static final int CHUNKS = 10;
+
+  private final Clock clock;
+  private final long windowNanos;
+  private final long chunkNanos;
+  private final Recorder recorder;
+  private final Histogram[] chunks;
+  private final long[] chunkStarts;
+  private Histogram intervalHistogram;
+  private volatile long nextRotation;
+
+  public HdrHistogramReservoir(long window, TimeUnit windowUnit) {
+    this(window, windowUnit, Clock.defaultClock());
+  }
+
+  public HdrHistogramReservoir(long window, TimeUnit windowUnit, Clock clock) {
+    this.clock = clock;
+    this.windowNanos = windowUnit.toNanos(window);
+    this.chunkNanos = Math.max(windowNanos / CHUNKS, 1);
+    this.recorder = new Recorder(SIGNIFICANT_DIGITS);
+    // One extra chunk, the current one is only partially in the window
+    this.chunks = new Histogram[CHUNKS + 1];
+    this.chunkStarts = new long[CHUNKS + 1];
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = new Histogram(SIGNIFICANT_DIGITS);
+      chunkStarts[i] = Long.MIN_VALUE;
+    }
+    nextRotation = chunkStart(clock.getTick()) + chunkNanos;
+  }
+
+  @Override
+  public int size() {
+    return getSnapshot().size();
+  }
+
+  @Override
+  public void update(long value) {
+    if (clock.getTick() >= nextRotation) {
+      synchronized (this) {
+        // Another thread might have rotated in the meantime
+        if (clock.getTick() >= nextRotation) {
+          rotate();
+        }
+      }
+    }
+    recorder.recordValue(Math.max(value, 0));
+  }
+
+  @Override
+  public synchronized Snapshot getSnapshot() {
+    long now = rotate();
+    Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+    for (int i = 0; i < chunks.length; i++) {
+      if (chunkStarts[i] != Long.MIN_VALUE && chunkStarts[i] + chunkNanos > now - windowNanos) {
+        merged.add(chunks[i]);
+      }
+    }
+    return new HdrSnapshot(merged);
+  }
+
+  private synchronized long rotate() {
+    long now = clock.getTick();
+    // Values recorded since the last rotation belong to the chunk that was current back then
+    long chunkStart = nextRotation - chunkNanos;
+    int index = (int) Math.floorMod(Math.floorDiv(chunkStart, chunkNanos), (long) chunks.length);
+    if (chunkStarts[index] != chunkStart) {
+      chunks[index].reset();
+      chunkStarts[index] = chunkStart;
+    }
+    intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+    chunks[index].add(intervalHistogram);
+    nextRotation = chunkStart(now) + chunkNanos;
+    return now;
+  }
+
+  private long chunkStart(long tick) {
+    return tick - Math.floorMod(tick, chunkNanos);
+  }
+
+  private static class HdrSnapshot extends Snapshot {
+    private final Histogram histogram;
+
+    HdrSnapshot(Histogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+      if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+        throw new IllegalArgumentException(quantile + " is not in [0..1]");
+      }
+      return histogram.getTotalCount() == 0 ? 0.0 : histogram.getValueAtPercentile(quantile * 100);
+    }
+
+    /**
+     * Distinct recorded values (with the histogram precision), the individual samples are not kept.
+     */
+    @Override
+    public long[] getValues() {
+      List<Long> values = new ArrayList<>();
+      for (HistogramIterationValue value : histogram.recordedValues()) {
+        values.add(histogram.highestEquivalentValue(value.getValueIteratedTo()));
+      }
+      return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(histogram.getTotalCount(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getMax() {
+      return histogram.getTotalCount() == 0 ? 0 : histogram.getMaxValue();
+    }
+
+    @Override
+    public double getMean() {
+      return histogram.getTotalCount() == 0 ? 0.0 : histogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue();
+    }
+
+    @Override
+    public double getStdDev() {
+      return histogram.getTotalCount() < 2 ? 0.0 : histogram.getStdDeviation();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+      try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for (long value : getValues()) {
+          out.printf("%d%n", value);
+        }
+      }
+    }
+  }
+}
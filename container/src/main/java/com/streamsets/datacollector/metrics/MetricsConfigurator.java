@@ -24,6 +24,10 @@ import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.codahale.metrics.Timer;
+import com.streamsets.datacollector.util.Configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -45,6 +49,8 @@ import java.util.concurrent.TimeUnit;
  *  that are covering all instances of given stage when pipeline is running in multi-threaded fashion.
  */
 public class MetricsConfigurator {
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsConfigurator.class);
+
   public static final String JMX_PIPELINE_PREFIX = "sdc.pipeline.";
   public static final String JMX_FRAMEWORK_PREFIX = "sdc.pipeline.";
 
@@ -54,7 +60,13 @@ public class MetricsConfigurator {
   public static final String TIMER_SUFFIX = ".timer";
   public static final String GAUGE_SUFFIX = ".gauge";
 
+  public static final String METRICS_BACKEND_KEY = "metrics.backend";
+  public static final String METRICS_BACKEND_DROPWIZARD = "dropwizard";
+  public static final String METRICS_BACKEND_HDR = "hdr";
+  public static final String METRICS_BACKEND_DEFAULT = METRICS_BACKEND_DROPWIZARD;
+
   private static MetricRegistry sdcMetrics;
+  private static volatile boolean hdrBackend;
   private static List<String> runningPipelines = new ArrayList<>();
 
   private MetricsConfigurator() {}
@@ -106,7 +118,9 @@ public class MetricsConfigurator {
   public static Timer createTimer(MetricRegistry metrics, String name, final String pipelineName, final String pipelineRev) {
     return create(
       metrics,
-      new Timer(new SlidingTimeWindowReservoir(60, TimeUnit.SECONDS)),
+      new Timer(hdrBackend
+          ? new HdrHistogramReservoir(60, TimeUnit.SECONDS)
+          : new SlidingTimeWindowReservoir(60, TimeUnit.SECONDS)),
       metricName(name, TIMER_SUFFIX),
       pipelineName,
       pipelineRev
@@ -125,7 +139,7 @@ public class MetricsConfigurator {
   public static Meter createMeter(MetricRegistry metrics, String name, final String pipelineName, final String pipelineRev) {
     return create(
       metrics,
-      new ExtendedMeter(),
+      hdrBackend ? new StripedMeter() : new ExtendedMeter(),
       metricName(name, METER_SUFFIX),
       pipelineName,
       pipelineRev
@@ -163,7 +177,9 @@ public class MetricsConfigurator {
   public static Histogram createHistogram5Min(MetricRegistry metrics, String name, final String pipelineName, final String pipelineRev) {
     return create(
       metrics,
-      new Histogram(new ExponentiallyDecayingReservoir()),
+      new Histogram(hdrBackend
+          ? new HdrHistogramReservoir(5, TimeUnit.MINUTES)
+          : new ExponentiallyDecayingReservoir()),
       metricName(name, HISTOGRAM_M5_SUFFIX),
       pipelineName,
       pipelineRev
@@ -272,6 +288,19 @@ public class MetricsConfigurator {
     sdcMetrics = metrics;
   }
 
+  /**
+   * Selects the implementation of timers, meters and histograms created from now on. The 'hdr' backend uses
+   * HdrHistogram based reservoirs and LongAdder based meters that don't lock nor keep per-update samples, the JSON and
+   * JMX representation of the metrics is the same for both backends.
+   */
+  public static void configureBackend(Configuration configuration) {
+    String backend = configuration.get(METRICS_BACKEND_KEY, METRICS_BACKEND_DEFAULT).trim();
+    hdrBackend = METRICS_BACKEND_HDR.equalsIgnoreCase(backend);
+    if (!hdrBackend && !METRICS_BACKEND_DROPWIZARD.equalsIgnoreCase(backend)) {
+      LOG.warn("Unknown metrics backend '{}', using '{}'", backend, METRICS_BACKEND_DROPWIZARD);
+    }
+  }
+
   public static synchronized void registerPipeline(String pipelineName, String pipelineRev) {
     runningPipelines.add(jmxPipelinePrefix(pipelineName, pipelineRev));
   }
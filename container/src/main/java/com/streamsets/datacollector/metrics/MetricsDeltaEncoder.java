@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Suppliers;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Numbers the metrics of each refresh of a pipeline and computes what changed since the previous one. Deltas are
+ * computed lazily, only when a listener asks for one, so pipelines without delta listeners don't pay for them.
+ * <p/>
+ * Metrics are compared per entry within each section of the registry JSON (gauges, counters, meters, ...), a changed
+ * entry is sent whole.
+ */
+public class MetricsDeltaEncoder {
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsDeltaEncoder.class);
+
+  static class Delta {
+    private final long base;
+    private final String message;
+
+    Delta(long base, String message) {
+      this.base = base;
+      this.message = message;
+    }
+
+    long getBase() {
+      return base;
+    }
+
+    String getMessage() {
+      return message;
+    }
+  }
+
+  private final ObjectMapper objectMapper;
+  // Starting from the current time keeps sequences of consecutive runs of the pipeline apart
+  private long sequence;
+  private long baseSequence;
+  private JsonNode base;
+
+  public MetricsDeltaEncoder() {
+    objectMapper = ObjectMapperFactory.get();
+    sequence = System.currentTimeMillis();
+    baseSequence = -1;
+  }
+
+  public synchronized MetricsUpdate encode(String metrics) {
+    long updateSequence = ++sequence;
+    return new MetricsUpdate(updateSequence, metrics, Suppliers.memoize(() -> delta(updateSequence, metrics)));
+  }
+
+  private synchronized Delta delta(long updateSequence, String metrics) {
+    if (updateSequence < baseSequence) {
+      return null;
+    }
+    JsonNode current;
+    try {
+      current = objectMapper.readTree(metrics);
+    } catch (IOException ex) {
+      LOG.warn("Could not parse metrics, sending them whole: {}", ex.toString(), ex);
+      base = null;
+      baseSequence = -1;
+      return null;
+    }
+    Delta delta = null;
+    if (base != null) {
+      ObjectNode message = objectMapper.createObjectNode();
+      message.put("sequence", updateSequence);
+      message.put("base", baseSequence);
+      message.put("full", false);
+      ObjectNode changed = message.putObject("metrics");
+      ObjectNode removed = objectMapper.createObjectNode();
+      Iterator<Map.Entry<String, JsonNode>> sections = current.fields();
+      while (sections.hasNext()) {
+        Map.Entry<String, JsonNode> section = sections.next();
+        JsonNode previous = base.get(section.getKey());
+        if (section.getValue().isObject() && previous != null && previous.isObject()) {
+          diff(section.getKey(), section.getValue(), previous, changed, removed);
+        } else if (!section.getValue().equals(previous)) {
+          changed.set(section.getKey(), section.getValue());
+        }
+      }
+      if (removed.size() > 0) {
+        message.set("removed", removed);
+      }
+      try {
+        delta = new Delta(baseSequence, objectMapper.writeValueAsString(message));
+      } catch (IOException ex) {
+        LOG.warn("Could not serialize metrics delta, sending them whole: {}", ex.toString(), ex);
+      }
+    }
+    base = current;
+    baseSequence = updateSequence;
+    return delta;
+  }
+
+  private static void diff(String name, JsonNode current, JsonNode previous, ObjectNode changed, ObjectNode removed) {
+    ObjectNode changedSection = null;
+    Iterator<Map.Entry<String, JsonNode>> entries = current.fields();
+    while (entries.hasNext()) {
+      Map.Entry<String, JsonNode> entry = entries.next();
+      if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+        if (changedSection == null) {
+          changedSection = changed.putObject(name);
+        }
+        changedSection.set(entry.getKey(), entry.getValue());
+      }
+    }
+    Iterator<String> previousNames = previous.fieldNames();
+    while (previousNames.hasNext()) {
+      String previousName = previousNames.next();
+      if (!current.has(previousName)) {
+        removed.withArray(name).add(previousName);
+      }
+    }
+  }
+}
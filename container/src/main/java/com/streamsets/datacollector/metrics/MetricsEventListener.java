@@ -21,4 +21,11 @@ public interface MetricsEventListener extends EventListener {
 
   void notification(String metrics);
 
+  /**
+   * Notification for a numbered metrics refresh, listeners that can handle deltas should override it.
+   */
+  default void notification(MetricsUpdate update) {
+    notification(update.getMetrics());
+  }
+
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener for a single long-poll request, waits for the next metrics refresh of the pipeline and keeps the message
+ * for the sequence the client already has.
+ */
+public class MetricsLongPollListener implements MetricsEventListener {
+  private final long since;
+  private final CountDownLatch latch;
+  private volatile String message;
+
+  public MetricsLongPollListener(long since) {
+    this.since = since;
+    this.latch = new CountDownLatch(1);
+  }
+
+  @Override
+  public void notification(String metrics) {
+    if (latch.getCount() > 0) {
+      message = MetricsUpdate.snapshot(-1, metrics);
+      latch.countDown();
+    }
+  }
+
+  @Override
+  public void notification(MetricsUpdate update) {
+    if (latch.getCount() > 0) {
+      message = update.getMessage(since);
+      latch.countDown();
+    }
+  }
+
+  /**
+   * Returns the message, or null if there was no refresh within the timeout.
+   */
+  public String await(long timeoutMillis) throws InterruptedException {
+    latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    return message;
+  }
+}
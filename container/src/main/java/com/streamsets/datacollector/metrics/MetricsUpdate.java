@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
+/**
+ * Metrics of one refresh of a pipeline, shared by all the listeners of that pipeline.
+ * <p/>
+ * Besides the plain metrics JSON, listeners that keep track of the last sequence they got can ask for a message with
+ * only what changed since then. Such messages look like:
+ * <pre>
+ *   {"sequence": 12, "full": true, "metrics": {...}}
+ *   {"sequence": 13, "base": 12, "full": false, "metrics": {"counters": {...}}, "removed": {"gauges": [...]}}
+ * </pre>
+ * A delta is only returned when its base is the last sequence of the listener, otherwise a full snapshot is.
+ */
+public class MetricsUpdate {
+  private final long sequence;
+  private final String metrics;
+  private final Supplier<MetricsDeltaEncoder.Delta> delta;
+  private final Supplier<String> snapshot;
+
+  MetricsUpdate(long sequence, String metrics, Supplier<MetricsDeltaEncoder.Delta> delta) {
+    this.sequence = sequence;
+    this.metrics = metrics;
+    this.delta = delta;
+    this.snapshot = Suppliers.memoize(() -> snapshot(sequence, metrics));
+  }
+
+  /**
+   * Full snapshot message for metrics that are not part of a sequence, for example the last metrics of a pipeline
+   * that just stopped.
+   */
+  public static String snapshot(long sequence, String metrics) {
+    return "{\"sequence\":" + sequence + ",\"full\":true,\"metrics\":" + metrics + "}";
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Metrics JSON, as serialized from the metric registry.
+   */
+  public String getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Returns the message to send to a listener whose last message had the given sequence. Must be called while the
+   * update is being broadcast, as deltas are computed in broadcast order.
+   */
+  public String getMessage(long lastSequence) {
+    MetricsDeltaEncoder.Delta d = delta.get();
+    if (d != null && d.getBase() == lastSequence) {
+      return d.getMessage();
+    }
+    return snapshot.get();
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.EWMA;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meter with the same rates as {@link ExtendedMeter} that only increments two {@link LongAdder}s when marked.
+ *
+ * The regular meter updates every one of its eight moving averages on each mark, which means eight contended
+ * increments for every batch of every runner. Here the marks are accumulated in a single adder and handed over to the
+ * moving averages once per tick interval, right before they are ticked, which gives exactly the same rates.
+ */
+public class StripedMeter extends ExtendedMeter {
+  private final Clock clock;
+  private final long startTime;
+  private final AtomicLong lastTick;
+  private final LongAdder count = new LongAdder();
+  private final LongAdder uncounted = new LongAdder();
+
+  private final EWMA m1Rate = EWMA.oneMinuteEWMA();
+  private final EWMA m5Rate = EWMA.fiveMinuteEWMA();
+  private final EWMA m15Rate = EWMA.fifteenMinuteEWMA();
+  private final EWMA m30Rate = new EWMA(M30_ALPHA, INTERVAL, TimeUnit.SECONDS);
+  private final EWMA h1Rate = new EWMA(H1_ALPHA, INTERVAL, TimeUnit.SECONDS);
+  private final EWMA h6Rate = new EWMA(H6_ALPHA, INTERVAL, TimeUnit.SECONDS);
+  private final EWMA h12Rate = new EWMA(H12_ALPHA, INTERVAL, TimeUnit.SECONDS);
+  private final EWMA h24Rate = new EWMA(H24_ALPHA, INTERVAL, TimeUnit.SECONDS);
+  private final EWMA[] rates = {m1Rate, m5Rate, m15Rate, m30Rate, h1Rate, h6Rate, h12Rate, h24Rate};
+
+  public StripedMeter() {
+    this(Clock.defaultClock());
+  }
+
+  public StripedMeter(Clock clock) {
+    super(clock);
+    this.clock = clock;
+    this.startTime = clock.getTick();
+    this.lastTick = new AtomicLong(startTime);
+  }
+
+  @Override
+  public void mark(long n) {
+    tickIfNecessary();
+    count.add(n);
+    uncounted.add(n);
+  }
+
+  private void tickIfNecessary() {
+    final long oldTick = lastTick.get();
+    final long newTick = clock.getTick();
+    final long age = newTick - oldTick;
+    if (age > TICK_INTERVAL) {
+      final long newIntervalStartTick = newTick - age % TICK_INTERVAL;
+      if (lastTick.compareAndSet(oldTick, newIntervalStartTick)) {
+        final long marked = uncounted.sumThenReset();
+        for (EWMA rate : rates) {
+          rate.update(marked);
+        }
+        final long requiredTicks = age / TICK_INTERVAL;
+        for (long i = 0; i < requiredTicks; i++) {
+          for (EWMA rate : rates) {
+            rate.tick();
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public double getMeanRate() {
+    long current = getCount();
+    if (current == 0) {
+      return 0.0;
+    }
+    double elapsed = clock.getTick() - startTime;
+    return current / elapsed * TimeUnit.SECONDS.toNanos(1);
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    tickIfNecessary();
+    return m1Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    tickIfNecessary();
+    return m5Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    tickIfNecessary();
+    return m15Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getThirtyMinuteRate() {
+    tickIfNecessary();
+    return m30Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getOneHourRate() {
+    tickIfNecessary();
+    return h1Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getSixHourRate() {
+    tickIfNecessary();
+    return h6Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getTwelveHourRate() {
+    tickIfNecessary();
+    return h12Rate.getRate(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public double getTwentyFourHourRate() {
+    tickIfNecessary();
+    return h24Rate.getRate(TimeUnit.SECONDS);
+  }
+
+}
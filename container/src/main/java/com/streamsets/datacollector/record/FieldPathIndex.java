@@ -0,0 +1,168 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Escaped field paths of a field tree, in the order of {@link RecordImpl#getEscapedFieldPathsOrdered()}, together with
+ * the field found at each path.
+ *
+ * Building the paths means escaping every map key (a regular expression match per key) and concatenating the path of
+ * every field, so records keep the index around until the field tree changes, and resolve the paths it knows with a
+ * single lookup. Changes done through the record API drop the index right away. Changes done directly on the maps and
+ * lists of the tree can only happen through fields the record handed out, the record then checks the index with
+ * {@link #matches(Field)}, which walks the tree comparing field instances and map keys without allocating any paths.
+ */
+final class FieldPathIndex {
+  private final List<String> paths = new ArrayList<>();
+  private final List<Field> fields = new ArrayList<>();
+  // Map key under which the field at the same position was found, null for the root field and list elements
+  private final List<String> keys = new ArrayList<>();
+  private final Map<String, Field> fieldsByPath = new HashMap<>();
+  private int hashCode;
+
+  private FieldPathIndex() {
+  }
+
+  static FieldPathIndex build(Field root) {
+    FieldPathIndex index = new FieldPathIndex();
+    if (root != null) {
+      index.add("", null, root);
+      index.addChildren("", root);
+    }
+    return index;
+  }
+
+  /**
+   * Escaped paths of all fields, root field first.
+   */
+  List<String> getPaths() {
+    return Collections.unmodifiableList(paths);
+  }
+
+  /**
+   * Returns the field at the given escaped path, null if the path is not one of the escaped paths of the index. Paths
+   * written differently, for instance quoting names that don't need it, are not found.
+   */
+  Field get(String path) {
+    return fieldsByPath.get(path);
+  }
+
+  /**
+   * Same value as the hash code of the set of paths.
+   */
+  int getPathsHashCode() {
+    return hashCode;
+  }
+
+  /**
+   * Returns true if the given field tree has still the same structure as the one the index was built from.
+   */
+  boolean matches(Field root) {
+    if (root == null) {
+      return fields.isEmpty();
+    }
+    if (fields.isEmpty() || fields.get(0) != root) {
+      return false;
+    }
+    int end = matchChildren(root, 1);
+    return end == fields.size();
+  }
+
+  private void add(String path, String key, Field field) {
+    paths.add(path);
+    keys.add(key);
+    fields.add(field);
+    fieldsByPath.put(path, field);
+    hashCode += path.hashCode();
+  }
+
+  private void addChildren(String path, Field field) {
+    switch (field.getType()) {
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> map = field.getValueAsMap();
+        if (map != null) {
+          for (Map.Entry<String, Field> entry : map.entrySet()) {
+            String childPath = path + "/" + RecordImpl.escapeName(entry.getKey(), true);
+            add(childPath, entry.getKey(), entry.getValue());
+            addChildren(childPath, entry.getValue());
+          }
+        }
+        break;
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        if (list != null) {
+          for (int i = 0; i < list.size(); i++) {
+            String childPath = path + "[" + i + "]";
+            add(childPath, null, list.get(i));
+            addChildren(childPath, list.get(i));
+          }
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  // Returns the position after the last descendant of the field or -1 if the structure is different
+  private int matchChildren(Field field, int position) {
+    switch (field.getType()) {
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> map = field.getValueAsMap();
+        if (map != null) {
+          for (Map.Entry<String, Field> entry : map.entrySet()) {
+            if (position >= fields.size() ||
+                fields.get(position) != entry.getValue() ||
+                !Objects.equals(entry.getKey(), keys.get(position))) {
+              return -1;
+            }
+            position = matchChildren(entry.getValue(), position + 1);
+            if (position < 0) {
+              return -1;
+            }
+          }
+        }
+        break;
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        if (list != null) {
+          for (int i = 0; i < list.size(); i++) {
+            if (position >= fields.size() || fields.get(position) != list.get(i)) {
+              return -1;
+            }
+            position = matchChildren(list.get(i), position + 1);
+            if (position < 0) {
+              return -1;
+            }
+          }
+        }
+        break;
+      default:
+        break;
+    }
+    return position;
+  }
+}
@@ -33,6 +33,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RecordImpl implements Record, Cloneable {
   private final HeaderImpl header;
@@ -40,6 +41,12 @@ public class RecordImpl implements Record, Cloneable {
   //Default true: so as to denote the record is just created
   //and initialized in a stage and did not pass through any other stage.
   private boolean isInitialRecord = true;
+  // Non null when the field tree is shared with other records (copy-on-write fan-out)
+  private transient SharedFields sharedFields;
+  // Escaped field paths, built on demand and dropped when the field tree is modified
+  private transient FieldPathIndex pathIndex;
+  // Set when a map or list field was handed out since the index was last checked, it may have been modified directly
+  private transient boolean pathIndexUnchecked;
 
   // need default constructor for deserialization purposes (Kryo)
   private RecordImpl() {
@@ -82,6 +89,29 @@ public class RecordImpl implements Record, Cloneable {
     isInitialRecord = record.isInitialRecord();
   }
 
+  // for cloneCopyOnWrite() purposes
+  private RecordImpl(RecordImpl record, SharedFields sharedFields) {
+    header = record.header.clone();
+    value = record.value;
+    isInitialRecord = record.isInitialRecord();
+    this.sharedFields = sharedFields;
+    // Same field tree, so the same paths
+    pathIndex = record.pathIndex;
+    pathIndexUnchecked = record.pathIndexUnchecked;
+  }
+
+  /**
+   * Field tree shared by several copy-on-write records, keeps track of how many of them still reference it.
+   */
+  private static class SharedFields {
+    private final AtomicInteger sharers = new AtomicInteger(1);
+    private final Runnable materializationListener;
+
+    SharedFields(Runnable materializationListener) {
+      this.materializationListener = materializationListener;
+    }
+  }
+
   public void addStageToStagePath(String stage) {
     Preconditions.checkNotNull(stage, "stage cannot be null");
     String currentPath = (header.getStagesPath() == null) ? "" : header.getStagesPath() + ":";
@@ -112,11 +142,13 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Field get() {
-    return value;
+    return handOut(value);
   }
 
   @Override
   public Field set(Field field) {
+    materialize();
+    pathIndex = null;
     Field oldData = value;
     value = field;
     return oldData;
@@ -339,17 +371,30 @@ public class RecordImpl implements Record, Cloneable {
   public Field get(String fieldPath) {
     if ("/".equals(fieldPath) || fieldPath.isEmpty()) {
       // if asking for the root field we can return it without and fieldpath parsing
-      return value;
-    } else {
+      return handOut(value);
+    }
+    Field field = (pathIndex != null && !pathIndexUnchecked) ? pathIndex.get(fieldPath) : null;
+    if (field == null) {
       List<PathElement> elements = parse(fieldPath);
       List<Field> fields = get(elements);
-      return (elements.size() == fields.size()) ? fields.get(fields.size() - 1) : null;
+      field = (elements.size() == fields.size()) ? fields.get(fields.size() - 1) : null;
+    }
+    return handOut(field);
+  }
+
+  // Maps and lists handed out can be modified without going through the record, so the index has to be checked
+  private Field handOut(Field field) {
+    if (field != null && field.getType().isOneOf(Field.Type.MAP, Field.Type.LIST_MAP, Field.Type.LIST)) {
+      pathIndexUnchecked = true;
     }
+    return field;
   }
 
 
   @Override
   public Field delete(String fieldPath) {
+    materialize();
+    pathIndex = null;
     List<PathElement> elements = parse(fieldPath);
     List<Field> fields = get(elements);
     Field deleted = null;
@@ -382,6 +427,9 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public boolean has(String fieldPath) {
+    if (pathIndex != null && !pathIndexUnchecked && pathIndex.get(fieldPath) != null) {
+      return true;
+    }
     List<PathElement> elements = parse(fieldPath);
     List<Field> fields = get(elements);
     return (elements.size() == fields.size());
@@ -395,12 +443,27 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Set<String> getEscapedFieldPaths() {
-    return gatherPaths(true);
+    return new LinkedHashSet<>(getPathIndex().getPaths());
   }
 
   @Override
   public List<String> getEscapedFieldPathsOrdered() {
-    return new ArrayList<>(gatherPathsOrdered(true));
+    return new ArrayList<>(getPathIndex().getPaths());
+  }
+
+  /**
+   * Returns the index of escaped field paths, rebuilding it if the field tree was modified since it was built.
+   *
+   * Modifications through the record API drop the index. The tree is only walked to look for direct modifications if
+   * a map or list field was handed out since the index was last used, so fields kept across a use of the index must be
+   * obtained again from the record before being modified.
+   */
+  FieldPathIndex getPathIndex() {
+    if (pathIndex == null || (pathIndexUnchecked && !pathIndex.matches(value))) {
+      pathIndex = FieldPathIndex.build(value);
+    }
+    pathIndexUnchecked = false;
+    return pathIndex;
   }
 
   private LinkedHashSet<String> gatherPathsOrdered(boolean includeSingleQuotes) {
@@ -517,7 +580,7 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public int hashCode() {
-    return getEscapedFieldPaths().hashCode();
+    return getPathIndex().getPathsHashCode();
   }
 
   @Override
@@ -540,8 +603,58 @@ public class RecordImpl implements Record, Cloneable {
     return new RecordImpl(this);
   }
 
+  /**
+   * Creates a copy of this record that shares the field tree with this record. The header is copied right away, the
+   * field tree is copied only when either record is modified through the record API or when {@link #materialize()}
+   * is called. The last record still sharing the field tree takes it over without copying.
+   *
+   * Modifications done directly on the {@link Field} instances returned by get() are not tracked, callers must
+   * materialize the record before handing it to code that might do that.
+   *
+   * @param materializationListener Notified every time one of the sharing records makes a private copy.
+   */
+  public RecordImpl cloneCopyOnWrite(Runnable materializationListener) {
+    if (sharedFields == null) {
+      sharedFields = new SharedFields(materializationListener);
+    }
+    sharedFields.sharers.incrementAndGet();
+    return new RecordImpl(this, sharedFields);
+  }
+
+  /**
+   * Returns true if this record still shares its field tree with other records.
+   */
+  public boolean sharesFields() {
+    return sharedFields != null;
+  }
+
+  /**
+   * Makes sure that this record has a private field tree, copying the shared one if other records still use it.
+   *
+   * @return true if a copy of the field tree was made
+   */
+  public boolean materialize() {
+    if (sharedFields == null) {
+      return false;
+    }
+    SharedFields shared = sharedFields;
+    sharedFields = null;
+    if (shared.sharers.decrementAndGet() == 0) {
+      // Everybody else already has a private copy, so this record can keep the original tree
+      return false;
+    }
+    value = (value != null) ? value.clone() : null;
+    pathIndex = null;
+    if (shared.materializationListener != null) {
+      shared.materializationListener.run();
+    }
+    return true;
+  }
+
   @Override
   public Field set(String fieldPath, Field newField) {
+    materialize();
+    pathIndex = null;
     Field fieldToReplace;
     if ("/".equals(fieldPath) || fieldPath.isEmpty()) {
       // if asking for the root field we can set it without any field path parsing
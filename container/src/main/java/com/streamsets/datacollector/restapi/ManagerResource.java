@@ -17,6 +17,7 @@ package com.streamsets.datacollector.restapi;
 
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.execution.AclManager;
+import com.streamsets.datacollector.execution.EventListenerManager;
 import com.streamsets.datacollector.execution.Manager;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.PipelineStatus;
@@ -26,6 +27,7 @@ import com.streamsets.datacollector.execution.StartPipelineContextBuilder;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.UserGroupManager;
+import com.streamsets.datacollector.metrics.MetricsLongPollListener;
 import com.streamsets.datacollector.restapi.bean.AlertInfoJson;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.datacollector.restapi.bean.ErrorMessageJson;
@@ -90,7 +92,9 @@ public class ManagerResource {
   private final String user;
   private final Manager manager;
   private final PipelineStoreTask store;
+  private final EventListenerManager eventListenerManager;
   private static final Logger LOG = LoggerFactory.getLogger(ManagerResource.class);
+  private static final long MAX_METRICS_STREAM_TIMEOUT_MS = 60000;
 
   @Inject
   public ManagerResource(
@@ -99,9 +103,11 @@ public class ManagerResource {
       PipelineStoreTask store,
       AclStoreTask aclStore,
       RuntimeInfo runtimeInfo,
-      UserGroupManager userGroupManager
+      UserGroupManager userGroupManager,
+      EventListenerManager eventListenerManager
   ) {
     this.user = principal.getName();
+    this.eventListenerManager = eventListenerManager;
 
     UserJson currentUser;
     if (runtimeInfo.isDPMEnabled() && !runtimeInfo.isRemoteSsoDisabled()) {
@@ -563,6 +569,38 @@ public class ManagerResource {
     return Response.noContent().build();
   }
 
+  @Path("/pipeline/{pipelineId}/metrics/stream")
+  @GET
+  @ApiOperation(value = "Waits for the next metrics refresh of the pipeline and returns the metrics that changed " +
+      "since the given sequence, or all of them if the delta is not available",
+      authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @PermitAll
+  public Response getMetricsStream(
+      @PathParam("pipelineId") String pipelineId,
+      @QueryParam("rev") @DefaultValue("0") String rev,
+      @QueryParam("since") @DefaultValue("-1") long since,
+      @QueryParam("timeout") @DefaultValue("10000") long timeout
+  ) throws PipelineException, InterruptedException {
+    PipelineInfo pipelineInfo = store.getInfo(pipelineId);
+    RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
+    Runner runner = manager.getRunner(pipelineId, rev);
+    if (runner == null || !runner.getState().getStatus().isActive()) {
+      return Response.noContent().build();
+    }
+    MetricsLongPollListener listener = new MetricsLongPollListener(since);
+    eventListenerManager.addMetricsEventListener(pipelineId, listener);
+    try {
+      String message = listener.await(Math.max(0, Math.min(timeout, MAX_METRICS_STREAM_TIMEOUT_MS)));
+      if (message != null) {
+        return Response.ok().type(MediaType.APPLICATION_JSON).entity(message).build();
+      }
+    } finally {
+      eventListenerManager.removeMetricsEventListener(pipelineId, listener);
+    }
+    return Response.noContent().build();
+  }
+
   @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}")
   @PUT
   @ApiOperation(value = "Capture Snapshot", authorizations = @Authorization(value = "basic"))
@@ -782,7 +820,7 @@ public class ManagerResource {
 
   @Path("/pipeline/{pipelineId}/errorRecords")
   @GET
-  @ApiOperation(value = "Returns error records by stage instance name and size", response = RecordJson.class,
+  @ApiOperation(value = "Returns error records by stage instance name, size and offset", response = RecordJson.class,
     responseContainer = "List", authorizations = @Authorization(value = "basic"))
   @Produces(MediaType.APPLICATION_JSON)
   @PermitAll
@@ -797,11 +835,13 @@ public class ManagerResource {
       @QueryParam("rev") @DefaultValue("0") String rev,
       @QueryParam ("stageInstanceName") @DefaultValue("") String stageInstanceName,
       @QueryParam ("size") @DefaultValue("10") int size,
+      @QueryParam ("offset") @DefaultValue("0") int offset,
       @QueryParam ("edge") boolean edge
   ) throws PipelineException {
     PipelineInfo pipelineInfo = store.getInfo(pipelineId);
     RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
     size = size > 100 ? 100 : size;
+    offset = Math.max(offset, 0);
     if (edge) {
       PipelineConfiguration pipelineConfiguration = store.load(pipelineId, "0");
       Config edgeHttpUrlConfig = pipelineConfiguration.getConfiguration(EdgeUtil.EDGE_HTTP_URL);
@@ -819,7 +859,7 @@ public class ManagerResource {
     Runner runner = manager.getRunner(pipelineId, rev);
     if(runner != null) {
       return Response.ok().type(MediaType.APPLICATION_JSON).entity(
-        BeanHelper.wrapRecords(runner.getErrorRecords(stageInstanceName, size))).build();
+        BeanHelper.wrapRecords(runner.getErrorRecords(stageInstanceName, offset, size))).build();
     }
     return Response.noContent().build();
   }
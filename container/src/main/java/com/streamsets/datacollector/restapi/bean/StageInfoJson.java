@@ -17,6 +17,7 @@ package com.streamsets.datacollector.restapi.bean;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.streamsets.datacollector.config.StageDefinition;
+import com.streamsets.datacollector.config.StageDefinitionSummary;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -53,6 +54,20 @@ public class StageInfoJson {
     tags = stageDefinition.getTags();
   }
 
+  public StageInfoJson(StageDefinitionSummary summary) {
+    name = summary.getName();
+    type = summary.getType().name();
+    label = summary.getLabel();
+    description = summary.getDescription();
+    version = summary.getVersion();
+    errorStage = summary.isErrorStage();
+    statsAggregatorStage = summary.isStatsAggregatorStage();
+    connectionVerifierStage = summary.isConnectionVerifierStage();
+    beta = summary.isBeta();
+    icon = summary.getIcon();
+    tags = summary.getTags();
+  }
+
   public String getName() {
     return name;
   }
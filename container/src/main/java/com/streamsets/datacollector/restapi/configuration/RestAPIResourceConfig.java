@@ -20,6 +20,7 @@ import com.streamsets.datacollector.blobstore.BlobStoreTask;
 import com.streamsets.datacollector.bundles.SupportBundleManager;
 import com.streamsets.datacollector.credential.CredentialStoresTask;
 import com.streamsets.datacollector.event.handler.EventHandlerTask;
+import com.streamsets.datacollector.execution.EventListenerManager;
 import com.streamsets.datacollector.execution.Manager;
 import com.streamsets.datacollector.http.AsterContext;
 import com.streamsets.datacollector.http.RolesAnnotationFilter;
@@ -62,6 +63,7 @@ public class RestAPIResourceConfig extends ResourceConfig {
         bindFactory(BuildInfoInjector.class).to(BuildInfo.class);
         bindFactory(StatsCollectorInjector.class).to(StatsCollector.class);
         bindFactory(StandAndClusterManagerInjector.class).to(Manager.class);
+        bindFactory(EventListenerManagerInjector.class).to(EventListenerManager.class);
         bindFactory(SupportBundleInjector.class).to(SupportBundleManager.class);
         bindFactory(EventHandlerTaskInjector.class).to(EventHandlerTask.class);
         bindFactory(BlobStoreTaskInjector.class).to(BlobStoreTask.class);
@@ -56,6 +56,10 @@ public class FullPipeBatch implements PipeBatch {
   private int inputRecords;
   private int outputRecords;
   private RateLimiter rateLimiter;
+  private boolean copyOnWriteFanOut;
+  private int sharedRecords;
+  private int materializedRecords;
+  private final Runnable materializationListener = () -> materializedRecords++;
 
   // True if the batch was created by a framework rather then origin
   private boolean isIdleBatch;
@@ -101,6 +105,14 @@ public class FullPipeBatch implements PipeBatch {
     this.rateLimiter = rateLimiter;
   }
 
+  /**
+   * When enabled, lanes that diverge share the same records and a private copy is made only for stages that might
+   * modify them.
+   */
+  public void setCopyOnWriteFanOut(boolean copyOnWriteFanOut) {
+    this.copyOnWriteFanOut = copyOnWriteFanOut;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public BatchImpl getBatch(final Pipe pipe) throws StageException {
@@ -113,6 +125,14 @@ public class FullPipeBatch implements PipeBatch {
       outputRecords += records.size();
     }
 
+    // Processors and interceptors can modify the fields in place, so they need their own copy of shared records
+    if (copyOnWriteFanOut && (
+        !pipe.getStage().getDefinition().getType().isOneOf(StageType.TARGET, StageType.EXECUTOR) ||
+        !pipe.getStage().getPreInterceptors().isEmpty()
+    )) {
+      materialize(records);
+    }
+
     // Run interceptors as part before providing data to the stage
     records = intercept(records, pipe.getStage().getPreInterceptors());
 
@@ -336,7 +356,7 @@ public class FullPipeBatch implements PipeBatch {
         fullPayload.put(lane, records);
         firstOutputLane = false;
       } else {
-        fullPayload.put(lane, createCopy(records));
+        fullPayload.put(lane, copyOnWriteFanOut ? createCopyOnWrite(records) : createCopy(records));
       }
     }
   }
@@ -349,6 +369,42 @@ public class FullPipeBatch implements PipeBatch {
     return list;
   }
 
+  private List<Record> createCopyOnWrite(List<Record> records) {
+    List<Record> list = new ArrayList<>(records.size());
+    for (Record record : records) {
+      // Only plain records can be shared, subclasses (events) are copied right away
+      if (record.getClass() == RecordImpl.class) {
+        list.add(((RecordImpl) record).cloneCopyOnWrite(materializationListener));
+        sharedRecords++;
+      } else {
+        list.add(((RecordImpl) record).clone());
+      }
+    }
+    return list;
+  }
+
+  private void materialize(List<Record> records) {
+    for (Record record : records) {
+      if (record instanceof RecordImpl) {
+        ((RecordImpl) record).materialize();
+      }
+    }
+  }
+
+  /**
+   * Number of records that were handed to diverging lanes without copying them.
+   */
+  public int getSharedRecords() {
+    return sharedRecords;
+  }
+
+  /**
+   * Number of shared records that had to be copied later on.
+   */
+  public int getMaterializedRecords() {
+    return materializedRecords;
+  }
+
   @Override
   public int getInputRecords() {
     return inputRecords;
@@ -37,6 +37,7 @@ public class OffsetFileUtil {
   private static final Logger LOG = LoggerFactory.getLogger(ProductionSourceOffsetTracker.class);
 
   private static final String OFFSET_FILE = "offset.json";
+  private static final String OFFSET_JOURNAL_FILE = "offset.journal";
   private static final Map<String, String> DEFAULT_OFFSET = Collections.emptyMap();
   private static final int MAX_RETRIES = 5;
 
@@ -46,13 +47,18 @@ public class OffsetFileUtil {
     return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_FILE);
   }
 
+  public static File getPipelineOffsetJournalFile(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_JOURNAL_FILE);
+  }
+
   public static Map<String, String> saveIfEmpty(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     File pipelineOffsetFile =  getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
     SourceOffset sourceOffset;
     DataStore ds = new DataStore(pipelineOffsetFile);
     try {
       if (ds.exists()) {
-        return readSourceOffsetFromDataStore(ds).getOffsets();
+        return readSourceOffsetFromDataStore(ds, getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev))
+            .getOffsets();
       } else {
         sourceOffset = new SourceOffset(SourceOffset.CURRENT_VERSION, DEFAULT_OFFSET);
         try (OutputStream os = ds.getOutputStream()) {
@@ -69,6 +75,15 @@ public class OffsetFileUtil {
   }
 
   public static void saveOffsets(RuntimeInfo runtimeInfo, String pipelineName, String rev, Map<String, String> offset) {
+    // The new offsets replace everything, the journal must not be applied on top of them
+    deleteOffsetJournal(runtimeInfo, pipelineName, rev);
+    saveOffsetsSnapshot(runtimeInfo, pipelineName, rev, offset);
+  }
+
+  /**
+   * Writes the offset file without touching the offset journal, the offsets must already contain all journal entries.
+   */
+  static void saveOffsetsSnapshot(RuntimeInfo runtimeInfo, String pipelineName, String rev, Map<String, String> offset) {
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
     SourceOffset sourceOffset = new SourceOffset(SourceOffset.CURRENT_VERSION, offset);
     DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev));
@@ -85,6 +100,7 @@ public class OffsetFileUtil {
   public static void saveSourceOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev, SourceOffset offset) {
     // Assumes that the argument offset confirms to the format on disk. hence just writes it to offset file
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
+    deleteOffsetJournal(runtimeInfo, pipelineName, rev);
     DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev));
     try (OutputStream os = dataStore.getOutputStream()) {
       ObjectMapperFactory.get().writeValue(os, offset);
@@ -97,6 +113,25 @@ public class OffsetFileUtil {
     }
   }
 
+  /**
+   * Folds the offset journal (if there is any) into the offset file.
+   */
+  public static void compactOffsetJournal(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    File journalFile = getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev);
+    if (journalFile.exists()) {
+      // Offset file first, replaying the journal on top of it is a no-op until the journal is gone
+      saveOffsetsSnapshot(runtimeInfo, pipelineName, rev, getOffsets(runtimeInfo, pipelineName, rev));
+      deleteOffsetJournal(runtimeInfo, pipelineName, rev);
+    }
+  }
+
+  private static void deleteOffsetJournal(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    File journalFile = getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev);
+    if (journalFile.exists() && !journalFile.delete()) {
+      throw new IllegalStateException(Utils.format("Could not delete offset journal '{}'", journalFile));
+    }
+  }
+
   public static void resetOffsets(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     saveOffsets(runtimeInfo, pipelineName, rev, DEFAULT_OFFSET);
   }
@@ -133,7 +168,7 @@ public class OffsetFileUtil {
         if (pipelineOffsetFile.exists()) {
           DataStore ds = new DataStore(pipelineOffsetFile);
           if (ds.exists()) {
-            return readSourceOffsetFromDataStore(ds);
+            return readSourceOffsetFromDataStore(ds, getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev));
           }
         }
 
@@ -147,11 +182,15 @@ public class OffsetFileUtil {
     throw new IllegalStateException(Utils.format("Retrieving offset failed for last attempt {}", retries));
   }
 
-  private static SourceOffset readSourceOffsetFromDataStore(DataStore ds) throws IOException {
+  private static SourceOffset readSourceOffsetFromDataStore(DataStore ds, File journalFile) throws IOException {
     try (InputStream is = ds.getInputStream()) {
       SourceOffsetJson sourceOffsetJson = ObjectMapperFactory.get().readValue(is, SourceOffsetJson.class);
       SourceOffset sourceOffset = BeanHelper.unwrapSourceOffset(sourceOffsetJson);
       SourceOffsetUpgrader.upgrade(sourceOffset);
+      // Journal entries are always in the current format, so they are applied on top of the upgraded offsets
+      if (journalFile.exists()) {
+        sourceOffset.setOffsets(OffsetJournal.replay(journalFile, sourceOffset.getOffsets()));
+      }
       return sourceOffset;
     }
   }
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of offset changes that is kept next to the offset file.
+ *
+ * Instead of rewriting the whole offset file on every commit, only the entity whose offset changed is appended to the
+ * journal (one JSON array [entity, offset] per line, a null offset removes the entity). Runner threads committing at
+ * the same time share a single write and fsync: whichever thread finds no write in progress writes everything that is
+ * pending, the others just wait for it. Once the journal contains enough entries, the full offset map is written to
+ * the offset file and the journal is truncated.
+ *
+ * Readers of the offset file apply the journal on top of the (upgraded) offset file, see {@link OffsetFileUtil}.
+ */
+public class OffsetJournal implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffsetJournal.class);
+
+  public static final String ENABLED_KEY = "pipeline.offset.journal.enabled";
+  public static final boolean ENABLED_DEFAULT = false;
+  public static final String COMPACTION_ENTRIES_KEY = "pipeline.offset.journal.compaction.entries";
+  public static final int COMPACTION_ENTRIES_DEFAULT = 10000;
+
+  private static final TypeReference<List<String>> ENTRY_TYPE = new TypeReference<List<String>>() {};
+
+  private final RuntimeInfo runtimeInfo;
+  private final String pipelineName;
+  private final String rev;
+  private final int compactionEntries;
+  private final FileChannel channel;
+
+  private final Object lock = new Object();
+  private List<String> pending = new ArrayList<>();
+  // Sequence number of the last appended entry and of the last entry that is durable (journal or offset file)
+  private long appendedSequence;
+  private long syncedSequence;
+  private boolean writing;
+  private int entries;
+  private IOException failure;
+
+  public OffsetJournal(RuntimeInfo runtimeInfo, String pipelineName, String rev, int compactionEntries)
+      throws IOException {
+    this.runtimeInfo = runtimeInfo;
+    this.pipelineName = pipelineName;
+    this.rev = rev;
+    this.compactionEntries = compactionEntries;
+    channel = FileChannel.open(
+        OffsetFileUtil.getPipelineOffsetJournalFile(runtimeInfo, pipelineName, rev).toPath(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND
+    );
+  }
+
+  /**
+   * Adds the change to the journal, it's durable only once {@link #sync(long)} with the returned sequence returns.
+   *
+   * Callers must append in the same order in which they apply the changes to their offset map.
+   */
+  public long append(String entity, String offset) throws IOException {
+    String entry = ObjectMapperFactory.getOneLine().writeValueAsString(Arrays.asList(entity, offset)) + "\n";
+    synchronized (lock) {
+      pending.add(entry);
+      return ++appendedSequence;
+    }
+  }
+
+  /**
+   * Waits until the entry with the given sequence is durable, writing all pending entries if no other thread is
+   * currently doing so.
+   */
+  public void sync(long sequence) throws IOException {
+    List<String> batch;
+    long batchSequence;
+    synchronized (lock) {
+      while (writing && syncedSequence < sequence && failure == null) {
+        waitForWriter();
+      }
+      if (failure != null) {
+        throw new IOException("Offset journal failed: " + failure, failure);
+      }
+      if (syncedSequence >= sequence) {
+        return;
+      }
+      writing = true;
+      batch = pending;
+      batchSequence = appendedSequence;
+      pending = new ArrayList<>();
+    }
+
+    IOException error = null;
+    try {
+      StringBuilder sb = new StringBuilder();
+      for (String entry : batch) {
+        sb.append(entry);
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      error = e;
+    }
+
+    synchronized (lock) {
+      writing = false;
+      if (error == null) {
+        syncedSequence = batchSequence;
+        entries += batch.size();
+      } else {
+        // Entries of other threads were part of the batch, none of them can be reported as committed
+        failure = error;
+      }
+      lock.notifyAll();
+    }
+    if (error != null) {
+      LOG.error("Failed to write offset journal for pipeline {}: {}", pipelineName, error.toString(), error);
+      throw error;
+    }
+  }
+
+  public boolean shouldCompact() {
+    synchronized (lock) {
+      return entries >= compactionEntries;
+    }
+  }
+
+  /**
+   * Writes the given offsets to the offset file and truncates the journal.
+   *
+   * The offsets must contain all changes appended so far, i.e. the caller must prevent concurrent appends.
+   */
+  public void compact(Map<String, String> offsets) throws IOException {
+    synchronized (lock) {
+      while (writing) {
+        waitForWriter();
+      }
+      if (failure != null) {
+        throw new IOException("Offset journal failed: " + failure, failure);
+      }
+      writing = true;
+    }
+    IOException error = null;
+    try {
+      // Offset file first, the journal only contains changes that are already part of it, replaying them is a no-op
+      OffsetFileUtil.saveOffsetsSnapshot(runtimeInfo, pipelineName, rev, offsets);
+      channel.truncate(0);
+      channel.force(true);
+    } catch (IOException | RuntimeException e) {
+      error = (e instanceof IOException) ? (IOException) e : new IOException(e);
+    }
+    synchronized (lock) {
+      writing = false;
+      if (error == null) {
+        // All pending entries are part of the offset file now
+        pending = new ArrayList<>();
+        syncedSequence = appendedSequence;
+        entries = 0;
+      } else {
+        failure = error;
+      }
+      lock.notifyAll();
+    }
+    if (error != null) {
+      throw error;
+    }
+    LOG.debug("Compacted offset journal for pipeline {}", pipelineName);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void waitForWriter() throws InterruptedIOException {
+    try {
+      lock.wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for offset journal write");
+    }
+  }
+
+  /**
+   * Returns the offsets with all changes from the given journal applied. An incomplete last entry (the write was
+   * interrupted by a crash, so it was never reported as committed) is ignored.
+   */
+  public static Map<String, String> replay(File journalFile, Map<String, String> offsets) throws IOException {
+    Map<String, String> replayed = new HashMap<>();
+    if (offsets != null) {
+      replayed.putAll(offsets);
+    }
+    try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        List<String> entry;
+        try {
+          entry = ObjectMapperFactory.get().readValue(line, ENTRY_TYPE);
+        } catch (IOException e) {
+          LOG.warn("Ignoring incomplete entry at the end of offset journal '{}': {}", journalFile, e.toString());
+          break;
+        }
+        if (entry.size() != 2) {
+          throw new IOException("Invalid entry in offset journal '" + journalFile + "': " + line);
+        }
+        if (entry.get(1) == null) {
+          replayed.remove(entry.get(0));
+        } else {
+          replayed.put(entry.get(0), entry.get(1));
+        }
+      }
+    }
+    return replayed;
+  }
+}
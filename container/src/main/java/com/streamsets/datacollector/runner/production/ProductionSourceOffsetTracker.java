@@ -17,6 +17,7 @@ package com.streamsets.datacollector.runner.production;
 
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.Configuration;
 
 import com.streamsets.pipeline.api.Source;
 import org.slf4j.Logger;
@@ -24,11 +25,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
-public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
+public class ProductionSourceOffsetTracker implements SourceOffsetTracker, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionSourceOffsetTracker.class);
   private Map<String, String> offsets;
@@ -37,17 +40,55 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
   private final String pipelineName;
   private final String rev;
   private final RuntimeInfo runtimeInfo;
+  // Not null only if offset changes are appended to the offset journal rather than rewriting the offset file
+  private final OffsetJournal journal;
 
   @Inject
   public ProductionSourceOffsetTracker(
       @Named("name") String pipelineName,
       @Named("rev") String rev,
       RuntimeInfo runtimeInfo
+  ) {
+    this(pipelineName, rev, runtimeInfo, false, OffsetJournal.COMPACTION_ENTRIES_DEFAULT);
+  }
+
+  public ProductionSourceOffsetTracker(
+      String pipelineName,
+      String rev,
+      RuntimeInfo runtimeInfo,
+      Configuration configuration
+  ) {
+    this(
+        pipelineName,
+        rev,
+        runtimeInfo,
+        configuration.get(OffsetJournal.ENABLED_KEY, OffsetJournal.ENABLED_DEFAULT),
+        configuration.get(OffsetJournal.COMPACTION_ENTRIES_KEY, OffsetJournal.COMPACTION_ENTRIES_DEFAULT)
+    );
+  }
+
+  public ProductionSourceOffsetTracker(
+      String pipelineName,
+      String rev,
+      RuntimeInfo runtimeInfo,
+      boolean journalEnabled,
+      int journalCompactionEntries
   ) {
     this.pipelineName = pipelineName;
     this.rev = rev;
     this.runtimeInfo = runtimeInfo;
     this.offsets = new HashMap<>(getSourceOffset(pipelineName, rev));
+    // Start from a single offset file, whatever the previous run left in the journal is already part of the offsets
+    OffsetFileUtil.compactOffsetJournal(runtimeInfo, pipelineName, rev);
+    if (journalEnabled) {
+      try {
+        journal = new OffsetJournal(runtimeInfo, pipelineName, rev, journalCompactionEntries);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    } else {
+      journal = null;
+    }
   }
 
   @Override
@@ -72,6 +113,7 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
     }
 
     // This object can be called from multiple threads, so we have to synchronize access to the offset map
+    long sequence;
     synchronized (offsets) {
       if (newOffset == null) {
         offsets.remove(entity);
@@ -79,8 +121,35 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
         offsets.put(entity, newOffset);
       }
 
-      // Finally write new variant of the offset file
-      saveOffset(pipelineName, rev, offsets);
+      if (journal == null) {
+        // Finally write new variant of the offset file
+        saveOffset(pipelineName, rev, offsets);
+        return;
+      }
+      sequence = appendToJournal(entity, newOffset);
+    }
+
+    // Outside of the lock so that commits from other runners can share the same write
+    try {
+      journal.sync(sequence);
+      if (journal.shouldCompact()) {
+        synchronized (offsets) {
+          if (journal.shouldCompact()) {
+            journal.compact(offsets);
+          }
+        }
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to save offset for entity {}. Reason {}", entity, e.toString(), e);
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private long appendToJournal(String entity, String newOffset) {
+    try {
+      return journal.append(entity, newOffset);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
     }
   }
 
@@ -93,9 +162,27 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
     return OffsetFileUtil.saveIfEmpty(runtimeInfo, pipelineName, rev);
   }
 
+  /**
+   * Drops all offsets, in memory as well as on disk, so that neither later commits nor the compaction on close bring
+   * back offsets from before the reset.
+   */
   @Override
   public void resetOffset() {
-    OffsetFileUtil.resetOffsets(runtimeInfo, pipelineName, rev);
+    synchronized (offsets) {
+      offsets.clear();
+      finished = false;
+      if (journal == null) {
+        OffsetFileUtil.resetOffsets(runtimeInfo, pipelineName, rev);
+        return;
+      }
+      try {
+        // Writes the empty offset file and truncates the journal that is still open
+        journal.compact(offsets);
+      } catch (IOException e) {
+        LOG.error("Failed to reset offsets for pipeline {}. Reason {}", pipelineName, e.toString(), e);
+        throw new IllegalStateException(e);
+      }
+    }
   }
 
   private void saveOffset(String pipelineName, String rev, Map<String, String> offset) {
@@ -106,4 +193,20 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
   public long getLastBatchTime() {
     return lastBatchTime;
   }
+
+  /**
+   * Folds the offset journal into the offset file.
+   */
+  @Override
+  public void close() throws IOException {
+    if (journal != null) {
+      synchronized (offsets) {
+        try {
+          journal.compact(offsets);
+        } finally {
+          journal.close();
+        }
+      }
+    }
+  }
 }
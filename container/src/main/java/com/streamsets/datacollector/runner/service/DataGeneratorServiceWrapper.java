@@ -20,17 +20,21 @@ import com.streamsets.datacollector.util.LambdaUtil;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
 import com.streamsets.pipeline.api.service.dataformats.DataGeneratorException;
+import com.streamsets.pipeline.support.service.ResettableDataGenerator;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 
 public class DataGeneratorServiceWrapper implements DataGenerator {
 
   private final ClassLoader classLoader;
   private final DataGenerator generator;
+  private final Method resetMethod;
 
   public DataGeneratorServiceWrapper(ClassLoader classLoader, DataGenerator generator) {
     this.classLoader = Preconditions.checkNotNull(classLoader);
     this.generator = Preconditions.checkNotNull(generator);
+    this.resetMethod = ResettableDataGenerator.findResetMethod(generator);
   }
 
   @Override
@@ -50,6 +54,17 @@ public class DataGeneratorServiceWrapper implements DataGenerator {
     );
   }
 
+  /**
+   * Not part of the service API, stages reach it through {@link ResettableDataGenerator}.
+   */
+  public boolean reset() throws IOException {
+    return LambdaUtil.privilegedWithClassLoader(
+      classLoader,
+      IOException.class,
+      () -> ResettableDataGenerator.reset(generator, resetMethod)
+    );
+  }
+
   @Override
   public void close() throws IOException {
     LambdaUtil.privilegedWithClassLoader(
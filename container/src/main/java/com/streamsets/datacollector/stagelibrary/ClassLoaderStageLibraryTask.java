@@ -40,6 +40,7 @@ import com.streamsets.datacollector.config.PrivateClassLoaderDefinition;
 import com.streamsets.datacollector.config.ServiceDefinition;
 import com.streamsets.datacollector.config.ServiceDependencyDefinition;
 import com.streamsets.datacollector.config.StageDefinition;
+import com.streamsets.datacollector.config.StageDefinitionSummary;
 import com.streamsets.datacollector.config.StageLibraryDefinition;
 import com.streamsets.datacollector.config.StageLibraryDelegateDefinitition;
 import com.streamsets.datacollector.config.StatsTargetChooserValues;
@@ -89,8 +90,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.time.Duration;
@@ -102,6 +106,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -109,12 +114,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLibraryTask {
@@ -143,6 +150,14 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   private static final String CONFIG_CP_VALIDATION_RESULT = "stagelibs.classpath.validation.terminate";
   private static final boolean DEFAULT_CP_VALIDATION_RESULT = false;
 
+  private static final String CONFIG_CP_VALIDATION_CACHE = "stagelibs.classpath.validation.cache.enable";
+  private static final boolean DEFAULT_CP_VALIDATION_CACHE = true;
+  private static final String CP_VALIDATION_CACHE_FILE = "stagelibs-validated.properties";
+
+  private static final String CONFIG_LAZY_LOADING = "stagelibs.lazy.loading.enable";
+  private static final boolean DEFAULT_LAZY_LOADING = false;
+  private static final String DEFINITIONS_CACHE_FILE = "stagelibs-definitions.json";
+
   public static final String CONFIG_LOAD_THREADS_MAX = "stagelibs.load.threads.max";
   public static final int DEFAULT_LOAD_THREADS_MAX = Runtime.getRuntime().availableProcessors();
 
@@ -153,6 +168,8 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   private static final String PRIVATE_POOL_ACTIVE = "active";
   private static final String PRIVATE_POOL_IDLE = "idle";
   private static final String PRIVATE_POOL_MAX = "max";
+  private static final String LOAD_TIME = "loadTimeMillis";
+  private static final String LOAD_ALLOCATED_BYTES = "allocatedBytes";
 
   private static final Logger LOG = LoggerFactory.getLogger(ClassLoaderStageLibraryTask.class);
 
@@ -162,25 +179,34 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   private final Map<String,String> stageNameAliases;
   private final Configuration configuration;
   private List<? extends ClassLoader> stageClassLoaders;
-  private List<StageLibraryDefinition> stageLibraries;
-  private Map<String, StageLibraryDefinition> stageLibraryMap;
-  private Map<String, StageDefinition> stageMap;
-  private List<StageDefinition> stageList;
-  private List<LineagePublisherDefinition> lineagePublisherDefinitions;
-  private Map<String, LineagePublisherDefinition> lineagePublisherDefinitionMap;
-  private List<CredentialStoreDefinition> credentialStoreDefinitions;
-  private LoadingCache<Locale, List<StageDefinition>> localizedStageList;
-  private List<ServiceDefinition> serviceList;
-  private Map<Class, ServiceDefinition> serviceMap;
-  private List<InterceptorDefinition> interceptorList;
-  private List<StageLibraryDelegateDefinitition> delegateList;
-  private Map<String, StageLibraryDelegateDefinitition> delegateMap;
-  private Map<String, ConnectionDefinition> connectionMap;
-  private Map<String, Set<ConnectionVerifierDefinition>> connectionVerifierMap;
+  // Definition structures are immutable, they are replaced as a whole (under definitionsLock) when a library is loaded
+  private final Object definitionsLock = new Object();
+  private volatile List<StageLibraryDefinition> stageLibraries;
+  private volatile Map<String, StageLibraryDefinition> stageLibraryMap;
+  private volatile Map<String, StageDefinition> stageMap;
+  private volatile List<StageDefinition> stageList;
+  private volatile List<LineagePublisherDefinition> lineagePublisherDefinitions;
+  private volatile Map<String, LineagePublisherDefinition> lineagePublisherDefinitionMap;
+  private volatile List<CredentialStoreDefinition> credentialStoreDefinitions;
+  private volatile LoadingCache<Locale, List<StageDefinition>> localizedStageList;
+  private volatile List<ServiceDefinition> serviceList;
+  private volatile Map<Class, ServiceDefinition> serviceMap;
+  private volatile List<InterceptorDefinition> interceptorList;
+  private volatile List<StageLibraryDelegateDefinitition> delegateList;
+  private volatile Map<String, StageLibraryDelegateDefinitition> delegateMap;
+  private volatile Map<String, ConnectionDefinition> connectionMap;
+  private volatile Map<String, Set<ConnectionVerifierDefinition>> connectionVerifierMap;
+  private volatile Map<String, EventDefinitionJson> eventDefinitionMap;
+  // Libraries whose definitions come from the definition cache and whose classes were not loaded yet
+  private final Map<String, PendingLibrary> pendingLibraries = new ConcurrentHashMap<>();
+  private final Object pendingLibrariesLock = new Object();
+  private StageLibraryDefinitionCache definitionCache;
   private ObjectMapper json;
   private KeyedObjectPool<String, ClassLoader> privateClassLoaderPool;
   private Map<String, Object> gaugeMap;
-  private final Map<String, EventDefinitionJson> eventDefinitionMap = new HashMap<>();
+  // Load time and memory of each library
+  private final Map<String, Object> libraryLoadStats = new ConcurrentHashMap<>();
+  private volatile Map<String, Object> libraryLoadGauge;
   private volatile List<RepositoryManifestJson> repositoryManifestList = null;
   private List<StageDefinitionMinimalJson> stageDefinitionMinimalList;
 
@@ -285,20 +311,29 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
     // Initialize internal structures that keep records of various entities
     json = ObjectMapperFactory.get();
-    stageLibraries = new ArrayList<>();
-    stageLibraryMap = new HashMap<>();
-    stageList = new ArrayList<>();
-    stageMap = new HashMap<>();
-    lineagePublisherDefinitions = new ArrayList<>();
-    lineagePublisherDefinitionMap = new HashMap<>();
-    credentialStoreDefinitions = new ArrayList<>();
-    serviceList = new ArrayList<>();
-    serviceMap = new HashMap<>();
-    interceptorList = new ArrayList<>();
-    delegateList = new ArrayList<>();
-    delegateMap = new HashMap<>();
-    connectionMap = new HashMap<>();
-    connectionVerifierMap = new HashMap<>();
+    stageLibraries = ImmutableList.of();
+    stageLibraryMap = ImmutableMap.of();
+    stageList = ImmutableList.of();
+    stageMap = ImmutableMap.of();
+    lineagePublisherDefinitions = ImmutableList.of();
+    lineagePublisherDefinitionMap = ImmutableMap.of();
+    credentialStoreDefinitions = ImmutableList.of();
+    serviceList = ImmutableList.of();
+    serviceMap = ImmutableMap.of();
+    interceptorList = ImmutableList.of();
+    delegateList = ImmutableList.of();
+    delegateMap = ImmutableMap.of();
+    connectionMap = ImmutableMap.of();
+    connectionVerifierMap = ImmutableMap.of();
+    eventDefinitionMap = ImmutableMap.of();
+
+    // Libraries with cached definitions are only loaded once any of their stages or plugins is used
+    if (configuration.get(CONFIG_LAZY_LOADING, DEFAULT_LAZY_LOADING)) {
+      definitionCache = new StageLibraryDefinitionCache(
+          new File(runtimeInfo.getDataDir(), DEFINITIONS_CACHE_FILE),
+          Locale.getDefault().toString()
+      );
+    }
 
     // Initialize static classes
     try {
@@ -324,7 +359,11 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
           ClassLoader cl;
           while ((cl = queue.poll()) != null) {
             try {
-              loadStageLibrary(cl, javaVersion, sdcVersion);
+              long loadStart = System.currentTimeMillis();
+              long allocatedStart = getThreadAllocatedBytes();
+              if (loadStageLibrary(cl, javaVersion, sdcVersion)) {
+                recordLoadStats(StageLibraryUtils.getLibraryName(cl), loadStart, allocatedStart);
+              }
             } catch (Throwable e) {
               LOG.error("Error while loading stage library", e);
               failure.set(true);
@@ -342,9 +381,10 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
         throw new RuntimeException("At least one of the stage libraries failed to load.");
       }
 
-      LOG.info("Loaded {} libraries with a total of {} stages, {} lineage publishers, {} services, {} interceptors, " +
-              "{} delegates, {} credentialStores, {} connections, and {} connection verifiers in {}",
+      LOG.info("Loaded {} libraries ({} deferred) with a total of {} stages, {} lineage publishers, {} services, " +
+              "{} interceptors, {} delegates, {} credentialStores, {} connections, and {} connection verifiers in {}",
           stageLibraries.size(),
+          pendingLibraries.size(),
           stageList.size(),
           lineagePublisherDefinitions.size(),
           serviceList.size(),
@@ -361,50 +401,34 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
       LocaleInContext.set(null);
     }
 
-    // Ensure that internal structures won't change over time
-    stageLibraries = ImmutableList.copyOf(stageLibraries);
-    stageLibraryMap = ImmutableMap.copyOf(stageLibraryMap);
-    stageList = ImmutableList.copyOf(stageList);
-    stageMap = ImmutableMap.copyOf(stageMap);
-    lineagePublisherDefinitions = ImmutableList.copyOf(lineagePublisherDefinitions);
-    lineagePublisherDefinitionMap = ImmutableMap.copyOf(lineagePublisherDefinitionMap);
-    credentialStoreDefinitions = ImmutableList.copyOf(credentialStoreDefinitions);
-    serviceList = ImmutableList.copyOf(serviceList);
-    serviceMap = ImmutableMap.copyOf(serviceMap);
-    interceptorList = ImmutableList.copyOf(interceptorList);
-    delegateList = ImmutableList.copyOf(delegateList);
-    delegateMap = ImmutableMap.copyOf(delegateMap);
-    connectionMap = ImmutableMap.copyOf(connectionMap);
-    connectionVerifierMap = ImmutableMap.copyOf(connectionVerifierMap);
-
     // localization cache for definitions
-    localizedStageList = CacheBuilder.newBuilder().build(new CacheLoader<Locale, List<StageDefinition>>() {
-      @Override
-      public List<StageDefinition> load(Locale key) throws Exception {
-        List<StageDefinition> list = new ArrayList<>();
-        for (StageDefinition stage : stageList) {
-          list.add(stage.localize());
-        }
-        return list;
-      }
-    });
+    localizedStageList = createLocalizedStageList();
+    loadPendingLibrariesForValidation();
     validateAllServicesAvailable();
     validateStageVersions(stageList);
     validateServices(stageList, serviceList);
     validateDelegates(delegateList);
     validateRequiredStageLibraries();
 
+    if (definitionCache != null) {
+      definitionCache.retainAll(stageLibraryMap.keySet());
+      definitionCache.save();
+    }
+
+    // Chooser values include the stages of the deferred libraries without loading them
+    List<StageDefinitionSummary> stageSummaries = getStageSummaries();
+
     // initializing the list of targets that can be used for error handling
-    ErrorHandlingChooserValues.setErrorHandlingOptions(this);
+    ErrorHandlingChooserValues.setErrorHandlingOptions(stageSummaries);
 
     // initializing the list of targets that can be used as aggregating sink
-    StatsTargetChooserValues.setStatsTargetOptions(this);
+    StatsTargetChooserValues.setStatsTargetOptions(stageSummaries);
 
     // initializing the list of targets that can be used for pipeline lifecycle events
-    PipelineLifecycleStageChooserValues.setHandlingOptions(this);
+    PipelineLifecycleStageChooserValues.setHandlingOptions(stageSummaries);
 
     // initializing the list of sources that can be used for test stages
-    PipelineTestStageChooserValues.setHandlingOptions(this);
+    PipelineTestStageChooserValues.setHandlingOptions(stageSummaries);
 
     // initializing the pool of private stage classloaders
     GenericKeyedObjectPoolConfig poolConfig = new GenericKeyedObjectPoolConfig();
@@ -431,6 +455,14 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     this.gaugeMap.put(PRIVATE_POOL_IDLE, new AtomicInteger(0));
     this.gaugeMap.put(PRIVATE_POOL_MAX, maxPrivateClassloaders);
 
+    libraryLoadGauge = MetricsConfigurator.createFrameworkGauge(
+      runtimeInfo.getMetrics(),
+      "stageLibraries.load",
+      "runtime",
+      null
+    ).getValue();
+    libraryLoadGauge.putAll(libraryLoadStats);
+
     if (!Boolean.getBoolean("streamsets.cloud")) {
       // auto load stage library definitions
       Thread thread = new Thread(this::getRepositoryManifestList);
@@ -467,17 +499,89 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     }
   }
 
+  /**
+   * Bytes allocated so far by the current thread, or -1 if the JVM can't tell.
+   */
+  private static long getThreadAllocatedBytes() {
+    try {
+      return ThreadAllocation.getAllocatedBytes();
+    } catch (LinkageError e) {
+      // JVM without the com.sun.management extensions
+      return -1;
+    }
+  }
+
+  /**
+   * Keeps the references to com.sun.management out of the task itself, so that a JVM without it fails (with a
+   * LinkageError) only when this class is first used.
+   */
+  private static class ThreadAllocation {
+    static long getAllocatedBytes() {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean internal = (com.sun.management.ThreadMXBean) bean;
+        if (internal.isThreadAllocatedMemorySupported() && internal.isThreadAllocatedMemoryEnabled()) {
+          return internal.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+      return -1;
+    }
+  }
+
+  private void recordLoadStats(String library, long loadStart, long allocatedStart) {
+    long loadTime = System.currentTimeMillis() - loadStart;
+    long allocated = allocatedStart < 0 ? -1 : getThreadAllocatedBytes() - allocatedStart;
+    LOG.debug("Loaded stage library '{}' in {} ms, allocated {} bytes", library, loadTime, allocated);
+    Map<String, Long> stats = ImmutableMap.of(LOAD_TIME, loadTime, LOAD_ALLOCATED_BYTES, allocated);
+    libraryLoadStats.put(library, stats);
+    Map<String, Object> gauge = libraryLoadGauge;
+    if (gauge != null) {
+      gauge.put(library, stats);
+    }
+  }
+
   private void validateStageClasspaths() {
     LOG.info("Validating classpath of all stages");
+    long startTime = System.currentTimeMillis();
+
+    // Libraries that passed validation and did not change since are not validated again
+    StageLibraryFingerprints fingerprints = null;
+    if (configuration.get(CONFIG_CP_VALIDATION_CACHE, DEFAULT_CP_VALIDATION_CACHE)) {
+      fingerprints = new StageLibraryFingerprints(
+          new File(runtimeInfo.getDataDir(), CP_VALIDATION_CACHE_FILE),
+          buildInfo.getVersion()
+      );
+    }
 
     // Firstly validate the stage classpaths for duplicate dependencies
     Set<String> corruptedClasspathStages = new HashSet<>();
-    for(ClasspathValidatorResult result : validateStageLibClasspath()) {
-      if (!result.isValid()) {
-        result.logDetails();
-        corruptedClasspathStages.add(result.getName());
+    int unchanged = 0;
+    for (ClassLoader cl : stageClassLoaders) {
+      if (cl instanceof SDCClassLoader) {
+        SDCClassLoader sdcCl = (SDCClassLoader) cl;
+        String fingerprint = null;
+        if (fingerprints != null) {
+          fingerprint = fingerprints.fingerprint(sdcCl.getURLs());
+          if (fingerprints.isValidated(sdcCl.getName(), fingerprint)) {
+            unchanged++;
+            continue;
+          }
+        }
+        ClasspathValidatorResult result = validateStageLibClasspath(sdcCl);
+        if (!result.isValid()) {
+          result.logDetails();
+          corruptedClasspathStages.add(result.getName());
+        }
+        if (fingerprints != null) {
+          fingerprints.setValidated(sdcCl.getName(), fingerprint, result.isValid());
+        }
       }
     }
+    if (fingerprints != null) {
+      fingerprints.save();
+    }
+    LOG.info("Finished classpath validation in {} ms, {} unchanged libraries skipped",
+        System.currentTimeMillis() - startTime, unchanged);
 
     if (corruptedClasspathStages.isEmpty()) {
       LOG.info("Classpath of all stages passed validation");
@@ -584,31 +688,21 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     return list;
   }
 
-  private void loadStageLibrary(ClassLoader cl, String javaVersion, Version sdcVersion) {
+  /**
+   * Registers the library and loads its definitions, unless they are cached and can be loaded later.
+   *
+   * @return true if the library classes were loaded
+   */
+  private boolean loadStageLibrary(ClassLoader cl, String javaVersion, Version sdcVersion) {
     LOG.debug("Found stage library '{}'", StageLibraryUtils.getLibraryName(cl));
 
-    // Local structures
-    Map<String, StageDefinition> localStageMap = new HashMap<>();
-    List<StageDefinition> localStageList = new LinkedList<>();
-    List<LineagePublisherDefinition> localLineagePublisherDefinitions = new LinkedList<>();
-    Map<String, LineagePublisherDefinition> localLineagePublisherDefinitionMap = new HashMap<>();
-    List<CredentialStoreDefinition> localCredentialStoreDefinitions = new LinkedList<>();
-    List<ServiceDefinition> localServiceList = new LinkedList<>();
-    Map<Class, ServiceDefinition> localServiceMap= new HashMap<>();
-    List<InterceptorDefinition> localInterceptorList = new LinkedList<>();
-    List<StageLibraryDelegateDefinitition> localDelegateList = new LinkedList<>();
-    Map<String, StageLibraryDelegateDefinitition> localDelegateMap = new HashMap<>();
-    Map<String, EventDefinitionJson> localEventDefinitionMap = new HashMap<>();
-    List<ConnectionDefinition> localConnectionList = new LinkedList<>();
-    List<ConnectionVerifierDefinition> localConnectionVerifierList = new LinkedList<>();
-
     try {
       // Before loading any stages, let's verify that given stage library is compatible with our current JVM version
       String unsupportedJvmVersion = getPropertyFromLibraryProperties(cl, JAVA_UNSUPPORTED_REGEXP, null);
       if(!StringUtils.isEmpty(unsupportedJvmVersion)) {
         if(javaVersion.matches(unsupportedJvmVersion)) {
           LOG.warn("Can't load stages from {} since they are not compatible with current JVM version", StageLibraryUtils.getLibraryName(cl));
-          return;
+          return false;
         } else {
           LOG.debug("Stage lib {} passed java compatibility test for '{}'", StageLibraryUtils.getLibraryName(cl), unsupportedJvmVersion);
         }
@@ -630,148 +724,345 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
       // Load stages from the stage library
       StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
       libDef.setVersion(getPropertyFromLibraryProperties(cl, "version", ""));
-      LOG.debug("Loading stages and plugins from library '{}' on version {}", libDef.getName(), libDef.getVersion());
-      synchronized (stageLibraries) {
-        stageLibraries.add(libDef);
-      }
-      synchronized (stageLibraryMap) {
-        stageLibraryMap.put(libDef.getName(), libDef);
+      synchronized (definitionsLock) {
+        stageLibraries = append(stageLibraries, ImmutableList.of(libDef));
+        Map<String, StageLibraryDefinition> libraries = new HashMap<>(stageLibraryMap);
+        libraries.put(libDef.getName(), libDef);
+        stageLibraryMap = ImmutableMap.copyOf(libraries);
       }
 
-      // Load Stages
-      for(Class klass : loadClassesFromResource(libDef, cl, STAGES_DEFINITION_RESOURCE)) {
-        StageDefinition stage = StageDefinitionExtractor.get().extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
-        String key = createKey(libDef.getName(), stage.getName());
-        LOG.debug("Loaded stage '{}'  version {}", key, stage.getVersion());
-        localStageList.add(stage);
-        localStageMap.put(key, stage);
-
-        for(Class eventDefClass : stage.getEventDefs()) {
-          if (!localEventDefinitionMap.containsKey(eventDefClass.getCanonicalName())) {
-            localEventDefinitionMap.put(
-                eventDefClass.getCanonicalName(),
-                EventDefinitionExtractor.get().extractEventDefinition(eventDefClass)
-            );
-          }
+      String fingerprint = null;
+      StageLibraryDefinitionCache.Library cached = null;
+      if (definitionCache != null && cl instanceof SDCClassLoader) {
+        fingerprint = StageLibraryFingerprints.fingerprint(buildInfo.getVersion(), ((SDCClassLoader) cl).getURLs());
+        cached = definitionCache.get(libDef.getName(), fingerprint);
+        if (cached != null && !cached.isEager()) {
+          LOG.debug("Deferring loading of library '{}' on version {}", libDef.getName(), libDef.getVersion());
+          pendingLibraries.put(libDef.getName(), new PendingLibrary(libDef, cl, cached));
+          return false;
         }
       }
-      synchronized (stageMap) {
-        stageMap.putAll(localStageMap);
-      }
-      synchronized (stageList) {
-        stageList.addAll(localStageList);
-      }
-      synchronized (eventDefinitionMap) {
-        eventDefinitionMap.putAll(localEventDefinitionMap);
-      }
 
-      // Load Lineage publishers
-      for(Class klass : loadClassesFromResource(libDef, cl, LINEAGE_PUBLISHERS_DEFINITION_RESOURCE)) {
-        LineagePublisherDefinition lineage = LineagePublisherDefinitionExtractor.get().extract(libDef, klass);
-        String key = createKey(libDef.getName(), lineage.getName());
-        LOG.debug("Loaded lineage plugin '{}'", key);
-        localLineagePublisherDefinitions.add(lineage);
-        localLineagePublisherDefinitionMap.put(key, lineage);
-      }
-      synchronized (lineagePublisherDefinitions) {
-        lineagePublisherDefinitions.addAll(localLineagePublisherDefinitions);
-      }
-      synchronized (lineagePublisherDefinitionMap) {
-        lineagePublisherDefinitionMap.putAll(localLineagePublisherDefinitionMap);
+      LOG.debug("Loading stages and plugins from library '{}' on version {}", libDef.getName(), libDef.getVersion());
+      LibraryDefinitions definitions = loadDefinitions(libDef, cl);
+      addDefinitions(libDef, definitions);
+      if (fingerprint != null && cached == null) {
+        definitionCache.put(libDef.getName(), definitions.toCache(fingerprint));
       }
+      return true;
+    } catch (IOException | ClassNotFoundException ex) {
+      throw new RuntimeException(
+          Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
+    }
+  }
 
-      // Load Credential stores
-      for(Class klass : loadClassesFromResource(libDef, cl, CREDENTIAL_STORE_DEFINITION_RESOURCE)) {
-        CredentialStoreDefinition def = CredentialStoreDefinitionExtractor.get().extract(libDef, klass);
-        String key = createKey(libDef.getName(), def.getName());
-        LOG.debug("Loaded credential store '{}'", key);
-        localCredentialStoreDefinitions.add(def);
-      }
-      synchronized (credentialStoreDefinitions) {
-        credentialStoreDefinitions.addAll(localCredentialStoreDefinitions);
+  private LibraryDefinitions loadDefinitions(
+      StageLibraryDefinition libDef,
+      ClassLoader cl
+  ) throws IOException, ClassNotFoundException {
+    LibraryDefinitions definitions = new LibraryDefinitions();
+
+    // Load Stages
+    for(Class klass : loadClassesFromResource(libDef, cl, STAGES_DEFINITION_RESOURCE)) {
+      StageDefinition stage = StageDefinitionExtractor.get()
+          .extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
+      LOG.debug("Loaded stage '{}'  version {}", createKey(libDef.getName(), stage.getName()), stage.getVersion());
+      definitions.stages.add(stage);
+
+      for(Class eventDefClass : stage.getEventDefs()) {
+        if (!definitions.eventDefinitions.containsKey(eventDefClass.getCanonicalName())) {
+          definitions.eventDefinitions.put(
+              eventDefClass.getCanonicalName(),
+              EventDefinitionExtractor.get().extractEventDefinition(eventDefClass)
+          );
+        }
       }
+    }
 
-      // Load Services
-      for(Class klass : loadClassesFromResource(libDef, cl, SERVICE_DEFINITION_RESOURCE)) {
-        ServiceDefinition def = ServiceDefinitionExtractor.get().extract(libDef, klass);
-        LOG.debug("Loaded service for '{}'", def.getProvides().getCanonicalName());
-        localServiceList.add(def);
-        localServiceMap.put(def.getProvides(), def);
-      }
-      synchronized (serviceList) {
-        serviceList.addAll(localServiceList);
-      }
-      synchronized (serviceMap) {
-        serviceMap.putAll(localServiceMap);
-      }
+    // Load Lineage publishers
+    for(Class klass : loadClassesFromResource(libDef, cl, LINEAGE_PUBLISHERS_DEFINITION_RESOURCE)) {
+      LineagePublisherDefinition lineage = LineagePublisherDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded lineage plugin '{}'", createKey(libDef.getName(), lineage.getName()));
+      definitions.lineagePublishers.add(lineage);
+    }
 
-      // Load Interceptors
-      for(Class klass : loadClassesFromResource(libDef, cl, INTERCEPTOR_DEFINITION_RESOURCE)) {
-        InterceptorDefinition def = InterceptorDefinitionExtractor.get().extract(libDef, klass);
-        LOG.debug("Loaded interceptor '{}'", def.getKlass().getCanonicalName());
-        localInterceptorList.add(def);
-      }
-      synchronized (interceptorList) {
-        interceptorList.addAll(localInterceptorList);
-      }
+    // Load Credential stores
+    for(Class klass : loadClassesFromResource(libDef, cl, CREDENTIAL_STORE_DEFINITION_RESOURCE)) {
+      CredentialStoreDefinition def = CredentialStoreDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded credential store '{}'", createKey(libDef.getName(), def.getName()));
+      definitions.credentialStores.add(def);
+    }
+
+    // Load Services
+    for(Class klass : loadClassesFromResource(libDef, cl, SERVICE_DEFINITION_RESOURCE)) {
+      ServiceDefinition def = ServiceDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded service for '{}'", def.getProvides().getCanonicalName());
+      definitions.services.add(def);
+    }
+
+    // Load Interceptors
+    for(Class klass : loadClassesFromResource(libDef, cl, INTERCEPTOR_DEFINITION_RESOURCE)) {
+      InterceptorDefinition def = InterceptorDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded interceptor '{}'", def.getKlass().getCanonicalName());
+      definitions.interceptors.add(def);
+    }
 
-      // Load Delegates
-      for(Class klass : loadClassesFromResource(libDef, cl, DELEGATE_DEFINITION_RESOURCE)) {
-        StageLibraryDelegateDefinitition def = StageLibraryDelegateDefinitionExtractor.get().extract(libDef, klass);
-        String key = createKey(libDef.getName(), def.getExportedInterface().getCanonicalName());
-        LOG.debug("Loaded delegate '{}'", def.getKlass().getCanonicalName());
-        localDelegateList.add(def);
-        localDelegateMap.put(key, def);
+    // Load Delegates
+    for(Class klass : loadClassesFromResource(libDef, cl, DELEGATE_DEFINITION_RESOURCE)) {
+      StageLibraryDelegateDefinitition def = StageLibraryDelegateDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded delegate '{}'", def.getKlass().getCanonicalName());
+      definitions.delegates.add(def);
+    }
+
+    // Load Connections
+    for (Class klass : loadClassesFromResource(libDef, cl, CONNECTIONS_DEFINITION_RESOURCE)) {
+      ConnectionDefinition def = ConnectionDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded connection '{}' from '{}'", def.getType(), libDef.getName());
+      definitions.connections.add(def);
+    }
+
+    // Load Connection Verifiers
+    for(Class klass : loadClassesFromResource(libDef, cl, CONNECTION_VERIFIERS_DEFINITION_RESOURCE)) {
+      ConnectionVerifierDefinition def = ConnectionVerifierDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded connection verifier: '{}' from '{}'", def.getVerifierType(), libDef.getName());
+      definitions.connectionVerifiers.add(def);
+    }
+
+    return definitions;
+  }
+
+  /**
+   * Publishes the definitions of given library, replacing the (immutable) definition structures.
+   */
+  private void addDefinitions(StageLibraryDefinition libDef, LibraryDefinitions definitions) {
+    String library = libDef.getName();
+    synchronized (definitionsLock) {
+      Map<String, StageDefinition> stages = new HashMap<>(stageMap);
+      definitions.stages.forEach(stage -> stages.put(createKey(library, stage.getName()), stage));
+      stageMap = ImmutableMap.copyOf(stages);
+      stageList = append(stageList, definitions.stages);
+
+      Map<String, EventDefinitionJson> events = new HashMap<>(eventDefinitionMap);
+      events.putAll(definitions.eventDefinitions);
+      eventDefinitionMap = ImmutableMap.copyOf(events);
+
+      Map<String, LineagePublisherDefinition> lineagePublishers = new HashMap<>(lineagePublisherDefinitionMap);
+      definitions.lineagePublishers.forEach(def -> lineagePublishers.put(createKey(library, def.getName()), def));
+      lineagePublisherDefinitionMap = ImmutableMap.copyOf(lineagePublishers);
+      lineagePublisherDefinitions = append(lineagePublisherDefinitions, definitions.lineagePublishers);
+
+      credentialStoreDefinitions = append(credentialStoreDefinitions, definitions.credentialStores);
+
+      Map<Class, ServiceDefinition> services = new HashMap<>(serviceMap);
+      definitions.services.forEach(def -> services.put(def.getProvides(), def));
+      serviceMap = ImmutableMap.copyOf(services);
+      serviceList = append(serviceList, definitions.services);
+
+      interceptorList = append(interceptorList, definitions.interceptors);
+
+      Map<String, StageLibraryDelegateDefinitition> delegates = new HashMap<>(delegateMap);
+      definitions.delegates.forEach(
+          def -> delegates.put(createKey(library, def.getExportedInterface().getCanonicalName()), def)
+      );
+      delegateMap = ImmutableMap.copyOf(delegates);
+      delegateList = append(delegateList, definitions.delegates);
+
+      Map<String, ConnectionDefinition> connections = new HashMap<>(connectionMap);
+      definitions.connections.forEach(connectionDefinition -> {
+        ConnectionDefinition prevConnectionDefinition = connections.get(connectionDefinition.getType());
+        if (prevConnectionDefinition != null) {
+          // We'll use the oldest version available when there's a conflict because it'll be the most compatible
+          if (prevConnectionDefinition.getVersion() > connectionDefinition.getVersion()) {
+            LOG.debug("Found connection version conflict for '{}' ({} vs {}), using {}",
+                connectionDefinition.getType(), connectionDefinition.getVersion(),
+                prevConnectionDefinition.getVersion(), prevConnectionDefinition.getVersion());
+            connections.put(connectionDefinition.getType(), connectionDefinition);
+          }
+        } else {
+          connections.put(connectionDefinition.getType(), connectionDefinition);
+        }
+      });
+      connectionMap = ImmutableMap.copyOf(connections);
+
+      Map<String, Set<ConnectionVerifierDefinition>> verifiers = new HashMap<>(connectionVerifierMap);
+      definitions.connectionVerifiers.forEach(connectionVerifierDefinition -> {
+        Set<ConnectionVerifierDefinition> verifierSet = new HashSet<>(
+            verifiers.getOrDefault(connectionVerifierDefinition.getVerifierType(), Collections.emptySet())
+        );
+        verifierSet.add(connectionVerifierDefinition);
+        verifiers.put(connectionVerifierDefinition.getVerifierType(), verifierSet);
+      });
+      connectionVerifierMap = ImmutableMap.copyOf(verifiers);
+    }
+  }
+
+  private static <T> List<T> append(List<T> list, List<? extends T> added) {
+    return added.isEmpty() ? list : ImmutableList.<T>builder().addAll(list).addAll(added).build();
+  }
+
+  private LoadingCache<Locale, List<StageDefinition>> createLocalizedStageList() {
+    return CacheBuilder.newBuilder().build(new CacheLoader<Locale, List<StageDefinition>>() {
+      @Override
+      public List<StageDefinition> load(Locale key) throws Exception {
+        List<StageDefinition> list = new ArrayList<>();
+        for (StageDefinition stage : stageList) {
+          list.add(stage.localize());
+        }
+        return list;
       }
-      synchronized (delegateList) {
-        delegateList.addAll(localDelegateList);
+    });
+  }
+
+  /**
+   * Loads the deferred libraries that the startup validations need to see: the ones providing a service that a loaded
+   * stage depends on and the ones with a stage or service colliding with another library.
+   */
+  private void loadPendingLibrariesForValidation() {
+    Set<String> toLoad;
+    do {
+      Map<String, Set<Integer>> stageVersions = new HashMap<>();
+      for (StageDefinitionSummary stage : getStageSummaries()) {
+        stageVersions.computeIfAbsent(stage.getName(), name -> new HashSet<>()).add(stage.getVersion());
       }
-      synchronized (delegateMap) {
-        delegateMap.putAll(localDelegateMap);
+      Map<String, Integer> serviceProviders = new HashMap<>();
+      serviceList.forEach(def -> serviceProviders.merge(def.getProvides().getCanonicalName(), 1, Integer::sum));
+      pendingLibraries.values().forEach(
+          pending -> pending.cached.getServices().forEach(service -> serviceProviders.merge(service, 1, Integer::sum))
+      );
+      Set<String> requiredServices = new HashSet<>();
+      for (StageDefinition stage : stageList) {
+        for (ServiceDependencyDefinition service : stage.getServices()) {
+          requiredServices.add(service.getServiceClass().getCanonicalName());
+        }
       }
 
-      // Load Connections
-      for (Class klass : loadClassesFromResource(libDef, cl, CONNECTIONS_DEFINITION_RESOURCE)) {
-        ConnectionDefinition def = ConnectionDefinitionExtractor.get().extract(libDef, klass);
-        LOG.debug("Loaded connection '{}' from '{}'", def.getType(), libDef.getName());
-        localConnectionList.add(def);
+      toLoad = new HashSet<>();
+      for (PendingLibrary pending : pendingLibraries.values()) {
+        boolean stageCollides = pending.cached.getStages().stream()
+            .anyMatch(stage -> stageVersions.get(stage.getName()).size() > 1);
+        boolean serviceNeeded = pending.cached.getServices().stream()
+            .anyMatch(service -> serviceProviders.get(service) > 1 || requiredServices.contains(service));
+        if (stageCollides || serviceNeeded) {
+          toLoad.add(pending.libDef.getName());
+        }
       }
-      synchronized (connectionMap) {
-        localConnectionList.forEach(connectionDefinition -> {
-          ConnectionDefinition prevConnectionDefinition = connectionMap.get(connectionDefinition.getType());
-          if (prevConnectionDefinition != null) {
-            // We'll use the oldest version available when there's a conflict because it'll be the most compatible
-            if (prevConnectionDefinition.getVersion() > connectionDefinition.getVersion()) {
-              LOG.debug("Found connection version conflict for '{}' ({} vs {}), using {}",
-                  connectionDefinition.getType(), connectionDefinition.getVersion(),
-                  prevConnectionDefinition.getVersion(), prevConnectionDefinition.getVersion());
-              connectionMap.put(connectionDefinition.getType(), connectionDefinition);
-            }
-          } else {
-            connectionMap.put(connectionDefinition.getType(), connectionDefinition);
-          }
-        });
+      loadPendingLibraries(toLoad);
+    } while (!toLoad.isEmpty());
+  }
 
-      }
+  private void ensureLoaded(String library) {
+    if (library != null && pendingLibraries.containsKey(library)) {
+      loadPendingLibraries(Collections.singleton(library));
+    }
+  }
 
-      // Load Connection Verifiers
-      for(Class klass : loadClassesFromResource(libDef, cl, CONNECTION_VERIFIERS_DEFINITION_RESOURCE)) {
-        ConnectionVerifierDefinition def = ConnectionVerifierDefinitionExtractor.get().extract(libDef, klass);
-        LOG.debug("Loaded connection verifier: '{}' from '{}'", def.getVerifierType(), libDef.getName());
-        localConnectionVerifierList.add(def);
-      }
-      synchronized (connectionVerifierMap) {
-        localConnectionVerifierList.forEach(connectionVerifierDefinition -> {
-          Set<ConnectionVerifierDefinition> existingConnectionVerifierSet =
-              connectionVerifierMap.computeIfAbsent(connectionVerifierDefinition.getVerifierType(),
-                  k -> new HashSet<>());
-          existingConnectionVerifierSet.add(connectionVerifierDefinition);
-        });
+  private void ensureLoaded(Predicate<StageLibraryDefinitionCache.Library> provides) {
+    if (!pendingLibraries.isEmpty()) {
+      loadPendingLibraries(pendingLibraries.values().stream()
+          .filter(pending -> provides.test(pending.cached))
+          .map(pending -> pending.libDef.getName())
+          .collect(Collectors.toList())
+      );
+    }
+  }
+
+  private void ensureAllLoaded() {
+    if (!pendingLibraries.isEmpty()) {
+      loadPendingLibraries(new ArrayList<>(pendingLibraries.keySet()));
+    }
+  }
+
+  private void loadPendingLibraries(Collection<String> libraries) {
+    synchronized (pendingLibrariesLock) {
+      for (String library : libraries) {
+        PendingLibrary pending = pendingLibraries.get(library);
+        if (pending == null) {
+          // Loaded in the meantime
+          continue;
+        }
+        LOG.info("Loading deferred stage library '{}'", library);
+        long loadStart = System.currentTimeMillis();
+        long allocatedStart = getThreadAllocatedBytes();
+        // Definitions are always extracted with the default locale, the caller may be serving another one
+        Locale locale = LocaleInContext.get();
+        LocaleInContext.set(Locale.getDefault());
+        try {
+          addDefinitions(pending.libDef, loadDefinitions(pending.libDef, pending.cl));
+        } catch (IOException | ClassNotFoundException ex) {
+          throw new RuntimeException(
+              Utils.format("Could not load stages definition from '{}', {}", pending.cl, ex.toString()), ex);
+        } finally {
+          LocaleInContext.set(locale);
+        }
+        if (localizedStageList != null) {
+          localizedStageList = createLocalizedStageList();
+        }
+        pendingLibraries.remove(library);
+        recordLoadStats(library, loadStart, allocatedStart);
       }
+    }
+  }
 
-    } catch (IOException | ClassNotFoundException ex) {
-      throw new RuntimeException(
-          Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
+  /**
+   * Summaries of the stages of all libraries, including the deferred ones.
+   */
+  private List<StageDefinitionSummary> getStageSummaries() {
+    Map<String, StageDefinitionSummary> summaries = new LinkedHashMap<>();
+    // Deferred libraries first, a library loaded in the meantime is then also part of the stage list
+    for (PendingLibrary pending : pendingLibraries.values()) {
+      pending.cached.getStages().forEach(stage -> summaries.put(createKey(stage.getLibrary(), stage.getName()), stage));
+    }
+    for (StageDefinition stage : stageList) {
+      summaries.put(createKey(stage.getLibrary(), stage.getName()), new StageDefinitionSummary(stage));
+    }
+    return new ArrayList<>(summaries.values());
+  }
+
+  @VisibleForTesting
+  boolean isLoaded(String library) {
+    return stageLibraryMap.containsKey(library) && !pendingLibraries.containsKey(library);
+  }
+
+  /**
+   * Definitions extracted from one library.
+   */
+  private static class LibraryDefinitions {
+    final List<StageDefinition> stages = new ArrayList<>();
+    final Map<String, EventDefinitionJson> eventDefinitions = new HashMap<>();
+    final List<LineagePublisherDefinition> lineagePublishers = new ArrayList<>();
+    final List<CredentialStoreDefinition> credentialStores = new ArrayList<>();
+    final List<ServiceDefinition> services = new ArrayList<>();
+    final List<InterceptorDefinition> interceptors = new ArrayList<>();
+    final List<StageLibraryDelegateDefinitition> delegates = new ArrayList<>();
+    final List<ConnectionDefinition> connections = new ArrayList<>();
+    final List<ConnectionVerifierDefinition> connectionVerifiers = new ArrayList<>();
+
+    StageLibraryDefinitionCache.Library toCache(String fingerprint) {
+      // Interceptors, credential stores, lineage publishers and connection verifiers are looked up for all libraries
+      boolean eager = !interceptors.isEmpty() || !credentialStores.isEmpty() || !lineagePublishers.isEmpty()
+          || !connectionVerifiers.isEmpty();
+      return new StageLibraryDefinitionCache.Library(
+          fingerprint,
+          eager,
+          stages.stream().map(StageDefinitionSummary::new).collect(Collectors.toList()),
+          services.stream().map(def -> def.getProvides().getCanonicalName()).collect(Collectors.toList()),
+          connections.stream().map(ConnectionDefinition::getType).collect(Collectors.toList())
+      );
+    }
+  }
+
+  /**
+   * Library registered from the definition cache, its classes are loaded on first use.
+   */
+  private static class PendingLibrary {
+    final StageLibraryDefinition libDef;
+    final ClassLoader cl;
+    final StageLibraryDefinitionCache.Library cached;
+
+    PendingLibrary(StageLibraryDefinition libDef, ClassLoader cl, StageLibraryDefinitionCache.Library cached) {
+      this.libDef = libDef;
+      this.cl = cl;
+      this.cached = cached;
     }
   }
 
@@ -911,6 +1202,7 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
   @Override
   public List<StageDefinition> getStages() {
+    ensureAllLoaded();
     try {
       return (LocaleInContext.get() == null) ? stageList : localizedStageList.get(LocaleInContext.get());
     } catch (ExecutionException ex) {
@@ -936,11 +1228,13 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
   @Override
   public List<ServiceDefinition> getServiceDefinitions() {
+    ensureAllLoaded();
     return serviceList;
   }
 
   @Override
   public ServiceDefinition getServiceDefinition(Class serviceInterface, boolean forExecution) {
+    ensureLoaded(cached -> cached.getServices().contains(serviceInterface.getCanonicalName()));
     ServiceDefinition serviceDefinition = serviceMap.get(serviceInterface);
 
     if(forExecution && serviceDefinition.isPrivateClassLoader()) {
@@ -958,6 +1252,7 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   @Override
   @SuppressWarnings("unchecked")
   public StageDefinition getStage(String library, String name, boolean forExecution) {
+    ensureLoaded(library);
     StageDefinition def = stageMap.get(createKey(library, name));
     if (forExecution &&  def.isPrivateClassLoader()) {
       def = new StageDefinition(def, getStageClassLoader(def));
@@ -982,13 +1277,7 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
     for (ClassLoader cl : stageClassLoaders) {
       if (cl instanceof SDCClassLoader) {
-        SDCClassLoader sdcCl = (SDCClassLoader) cl;
-
-        ClasspathValidatorResult validationResult = ClasspathValidator.newValidator(sdcCl.getName())
-          .withURLs(sdcCl.getURLs())
-          .validate(loadClasspathWhitelist(cl));
-
-        validators.add(validationResult);
+        validators.add(validateStageLibClasspath((SDCClassLoader) cl));
       }
     }
 
@@ -996,13 +1285,21 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     return validators;
   }
 
+  private ClasspathValidatorResult validateStageLibClasspath(SDCClassLoader cl) {
+    return ClasspathValidator.newValidator(cl.getName())
+      .withURLs(cl.getURLs())
+      .validate(loadClasspathWhitelist(cl));
+  }
+
   @Override
   public List<StageLibraryDelegateDefinitition> getStageLibraryDelegateDefinitions() {
+    ensureAllLoaded();
     return delegateList;
   }
 
   @Override
   public StageLibraryDelegateDefinitition getStageLibraryDelegateDefinition(String stageLibrary, Class exportedInterface) {
+    ensureLoaded(stageLibrary);
     return delegateMap.get(createKey(stageLibrary, exportedInterface.getCanonicalName()));
   }
 
@@ -1074,7 +1371,7 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
       List<StageLibraryManifestJson> additionalLibraries = new ArrayList<>();
 
       Map<String, List<StageInfoJson>> installedStagesMap = new HashMap<>();
-      for(StageDefinition stageDefinition: getStages()) {
+      for(StageDefinitionSummary stageDefinition: getStageSummaries()) {
         List<StageInfoJson> stagesList;
         if (installedStagesMap.containsKey(stageDefinition.getLibrary())) {
           stagesList = installedStagesMap.get(stageDefinition.getLibrary());
@@ -1204,6 +1501,7 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
   @Override
   public Map<String, EventDefinitionJson> getEventDefinitions() {
+    ensureAllLoaded();
     return eventDefinitionMap;
   }
 
@@ -1219,11 +1517,13 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
   @Override
   public Collection<ConnectionDefinition> getConnections() {
+    ensureAllLoaded();
     return connectionMap.values();
   }
 
   @Override
   public ConnectionDefinition getConnection(String type) {
+    ensureLoaded(cached -> cached.getConnections().contains(type));
     return connectionMap.get(type);
   }
 
@@ -1236,7 +1536,7 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   public synchronized List<StageDefinitionMinimalJson> getStageDefinitionMinimalList() {
     if (stageDefinitionMinimalList == null) {
       stageDefinitionMinimalList = new ArrayList<>();
-      for (StageDefinition stageDefinition: getStages()) {
+      for (StageDefinitionSummary stageDefinition: getStageSummaries()) {
         stageDefinitionMinimalList.add(new StageDefinitionMinimalJson(
             stageDefinition.getName(),
             String.valueOf(stageDefinition.getVersion()),
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.streamsets.datacollector.config.StageDefinitionSummary;
+import com.streamsets.datacollector.io.DataStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Definitions extracted from each stage library keyed by the fingerprint of its jars (see
+ * {@link StageLibraryFingerprints}), persisted in the data directory.
+ * <p/>
+ * Only what is needed without loading the library classes is kept: the stage summaries that feed the stage choosers
+ * and the package manager, the services and connection types the library provides (so that it can be loaded when one
+ * of them is requested) and whether the library has to be loaded at startup anyway.
+ */
+class StageLibraryDefinitionCache {
+  private static final Logger LOG = LoggerFactory.getLogger(StageLibraryDefinitionCache.class);
+
+  private final File file;
+  private final String environment;
+  private final Map<String, Library> libraries;
+  private boolean changed;
+
+  /**
+   * @param environment anything that changes the extracted definitions without changing the jars (like the default
+   * locale of the labels), a cache written under a different environment is discarded.
+   */
+  StageLibraryDefinitionCache(File file, String environment) {
+    this.file = file;
+    this.environment = environment;
+    this.libraries = new HashMap<>();
+    if (file.exists()) {
+      DataStore dataStore = new DataStore(file);
+      try (InputStream is = dataStore.getInputStream()) {
+        Content content = ObjectMapperFactory.get().readValue(is, Content.class);
+        if (environment.equals(content.getEnvironment())) {
+          libraries.putAll(content.getLibraries());
+        } else {
+          LOG.info("Discarding stage library definitions cached for '{}'", content.getEnvironment());
+          changed = true;
+        }
+      } catch (Exception ex) {
+        // Every library is loaded again
+        LOG.warn("Could not load stage library definitions from '{}': {}", file, ex.toString(), ex);
+        libraries.clear();
+      }
+    }
+  }
+
+  /**
+   * Cached definitions of the library, or null if there are none for the given fingerprint.
+   */
+  synchronized Library get(String library, String fingerprint) {
+    Library cached = libraries.get(library);
+    return cached != null && cached.getFingerprint().equals(fingerprint) ? cached : null;
+  }
+
+  synchronized void put(String library, Library definitions) {
+    libraries.put(library, definitions);
+    changed = true;
+  }
+
+  /**
+   * Forget the libraries that are no longer installed.
+   */
+  synchronized void retainAll(Collection<String> installed) {
+    changed |= libraries.keySet().retainAll(installed);
+  }
+
+  synchronized void save() {
+    if (!changed) {
+      return;
+    }
+    ObjectMapper json = ObjectMapperFactory.get();
+    DataStore dataStore = new DataStore(file);
+    try (OutputStream os = dataStore.getOutputStream()) {
+      json.writeValue(os, new Content(environment, libraries));
+      dataStore.commit(os);
+      changed = false;
+    } catch (Exception ex) {
+      LOG.warn("Could not save stage library definitions to '{}': {}", file, ex.toString(), ex);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+  static class Content {
+    private final String environment;
+    private final Map<String, Library> libraries;
+
+    @JsonCreator
+    Content(
+        @JsonProperty("environment") String environment,
+        @JsonProperty("libraries") Map<String, Library> libraries
+    ) {
+      this.environment = environment;
+      this.libraries = libraries == null ? new HashMap<>() : libraries;
+    }
+
+    public String getEnvironment() {
+      return environment;
+    }
+
+    public Map<String, Library> getLibraries() {
+      return libraries;
+    }
+  }
+
+  static class Library {
+    private final String fingerprint;
+    private final boolean eager;
+    private final List<StageDefinitionSummary> stages;
+    private final List<String> services;
+    private final List<String> connections;
+
+    /**
+     * @param eager true when the library has plugins that are looked up on startup or on every pipeline run
+     * (interceptors, credential stores, lineage publishers or connection verifiers) and is never loaded lazily.
+     * @param services canonical names of the service interfaces the library provides.
+     * @param connections connection types the library defines.
+     */
+    @JsonCreator
+    Library(
+        @JsonProperty("fingerprint") String fingerprint,
+        @JsonProperty("eager") boolean eager,
+        @JsonProperty("stages") List<StageDefinitionSummary> stages,
+        @JsonProperty("services") List<String> services,
+        @JsonProperty("connections") List<String> connections
+    ) {
+      this.fingerprint = fingerprint;
+      this.eager = eager;
+      this.stages = stages == null ? ImmutableList.of() : ImmutableList.copyOf(stages);
+      this.services = services == null ? ImmutableList.of() : ImmutableList.copyOf(services);
+      this.connections = connections == null ? ImmutableList.of() : ImmutableList.copyOf(connections);
+    }
+
+    public String getFingerprint() {
+      return fingerprint;
+    }
+
+    public boolean isEager() {
+      return eager;
+    }
+
+    public List<StageDefinitionSummary> getStages() {
+      return stages;
+    }
+
+    public List<String> getServices() {
+      return services;
+    }
+
+    public List<String> getConnections() {
+      return connections;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.streamsets.datacollector.io.DataStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Fingerprints of the jars of each stage library that passed the classpath validation, persisted in the data
+ * directory so that libraries that did not change since the previous start are not validated again.
+ * <p/>
+ * The fingerprint covers the path, size and modification time of every jar (reading the contents of all the jars
+ * would cost more than the validation itself) and the version of Data Collector doing the validation.
+ */
+class StageLibraryFingerprints {
+  private static final Logger LOG = LoggerFactory.getLogger(StageLibraryFingerprints.class);
+
+  private final File file;
+  private final String sdcVersion;
+  private final Properties fingerprints;
+  private boolean changed;
+
+  StageLibraryFingerprints(File file, String sdcVersion) {
+    this.file = file;
+    this.sdcVersion = sdcVersion;
+    this.fingerprints = new Properties();
+    if (file.exists()) {
+      DataStore dataStore = new DataStore(file);
+      try (InputStream is = dataStore.getInputStream()) {
+        fingerprints.load(is);
+      } catch (Exception ex) {
+        // Everything is validated again
+        LOG.warn("Could not load stage library fingerprints from '{}': {}", file, ex.toString(), ex);
+        fingerprints.clear();
+      }
+    }
+  }
+
+  String fingerprint(URL[] urls) {
+    return fingerprint(sdcVersion, urls);
+  }
+
+  static String fingerprint(String sdcVersion, URL[] urls) {
+    Hasher hasher = Hashing.murmur3_128().newHasher().putString(sdcVersion, StandardCharsets.UTF_8);
+    for (URL url : urls) {
+      hasher.putString(url.toString(), StandardCharsets.UTF_8);
+      if ("file".equals(url.getProtocol())) {
+        try {
+          File jar = new File(url.toURI());
+          hasher.putLong(jar.length()).putLong(jar.lastModified());
+        } catch (URISyntaxException ex) {
+          // Only the URL is part of the fingerprint
+        }
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  boolean isValidated(String library, String fingerprint) {
+    return fingerprint.equals(fingerprints.getProperty(library));
+  }
+
+  synchronized void setValidated(String library, String fingerprint, boolean valid) {
+    Object previous = valid ? fingerprints.setProperty(library, fingerprint) : fingerprints.remove(library);
+    changed |= valid ? !fingerprint.equals(previous) : previous != null;
+  }
+
+  synchronized void save() {
+    if (!changed) {
+      return;
+    }
+    DataStore dataStore = new DataStore(file);
+    try (OutputStream os = dataStore.getOutputStream()) {
+      fingerprints.store(os, "Stage libraries that passed the classpath validation");
+      dataStore.commit(os);
+      changed = false;
+    } catch (Exception ex) {
+      LOG.warn("Could not save stage library fingerprints to '{}': {}", file, ex.toString(), ex);
+    } finally {
+      dataStore.release();
+    }
+  }
+}
@@ -72,6 +72,7 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -92,6 +93,8 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private static final String UI_INFO_FILE = "uiinfo.json";
   public static final String RULES_FILE = "rules.json";
   private static final String STATE = "state";
+  // Hidden, so that it is not listed as a pipeline
+  private static final String CATALOG_SNAPSHOT_FILE = ".catalog.json";
 
   private final StageLibraryTask stageLibrary;
   private final RuntimeInfo runtimeInfo;
@@ -104,6 +107,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private final EventListenerManager eventListenerManager;
   private final PipelineCreator pipelineCreator;
   private final PipelineCredentialHandler encryptingCredentialHandler;
+  private final PipelineInfoCatalog catalog;
 
   @Inject
   public FilePipelineStoreTask(
@@ -121,6 +125,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
     this.buildInfo = buildInfo;
     this.runtimeInfo = runtimeInfo;
     json = ObjectMapperFactory.get();
+    catalog = new PipelineInfoCatalog(json);
     pipelineToRuleDefinitionMap = new ConcurrentHashMap<>();
     this.pipelineStateStore = pipelineStateStore;
     this.lockCache = lockCache;
@@ -158,6 +163,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
         throw new RuntimeException(Utils.format("Could not create directory '{}'", storeDir), e);
       }
     }
+    catalog.load(storeDir.resolve(CATALOG_SNAPSHOT_FILE));
     if (pipelineStateStore != null) {
       pipelineStateStore.init();
     }
@@ -165,6 +171,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
 
   @Override
   public void stopTask() {
+    catalog.save(storeDir.resolve(CATALOG_SNAPSHOT_FILE));
     if (pipelineStateStore != null) {
       pipelineStateStore.destroy();
     }
@@ -239,6 +246,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
           dataStorePipeline.commit(pipelineFile);
           json.writeValue(infoFile, BeanHelper.wrapPipelineInfo(pipeline.getInfo()));
           dataStoreInfo.commit(infoFile);
+          catalog.invalidate(pipelineId);
         } catch (Exception ex) {
           throw new PipelineStoreException(ContainerError.CONTAINER_0202, pipelineId, ex.toString(), ex);
         } finally {
@@ -256,6 +264,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   }
 
   private boolean cleanUp(String name) {
+    catalog.invalidate(name);
     LogUtil.resetRollingFileAppender(name, "0", STATE);
     boolean deleted = PipelineDirectoryUtil.deleteAll(getPipelineDir(name).toFile());
     deleted &= PipelineDirectoryUtil.deletePipelineDir(runtimeInfo, name);
@@ -320,17 +329,31 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
     }
 
     for (String name : fileNames) {
-      PipelineInfoJson pipelineInfoJsonBean;
-      DataStore dataStoreInfo = new DataStore(getInfoFile(name).toFile());
+      pipelineInfoList.add(readInfo(name));
+    }
+    catalog.retainAll(fileNames);
+    return Collections.unmodifiableList(pipelineInfoList);
+  }
+
+  /**
+   * Returns the info of the pipeline from the catalog, reading its info file only if it changed since last time.
+   */
+  private PipelineInfo readInfo(String name) throws PipelineStoreException {
+    Path infoFile = getInfoFile(name);
+    PipelineInfo info = catalog.get(name, PipelineInfoCatalog.readAttributes(infoFile));
+    if (info == null) {
+      DataStore dataStoreInfo = new DataStore(infoFile.toFile());
       syncPipelineWithPipelineInfoIfNeeded(dataStoreInfo, name);
-      try (InputStream infoFile = dataStoreInfo.getInputStream()){
-        pipelineInfoJsonBean = json.readValue(infoFile, PipelineInfoJson.class);
-      } catch (IOException e) {
-        throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, e);
+      // Attributes before contents, if the file changes in between the entry won't match next time
+      BasicFileAttributes attributes = PipelineInfoCatalog.readAttributes(infoFile);
+      try (InputStream is = dataStoreInfo.getInputStream()) {
+        info = json.readValue(is, PipelineInfoJson.class).getPipelineInfo();
+      } catch (Exception ex) {
+        throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, ex);
       }
-      pipelineInfoList.add(pipelineInfoJsonBean.getPipelineInfo());
+      catalog.put(name, attributes, info);
     }
-    return Collections.unmodifiableList(pipelineInfoList);
+    return info;
   }
 
   private void syncPipelineWithPipelineInfoIfNeeded(DataStore dataStoreInfo, String name)
@@ -363,6 +386,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
       try (OutputStream infoFile = dataStoreInfo.getOutputStream()) {
         json.writeValue(infoFile, BeanHelper.wrapPipelineInfo(pipelineConfigBean.getInfo().getPipelineInfo()));
         dataStoreInfo.commit(infoFile);
+        catalog.invalidate(name);
       } finally {
         dataStoreInfo.release();
       }
@@ -375,14 +399,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
       if (!hasPipeline(name)) {
         throw new PipelineStoreException(ContainerError.CONTAINER_0200, name);
       }
-      DataStore dataStoreInfo = new DataStore(getInfoFile(name).toFile());
-      syncPipelineWithPipelineInfoIfNeeded(dataStoreInfo, name);
-      try (InputStream infoFile = dataStoreInfo.getInputStream()) {
-        PipelineInfoJson pipelineInfoJsonBean = json.readValue(infoFile, PipelineInfoJson.class);
-        return pipelineInfoJsonBean.getPipelineInfo();
-      } catch (Exception ex) {
-        throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, ex);
-      }
+      return readInfo(name);
     }
   }
 
@@ -438,6 +455,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
         dataStorePipeline.commit(pipelineFile);
         json.writeValue(infoFile, BeanHelper.wrapPipelineInfo(info));
         dataStoreInfo.commit(infoFile);
+        catalog.invalidate(name);
         if (pipelineStateStore != null) {
           List<Issue> errors = new ArrayList<>();
           PipelineBeanCreator.get().create(pipeline, errors, null, user, new HashMap<>());
@@ -679,6 +697,7 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
         dataStorePipeline.commit(pipelineFile);
         json.writeValue(infoFile, BeanHelper.wrapPipelineInfo(updatedInfo));
         dataStoreInfo.commit(infoFile);
+        catalog.invalidate(name);
       } catch (Exception ex) {
         throw new PipelineStoreException(ContainerError.CONTAINER_0204, name, ex.toString(), ex);
       } finally {
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.io.DataStore;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.PipelineInfoJson;
+import com.streamsets.datacollector.store.PipelineInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory index of the pipeline info files of the file store. An entry is used for as long as its info.json keeps
+ * the size and modification time it had when it was read, anything else is read again from disk.
+ * <p/>
+ * The index is persisted as a single snapshot file when the store stops, so that after a restart the pipeline list is
+ * rebuilt by checking the attributes of each info.json instead of parsing all of them.
+ */
+class PipelineInfoCatalog {
+  private static final Logger LOG = LoggerFactory.getLogger(PipelineInfoCatalog.class);
+
+  // Files left behind by an interrupted DataStore write, the info file has to go through the DataStore recovery
+  private static final String[] DATA_STORE_SUFFIXES = {"-tmp", "-new", "-old"};
+
+  /**
+   * Snapshot entry, the attributes of the info file and its contents.
+   */
+  public static class Entry {
+    private String name;
+    private long lastModified;
+    private long size;
+    private PipelineInfoJson info;
+
+    public Entry() {
+    }
+
+    Entry(String name, BasicFileAttributes attributes, PipelineInfo info) {
+      this.name = name;
+      this.lastModified = attributes.lastModifiedTime().toMillis();
+      this.size = attributes.size();
+      this.info = BeanHelper.wrapPipelineInfo(info);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+      this.lastModified = lastModified;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public void setSize(long size) {
+      this.size = size;
+    }
+
+    public PipelineInfoJson getInfo() {
+      return info;
+    }
+
+    public void setInfo(PipelineInfoJson info) {
+      this.info = info;
+    }
+
+    boolean matches(BasicFileAttributes attributes) {
+      return lastModified == attributes.lastModifiedTime().toMillis() && size == attributes.size();
+    }
+  }
+
+  private final ObjectMapper json;
+  private final ConcurrentMap<String, Entry> entries;
+
+  PipelineInfoCatalog(ObjectMapper json) {
+    this.json = json;
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the attributes of the info file, or null if it does not exist or is in the middle of being recovered.
+   */
+  static BasicFileAttributes readAttributes(Path infoFile) {
+    for (String suffix : DATA_STORE_SUFFIXES) {
+      if (Files.exists(Paths.get(infoFile.toString() + suffix))) {
+        return null;
+      }
+    }
+    try {
+      return Files.readAttributes(infoFile, BasicFileAttributes.class);
+    } catch (IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the cached info of the pipeline if its info file has not changed since it was cached.
+   */
+  PipelineInfo get(String name, BasicFileAttributes attributes) {
+    Entry entry = entries.get(name);
+    if (entry != null && attributes != null && entry.matches(attributes)) {
+      return entry.getInfo().getPipelineInfo();
+    }
+    return null;
+  }
+
+  /**
+   * Caches the info read from the info file, the attributes must have been read before the file itself.
+   */
+  void put(String name, BasicFileAttributes attributes, PipelineInfo info) {
+    if (attributes == null) {
+      entries.remove(name);
+    } else {
+      entries.put(name, new Entry(name, attributes, info));
+    }
+  }
+
+  void invalidate(String name) {
+    entries.remove(name);
+  }
+
+  void retainAll(Collection<String> names) {
+    entries.keySet().retainAll(names);
+  }
+
+  void load(Path snapshotFile) {
+    if (!Files.exists(snapshotFile)) {
+      return;
+    }
+    DataStore dataStore = new DataStore(snapshotFile.toFile());
+    try (InputStream is = dataStore.getInputStream()) {
+      List<Entry> snapshot = json.readValue(is, new TypeReference<List<Entry>>() {});
+      for (Entry entry : snapshot) {
+        entries.put(entry.getName(), entry);
+      }
+      LOG.debug("Loaded {} pipelines from catalog snapshot '{}'", entries.size(), snapshotFile);
+    } catch (Exception ex) {
+      // Not a problem, every pipeline is read from its own info file instead
+      LOG.warn("Could not load pipeline catalog snapshot '{}': {}", snapshotFile, ex.toString(), ex);
+      entries.clear();
+    }
+  }
+
+  void save(Path snapshotFile) {
+    DataStore dataStore = new DataStore(snapshotFile.toFile());
+    try (OutputStream os = dataStore.getOutputStream()) {
+      json.writeValue(os, new ArrayList<>(entries.values()));
+      dataStore.commit(os);
+    } catch (Exception ex) {
+      LOG.warn("Could not save pipeline catalog snapshot '{}': {}", snapshotFile, ex.toString(), ex);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+}
@@ -16,14 +16,54 @@
 package com.streamsets.datacollector.websockets;
 
 import com.streamsets.datacollector.metrics.MetricsEventListener;
+import com.streamsets.datacollector.metrics.MetricsUpdate;
 
 import java.util.Queue;
 
 public class MetricsWebSocket extends BaseWebSocket implements MetricsEventListener {
   public static final String TYPE = "metrics";
+  public static final String DELTA = "delta";
+
+  private final boolean delta;
+  private long lastSequence = -1;
 
   public MetricsWebSocket(ListenerManager<MetricsEventListener> listenerManager, Queue<WebSocketMessage> queue) {
+    this(listenerManager, queue, false);
+  }
+
+  /**
+   * With delta, the socket gets a full snapshot first and then only the metrics that changed, see
+   * {@link MetricsUpdate}.
+   */
+  public MetricsWebSocket(
+      ListenerManager<MetricsEventListener> listenerManager,
+      Queue<WebSocketMessage> queue,
+      boolean delta
+  ) {
     super(TYPE, listenerManager, queue);
+    this.delta = delta;
+  }
+
+  @Override
+  public synchronized void notification(String message) {
+    if (delta) {
+      // Metrics outside of the sequence, the next update is sent whole
+      lastSequence = -1;
+      super.notification(MetricsUpdate.snapshot(lastSequence, message));
+    } else {
+      super.notification(message);
+    }
+  }
+
+  @Override
+  public synchronized void notification(MetricsUpdate update) {
+    if (delta) {
+      String message = update.getMessage(lastSequence);
+      lastSequence = update.getSequence();
+      super.notification(message);
+    } else {
+      super.notification(update.getMetrics());
+    }
   }
 
 }
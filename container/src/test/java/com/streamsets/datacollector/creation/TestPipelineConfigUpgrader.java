@@ -549,4 +549,28 @@ public class TestPipelineConfigUpgrader {
     Assert.assertEquals("transformerEmrConnection.stepConcurrency", upgrade.get(1).getName());
     Assert.assertEquals(1, upgrade.get(1).getValue());
   }
+
+  @Test
+  public void testPipelineConfigUpgradeV23ToV24() throws StageException {
+    PipelineConfigUpgrader pipelineConfigUpgrader = new PipelineConfigUpgrader();
+    TestUpgraderContext context = new TestUpgraderContext("x", "y", "z", 23, 24);
+
+    List<Config> upgrade = pipelineConfigUpgrader.upgrade(new ArrayList<>(), context);
+
+    Assert.assertEquals(1, upgrade.size());
+    Assert.assertEquals("copyOnWriteFanOut", upgrade.get(0).getName());
+    Assert.assertEquals(false, upgrade.get(0).getValue());
+  }
+
+  @Test
+  public void testPipelineConfigUpgradeV24ToV25() throws StageException {
+    PipelineConfigUpgrader pipelineConfigUpgrader = new PipelineConfigUpgrader();
+    TestUpgraderContext context = new TestUpgraderContext("x", "y", "z", 24, 25);
+
+    List<Config> upgrade = pipelineConfigUpgrader.upgrade(new ArrayList<>(), context);
+
+    Assert.assertEquals(1, upgrade.size());
+    Assert.assertEquals("originPrefetchDepth", upgrade.get(0).getName());
+    Assert.assertEquals(0, upgrade.get(0).getValue());
+  }
 }
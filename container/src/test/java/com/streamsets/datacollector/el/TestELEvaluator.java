@@ -201,4 +201,65 @@ public class TestELEvaluator {
     elEval.eval(elEval.createVariables(), "${implicitOnly:f()}", String.class);
   }
 
+  public static class ArgumentsEl {
+    @ElFunction(prefix = "math", name = "add")
+    public static int add(int a, int b) {
+      return a + b;
+    }
+
+    @ElFunction(prefix = "math", name = "fail")
+    public static int fail() {
+      throw new IllegalStateException("Failed on purpose");
+    }
+  }
+
+  @Test
+  public void testCompiledExpressionsReuse() throws ELEvalException {
+    ELEval elEval = new ELEvaluator("compiled", false, elDefinitionExtractor, ArgumentsEl.class);
+    ELVars variables = elEval.createVariables();
+    for (int i = 0; i < 3; i++) {
+      variables.addVariable("x", i);
+      Assert.assertEquals(i + 3, (int) elEval.eval(variables, "${math:add(x, '3')}", Integer.class));
+      Assert.assertEquals("x=" + i + "!", elEval.eval(variables, "x=${x}!", String.class));
+      Assert.assertEquals(i > 0 ? "yes" : "no", elEval.eval(variables, "${x > 0 ? 'yes' : 'no'}", String.class));
+    }
+  }
+
+  @Test
+  public void testCompiledExpressionsEvictLeastRecentlyUsed() throws Exception {
+    ELEvaluator elEval = new ELEvaluator("compiled", false, elDefinitionExtractor, ArgumentsEl.class);
+    ELVars variables = elEval.createVariables();
+    variables.addVariable("x", 1);
+    String hot = "${math:add(x, 1)}";
+    Object compiled = elEval.getCompiledExpression(hot);
+    for (int i = 0; i < 5000; i++) {
+      // Expression generated per record next to one evaluated for every record
+      Assert.assertEquals(i + 1, (int) elEval.eval(variables, "${math:add(x, " + i + ")}", Integer.class));
+      Assert.assertEquals(2, (int) elEval.eval(variables, hot, Integer.class));
+    }
+    Assert.assertTrue(elEval.getCompiledExpressionCount() <= 1000);
+    Assert.assertSame(compiled, elEval.getCompiledExpression(hot));
+  }
+
+  @Test
+  public void testCompiledExpressionsErrors() throws ELEvalException {
+    ELEval elEval = new ELEvaluator("compiled", false, elDefinitionExtractor, ArgumentsEl.class);
+    ELVars variables = elEval.createVariables();
+
+    // Unknown function is reported only when it's actually called
+    Assert.assertEquals(1, (int) elEval.eval(variables, "${true ? 1 : unknown:fn()}", Integer.class));
+    try {
+      elEval.eval(variables, "${unknown:fn()}", Integer.class);
+      Assert.fail("Expected ELEvalException");
+    } catch (ELEvalException e) {
+      // Expected
+    }
+
+    try {
+      elEval.eval(variables, "${math:fail()}", Integer.class);
+      Assert.fail("Expected ELEvalException");
+    } catch (ELEvalException e) {
+      Assert.assertTrue(e.getMessage().contains("Failed on purpose"));
+    }
+  }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestBoundedErrorRing {
+
+  private static BoundedErrorRing<String> createRing(int capacity, long maxBytes, List<String> evicted) {
+    return new BoundedErrorRing<>(capacity, maxBytes, String::length, evicted::add);
+  }
+
+  @Test
+  public void testCountLimit() {
+    List<String> evicted = new ArrayList<>();
+    BoundedErrorRing<String> ring = createRing(3, Long.MAX_VALUE, evicted);
+    for (String s : ImmutableList.of("a", "b", "c", "d", "e")) {
+      ring.add(s);
+    }
+    Assert.assertEquals(ImmutableList.of("c", "d", "e"), ring.get(0, 10));
+    Assert.assertEquals(ImmutableList.of("a", "b"), evicted);
+    Assert.assertEquals(3, ring.size());
+    Assert.assertEquals(3, ring.getBytes());
+  }
+
+  @Test
+  public void testByteLimit() {
+    List<String> evicted = new ArrayList<>();
+    BoundedErrorRing<String> ring = createRing(10, 5, evicted);
+    ring.add("aa");
+    ring.add("bb");
+    ring.add("ccc");
+    Assert.assertEquals(ImmutableList.of("bb", "ccc"), ring.get(0, 10));
+    Assert.assertEquals(ImmutableList.of("aa"), evicted);
+    Assert.assertEquals(5, ring.getBytes());
+
+    // Too large to be kept at all
+    ring.add("dddddd");
+    Assert.assertEquals(ImmutableList.of("bb", "ccc"), ring.get(0, 10));
+    Assert.assertEquals(ImmutableList.of("aa", "dddddd"), evicted);
+  }
+
+  @Test
+  public void testPaging() {
+    BoundedErrorRing<String> ring = createRing(5, Long.MAX_VALUE, new ArrayList<>());
+    for (String s : ImmutableList.of("a", "b", "c", "d", "e", "f")) {
+      ring.add(s);
+    }
+    Assert.assertEquals(ImmutableList.of("b", "c"), ring.get(0, 2));
+    Assert.assertEquals(ImmutableList.of("d", "e"), ring.get(2, 2));
+    Assert.assertEquals(ImmutableList.of("f"), ring.get(4, 2));
+    Assert.assertEquals(Collections.emptyList(), ring.get(5, 2));
+  }
+
+  @Test
+  public void testZeroCapacity() {
+    List<String> evicted = new ArrayList<>();
+    BoundedErrorRing<String> ring = createRing(0, Long.MAX_VALUE, evicted);
+    ring.add("a");
+    Assert.assertEquals(Collections.emptyList(), ring.get(0, 10));
+    Assert.assertEquals(Collections.emptyList(), evicted);
+    Assert.assertEquals(0, ring.size());
+  }
+
+  @Test
+  public void testConcurrentAdds() throws Exception {
+    int threads = 4;
+    int perThread = 10000;
+    List<String> evicted = Collections.synchronizedList(new ArrayList<>());
+    BoundedErrorRing<String> ring = createRing(100, 250, evicted);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < perThread; i++) {
+            ring.add(thread + "-" + i);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Every element is either retained or was handed to the listener, exactly once
+    List<String> retained = ring.get(0, Integer.MAX_VALUE);
+    Set<String> all = new HashSet<>(retained);
+    all.addAll(evicted);
+    Assert.assertEquals(threads * perThread, all.size());
+    Assert.assertEquals(threads * perThread, retained.size() + evicted.size());
+    Assert.assertTrue(retained.size() <= 100);
+    Assert.assertEquals(retained.stream().mapToLong(String::length).sum(), ring.getBytes());
+    Assert.assertTrue(ring.getBytes() <= 250);
+  }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+
+public class TestErrorRecordSpill {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static Record createRecord(int i) {
+    Record record = new RecordImpl("s", "id" + i, null, null);
+    record.set(Field.create(i));
+    return record;
+  }
+
+  @Test
+  public void testAppendAndRead() throws Exception {
+    File dir = new File(tempFolder.getRoot(), "s");
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 1024 * 1024)) {
+      for (int i = 0; i < 10; i++) {
+        spill.append(createRecord(i));
+      }
+      // Nothing is readable until it is flushed
+      Assert.assertTrue(spill.read(0, 100).isEmpty());
+      spill.flush();
+      List<Record> page = spill.read(0, 3);
+      Assert.assertEquals(3, page.size());
+      Assert.assertEquals(0, page.get(0).get().getValueAsInteger());
+      Assert.assertEquals("id0", page.get(0).getHeader().getSourceId());
+
+      page = spill.read(8, 5);
+      Assert.assertEquals(2, page.size());
+      Assert.assertEquals(9, page.get(1).get().getValueAsInteger());
+
+      // Unflushed records are left out
+      spill.append(createRecord(10));
+      Assert.assertEquals(10, spill.read(0, 100).size());
+
+      // Still readable once closed, closing flushes
+      spill.close();
+      Assert.assertEquals(11, spill.read(0, 100).size());
+    }
+  }
+
+  @Test
+  public void testBudget() throws Exception {
+    File dir = new File(tempFolder.getRoot(), "s");
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 16 * 1024)) {
+      for (int i = 0; i < 5000; i++) {
+        spill.append(createRecord(i));
+      }
+      spill.flush();
+      // The oldest records were dropped, the most recent ones are all there and in order
+      List<Record> page = spill.read(0, Integer.MAX_VALUE);
+      Assert.assertTrue(page.size() < 5000);
+      int first = page.get(0).get().getValueAsInteger();
+      Assert.assertTrue(first > 0);
+      for (int i = 0; i < page.size(); i++) {
+        Assert.assertEquals(first + i, page.get(i).get().getValueAsInteger());
+      }
+      Assert.assertEquals(4999, page.get(page.size() - 1).get().getValueAsInteger());
+    }
+  }
+
+  @Test
+  public void testPreviousRunIsDropped() throws Exception {
+    File dir = new File(tempFolder.getRoot(), "s");
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 1024 * 1024)) {
+      spill.append(createRecord(1));
+    }
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 1024 * 1024)) {
+      Assert.assertTrue(spill.read(0, 100).isEmpty());
+    }
+  }
+
+  @Test
+  public void testSize() throws Exception {
+    File dir = new File(tempFolder.getRoot(), "s");
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 16 * 1024)) {
+      Assert.assertEquals(0, spill.size());
+      spill.append(createRecord(0));
+      Assert.assertEquals(0, spill.size());
+      spill.flush();
+      Assert.assertEquals(1, spill.size());
+      // Rolls over segments, the size only counts the records that are still there
+      for (int i = 1; i < 5000; i++) {
+        spill.append(createRecord(i));
+      }
+      spill.flush();
+      Assert.assertTrue(spill.size() < 5000);
+      Assert.assertEquals(spill.read(0, Integer.MAX_VALUE).size(), spill.size());
+    }
+  }
+
+  @Test
+  public void testReadLatest() throws Exception {
+    File dir = new File(tempFolder.getRoot(), "s");
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 1024 * 1024)) {
+      for (int i = 0; i < 10; i++) {
+        spill.append(createRecord(i));
+      }
+      spill.flush();
+      List<Record> page = spill.readLatest(0, 3);
+      Assert.assertEquals(3, page.size());
+      Assert.assertEquals(9, page.get(0).get().getValueAsInteger());
+      Assert.assertEquals(7, page.get(2).get().getValueAsInteger());
+
+      page = spill.readLatest(8, 5);
+      Assert.assertEquals(2, page.size());
+      Assert.assertEquals(1, page.get(0).get().getValueAsInteger());
+      Assert.assertEquals(0, page.get(1).get().getValueAsInteger());
+
+      Assert.assertTrue(spill.readLatest(10, 5).isEmpty());
+    }
+  }
+
+  @Test
+  public void testPageRetainedBeforeSpilled() throws Exception {
+    File dir = new File(tempFolder.getRoot(), "s");
+    try (ErrorRecordSpill spill = new ErrorRecordSpill(dir, 1024 * 1024)) {
+      // The ring keeps the 3 most recent records, the older ones are spilled
+      BoundedErrorRing<Record> ring = new BoundedErrorRing<>(3, Long.MAX_VALUE, record -> 1, record -> {
+        try {
+          spill.append(record);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      for (int i = 0; i < 10; i++) {
+        ring.add(createRecord(i));
+      }
+
+      // Spilled records that were not flushed yet are not listed, the read does not wait for them
+      List<Record> page = ProductionPipelineRunner.getErrorRecords(Optional.of(spill), ring, 0, 100);
+      Assert.assertEquals(3, page.size());
+      spill.flush();
+
+      // The retained records come first, then the spilled ones from the newest to the oldest
+      page = ProductionPipelineRunner.getErrorRecords(Optional.of(spill), ring, 0, 100);
+      Assert.assertEquals(10, page.size());
+      int[] expected = {7, 8, 9, 6, 5, 4, 3, 2, 1, 0};
+      for (int i = 0; i < expected.length; i++) {
+        Assert.assertEquals(expected[i], page.get(i).get().getValueAsInteger());
+      }
+
+      // A page across the ring and the spill
+      page = ProductionPipelineRunner.getErrorRecords(Optional.of(spill), ring, 2, 4);
+      Assert.assertEquals(4, page.size());
+      Assert.assertEquals(9, page.get(0).get().getValueAsInteger());
+      Assert.assertEquals(4, page.get(3).get().getValueAsInteger());
+
+      // A page only from the spill
+      page = ProductionPipelineRunner.getErrorRecords(Optional.of(spill), ring, 8, 4);
+      Assert.assertEquals(2, page.size());
+      Assert.assertEquals(1, page.get(0).get().getValueAsInteger());
+      Assert.assertEquals(0, page.get(1).get().getValueAsInteger());
+
+      page = ProductionPipelineRunner.getErrorRecords(Optional.empty(), ring, 0, 4);
+      Assert.assertEquals(3, page.size());
+      Assert.assertEquals(7, page.get(0).get().getValueAsInteger());
+    }
+  }
+
+}
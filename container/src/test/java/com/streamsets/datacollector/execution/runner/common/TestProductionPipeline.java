@@ -43,6 +43,7 @@ import com.streamsets.datacollector.usagestats.StatsCollector;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.PipelineDirectoryUtil;
+import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.datacollector.util.TestUtil;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.pipeline.api.Batch;
@@ -88,10 +89,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Exchanger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TestProductionPipeline {
 
@@ -286,6 +290,140 @@ public class TestProductionPipeline {
     Assert.assertTrue(capture.lastBatchTime < endTime);
   }
 
+  /**
+   * Offset tracker keeping all the committed origin offsets.
+   */
+  private static class CommitCaptureOffsetTracker extends TestUtil.SourceOffsetTrackerImpl {
+    final List<String> committedOffsets = Collections.synchronizedList(new ArrayList<>());
+
+    CommitCaptureOffsetTracker() {
+      super(Collections.singletonMap(Source.POLL_SOURCE_OFFSET_KEY, "1"));
+    }
+
+    @Override
+    public void commitOffset(String entity, String newOffset) {
+      if (Source.POLL_SOURCE_OFFSET_KEY.equals(entity)) {
+        committedOffsets.add(newOffset);
+      }
+      super.commitOffset(entity, newOffset);
+    }
+  }
+
+  /**
+   * Origin producing a single record with the last offset as value for offsets 1 to 5.
+   */
+  private static class PrefetchSource extends BaseSource {
+    final List<String> receivedOffsets = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      receivedOffsets.add(lastSourceOffset);
+      Record record = getContext().createRecord(lastSourceOffset);
+      record.set(Field.create(lastSourceOffset));
+      batchMaker.addRecord(record);
+      int next = Integer.parseInt(lastSourceOffset) + 1;
+      return next <= 5 ? String.valueOf(next) : null;
+    }
+  }
+
+  @Test
+  public void testProductionRunWithOriginPrefetch() throws Exception {
+    // Second batch is produced while the first one is still being processed
+    CountDownLatch secondBatchProduced = new CountDownLatch(1);
+    PrefetchSource source = new PrefetchSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        String newOffset = super.produce(lastSourceOffset, maxBatchSize, batchMaker);
+        if (receivedOffsets.size() == 2) {
+          secondBatchProduced.countDown();
+        }
+        return newOffset;
+      }
+    };
+    CommitCaptureOffsetTracker tracker = new CommitCaptureOffsetTracker();
+    List<String> processedBatches = Collections.synchronizedList(new ArrayList<>());
+    List<String> committedWhenProcessed = Collections.synchronizedList(new ArrayList<>());
+    AtomicBoolean overlapped = new AtomicBoolean(false);
+    MockStages.setSourceCapture(source);
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        processedBatches.add(batch.getRecords().next().get().getValueAsString());
+        committedWhenProcessed.add(tracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+        if (processedBatches.size() == 1) {
+          try {
+            overlapped.set(secondBatchProduced.await(10, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    });
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    lastCreatedRunner.setOriginPrefetchDepth(2);
+    lastCreatedRunner.setOffsetTracker(tracker);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+
+    Assert.assertTrue("Origin did not produce while the pipeline was processing", overlapped.get());
+    // Origin always continues from the offset of the batch it produced last
+    Assert.assertEquals(ImmutableList.of("1", "2", "3", "4", "5"), source.receivedOffsets);
+    // Batches are processed in the order they were produced, each one once the previous offset was committed
+    Assert.assertEquals(ImmutableList.of("1", "2", "3", "4", "5"), processedBatches);
+    Assert.assertEquals(ImmutableList.of("1", "2", "3", "4", "5"), committedWhenProcessed);
+    Assert.assertEquals(Arrays.asList("2", "3", "4", "5", null), tracker.committedOffsets);
+    Assert.assertTrue(pipeline.getCommittedOffsets().isEmpty());
+  }
+
+  @Test
+  public void testOriginPrefetchStopLetsOriginFinishBatch() throws Exception {
+    AtomicBoolean originInterrupted = new AtomicBoolean(false);
+    AtomicBoolean secondBatchProduced = new AtomicBoolean(false);
+    CountDownLatch secondBatchStarted = new CountDownLatch(1);
+    PrefetchSource source = new PrefetchSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        String newOffset = super.produce(lastSourceOffset, maxBatchSize, batchMaker);
+        if (receivedOffsets.size() == 2) {
+          // Still producing when the pipeline stops after the first batch
+          secondBatchStarted.countDown();
+          try {
+            Thread.sleep(1000);
+          } catch (InterruptedException e) {
+            originInterrupted.set(true);
+            Thread.currentThread().interrupt();
+          }
+          secondBatchProduced.set(true);
+        }
+        return newOffset;
+      }
+    };
+    CommitCaptureOffsetTracker tracker = new CommitCaptureOffsetTracker();
+    MockStages.setSourceCapture(source);
+    MockStages.setProcessorCapture(new BaseProcessor() {
+      @Override
+      public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+        try {
+          Assert.assertTrue(secondBatchStarted.await(10, TimeUnit.SECONDS));
+          lastCreatedRunner.stop();
+        } catch (InterruptedException | PipelineException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    lastCreatedRunner.setOriginPrefetchDepth(2);
+    lastCreatedRunner.setOffsetTracker(tracker);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+
+    // The batch being produced was finished, not interrupted, and then dropped without committing its offset
+    Assert.assertTrue(secondBatchProduced.get());
+    Assert.assertFalse(originInterrupted.get());
+    Assert.assertEquals(ImmutableList.of("1", "2"), source.receivedOffsets);
+    Assert.assertEquals(ImmutableList.of("2"), tracker.committedOffsets);
+  }
+
   @Test
   public void testNoRerunOnJVMError() throws Exception {
     SourceOffsetTrackerCapture capture = new SourceOffsetTrackerCapture() {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestHdrHistogramReservoir {
+
+  private static class ManualClock extends Clock {
+    long tick;
+
+    @Override
+    public long getTick() {
+      return tick;
+    }
+  }
+
+  @Test
+  public void testSnapshot() {
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir(60, TimeUnit.SECONDS, new ManualClock());
+    Assert.assertEquals(0, reservoir.size());
+    Assert.assertEquals(0, reservoir.getSnapshot().getMax());
+    Assert.assertEquals(0.0, reservoir.getSnapshot().getMean(), 0.0);
+
+    for (int i = 1; i <= 100; i++) {
+      reservoir.update(i);
+    }
+    Snapshot snapshot = reservoir.getSnapshot();
+    Assert.assertEquals(100, snapshot.size());
+    Assert.assertEquals(1, snapshot.getMin());
+    Assert.assertEquals(100, snapshot.getMax());
+    Assert.assertEquals(50.5, snapshot.getMean(), 0.5);
+    Assert.assertEquals(50, snapshot.getMedian(), 1);
+    Assert.assertEquals(99, snapshot.get99thPercentile(), 1);
+    Assert.assertEquals(100, snapshot.getValues().length);
+  }
+
+  @Test
+  public void testNegativeValue() {
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir(60, TimeUnit.SECONDS, new ManualClock());
+    reservoir.update(-5);
+    Assert.assertEquals(1, reservoir.size());
+    Assert.assertEquals(0, reservoir.getSnapshot().getMax());
+  }
+
+  @Test
+  public void testWindow() {
+    ManualClock clock = new ManualClock();
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir(60, TimeUnit.SECONDS, clock);
+    reservoir.update(1000);
+    clock.tick = TimeUnit.SECONDS.toNanos(30);
+    reservoir.update(10);
+    Assert.assertEquals(2, reservoir.size());
+    Assert.assertEquals(1000, reservoir.getSnapshot().getMax(), 10);
+
+    // First value is out of the window
+    clock.tick = TimeUnit.SECONDS.toNanos(80);
+    Assert.assertEquals(1, reservoir.size());
+    Assert.assertEquals(10, reservoir.getSnapshot().getMax());
+
+    // Chunks are reused once the window moves past them
+    clock.tick = TimeUnit.SECONDS.toNanos(300);
+    reservoir.update(20);
+    Assert.assertEquals(1, reservoir.size());
+    Assert.assertEquals(20, reservoir.getSnapshot().getMax());
+  }
+
+}
@@ -20,12 +20,17 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.json.MetricsObjectMapperFactory;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
+import com.streamsets.datacollector.util.Configuration;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class TestMetricsConfigurator {
 
@@ -148,4 +153,36 @@ public class TestMetricsConfigurator {
     Assert.assertEquals("a.histogramM5", entry.getKey());
   }
 
+  @Test
+  public void testHdrBackend() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.set(MetricsConfigurator.METRICS_BACKEND_KEY, MetricsConfigurator.METRICS_BACKEND_HDR);
+    MetricsConfigurator.configureBackend(configuration);
+    try {
+      MetricRegistry metrics = new MetricRegistry();
+      Timer timer = MetricsConfigurator.createTimer(metrics, "a", "name", "0");
+      Meter meter = MetricsConfigurator.createMeter(metrics, "a", "name", "0");
+      Histogram histogram = MetricsConfigurator.createHistogram5Min(metrics, "a", "name", "0");
+      Assert.assertTrue(meter instanceof StripedMeter);
+
+      timer.update(5, TimeUnit.MILLISECONDS);
+      meter.mark(3);
+      histogram.update(7);
+      Assert.assertEquals(1, timer.getSnapshot().size());
+      Assert.assertEquals(3, meter.getCount());
+      Assert.assertEquals(7, histogram.getSnapshot().getMax());
+
+      // Same JSON as the default backend
+      ObjectMapper objectMapper = MetricsObjectMapperFactory.get();
+      JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(metrics));
+      Assert.assertEquals(3, json.get("meters").get("a.meter").get("count").asInt());
+      Assert.assertTrue(json.get("meters").get("a.meter").has("h24_rate"));
+      Assert.assertEquals(1, json.get("timers").get("a.timer").get("count").asInt());
+      Assert.assertEquals(7, json.get("histograms").get("a.histogramM5").get("max").asInt());
+    } finally {
+      MetricsConfigurator.configureBackend(new Configuration());
+    }
+    Assert.assertFalse(MetricsConfigurator.createMeter(new MetricRegistry(), "a", "name", "0") instanceof StripedMeter);
+  }
+
 }
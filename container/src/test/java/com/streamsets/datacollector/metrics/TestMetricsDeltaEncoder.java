@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.execution.EventListenerManager;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMetricsDeltaEncoder {
+  private final ObjectMapper objectMapper = ObjectMapperFactory.get();
+
+  private static String metrics(long count, String gauge) {
+    return "{\"version\":\"3.0.0\",\"counters\":{\"a.counter\":{\"count\":" + count + "},\"b.counter\":{\"count\":1}}," +
+        "\"gauges\":{" + gauge + "}}";
+  }
+
+  @Test
+  public void testSnapshotThenDelta() throws Exception {
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+
+    MetricsUpdate first = encoder.encode(metrics(1, "\"g\":{\"value\":1}"));
+    JsonNode message = objectMapper.readTree(first.getMessage(-1));
+    Assert.assertTrue(message.get("full").asBoolean());
+    Assert.assertEquals(first.getSequence(), message.get("sequence").asLong());
+    Assert.assertEquals(objectMapper.readTree(first.getMetrics()), message.get("metrics"));
+
+    MetricsUpdate second = encoder.encode(metrics(2, ""));
+    Assert.assertEquals(first.getSequence() + 1, second.getSequence());
+    message = objectMapper.readTree(second.getMessage(first.getSequence()));
+    Assert.assertFalse(message.get("full").asBoolean());
+    Assert.assertEquals(first.getSequence(), message.get("base").asLong());
+    JsonNode changed = message.get("metrics");
+    Assert.assertEquals(1, changed.size());
+    Assert.assertEquals(1, changed.get("counters").size());
+    Assert.assertEquals(2, changed.get("counters").get("a.counter").get("count").asLong());
+    Assert.assertEquals("g", message.get("removed").get("gauges").get(0).asText());
+
+    // Listener that is not in sync gets everything
+    message = objectMapper.readTree(second.getMessage(-1));
+    Assert.assertTrue(message.get("full").asBoolean());
+  }
+
+  @Test
+  public void testSkippedRefresh() throws Exception {
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+    MetricsUpdate first = encoder.encode(metrics(1, ""));
+    first.getMessage(-1);
+    // Nobody asked for this one
+    encoder.encode(metrics(2, ""));
+    MetricsUpdate third = encoder.encode(metrics(3, ""));
+
+    // The delta is against the last update that was computed
+    JsonNode message = objectMapper.readTree(third.getMessage(first.getSequence()));
+    Assert.assertFalse(message.get("full").asBoolean());
+    Assert.assertEquals(first.getSequence(), message.get("base").asLong());
+    Assert.assertEquals(3, message.get("metrics").get("counters").get("a.counter").get("count").asLong());
+  }
+
+  @Test
+  public void testLongPollListener() throws Exception {
+    EventListenerManager eventListenerManager = new EventListenerManager();
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+    MetricsUpdate first = encoder.encode(metrics(1, ""));
+
+    MetricsLongPollListener listener = new MetricsLongPollListener(-1);
+    Assert.assertNull(listener.await(1));
+    eventListenerManager.addMetricsEventListener("p", listener);
+    eventListenerManager.broadcastMetrics("p", first);
+    Assert.assertTrue(objectMapper.readTree(listener.await(1)).get("full").asBoolean());
+
+    listener = new MetricsLongPollListener(first.getSequence());
+    eventListenerManager.addMetricsEventListener("p", listener);
+    eventListenerManager.broadcastMetrics("p", encoder.encode(metrics(2, "")));
+    Assert.assertFalse(objectMapper.readTree(listener.await(1)).get("full").asBoolean());
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Clock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestStripedMeter {
+
+  private static class ManualClock extends Clock {
+    long tick;
+
+    @Override
+    public long getTick() {
+      return tick;
+    }
+  }
+
+  @Test
+  public void testSameRatesAsExtendedMeter() {
+    ManualClock clock = new ManualClock();
+    ExtendedMeter expected = new ExtendedMeter(clock);
+    StripedMeter meter = new StripedMeter(clock);
+    for (int i = 0; i < 1000; i++) {
+      clock.tick += TimeUnit.MILLISECONDS.toNanos(700);
+      expected.mark(i % 7);
+      meter.mark(i % 7);
+    }
+    clock.tick += TimeUnit.SECONDS.toNanos(6);
+
+    Assert.assertEquals(expected.getCount(), meter.getCount());
+    Assert.assertEquals(expected.getMeanRate(), meter.getMeanRate(), 0.0001);
+    Assert.assertEquals(expected.getOneMinuteRate(), meter.getOneMinuteRate(), 0.0001);
+    Assert.assertEquals(expected.getFiveMinuteRate(), meter.getFiveMinuteRate(), 0.0001);
+    Assert.assertEquals(expected.getFifteenMinuteRate(), meter.getFifteenMinuteRate(), 0.0001);
+    Assert.assertEquals(expected.getThirtyMinuteRate(), meter.getThirtyMinuteRate(), 0.0001);
+    Assert.assertEquals(expected.getOneHourRate(), meter.getOneHourRate(), 0.0001);
+    Assert.assertEquals(expected.getSixHourRate(), meter.getSixHourRate(), 0.0001);
+    Assert.assertEquals(expected.getTwelveHourRate(), meter.getTwelveHourRate(), 0.0001);
+    Assert.assertEquals(expected.getTwentyFourHourRate(), meter.getTwentyFourHourRate(), 0.0001);
+  }
+
+  @Test
+  public void testConcurrentMarks() throws Exception {
+    StripedMeter meter = new StripedMeter();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 10000; j++) {
+          meter.mark();
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(40000, meter.getCount());
+  }
+
+}
@@ -31,6 +31,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestRecordImpl {
 
@@ -182,6 +183,41 @@ public class TestRecordImpl {
     Assert.assertNotSame(clone, record);
   }
 
+  @Test
+  public void testCloneCopyOnWrite() {
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    record.set(Field.create(new HashMap<String, Field>()));
+    record.set("/a", Field.create("A"));
+    record.getHeader().setAttribute("a", "A");
+
+    AtomicInteger materialized = new AtomicInteger();
+    RecordImpl copy = record.cloneCopyOnWrite(materialized::incrementAndGet);
+    Assert.assertEquals(record, copy);
+    Assert.assertNotSame(record, copy);
+    Assert.assertSame(record.get(), copy.get());
+    Assert.assertTrue(record.sharesFields());
+    Assert.assertTrue(copy.sharesFields());
+
+    // Header is never shared
+    copy.getHeader().setAttribute("a", "B");
+    Assert.assertEquals("A", record.getHeader().getAttribute("a"));
+
+    // Modification through the record API gives the copy its own fields
+    copy.set("/b", Field.create("B"));
+    Assert.assertEquals(1, materialized.get());
+    Assert.assertFalse(copy.sharesFields());
+    Assert.assertNotSame(record.get(), copy.get());
+    Assert.assertFalse(record.has("/b"));
+    Assert.assertTrue(copy.has("/b"));
+
+    // The last record sharing the fields keeps them without copying
+    Field original = record.get();
+    Assert.assertFalse(record.materialize());
+    Assert.assertFalse(record.sharesFields());
+    Assert.assertSame(original, record.get());
+    Assert.assertEquals(1, materialized.get());
+  }
+
   // tests for field-path expressions
 
   @Test
@@ -729,4 +765,89 @@ public class TestRecordImpl {
     Assert.assertEquals(fieldNames, ImmutableSet.of("", "string", "map", "inner", "list"));
 
   }
+
+  @Test
+  public void testEscapedFieldPathsIndex() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    Assert.assertTrue(r.getEscapedFieldPaths().isEmpty());
+    Assert.assertEquals(0, r.hashCode());
+
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("a", Field.create(1));
+    map.put("b c", Field.create(new ArrayList<>(ImmutableList.of(Field.create(2), Field.create(3)))));
+    r.set(Field.create(map));
+    List<String> expected = ImmutableList.of("", "/a", "/'b c'", "/'b c'[0]", "/'b c'[1]");
+    Assert.assertEquals(expected, r.getEscapedFieldPathsOrdered());
+    Assert.assertEquals(new HashSet<>(expected), r.getEscapedFieldPaths());
+    Assert.assertEquals(new HashSet<>(expected).hashCode(), r.hashCode());
+    FieldPathIndex index = r.getPathIndex();
+    Assert.assertSame(index, r.getPathIndex());
+
+    // Returned collections are copies
+    r.getEscapedFieldPaths().clear();
+    Assert.assertEquals(expected, r.getEscapedFieldPathsOrdered());
+
+    // Modifications through the record API
+    r.set("/d", Field.create(4));
+    Assert.assertEquals(ImmutableList.of("", "/a", "/'b c'", "/'b c'[0]", "/'b c'[1]", "/d"),
+        r.getEscapedFieldPathsOrdered());
+    r.delete("/'b c'[0]");
+    Assert.assertEquals(ImmutableList.of("", "/a", "/'b c'", "/'b c'[0]", "/d"), r.getEscapedFieldPathsOrdered());
+
+    // Modifications done directly on the field tree
+    index = r.getPathIndex();
+    r.get("/'b c'").getValueAsList().add(Field.create(5));
+    Assert.assertEquals(ImmutableList.of("", "/a", "/'b c'", "/'b c'[0]", "/'b c'[1]", "/d"),
+        r.getEscapedFieldPathsOrdered());
+    Assert.assertNotSame(index, r.getPathIndex());
+
+    r.get().getValueAsMap().put("a", Field.create(ImmutableMap.of("x", Field.create(1))));
+    Assert.assertEquals(ImmutableList.of("", "/a", "/a/x", "/'b c'", "/'b c'[0]", "/'b c'[1]", "/d"),
+        r.getEscapedFieldPathsOrdered());
+
+    Field d = r.get().getValueAsMap().remove("d");
+    r.get().getValueAsMap().put("e", d);
+    Assert.assertEquals(ImmutableList.of("", "/a", "/a/x", "/'b c'", "/'b c'[0]", "/'b c'[1]", "/e"),
+        r.getEscapedFieldPathsOrdered());
+
+    // Copy-on-write copies share the index until modified
+    RecordImpl copy = r.cloneCopyOnWrite(null);
+    Assert.assertSame(r.getPathIndex(), copy.getPathIndex());
+    Assert.assertEquals(r.hashCode(), copy.hashCode());
+    copy.delete("/e");
+    Assert.assertFalse(copy.getEscapedFieldPaths().contains("/e"));
+    Assert.assertTrue(r.getEscapedFieldPaths().contains("/e"));
+  }
+
+  @Test
+  public void testGetThroughPathIndex() {
+    RecordImpl r = new RecordImpl("stage", "source", null, null);
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("a", Field.create(1));
+    map.put("b c", Field.create(new ArrayList<>(ImmutableList.of(Field.create(2), Field.create(3)))));
+    r.set(Field.create(map));
+    FieldPathIndex index = r.getPathIndex();
+
+    // Escaped paths known to the index and paths written differently resolve to the same fields
+    Assert.assertSame(index.get("/a"), r.get("/a"));
+    Assert.assertSame(index.get("/'b c'[1]"), r.get("/'b c'[1]"));
+    Assert.assertSame(r.get("/a"), r.get("/'a'"));
+    Assert.assertNull(r.get("/x"));
+    Assert.assertTrue(r.has("/'b c'[0]"));
+    Assert.assertFalse(r.has("/'b c'[2]"));
+
+    // Scalar fields can't be modified, getting them keeps the index
+    Assert.assertSame(index, r.getPathIndex());
+
+    // A list was handed out, lookups don't trust the index until it is checked again
+    r.get("/'b c'").getValueAsList().set(0, Field.create(4));
+    Assert.assertEquals(4, r.get("/'b c'[0]").getValueAsInteger());
+    Assert.assertNotSame(index, r.getPathIndex());
+    Assert.assertEquals(4, r.getPathIndex().get("/'b c'[0]").getValueAsInteger());
+
+    // Modifications through the record API drop the index
+    r.set("/a", Field.create(5));
+    Assert.assertEquals(5, r.get("/a").getValueAsInteger());
+    Assert.assertEquals(5, r.getPathIndex().get("/a").getValueAsInteger());
+  }
 }
@@ -23,6 +23,7 @@ import com.streamsets.datacollector.creation.PipelineBeanCreator;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.validation.Issue;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 
 import com.streamsets.pipeline.api.interceptor.BaseInterceptor;
@@ -32,6 +33,7 @@ import org.mockito.Mockito;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -304,6 +306,50 @@ public class TestPipeBatch {
     assertEquals("A", snapshot.get("y").get(0).getHeader().getAttribute("a"));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMoveLaneCopyOnWrite() throws Exception {
+    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, -1, false);
+    pipeBatch.setCopyOnWriteFanOut(true);
+
+    PipelineBean pipelineBean = getPipelineBean();
+    StageRuntime[] stages = {
+      new StageRuntime(pipelineBean, pipelineBean.getOrigin(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), null, null),
+      new StageRuntime(pipelineBean, pipelineBean.getPipelineStageBeans().getStages().get(0), Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), null, null)
+    };
+
+    StageContext context = Mockito.mock(StageContext.class);
+    Mockito.when(context.isPreview()).thenReturn(false);
+    stages[0].setContext(context);
+
+    List<String> stageOutputLanes = stages[0].getConfiguration().getOutputLanes();
+    StagePipe pipe = new StagePipe(stages[0], Collections.EMPTY_LIST,
+      LaneResolver.getPostFixed(stageOutputLanes, LaneResolver.STAGE_OUT), Collections.EMPTY_LIST);
+
+    BatchMakerImpl batchMaker = pipeBatch.startStage(pipe);
+    Record record = new RecordImpl("i", "source", null, null);
+    record.set(Field.create(new HashMap<String, Field>()));
+    record.set("/a", Field.create("A"));
+    batchMaker.addRecord(record, stageOutputLanes.get(0));
+    pipeBatch.completeStage(batchMaker);
+
+    Record origRecord = pipeBatch.getFullPayload().get(pipe.getOutputLanes().get(0)).get(0);
+    pipeBatch.moveLaneCopying(pipe.getOutputLanes().get(0), ImmutableList.of("x", "y"));
+    RecordImpl recordX = (RecordImpl) pipeBatch.getFullPayload().get("x").get(0);
+    RecordImpl recordY = (RecordImpl) pipeBatch.getFullPayload().get("y").get(0);
+
+    Assert.assertSame(origRecord, recordX);
+    Assert.assertNotSame(origRecord, recordY);
+    Assert.assertSame(recordX.get(), recordY.get());
+    assertEquals(1, pipeBatch.getSharedRecords());
+    assertEquals(0, pipeBatch.getMaterializedRecords());
+
+    recordY.set("/b", Field.create("B"));
+    Assert.assertNotSame(recordX.get(), recordY.get());
+    Assert.assertFalse(recordX.has("/b"));
+    assertEquals(1, pipeBatch.getMaterializedRecords());
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testOverride() throws Exception {
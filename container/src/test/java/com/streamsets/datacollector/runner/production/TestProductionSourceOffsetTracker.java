@@ -16,6 +16,7 @@
 package com.streamsets.datacollector.runner.production;
 
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.main.StandaloneRuntimeInfo;
@@ -35,7 +36,14 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class TestProductionSourceOffsetTracker {
   private static Logger LOG = LoggerFactory.getLogger(TestProductionSourceOffsetTracker.class);
@@ -43,6 +51,7 @@ public class TestProductionSourceOffsetTracker {
   private static final String PIPELINE_NAME = "myPipeline";
   private static final String PIPELINE_REV = "2.0";
 
+  private static RuntimeInfo info;
   private static ProductionSourceOffsetTracker offsetTracker;
 
   @BeforeClass
@@ -64,7 +73,7 @@ public class TestProductionSourceOffsetTracker {
 
   @Before
   public void createOffsetTracker() throws Exception {
-    RuntimeInfo info = new StandaloneRuntimeInfo(
+    info = new StandaloneRuntimeInfo(
         RuntimeInfo.SDC_PRODUCT,
         RuntimeModule.SDC_PROPERTY_PREFIX,
         new MetricRegistry(),
@@ -114,4 +123,113 @@ public class TestProductionSourceOffsetTracker {
     Assert.assertEquals(0, offsetTracker.getOffsets().size());
   }
 
+  @Test
+  public void testJournal() throws Exception {
+    ProductionSourceOffsetTracker tracker =
+        new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, true, 3);
+    File journalFile = OffsetFileUtil.getPipelineOffsetJournalFile(info, PIPELINE_NAME, PIPELINE_REV);
+
+    tracker.commitOffset("a", "1");
+    tracker.commitOffset("b", "2");
+    Assert.assertTrue(journalFile.length() > 0);
+    // Offset file itself wasn't rewritten, but readers see the journal
+    Assert.assertEquals(2, OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV).size());
+    Assert.assertEquals("2", OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV).get("b"));
+
+    // Third entry triggers compaction
+    tracker.commitOffset("a", null);
+    Assert.assertEquals(0, journalFile.length());
+    Map<String, String> offsets = OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV);
+    Assert.assertEquals(1, offsets.size());
+    Assert.assertEquals("2", offsets.get("b"));
+
+    tracker.commitOffset("c", "3");
+    tracker.close();
+    Assert.assertEquals(0, journalFile.length());
+    offsets = OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV);
+    Assert.assertEquals(2, offsets.size());
+    Assert.assertEquals("3", offsets.get("c"));
+  }
+
+  @Test
+  public void testJournalIgnoresIncompleteEntry() throws Exception {
+    ProductionSourceOffsetTracker tracker =
+        new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, true, 100);
+    tracker.commitOffset("a", "1");
+    tracker.commitOffset("b", "1");
+    File journalFile = OffsetFileUtil.getPipelineOffsetJournalFile(info, PIPELINE_NAME, PIPELINE_REV);
+    Files.write(journalFile.toPath(), "[\"a\",\"2".getBytes(), StandardOpenOption.APPEND);
+
+    // New tracker (e.g. after restart) starts from the last complete entry and folds the journal into the offset file
+    tracker = new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, true, 100);
+    Assert.assertEquals("1", tracker.getOffsets().get("a"));
+    Assert.assertEquals("1", tracker.getOffsets().get("b"));
+    Assert.assertEquals(0, journalFile.length());
+    tracker.close();
+  }
+
+  @Test
+  public void testJournalConcurrentCommits() throws Exception {
+    ProductionSourceOffsetTracker tracker =
+        new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, true, 50);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        String entity = "entity" + t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 100; i++) {
+            tracker.commitOffset(entity, String.valueOf(i));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Map<String, String> offsets = OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV);
+    Assert.assertEquals(4, offsets.size());
+    for (int t = 0; t < 4; t++) {
+      Assert.assertEquals("99", offsets.get("entity" + t));
+    }
+    tracker.close();
+  }
+
+  @Test
+  public void testResetOffsetDropsJournal() throws Exception {
+    ProductionSourceOffsetTracker tracker =
+        new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, true, 100);
+    tracker.commitOffset("a", "1");
+    tracker.resetOffset();
+    File journalFile = OffsetFileUtil.getPipelineOffsetJournalFile(info, PIPELINE_NAME, PIPELINE_REV);
+    Assert.assertEquals(0, journalFile.length());
+    Assert.assertTrue(tracker.getOffsets().isEmpty());
+    Assert.assertTrue(OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV).isEmpty());
+
+    // Closing the tracker (pipeline stop) compacts the journal, that must not bring back the offsets from before
+    // the reset
+    tracker.commitOffset("a", null);
+    tracker.close();
+    Assert.assertTrue(OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV).isEmpty());
+    tracker = new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, true, 100);
+    Assert.assertTrue(tracker.getOffsets().isEmpty());
+    tracker.commitOffset("b", "1");
+    tracker.close();
+    Assert.assertEquals(ImmutableMap.of("b", "1"), OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV));
+  }
+
+  @Test
+  public void testResetOffsetWithoutJournal() throws Exception {
+    ProductionSourceOffsetTracker tracker =
+        new ProductionSourceOffsetTracker(PIPELINE_NAME, PIPELINE_REV, info, false, 100);
+    tracker.commitOffset("a", "1");
+    tracker.resetOffset();
+    Assert.assertTrue(tracker.getOffsets().isEmpty());
+    tracker.commitOffset("b", "1");
+    Assert.assertEquals(ImmutableMap.of("b", "1"), OffsetFileUtil.getOffsets(info, PIPELINE_NAME, PIPELINE_REV));
+  }
+
 }
@@ -19,6 +19,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.datacollector.config.ConfigDefinition;
+import com.streamsets.datacollector.config.PipelineTestStageChooserValues;
 import com.streamsets.datacollector.config.ServiceDefinition;
 import com.streamsets.datacollector.config.StageDefinition;
 import com.streamsets.datacollector.config.StageLibraryDefinition;
@@ -128,6 +129,46 @@ public class TestClassLoaderStageLibraryTask {
     Assert.assertTrue(foundAutoC);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDeferredLoadingFromDefinitionCache() {
+    File dataDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(dataDir.mkdirs());
+    ClassLoader cl = new SDCClassLoader("library", "lib", Collections.<URL>emptyList(), getClass().getClassLoader(),
+                                        new String[0], new SystemPackage(new String[0]),
+                                        new ApplicationPackage(new TreeSet<String>()), false, false, false);
+    RuntimeInfo runtimeInfo = mockRuntimeInfo(dataDir);
+    Mockito.when(runtimeInfo.getStageLibraryClassLoaders()).thenReturn((List) ImmutableList.of(cl));
+    Mockito.when(runtimeInfo.getMetrics()).thenReturn(new MetricRegistry());
+    BuildInfo buildInfo = ProductBuildInfo.getDefault();
+    Configuration configuration = new Configuration();
+    configuration.set("stagelibs.lazy.loading.enable", true);
+
+    // First start loads the library and caches its definitions
+    ClassLoaderStageLibraryTask library = new ClassLoaderStageLibraryTask(runtimeInfo, buildInfo, configuration);
+    library.initTask();
+    StageDefinition stage = library.getStages().get(0);
+    Assert.assertTrue(library.isLoaded(stage.getLibrary()));
+    List<String> testOrigins = new PipelineTestStageChooserValues().getValues();
+    Assert.assertEquals(1, testOrigins.size());
+    Assert.assertTrue(new File(dataDir, "stagelibs-definitions.json").exists());
+
+    // Second start only registers the library
+    library = new ClassLoaderStageLibraryTask(runtimeInfo, buildInfo, configuration);
+    library.initTask();
+    Assert.assertFalse(library.isLoaded(stage.getLibrary()));
+    Assert.assertNotNull(library.getStageLibraryDefinition(stage.getLibrary()));
+    Assert.assertEquals(testOrigins, new PipelineTestStageChooserValues().getValues());
+    Assert.assertEquals(1, library.getStageDefinitionMinimalList().size());
+    Assert.assertFalse(library.isLoaded(stage.getLibrary()));
+
+    // And loads it on first use
+    StageDefinition loaded = library.getStage(stage.getLibrary(), stage.getName(), false);
+    Assert.assertTrue(library.isLoaded(stage.getLibrary()));
+    Assert.assertEquals(stage.getClassName(), loaded.getClassName());
+    Assert.assertEquals(1, library.getStages().size());
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testIncorrectSdcMinVersion() {
@@ -240,6 +281,7 @@ public class TestClassLoaderStageLibraryTask {
   private static RuntimeInfo mockRuntimeInfo(File configDir) {
     RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
     Mockito.when(runtimeInfo.getConfigDir()).thenReturn(configDir.getAbsolutePath());
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn(configDir.getAbsolutePath());
     Mockito.when(runtimeInfo.getProductName()).thenReturn("sdc");
     Mockito.when(runtimeInfo.getPropertyPrefix()).thenReturn("sdc");
     Mockito.when(runtimeInfo.getPropertiesFile()).thenCallRealMethod();
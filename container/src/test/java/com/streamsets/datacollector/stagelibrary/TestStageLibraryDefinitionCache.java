@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.datacollector.config.StageDefinitionSummary;
+import com.streamsets.pipeline.api.StageType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.UUID;
+
+public class TestStageLibraryDefinitionCache {
+  private File file;
+
+  @Before
+  public void setUp() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    file = new File(dir, "definitions.json");
+  }
+
+  private static StageLibraryDefinitionCache.Library library(String fingerprint) {
+    StageDefinitionSummary stage = new StageDefinitionSummary("lib", "Library", "s", 2, "Stage", "description",
+        StageType.SOURCE, false, false, false, false, false, "icon.svg", ImmutableList.of("tag"));
+    return new StageLibraryDefinitionCache.Library(
+        fingerprint,
+        false,
+        ImmutableList.of(stage),
+        ImmutableList.of("com.example.Service"),
+        ImmutableList.of("CONNECTION")
+    );
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    StageLibraryDefinitionCache cache = new StageLibraryDefinitionCache(file, "en_US");
+    Assert.assertNull(cache.get("lib", "fp"));
+    cache.put("lib", library("fp"));
+    cache.put("removed", library("fp"));
+    cache.retainAll(ImmutableList.of("lib"));
+    cache.save();
+
+    cache = new StageLibraryDefinitionCache(file, "en_US");
+    Assert.assertNull(cache.get("lib", "other"));
+    Assert.assertNull(cache.get("removed", "fp"));
+    StageLibraryDefinitionCache.Library cached = cache.get("lib", "fp");
+    Assert.assertNotNull(cached);
+    Assert.assertFalse(cached.isEager());
+    Assert.assertEquals(ImmutableList.of("com.example.Service"), cached.getServices());
+    Assert.assertEquals(ImmutableList.of("CONNECTION"), cached.getConnections());
+    Assert.assertEquals(1, cached.getStages().size());
+    StageDefinitionSummary stage = cached.getStages().get(0);
+    Assert.assertEquals("lib", stage.getLibrary());
+    Assert.assertEquals("s", stage.getName());
+    Assert.assertEquals(2, stage.getVersion());
+    Assert.assertEquals("Stage", stage.getLabel());
+    Assert.assertEquals(StageType.SOURCE, stage.getType());
+    Assert.assertEquals(ImmutableList.of("tag"), stage.getTags());
+  }
+
+  @Test
+  public void testDifferentEnvironmentDiscarded() throws Exception {
+    StageLibraryDefinitionCache cache = new StageLibraryDefinitionCache(file, "en_US");
+    cache.put("lib", library("fp"));
+    cache.save();
+
+    Assert.assertNull(new StageLibraryDefinitionCache(file, "ja_JP").get("lib", "fp"));
+    Assert.assertNotNull(new StageLibraryDefinitionCache(file, "en_US").get("lib", "fp"));
+  }
+}
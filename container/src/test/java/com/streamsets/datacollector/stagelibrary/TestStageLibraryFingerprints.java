@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.UUID;
+
+public class TestStageLibraryFingerprints {
+  private File dir;
+  private File jar;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    jar = new File(dir, "lib.jar");
+    Files.write(jar.toPath(), new byte[]{1, 2, 3});
+  }
+
+  private URL[] urls() throws Exception {
+    return new URL[]{jar.toURI().toURL()};
+  }
+
+  @Test
+  public void testFingerprint() throws Exception {
+    StageLibraryFingerprints fingerprints = new StageLibraryFingerprints(new File(dir, "fp"), "1.0");
+    String fingerprint = fingerprints.fingerprint(urls());
+    Assert.assertEquals(fingerprint, fingerprints.fingerprint(urls()));
+
+    // Different SDC version
+    Assert.assertNotEquals(fingerprint, new StageLibraryFingerprints(new File(dir, "fp"), "2.0").fingerprint(urls()));
+
+    // Modified jar
+    Files.write(jar.toPath(), new byte[]{1, 2, 3, 4});
+    Assert.assertNotEquals(fingerprint, fingerprints.fingerprint(urls()));
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    File file = new File(dir, "fp");
+    StageLibraryFingerprints fingerprints = new StageLibraryFingerprints(file, "1.0");
+    String fingerprint = fingerprints.fingerprint(urls());
+    Assert.assertFalse(fingerprints.isValidated("lib", fingerprint));
+    fingerprints.setValidated("lib", fingerprint, true);
+    fingerprints.setValidated("invalid", fingerprint, false);
+    Assert.assertTrue(fingerprints.isValidated("lib", fingerprint));
+    Assert.assertFalse(fingerprints.isValidated("invalid", fingerprint));
+    fingerprints.save();
+
+    fingerprints = new StageLibraryFingerprints(file, "1.0");
+    Assert.assertTrue(fingerprints.isValidated("lib", fingerprint));
+    Assert.assertFalse(fingerprints.isValidated("lib", "other"));
+    Assert.assertFalse(fingerprints.isValidated("invalid", fingerprint));
+
+    // Library no longer valid
+    fingerprints.setValidated("lib", fingerprint, false);
+    fingerprints.save();
+    Assert.assertFalse(new StageLibraryFingerprints(file, "1.0").isValidated("lib", fingerprint));
+  }
+}
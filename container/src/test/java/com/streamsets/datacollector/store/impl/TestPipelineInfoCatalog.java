@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.store.impl;
+
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.store.PipelineInfo;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.UUID;
+
+public class TestPipelineInfoCatalog {
+  private Path dir;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = new File("target", UUID.randomUUID().toString()).toPath();
+    Files.createDirectories(dir);
+  }
+
+  private static PipelineInfo createInfo(String name) {
+    return new PipelineInfo(name, name, "", new Date(), new Date(), "user", "user", "0", UUID.randomUUID(), true,
+        new HashMap<>(), "1.0", "sdcId");
+  }
+
+  private Path createInfoFile(String name) throws Exception {
+    Path file = dir.resolve(name + ".json");
+    Files.write(file, "{}".getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void testGetMatchesAttributes() throws Exception {
+    PipelineInfoCatalog catalog = new PipelineInfoCatalog(ObjectMapperFactory.get());
+    Path file = createInfoFile("a");
+    BasicFileAttributes attributes = PipelineInfoCatalog.readAttributes(file);
+    Assert.assertNull(catalog.get("a", attributes));
+
+    PipelineInfo info = createInfo("a");
+    catalog.put("a", attributes, info);
+    Assert.assertSame(info, catalog.get("a", PipelineInfoCatalog.readAttributes(file)));
+
+    // modified file
+    Files.setLastModifiedTime(file, FileTime.fromMillis(attributes.lastModifiedTime().toMillis() + 1000));
+    Assert.assertNull(catalog.get("a", PipelineInfoCatalog.readAttributes(file)));
+
+    // missing file
+    Files.delete(file);
+    Assert.assertNull(PipelineInfoCatalog.readAttributes(file));
+    Assert.assertNull(catalog.get("a", null));
+  }
+
+  @Test
+  public void testInterruptedWriteIsNotCached() throws Exception {
+    Path file = createInfoFile("a");
+    Assert.assertNotNull(PipelineInfoCatalog.readAttributes(file));
+    Files.createFile(dir.resolve("a.json-new"));
+    Assert.assertNull(PipelineInfoCatalog.readAttributes(file));
+  }
+
+  @Test
+  public void testInvalidateAndRetain() throws Exception {
+    PipelineInfoCatalog catalog = new PipelineInfoCatalog(ObjectMapperFactory.get());
+    BasicFileAttributes a = PipelineInfoCatalog.readAttributes(createInfoFile("a"));
+    BasicFileAttributes b = PipelineInfoCatalog.readAttributes(createInfoFile("b"));
+    catalog.put("a", a, createInfo("a"));
+    catalog.put("b", b, createInfo("b"));
+
+    catalog.invalidate("a");
+    Assert.assertNull(catalog.get("a", a));
+    Assert.assertNotNull(catalog.get("b", b));
+
+    catalog.retainAll(Arrays.asList("a"));
+    Assert.assertNull(catalog.get("b", b));
+  }
+
+  @Test
+  public void testSnapshot() throws Exception {
+    Path snapshot = dir.resolve(".catalog.json");
+    PipelineInfoCatalog catalog = new PipelineInfoCatalog(ObjectMapperFactory.get());
+    Path file = createInfoFile("a");
+    PipelineInfo info = createInfo("a");
+    catalog.put("a", PipelineInfoCatalog.readAttributes(file), info);
+    catalog.save(snapshot);
+
+    PipelineInfoCatalog loaded = new PipelineInfoCatalog(ObjectMapperFactory.get());
+    loaded.load(snapshot);
+    PipelineInfo loadedInfo = loaded.get("a", PipelineInfoCatalog.readAttributes(file));
+    Assert.assertNotNull(loadedInfo);
+    Assert.assertEquals(info.getPipelineId(), loadedInfo.getPipelineId());
+    Assert.assertEquals(info.getUuid(), loadedInfo.getUuid());
+    Assert.assertEquals(info.getLastModified(), loadedInfo.getLastModified());
+
+    // a corrupted snapshot is ignored
+    Files.write(snapshot, "[{".getBytes(StandardCharsets.UTF_8));
+    loaded = new PipelineInfoCatalog(ObjectMapperFactory.get());
+    loaded.load(snapshot);
+    Assert.assertNull(loaded.get("a", PipelineInfoCatalog.readAttributes(file)));
+  }
+}
@@ -169,6 +169,13 @@ public class DataGeneratorServiceImpl extends BaseService implements DataFormatG
       generator.flush();
     }
 
+    /**
+     * Not part of the service API, stages reach it through ResettableDataGenerator.
+     */
+    public boolean reset() throws IOException {
+      return generator.reset();
+    }
+
     @Override
     public void close() throws IOException {
       generator.close();
@@ -28,10 +28,25 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,6 +60,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 public class DirectorySpooler {
   private static final Logger LOG = LoggerFactory.getLogger(DirectorySpooler.class);
   private static final String PENDING_FILES = "pending.files";
+  private static final long WATCH_POLL_MILLIS = 1000;
 
   private final PushSource.Context context;
   private final String spoolDir;
@@ -59,6 +75,7 @@ public class DirectorySpooler {
   private final Comparator<WrappedFile> pathComparator;
   protected final boolean processSubdirectories;
   private final long spoolingPeriodSec;
+  private final FileDiscoveryMode fileDiscoveryMode;
   protected final WrappedFileSystem fs;
   protected final ReadWriteLock closeLock = new ReentrantReadWriteLock();
 
@@ -81,6 +98,7 @@ public class DirectorySpooler {
     protected boolean useLastModifiedTimestamp;
     protected boolean processSubdirectories;
     protected long spoolingPeriodSec = 5;
+    protected FileDiscoveryMode fileDiscoveryMode = FileDiscoveryMode.POLLING;
     protected WrappedFileSystem fs;
 
     public Builder() {
@@ -167,6 +185,11 @@ public class DirectorySpooler {
       return this;
     }
 
+    public Builder setFileDiscoveryMode(FileDiscoveryMode fileDiscoveryMode) {
+      this.fileDiscoveryMode = Preconditions.checkNotNull(fileDiscoveryMode, "file discovery mode cannot be null");
+      return this;
+    }
+
     public Builder setWrappedFileSystem(WrappedFileSystem fs) {
       this.fs = fs;
       return this;
@@ -202,6 +225,7 @@ public class DirectorySpooler {
           useLastModifiedTimestamp,
           processSubdirectories,
           spoolingPeriodSec,
+          fileDiscoveryMode,
           fs
       );
     }
@@ -253,6 +277,42 @@ public class DirectorySpooler {
       boolean processSubdirectories,
       long spoolingPeriodSec,
       WrappedFileSystem fs
+  ) {
+    this(
+        context,
+        spoolDir,
+        maxSpoolFiles,
+        pattern,
+        pathMatcherMode,
+        postProcessing,
+        archiveDir,
+        archiveRetentionMillis,
+        errorArchiveDir,
+        waitForPathAppearance,
+        useLastModified,
+        processSubdirectories,
+        spoolingPeriodSec,
+        FileDiscoveryMode.POLLING,
+        fs
+    );
+  }
+
+  public DirectorySpooler(
+      PushSource.Context context,
+      String spoolDir,
+      int maxSpoolFiles,
+      String pattern,
+      PathMatcherMode pathMatcherMode,
+      FilePostProcessing postProcessing,
+      String archiveDir,
+      long archiveRetentionMillis,
+      String errorArchiveDir,
+      boolean waitForPathAppearance,
+      final boolean useLastModified,
+      boolean processSubdirectories,
+      long spoolingPeriodSec,
+      FileDiscoveryMode fileDiscoveryMode,
+      WrappedFileSystem fs
   ) {
     this.context = context;
     this.spoolDir = spoolDir;
@@ -267,6 +327,7 @@ public class DirectorySpooler {
     this.useLastModified = useLastModified;
     this.processSubdirectories = processSubdirectories;
     this.spoolingPeriodSec = spoolingPeriodSec;
+    this.fileDiscoveryMode = fileDiscoveryMode;
     this.fs = fs;
 
     pathComparator = fs.getComparator(useLastModified);
@@ -290,6 +351,7 @@ public class DirectorySpooler {
 
   volatile FilePurger purger;
   volatile FileFinder finder;
+  volatile FileWatcher watcher;
 
   private Set<WrappedFile> filesBeingProcessed;
 
@@ -372,10 +434,19 @@ public class DirectorySpooler {
 
     scheduledExecutor = new SafeScheduledExecutorService(1, "directory-dirspooler");
 
+    if (canWatchFiles()) {
+      // directories are registered before the initial scan so that no file created in between is missed
+      watcher = new FileWatcher();
+    }
+
     findAndQueueFiles(true, false);
 
-    finder = new FileFinder();
-    scheduledExecutor.scheduleAtFixedRate(finder, spoolingPeriodSec, spoolingPeriodSec, TimeUnit.SECONDS);
+    if (watcher != null) {
+      scheduledExecutor.scheduleWithFixedDelay(watcher, 0, 1, TimeUnit.MILLISECONDS);
+    } else {
+      finder = new FileFinder();
+      scheduledExecutor.scheduleAtFixedRate(finder, spoolingPeriodSec, spoolingPeriodSec, TimeUnit.SECONDS);
+    }
 
     if (postProcessing == FilePostProcessing.ARCHIVE && archiveRetentionMillis > 0) {
       // create and schedule file purger only if the retention time is > 0
@@ -384,6 +455,20 @@ public class DirectorySpooler {
     }
   }
 
+  private boolean canWatchFiles() {
+    if (fileDiscoveryMode != FileDiscoveryMode.WATCH_SERVICE) {
+      return false;
+    }
+    if (!fs.supportsWatchService() || SpoolDirUtil.isGlobPattern(spoolDirPath.getAbsolutePath())) {
+      LOG.warn(
+          "File system notifications are not available for directory '{}', falling back to periodic scans",
+          spoolDirPath
+      );
+      return false;
+    }
+    return true;
+  }
+
   public void destroy(Exception causeDestroy){
     destroyCauseException = causeDestroy;
     destroy();
@@ -399,6 +484,10 @@ public class DirectorySpooler {
     } catch (RuntimeException ex) {
       LOG.warn("Error during scheduledExecutor.shutdownNow(), {}", ex.toString(), ex);
     }
+    if (watcher != null) {
+      watcher.close();
+      watcher = null;
+    }
   }
 
   public boolean isRunning() {
@@ -676,30 +765,8 @@ public class DirectorySpooler {
 
         fs.addFiles(dir, this.currentFile, matchingFile, includeStartingFile, useLastModified);
 
-        if (matchingFile.size() > 0) {
-          try {
-            // if there are matching files, acquire write lock
-            closeLock.writeLock().lock();
-
-            for (WrappedFile file : matchingFile) {
-              if (!running) {
-                return;
-              }
-
-              if (this.currentFile == null
-                  || (this.initialFile != null && fs.compare(this.currentFile, this.initialFile, useLastModified) == 0)
-                  || fs.compare(file, this.currentFile, useLastModified) > 0) {
-                if (!fs.isDirectory(file)) {
-                  LOG.trace("Found file '{}'", file);
-                  addFileToQueue(file, checkCurrent);
-                }
-              } else {
-                LOG.trace("Discarding file {} because it is already older than currentFile", file.getAbsolutePath());
-              }
-            }
-          } finally {
-            closeLock.writeLock().unlock();
-          }
+        if (matchingFile.size() > 0 && !queueFiles(matchingFile, checkCurrent)) {
+          return;
         }
 
       } catch(IOException ex) {
@@ -713,6 +780,38 @@ public class DirectorySpooler {
     LOG.debug("Found '{}' files", filesQueue.size());
   }
 
+  /**
+   * Adds the given files to the queue, skipping directories and files older than the current file.
+   *
+   * @return false if the spooler was stopped before all the files were queued.
+   */
+  private boolean queueFiles(List<WrappedFile> matchingFile, boolean checkCurrent) {
+    try {
+      // if there are matching files, acquire write lock
+      closeLock.writeLock().lock();
+
+      for (WrappedFile file : matchingFile) {
+        if (!running) {
+          return false;
+        }
+
+        if (this.currentFile == null
+            || (this.initialFile != null && fs.compare(this.currentFile, this.initialFile, useLastModified) == 0)
+            || fs.compare(file, this.currentFile, useLastModified) > 0) {
+          if (!fs.isDirectory(file)) {
+            LOG.trace("Found file '{}'", file);
+            addFileToQueue(file, checkCurrent);
+          }
+        } else {
+          LOG.trace("Discarding file {} because it is already older than currentFile", file.getAbsolutePath());
+        }
+      }
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    return true;
+  }
+
   class FileFinder implements Runnable {
 
     public FileFinder(){
@@ -731,6 +830,134 @@ public class DirectorySpooler {
     }
   }
 
+  /**
+   * Queues the files reported by the file system notifications instead of scanning the directory.
+   * <p/>
+   * The directory is fully scanned again only when notifications were lost, either because the file system reported
+   * an overflow or because the queue was full when they arrived.
+   */
+  class FileWatcher implements Runnable {
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    // same as the directory scan, subdirectories are only processed with timestamp ordering
+    private final boolean recursive = processSubdirectories && useLastModified;
+    private boolean rescan;
+
+    FileWatcher() throws IOException {
+      watchService = FileSystems.getDefault().newWatchService();
+      register(Paths.get(spoolDirPath.getAbsolutePath()), null);
+    }
+
+    /**
+     * Watches the directory, and its subdirectories when recursive. Files already in new subdirectories are added to
+     * the found files, if given, as there won't be notifications for them.
+     */
+    private void register(Path dir, Collection<Path> found) throws IOException {
+      if (!recursive) {
+        watchedDirs.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY), dir);
+        return;
+      }
+      Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attributes) throws IOException {
+          watchedDirs.put(subDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY), subDir);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          if (found != null) {
+            found.add(file);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+
+    @Override
+    public void run() {
+      try {
+        Set<Path> changed = new LinkedHashSet<>();
+        WatchKey key = watchService.poll(WATCH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+          collectChanges(key, changed);
+          key = watchService.poll();
+        }
+
+        if (rescan && filesQueue.size() < maxSpoolFiles) {
+          LOG.debug("Notifications for directory '{}' were lost, scanning it", spoolDirPath);
+          rescan = false;
+          findAndQueueFiles(false, true);
+        } else if (!changed.isEmpty()) {
+          if (filesQueue.size() >= maxSpoolFiles) {
+            LOG.debug(Utils.format("Exceeded max number '{}' of spool files in directory", maxSpoolFiles));
+            rescan = true;
+          } else {
+            queueChanges(changed);
+          }
+        }
+      } catch (InterruptedException | ClosedWatchServiceException ex) {
+        LOG.debug("File watcher for directory '{}' stopped", spoolDirPath);
+      } catch (Exception ex) {
+        LOG.warn("Error while watching directory '{}' for files newer than '{}': {}", spoolDirPath, currentFile,
+            ex.toString(), ex);
+      }
+    }
+
+    private void collectChanges(WatchKey key, Set<Path> changed) {
+      Path dir = watchedDirs.get(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+          rescan = true;
+          continue;
+        }
+        Path path = dir.resolve((Path) event.context());
+        if (!Files.isDirectory(path)) {
+          changed.add(path);
+        } else if (recursive && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+          try {
+            register(path, changed);
+          } catch (IOException ex) {
+            LOG.warn("Could not watch directory '{}': {}", path, ex.toString(), ex);
+            rescan = true;
+          }
+        }
+      }
+      if (!key.reset()) {
+        // the directory is gone
+        watchedDirs.remove(key);
+      }
+    }
+
+    private void queueChanges(Set<Path> changed) {
+      List<WrappedFile> files = new ArrayList<>();
+      for (Path path : changed) {
+        if (fs.patternMatches(path.getFileName().toString()) && Files.isRegularFile(path)) {
+          try {
+            files.add(fs.getFile(path.toString()));
+          } catch (IOException ex) {
+            LOG.debug("File '{}' might have been deleted or archived before being queued: {}", path, ex.toString());
+          }
+        }
+      }
+      if (!files.isEmpty() && queueFiles(files, true)) {
+        spoolQueueMeter.mark(filesQueue.size());
+        pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
+        LOG.debug("Queued '{}' new or modified files", files.size());
+      }
+    }
+
+    void close() {
+      try {
+        watchService.close();
+      } catch (IOException ex) {
+        LOG.warn("Error while closing the watch service for directory '{}': {}", spoolDirPath, ex.toString(), ex);
+      }
+    }
+  }
+
   class FilePurger implements Runnable {
 
     @Override
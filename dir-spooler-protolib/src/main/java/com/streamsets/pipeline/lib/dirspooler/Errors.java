@@ -56,6 +56,8 @@ public enum Errors implements ErrorCode {
   SPOOLDIR_36("Error when trying to get information for file or directory '{}'. Reason {}"),
   SPOOLDIR_37("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
   SPOOLDIR_38("Base directory does not have read access permission."),
+  SPOOLDIR_39("Files can only be split for uncompressed JSON objects, text lines or delimited data without header " +
+      "and custom delimiters, in UTF-8, US-ASCII or ISO-8859 charsets"),
   ;
 
   private final String msg;
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.config.Compression;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvParser;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A file read in byte ranges, possibly by several runners at once.
+ * <p/>
+ * Ranges end right after a line feed, so with line based formats each range holds whole records and can be parsed on
+ * its own. Each range keeps the offset of the parser reading it from the range start, -1 once the range is done. The
+ * offsets of all the ranges are committed in the file offset, so after a restart each range resumes from its own
+ * offset.
+ */
+public class FileSplit {
+  private static final String MINUS_ONE = "-1";
+  private static final String ZERO = "0";
+  private static final String RANGE_SEPARATOR = ",";
+  private static final String FIELD_SEPARATOR = ":";
+
+  /**
+   * Byte range of a split file, read by one runner at a time.
+   */
+  public static class Range {
+    private final FileSplit split;
+    private final long start;
+    private final long end;
+    private String offset;
+    private boolean assigned;
+
+    private Range(FileSplit split, long start, long end, String offset) {
+      this.split = split;
+      this.start = start;
+      this.end = end;
+      this.offset = offset;
+    }
+
+    public FileSplit getSplit() {
+      return split;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    public String getOffset() {
+      synchronized (split) {
+        return offset;
+      }
+    }
+
+    /**
+     * Opens the range, the stream starts at the range start and ends at the range end.
+     */
+    public InputStream open() throws IOException {
+      InputStream is = split.file.getInputStream();
+      try {
+        IOUtils.skipFully(is, start);
+      } catch (IOException ex) {
+        is.close();
+        throw ex;
+      }
+      return new BoundedInputStream(is, end - start);
+    }
+  }
+
+  private final WrappedFile file;
+  private final String offsetFile;
+  private final List<Range> ranges = new ArrayList<>();
+  private long recordCount;
+  private long errorCount;
+  private boolean failed;
+
+  private FileSplit(WrappedFile file, String offsetFile) {
+    this.file = file;
+    this.offsetFile = offsetFile;
+  }
+
+  /**
+   * Returns true if the records of the configured data format are single lines, so files can be split at line ends.
+   */
+  public static boolean isSplittable(SpoolDirConfigBean conf) {
+    DataParserFormatConfig format = conf.dataFormatConfig;
+    if (format.compression != Compression.NONE || !isLineSafe(format.charset)) {
+      return false;
+    }
+    switch (conf.dataFormat) {
+      case TEXT:
+        return !format.useCustomDelimiter;
+      case JSON:
+        return format.jsonContent == JsonMode.MULTIPLE_OBJECTS;
+      case DELIMITED:
+        return format.csvHeader == CsvHeader.NO_HEADER &&
+            format.csvSkipStartLines == 0 &&
+            format.csvParser == CsvParser.LEGACY_PARSER &&
+            format.csvFileFormat != CsvMode.MULTI_CHARACTER;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns true if a line feed is the single byte 0x0A in the charset and no other character contains that byte, so
+   * ranges can be cut at that byte.
+   */
+  private static boolean isLineSafe(String charsetName) {
+    String name;
+    try {
+      name = Charset.forName(charsetName).name();
+    } catch (IllegalArgumentException ex) {
+      return false;
+    }
+    return StandardCharsets.UTF_8.name().equals(name) ||
+        StandardCharsets.US_ASCII.name().equals(name) ||
+        name.startsWith("ISO-8859-");
+  }
+
+  /**
+   * Splits the file in ranges of at least the given size.
+   *
+   * @param file file to split.
+   * @param offsetFile name of the file in the offsets.
+   * @param rangeSize minimum size of the ranges, the last range can be smaller.
+   */
+  public static FileSplit create(WrappedFile file, String offsetFile, long rangeSize) throws IOException {
+    FileSplit split = new FileSplit(file, offsetFile);
+    long size = file.getSize();
+    long start = 0;
+    try (InputStream is = new BufferedInputStream(file.getInputStream())) {
+      long position = 0;
+      while (size - start > rangeSize) {
+        IOUtils.skipFully(is, start + rangeSize - position);
+        position = start + rangeSize;
+        int b;
+        while ((b = is.read()) != -1 && b != '\n') {
+          position++;
+        }
+        if (b == -1) {
+          break;
+        }
+        position++;
+        split.ranges.add(new Range(split, start, position, ZERO));
+        start = position;
+      }
+    }
+    if (start < size) {
+      split.ranges.add(new Range(split, start, size, ZERO));
+    }
+    return split;
+  }
+
+  /**
+   * Restores the ranges of a split file from its offset.
+   *
+   * @param file split file.
+   * @param offsetFile name of the file in the offsets.
+   * @param ranges ranges of the file offset, see {@link Offset#getRanges()}.
+   */
+  public static FileSplit restore(WrappedFile file, String offsetFile, String ranges) throws StageException {
+    FileSplit split = new FileSplit(file, offsetFile);
+    try {
+      for (String range : Splitter.on(RANGE_SEPARATOR).omitEmptyStrings().split(ranges)) {
+        List<String> fields = Splitter.on(FIELD_SEPARATOR).splitToList(range);
+        split.ranges.add(new Range(split, Long.parseLong(fields.get(0)), Long.parseLong(fields.get(1)), fields.get(2)));
+      }
+    } catch (RuntimeException ex) {
+      throw new StageException(Errors.SPOOLDIR_34, ex.toString(), ex);
+    }
+    return split;
+  }
+
+  public WrappedFile getFile() {
+    return file;
+  }
+
+  public String getOffsetFile() {
+    return offsetFile;
+  }
+
+  @VisibleForTesting
+  List<Range> getRanges() {
+    return Collections.unmodifiableList(ranges);
+  }
+
+  /**
+   * Returns a range nobody is reading, or null if there is none.
+   */
+  public synchronized Range nextRange() {
+    if (!failed) {
+      for (Range range : ranges) {
+        if (!range.assigned && !MINUS_ONE.equals(range.offset)) {
+          range.assigned = true;
+          return range;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns true if there are ranges nobody is reading.
+   */
+  public synchronized boolean hasNextRange() {
+    if (!failed) {
+      for (Range range : ranges) {
+        if (!range.assigned && !MINUS_ONE.equals(range.offset)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the offset of the file with the given offset for the range and the current offsets of the other ranges.
+   */
+  public synchronized Offset getOffset(Range range, String rangeOffset) throws StageException {
+    StringJoiner joiner = new StringJoiner(RANGE_SEPARATOR);
+    for (Range r : ranges) {
+      joiner.add(r.start + FIELD_SEPARATOR + r.end + FIELD_SEPARATOR + (r == range ? rangeOffset : r.offset));
+    }
+    return new Offset(Offset.VERSION_ONE, offsetFile, ZERO, joiner.toString());
+  }
+
+  /**
+   * Updates the offset of the range after a batch, returns true if the update finished the last range of the file.
+   */
+  public synchronized boolean update(Range range, String offset, long records, long errors) {
+    boolean wasDone = isDone();
+    range.offset = offset;
+    recordCount += records;
+    errorCount += errors;
+    return !wasDone && isDone();
+  }
+
+  private boolean isDone() {
+    for (Range range : ranges) {
+      if (!MINUS_ONE.equals(range.offset)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stops handing out the ranges of the file, returns true only for the first caller.
+   */
+  public synchronized boolean fail() {
+    boolean wasFailed = failed;
+    failed = true;
+    return !wasFailed;
+  }
+
+  public synchronized boolean isFailed() {
+    return failed;
+  }
+
+  public synchronized long getRecordCount() {
+    return recordCount;
+  }
+
+  public synchronized long getErrorCount() {
+    return errorCount;
+  }
+}
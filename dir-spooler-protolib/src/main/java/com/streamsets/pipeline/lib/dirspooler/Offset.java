@@ -30,8 +30,10 @@ public class Offset {
   private static final String ZERO = "0";
   public static final String NULL_FILE = "NULL_FILE_ID-48496481-5dc5-46ce-9c31-3ab3e034730c";
   private static final String POS = "POS";
+  private static final String RANGES = "RANGES";
   private final String file;
   private String fileOffset;
+  private String ranges;
 
   public Offset(String version, String offsetString) throws StageException {
     if (version.equals(VERSION_ONE)) {
@@ -50,6 +52,7 @@ public class Offset {
         if (offset != null && offset.startsWith("{")) {
           Map<String, String> map = OffsetUtil.deserializeOffsetMap(offset);
           this.fileOffset = map.get(POS) == null ? ZERO : map.get(POS);
+          this.ranges = map.get(RANGES);
         } else {
           this.fileOffset = offset;
         }
@@ -61,9 +64,20 @@ public class Offset {
     }
   }
 
+  /**
+   * Creates the offset of a file read in ranges by several runners, see {@link FileSplit}.
+   */
+  public Offset(String version, String file, String offset, String ranges) throws StageException {
+    this(version, file, offset);
+    this.ranges = ranges;
+  }
+
   public String getOffsetString() throws StageException {
     Map<String, String> map = new HashMap<>();
     map.put(POS, getOffset());
+    if (ranges != null) {
+      map.put(RANGES, ranges);
+    }
 
     try {
       return OffsetUtil.serializeOffsetMap(map);
@@ -80,6 +94,13 @@ public class Offset {
     return fileOffset;
   }
 
+  /**
+   * Returns the offsets of the ranges of a split file, null if the file is not split.
+   */
+  public String getRanges() {
+    return ranges;
+  }
+
   public String getRawFile() {
     return file;
   }
@@ -25,6 +25,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * SpoolDirBaseContext holds the state of each SpoolDirRunnable thread
@@ -37,6 +39,8 @@ public class SpoolDirBaseContext {
 
   private final PushSource.Context context;
   private volatile boolean noMoreDataSent;
+  // files being read in ranges, shared by all the threads
+  private final List<FileSplit> fileSplits = new CopyOnWriteArrayList<>();
 
   public SpoolDirBaseContext(PushSource.Context context, int numThreads) {
     this.context = context;
@@ -138,6 +142,31 @@ public class SpoolDirBaseContext {
     }
   }
 
+  public void addFileSplit(FileSplit split) {
+    fileSplits.add(split);
+  }
+
+  public void removeFileSplit(FileSplit split) {
+    fileSplits.remove(split);
+  }
+
+  /**
+   * Returns a range of a split file nobody is reading, or null if there is none.
+   */
+  public FileSplit.Range nextFileSplitRange() {
+    for (FileSplit split : fileSplits) {
+      FileSplit.Range range = split.nextRange();
+      if (range != null) {
+        return range;
+      }
+    }
+    return null;
+  }
+
+  public boolean hasFileSplitRanges() {
+    return fileSplits.stream().anyMatch(FileSplit::hasNextRange);
+  }
+
   private void clearCounters() {
     Arrays.stream(shouldSendNoMoreDataEventArray).forEach(SpoolDirRunnableContext::resetCounters);
   }
@@ -113,6 +113,14 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
       ));
     }
 
+    if (conf.splitSizeMB > 0 && !FileSplit.isSplittable(conf)) {
+      issues.add(getContext().createConfigIssue(
+          GROUP_FILE_CONFIG_NAME,
+          SPOOLDIR_CONFIG_BEAN_PREFIX + "splitSizeMB",
+          Errors.SPOOLDIR_39
+      ));
+    }
+
     validateFilePattern(issues);
 
     if (conf.maxSpoolFiles < 1) {
@@ -181,7 +189,8 @@ public abstract class SpoolDirBaseSource extends BasePushSource {
             .setPostProcessing(DirectorySpooler.FilePostProcessing.valueOf(conf.postProcessing.name()))
             .waitForPathAppearance(waitForPathToBePresent)
             .processSubdirectories(conf.processSubdirectories)
-            .setSpoolingPeriodSec(conf.spoolingPeriod);
+            .setSpoolingPeriodSec(conf.spoolingPeriod)
+            .setFileDiscoveryMode(conf.fileDiscoveryMode);
 
         if (conf.postProcessing == PostProcessingOptions.ARCHIVE) {
           builder.setArchiveDir(conf.archiveDir);
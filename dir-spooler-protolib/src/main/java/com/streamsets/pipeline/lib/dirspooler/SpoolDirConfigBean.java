@@ -64,6 +64,22 @@ public class SpoolDirConfigBean {
   )
   public int numberOfThreads = 1;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "File Split Size (MB)",
+      description = "Files larger than this size are read in ranges of this size by all the threads at once. " +
+          "Records must not span lines. Use 0 to read each file with a single thread",
+      displayPosition = 12,
+      group = "FILES",
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependsOn = "dataFormat",
+      triggeredByValue = {"TEXT", "JSON", "DELIMITED"},
+      min = 0
+  )
+  public long splitSizeMB = 0;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -199,6 +215,20 @@ public class SpoolDirConfigBean {
   )
   public long spoolingPeriod = 5;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "POLLING",
+      label = "File Discovery",
+      description = "How new files are discovered. File system notifications rescan the directory only at startup " +
+          "and when notifications are lost, they are only available for local directories without glob patterns.",
+      displayPosition = 62,
+      group = "FILES",
+      displayMode = ConfigDef.DisplayMode.ADVANCED
+  )
+  @ValueChooserModel(FileDiscoveryModeChooserValues.class)
+  public FileDiscoveryMode fileDiscoveryMode = FileDiscoveryMode.POLLING;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.STRING,
@@ -69,6 +69,7 @@ public class SpoolDirRunnable implements Runnable {
   private static final String MINUS_ONE = "-1";
   private static final String ZERO = "0";
   private static final String BASE_DIR = "baseDir";
+  private static final long SPLIT_POLL_MILLIS = 1000;
 
   public static final String FILE_SEPARATOR = System.getProperty("file.separator");
 
@@ -103,6 +104,11 @@ public class SpoolDirRunnable implements Runnable {
 
   private WrappedFile currentFile;
 
+  // split files, size of the ranges or 0 to read each file with a single thread
+  private final long splitSize;
+  private FileSplit.Range range;
+  private FileSplit finishedSplit;
+
   public SpoolDirRunnable(
       PushSource.Context context,
       int threadNumber,
@@ -128,6 +134,7 @@ public class SpoolDirRunnable implements Runnable {
     this.useLastModified = conf.useLastModified == FileOrdering.TIMESTAMP;
     this.fs = fs;
     this.spoolDirBaseContext = spoolDirBaseContext;
+    this.splitSize = conf.splitSizeMB * 1024L * 1024L;
 
     // Metrics
     this.gaugeMap = context.createGauge(SPOOL_DIR_METRICS + threadNumber).getValue();
@@ -154,6 +161,12 @@ public class SpoolDirRunnable implements Runnable {
   }
 
   private Offset produce(Offset lastSourceOffset, BatchContext batchContext) throws StageException {
+    if (splitSize > 0) {
+      Offset rangeOffset = produceRange(lastSourceOffset, batchContext);
+      if (rangeOffset != null) {
+        return rangeOffset;
+      }
+    }
 
     // if lastSourceOffset is NULL (beginning of source) it returns NULL
     String file = lastSourceOffset.getRawFile();
@@ -181,7 +194,7 @@ public class SpoolDirRunnable implements Runnable {
               );
               spooler.removeFileBeingProcessed(nextAvailFile);
             }
-            nextAvailFile = spooler.poolForFile(conf.poolingTimeoutSecs, TimeUnit.SECONDS);
+            nextAvailFile = pollForFile();
           } while (!isFileFromSpoolerEligible(nextAvailFile, fullPath, offset));
 
           if (nextAvailFile == null) {
@@ -191,8 +204,8 @@ public class SpoolDirRunnable implements Runnable {
                 conf.poolingTimeoutSecs
             );
 
-            // no-more-data event needs to be sent.
-            shouldSendNoMoreDataEvent = true;
+            // no-more-data event needs to be sent, unless there are ranges of split files to read.
+            shouldSendNoMoreDataEvent = !spoolDirBaseContext.hasFileSplitRanges();
 
           } else {
             // since we have data to process, don't trigger the no-more-data event.
@@ -259,6 +272,21 @@ public class SpoolDirRunnable implements Runnable {
       LOG.error(ex.toString(), ex);
     }
 
+    if (splitSize > 0 && currentFile != null && !offset.equals(MINUS_ONE) && parser == null) {
+      FileSplit split = splitFile(file, offset);
+      if (split != null) {
+        // the file is read in ranges from now on, by this and any other thread without a file of its own
+        spoolDirBaseContext.addFileSplit(split);
+        currentFile = null;
+        range = split.nextRange();
+        if (range == null) {
+          // all the ranges were read before a restart
+          finishedSplit = split;
+        }
+        return produceRange(lastSourceOffset, batchContext);
+      }
+    }
+
     if (currentFile != null && !offset.equals(MINUS_ONE)) {
       // we have a file to process (from before or new from dirspooler)
       try {
@@ -268,20 +296,7 @@ public class SpoolDirRunnable implements Runnable {
         offset = generateBatch(currentFile, offset, batchSize, batchContext.getBatchMaker());
 
         if (MINUS_ONE.equals(offset)) {
-          FinishedFileEvent.EVENT_CREATOR.create(context, batchContext)
-              .with(FinishedFileEvent.FILE_PATH, currentFile.getAbsolutePath())
-              .with(FinishedFileEvent.ERROR_COUNT, perFileErrorCount)
-              .with(FinishedFileEvent.RECORD_COUNT, perFileRecordCount)
-              .createAndSend();
-
-          LineageEvent event = context.createLineageEvent(LineageEventType.ENTITY_READ);
-          event.setSpecificAttribute(LineageSpecificAttribute.ENTITY_NAME, currentFile.getAbsolutePath());
-          event.setSpecificAttribute(LineageSpecificAttribute.ENDPOINT_TYPE, EndPointType.LOCAL_FS.name());
-          event.setSpecificAttribute(LineageSpecificAttribute.DESCRIPTION, conf.filePattern);
-          Map<String, String> props = new HashMap<>();
-          props.put("Record Count", Long.toString(perFileRecordCount));
-          event.setProperties(props);
-          context.publishLineageEvent(event);
+          sendFinishedFileEvents(batchContext, currentFile, perFileRecordCount, perFileErrorCount);
         }
       } catch (BadSpoolFileException ex) {
         LOG.error(Errors.SPOOLDIR_01.getMessage(), ex.getFile(), ex.getPos(), ex.toString(), ex);
@@ -342,6 +357,176 @@ public class SpoolDirRunnable implements Runnable {
     return newOffset;
   }
 
+  private void sendFinishedFileEvents(BatchContext batchContext, WrappedFile file, long records, long errors) {
+    FinishedFileEvent.EVENT_CREATOR.create(context, batchContext)
+        .with(FinishedFileEvent.FILE_PATH, file.getAbsolutePath())
+        .with(FinishedFileEvent.ERROR_COUNT, errors)
+        .with(FinishedFileEvent.RECORD_COUNT, records)
+        .createAndSend();
+
+    LineageEvent event = context.createLineageEvent(LineageEventType.ENTITY_READ);
+    event.setSpecificAttribute(LineageSpecificAttribute.ENTITY_NAME, file.getAbsolutePath());
+    event.setSpecificAttribute(LineageSpecificAttribute.ENDPOINT_TYPE, EndPointType.LOCAL_FS.name());
+    event.setSpecificAttribute(LineageSpecificAttribute.DESCRIPTION, conf.filePattern);
+    Map<String, String> props = new HashMap<>();
+    props.put("Record Count", Long.toString(records));
+    event.setProperties(props);
+    context.publishLineageEvent(event);
+  }
+
+  /**
+   * Waits for the next file of the spooler. When files are split, it waits in short periods and returns null as soon
+   * as there are ranges of split files to read.
+   */
+  private WrappedFile pollForFile() throws InterruptedException {
+    if (splitSize == 0) {
+      return spooler.poolForFile(conf.poolingTimeoutSecs, TimeUnit.SECONDS);
+    }
+    long remaining = TimeUnit.SECONDS.toMillis(conf.poolingTimeoutSecs);
+    WrappedFile file = null;
+    while (file == null && remaining > 0 && !context.isStopped() && !spoolDirBaseContext.hasFileSplitRanges()) {
+      long start = System.currentTimeMillis();
+      file = spooler.poolForFile(Math.min(remaining, SPLIT_POLL_MILLIS), TimeUnit.MILLISECONDS);
+      remaining -= System.currentTimeMillis() - start;
+    }
+    return file;
+  }
+
+  /**
+   * Returns the ranges to read the current file, or null to read it sequentially. Files are split when they are larger
+   * than the split size and are read from their start, or when they were split before a restart.
+   */
+  private FileSplit splitFile(String offsetFile, String offset) throws StageException {
+    Offset fileOffset = offsets.get(offsetFile);
+    if (fileOffset != null && fileOffset.getRanges() != null) {
+      return FileSplit.restore(currentFile, offsetFile, fileOffset.getRanges());
+    }
+    try {
+      if (ZERO.equals(offset) && currentFile.getSize() > splitSize) {
+        FileSplit split = FileSplit.create(currentFile, offsetFile, splitSize);
+        LOG.info("Reading file '{}' in ranges of {} bytes", currentFile.getAbsolutePath(), splitSize);
+        return split;
+      }
+    } catch (IOException ex) {
+      LOG.warn("Could not split file '{}', reading it sequentially: {}", currentFile.getAbsolutePath(), ex, ex);
+    }
+    return null;
+  }
+
+  /**
+   * Reads a batch from a range of a split file, returns null if the thread has no range to read. The thread only
+   * takes ranges when it is not reading a file of its own.
+   */
+  private Offset produceRange(Offset lastSourceOffset, BatchContext batchContext) throws StageException {
+    if (finishedSplit != null) {
+      return finishSplit(lastSourceOffset, batchContext);
+    }
+    if (range != null && range.getSplit().isFailed()) {
+      IOUtils.closeQuietly(parser);
+      parser = null;
+      range = null;
+    }
+    if (range == null) {
+      boolean idle = parser == null && (currentFile == null || MINUS_ONE.equals(lastSourceOffset.getOffset()));
+      range = idle ? spoolDirBaseContext.nextFileSplitRange() : null;
+      if (range == null) {
+        return null;
+      }
+    }
+
+    FileSplit split = range.getSplit();
+    WrappedFile file = split.getFile();
+    String offset = range.getOffset();
+    updateGauge(Status.READING, file, offset);
+    perFileRecordCount = 0;
+    perFileErrorCount = 0;
+    try {
+      if (parser == null) {
+        try {
+          parser = parserFactory.getParser(file.getFileName(), range.open(), offset);
+        } catch (IOException | DataParserException ex) {
+          throw new BadSpoolFileException(file.getAbsolutePath(), offset, ex);
+        }
+      }
+      offset = generateBatch(file, offset, batchSize, batchContext.getBatchMaker());
+    } catch (BadSpoolFileException ex) {
+      LOG.error(Errors.SPOOLDIR_01.getMessage(), ex.getFile(), ex.getPos(), ex.toString(), ex);
+      context.reportError(Errors.SPOOLDIR_01, ex.getFile(), ex.getPos(), ex.toString(), ex);
+      IOUtils.closeQuietly(parser);
+      parser = null;
+      offset = MINUS_ONE;
+      if (split.fail()) {
+        // the other ranges of the file are not read any further
+        spoolDirBaseContext.removeFileSplit(split);
+        try {
+          spooler.handleFileAsError(file);
+        } catch (IOException ex1) {
+          throw new StageException(Errors.SPOOLDIR_00, file, ex1.toString(), ex1);
+        } finally {
+          spooler.removeFileBeingProcessed(file);
+        }
+      }
+    }
+
+    spoolDirBaseContext.setNoMoreData(threadNumber, false, null, 0, 0, 0);
+    Offset fileOffset = split.getOffset(range, offset);
+    boolean batchProcessed = context.processBatch(batchContext, fileOffset.getFile(), fileOffset.getOffsetString());
+    if (split.update(range, offset, perFileRecordCount, perFileErrorCount) && !split.isFailed()) {
+      finishedSplit = split;
+    }
+    if (MINUS_ONE.equals(offset)) {
+      range = null;
+    }
+    if (batchProcessed && !context.isPreview()) {
+      releaseOffset(lastSourceOffset, split);
+      if (split.isFailed()) {
+        // like the error path of a file read sequentially, the ranges of the failed file are not kept in the offsets
+        context.commitOffset(split.getOffsetFile(), null);
+      }
+    }
+    updateGauge(Status.BATCH_GENERATED, file, offset);
+
+    return new Offset(Offset.VERSION_ONE, null, MINUS_ONE);
+  }
+
+  /**
+   * Sends the finished file events of a split file once all its ranges were read, and post processes the file.
+   */
+  private Offset finishSplit(Offset lastSourceOffset, BatchContext batchContext) throws StageException {
+    FileSplit split = finishedSplit;
+    finishedSplit = null;
+    WrappedFile file = split.getFile();
+    sendFinishedFileEvents(batchContext, file, split.getRecordCount(), split.getErrorCount());
+
+    spoolDirBaseContext.setNoMoreData(threadNumber, false, null, 0, 0, 0);
+    Offset newOffset = new Offset(Offset.VERSION_ONE, split.getOffsetFile(), MINUS_ONE);
+    boolean batchProcessed = context.processBatch(batchContext, newOffset.getFile(), newOffset.getOffsetString());
+    if (batchProcessed && !context.isPreview()) {
+      releaseOffset(lastSourceOffset, split);
+      if (fs.exists(file)) {
+        spooler.doPostProcessing(file);
+      }
+    }
+    spooler.removeFileBeingProcessed(file);
+    spoolDirBaseContext.removeFileSplit(split);
+    updateGauge(Status.BATCH_GENERATED, file, MINUS_ONE);
+
+    // like any other fully read file, the offset is removed once the thread moves to another file
+    return newOffset;
+  }
+
+  /**
+   * Removes the offset of the file read before taking ranges of a split file, as done when moving to the next file.
+   */
+  private void releaseOffset(Offset lastSourceOffset, FileSplit split) {
+    String lastSourceFile = lastSourceOffset.getRawFile();
+    if (lastSourceFile != null &&
+        MINUS_ONE.equals(lastSourceOffset.getOffset()) &&
+        !lastSourceFile.equals(split.getOffsetFile())) {
+      context.commitOffset(lastSourceFile, null);
+    }
+  }
+
   private String processFullPath(String file) {
     if (file != null) {
       Path filePath = Paths.get(file);
@@ -626,10 +811,14 @@ public class SpoolDirRunnable implements Runnable {
   }
 
   private void updateGauge(Status status, String offset) {
+    updateGauge(status, currentFile, offset);
+  }
+
+  private void updateGauge(Status status, WrappedFile file, String offset) {
     gaugeMap.put(STATUS, status.name());
     gaugeMap.put(
         CURRENT_FILE,
-        currentFile == null ? "" : currentFile.getFileName()
+        file == null ? "" : file.getFileName()
     );
     gaugeMap.put(
         OFFSET,
@@ -193,6 +193,16 @@ public interface WrappedFileSystem {
    */
   boolean findDirectoryPathCreationWatcher(List<WrappedFile> spoolDirPath);
 
+  /**
+   * Tells whether the files of this file system are on the default file system, so that new files can be discovered
+   * with a {@link java.nio.file.WatchService} instead of scanning the directory.
+   *
+   * @return {@code true} if directories can be watched
+   */
+  default boolean supportsWatchService() {
+    return false;
+  }
+
   /**
    * Returns the FileRef Builder for whole file data format
    *
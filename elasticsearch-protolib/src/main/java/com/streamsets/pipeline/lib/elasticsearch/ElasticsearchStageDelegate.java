@@ -42,6 +42,7 @@ import org.apache.http.message.BasicHeader;
 import org.apache.http.ssl.SSLContexts;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.sniff.ElasticsearchHostsSniffer;
@@ -607,6 +608,17 @@ public class ElasticsearchStageDelegate {
     return restClient.performRequest(method, endpoint, params, entity, headers);
   }
 
+  public void performRequestAsync(
+      String method,
+      String endpoint,
+      Map<String, String> params,
+      HttpEntity entity,
+      ResponseListener responseListener,
+      Header... headers
+  ) {
+    restClient.performRequestAsync(method, endpoint, params, entity, responseListener, headers);
+  }
+
   private void addSniffer(HttpHost[] hosts) {
     if (conf.clientSniff) {
       switch (hosts[0].getSchemeName()) {
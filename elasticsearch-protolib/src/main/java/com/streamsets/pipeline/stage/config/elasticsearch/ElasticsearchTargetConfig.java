@@ -177,4 +177,34 @@ public class ElasticsearchTargetConfig extends ElasticsearchConfig {
       group = "ELASTIC_SEARCH"
   )
   public String rawAdditionalProperties;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "10240",
+      label = "Max Bulk Request Size (KB)",
+      description = "The operations of a batch are sent in bulk requests of about this size. An operation larger " +
+          "than this size is sent alone.",
+      displayPosition = 130,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ELASTIC_SEARCH",
+      min = 1,
+      max = 1024 * 1024
+  )
+  public int maxBulkRequestSizeKB = 10240;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Max Concurrent Bulk Requests",
+      description = "Number of bulk requests of a batch that can be in flight at the same time. With more than one, " +
+          "operations on the same document in different requests can be applied in any order.",
+      displayPosition = 140,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ELASTIC_SEARCH",
+      min = 1,
+      max = 16
+  )
+  public int maxConcurrentBulkRequests = 1;
 }
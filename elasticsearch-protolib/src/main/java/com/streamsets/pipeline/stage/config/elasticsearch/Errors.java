@@ -74,7 +74,9 @@ public enum Errors implements ErrorCode {
   ELASTICSEARCH_50("Invalid path [{}] ({})"),
   ELASTICSEARCH_51("No PathEscape implementation found"),
   ELASTICSEARCH_52("There should be only one implementation of PathEscape"),
-  ELASTICSEARCH_53("Port value should be a number: '{}'");
+  ELASTICSEARCH_53("Port value should be a number: '{}'"),
+  ELASTICSEARCH_54("Interrupted while waiting for bulk requests to complete"),
+  ;
 
   private final String msg;
 
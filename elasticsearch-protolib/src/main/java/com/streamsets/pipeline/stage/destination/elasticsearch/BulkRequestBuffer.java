@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.elasticsearch;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable buffer the bulk request body is written to, the request entity is sent straight from the buffer without
+ * copying it.
+ */
+class BulkRequestBuffer extends ByteArrayOutputStream {
+
+  BulkRequestBuffer(int size) {
+    super(size);
+  }
+
+  void write(String str) {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    write(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Drops everything written after the given size, used to discard a partially written operation.
+   */
+  void truncate(int size) {
+    count = size;
+  }
+
+  /**
+   * Removes the line breaks written after the given size, as the bulk API expects every document in a single line.
+   */
+  void removeLineBreaks(int from) {
+    int to = from;
+    for (int i = from; i < count; i++) {
+      if (buf[i] != '\n') {
+        buf[to++] = buf[i];
+      }
+    }
+    count = to;
+  }
+
+  HttpEntity toEntity() {
+    return new ByteArrayEntity(buf, 0, count, ContentType.APPLICATION_JSON);
+  }
+}
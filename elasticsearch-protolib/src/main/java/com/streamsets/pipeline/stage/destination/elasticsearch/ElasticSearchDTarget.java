@@ -28,7 +28,7 @@ import com.streamsets.pipeline.stage.connection.elasticsearch.ElasticsearchConne
 @StageDef(
     // We're reusing upgrader for both ToErrorElasticSearchDTarget and ElasticsearchDTargetUpgrader, make sure that you
     // upgrade both versions at the same time when changing.
-    version = 12,
+    version = 13,
     label = "Elasticsearch",
     description = "Upload data to an Elasticsearch cluster",
     icon = "elasticsearch.png",
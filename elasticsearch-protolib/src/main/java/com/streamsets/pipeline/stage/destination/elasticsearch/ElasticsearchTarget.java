@@ -47,17 +47,15 @@ import com.streamsets.pipeline.stage.config.elasticsearch.ElasticsearchTargetCon
 import com.streamsets.pipeline.stage.config.elasticsearch.Errors;
 import com.streamsets.pipeline.stage.connection.elasticsearch.ElasticsearchConnectionGroups;
 import org.apache.commons.lang.StringUtils;
-import org.apache.http.HttpEntity;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.Header;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -67,9 +65,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class ElasticsearchTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(ElasticsearchTarget.class);
+  private static final int INITIAL_BULK_BUFFER_SIZE = 64 * 1024;
   private final ElasticsearchTargetConfig conf;
   private ELEval timeDriverEval;
   private TimeZone timeZone;
@@ -86,6 +89,9 @@ public class ElasticsearchTarget extends BaseTarget {
   private static final Pattern elVarPattern = Pattern.compile(".*\\$\\{.*:.*\\(.*\\)\\}.*");
   private String additionalProperties;
   private boolean additionalPropertiesIsEval;
+  private int maxBulkRequestSize;
+  // one buffer per request that can be in flight, taking a buffer waits for a request to complete
+  private BlockingQueue<BulkRequestBuffer> bulkBuffers;
 
   public ElasticsearchTarget(ElasticsearchTargetConfig conf) {
     this.conf = conf;
@@ -234,7 +240,7 @@ public class ElasticsearchTarget extends BaseTarget {
       ));
     }
 
-    delegate = new ElasticsearchStageDelegate(getContext(), conf);
+    delegate = createDelegate();
 
     issues = delegate.init("elasticSearchConfig", issues);
 
@@ -243,9 +249,20 @@ public class ElasticsearchTarget extends BaseTarget {
         .setCharset(Charset.forName(conf.charset))
         .build();
 
+    maxBulkRequestSize = conf.maxBulkRequestSizeKB * 1024;
+    bulkBuffers = new ArrayBlockingQueue<>(conf.maxConcurrentBulkRequests);
+    for (int i = 0; i < conf.maxConcurrentBulkRequests; i++) {
+      bulkBuffers.add(new BulkRequestBuffer(Math.min(maxBulkRequestSize, INITIAL_BULK_BUFFER_SIZE)));
+    }
+
     return issues;
   }
 
+  @VisibleForTesting
+  ElasticsearchStageDelegate createDelegate() {
+    return new ElasticsearchStageDelegate(getContext(), conf);
+  }
+
   @Override
   public void destroy() {
     if(delegate != null) {
@@ -279,136 +296,195 @@ public class ElasticsearchTarget extends BaseTarget {
     ELVars elVars = getContext().createELVars();
     TimeNowEL.setTimeNowInContext(elVars, getBatchTime());
     Iterator<Record> it = batch.getRecords();
+    Header[] headers = delegate.getAuthenticationHeader(
+        conf.connection.securityConfig.securityUser.get(),
+        conf.connection.securityConfig.securityPassword.get()
+    );
 
-    StringBuilder bulkRequest = new StringBuilder();
-
-    //we need to keep the records in order of appearance in case we have indexing errors
-    //and error handling is TO_ERROR
-    List<Record> records = new ArrayList<>();
+    // requests are kept in order of appearance, and so are the records of each request, to map back the errors of
+    // the bulk items to their records in case error handling is TO_ERROR
+    List<BulkRequest> requests = new ArrayList<>();
+    BulkRequest request = null;
 
-    while (it.hasNext()) {
-      Record record = it.next();
-      records.add(record);
+    try {
+      while (it.hasNext()) {
+        Record record = it.next();
+
+        try {
+          RecordEL.setRecordInContext(elVars, record);
+          String index = getRecordIndex(elVars, record);
+          String type = typeEval.eval(elVars, conf.typeTemplate, String.class);
+          String id = null;
+          if (!StringUtils.isEmpty(conf.docIdTemplate)) {
+            id = docIdEval.eval(elVars, conf.docIdTemplate, String.class);
+          }
+          String parent = null;
+          if (!StringUtils.isEmpty(conf.parentIdTemplate)) {
+            parent = parentIdEval.eval(elVars, conf.parentIdTemplate, String.class);
+          }
+          String routing = null;
+          if (!StringUtils.isEmpty(conf.routingTemplate)) {
+            routing = routingEval.eval(elVars, conf.routingTemplate, String.class);
+          }
+          String additionalPropertiesName = null;
+          if (additionalPropertiesIsEval) {
+            additionalPropertiesName = additionalPropertiesEval.eval(elVars, additionalProperties, String.class);
+          }
 
-      try {
-        RecordEL.setRecordInContext(elVars, record);
-        String index = getRecordIndex(elVars, record);
-        String type = typeEval.eval(elVars, conf.typeTemplate, String.class);
-        String id = null;
-        if (!StringUtils.isEmpty(conf.docIdTemplate)) {
-          id = docIdEval.eval(elVars, conf.docIdTemplate, String.class);
-        }
-        String parent = null;
-        if (!StringUtils.isEmpty(conf.parentIdTemplate)) {
-          parent = parentIdEval.eval(elVars, conf.parentIdTemplate, String.class);
-        }
-        String routing = null;
-        if (!StringUtils.isEmpty(conf.routingTemplate)) {
-          routing = routingEval.eval(elVars, conf.routingTemplate, String.class);
-        }
-        String additionalPropertiesName = null;
-        if (additionalPropertiesIsEval) {
-          additionalPropertiesName = additionalPropertiesEval.eval(elVars, additionalProperties, String.class);
-        }
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        DataGenerator generator = generatorFactory.getGenerator(baos);
-        generator.write(record);
-        generator.close();
-
-        int opCode = -1;
-        String opType = record.getHeader().getAttribute(OperationType.SDC_OPERATION_TYPE);
-        String recordJson = new String(baos.toByteArray(), StandardCharsets.UTF_8).replace("\n", "");
-        // Check if the operation code from header attribute is valid
-        if (!StringUtils.isEmpty(opType)) {
-          try {
-            opCode = ElasticsearchOperationType.convertToIntCode(opType);
-          } catch (NumberFormatException | UnsupportedOperationException ex) {
-            // Operation obtained from header is not supported. Handle accordingly
-            switch (conf.unsupportedAction) {
-              case DISCARD:
-                LOG.debug("Discarding record with unsupported operation {}", opType);
-                break;
-              case SEND_TO_ERROR:
-                errorRecordHandler.onError(new OnRecordErrorException(
-                    record,
-                    Errors.ELASTICSEARCH_13,
-                    ex.getMessage(),
-                    ex
-                ));
-                break;
-              case USE_DEFAULT:
-                opCode = conf.defaultOperation.code;
-                break;
-              default: //unknown action
-                errorRecordHandler.onError(new OnRecordErrorException(
-                    record,
-                    Errors.ELASTICSEARCH_14,
-                    ex.getMessage(),
-                    ex
-                ));
+          int opCode = -1;
+          String opType = record.getHeader().getAttribute(OperationType.SDC_OPERATION_TYPE);
+          // Check if the operation code from header attribute is valid
+          if (!StringUtils.isEmpty(opType)) {
+            try {
+              opCode = ElasticsearchOperationType.convertToIntCode(opType);
+            } catch (NumberFormatException | UnsupportedOperationException ex) {
+              // Operation obtained from header is not supported. Handle accordingly
+              switch (conf.unsupportedAction) {
+                case DISCARD:
+                  LOG.debug("Discarding record with unsupported operation {}", opType);
+                  break;
+                case SEND_TO_ERROR:
+                  errorRecordHandler.onError(new OnRecordErrorException(
+                      record,
+                      Errors.ELASTICSEARCH_13,
+                      ex.getMessage(),
+                      ex
+                  ));
+                  break;
+                case USE_DEFAULT:
+                  opCode = conf.defaultOperation.code;
+                  break;
+                default: //unknown action
+                  errorRecordHandler.onError(new OnRecordErrorException(
+                      record,
+                      Errors.ELASTICSEARCH_14,
+                      ex.getMessage(),
+                      ex
+                  ));
+              }
             }
+          } else {
+            // No header attribute set. Use default.
+            opCode = conf.defaultOperation.code;
           }
-        } else {
-          // No header attribute set. Use default.
-          opCode = conf.defaultOperation.code;
+          if (opCode == -1) {
+            // discarded or sent to error
+            continue;
+          }
+
+          if (request == null) {
+            request = new BulkRequest(takeBulkBuffer());
+          }
+          writeOperation(request.buffer, index, type, id, parent, routing, additionalPropertiesName, record, opCode);
+          request.records.add(record);
+
+          if (request.buffer.size() >= maxBulkRequestSize) {
+            sendBulkRequest(request, headers);
+            requests.add(request);
+            request = null;
+          }
+        } catch (IOException ex) {
+          errorRecordHandler.onError(new OnRecordErrorException(record,
+              Errors.ELASTICSEARCH_15,
+              record.getHeader().getSourceId(),
+              Optional.ofNullable(ex.getMessage()).orElse("no details provided"),
+              ex
+          ));
         }
-        bulkRequest.append(getOperation(index, type, id, parent, routing, additionalPropertiesName, recordJson, opCode));
-      } catch (IOException ex) {
-        errorRecordHandler.onError(new OnRecordErrorException(record,
-            Errors.ELASTICSEARCH_15,
-            record.getHeader().getSourceId(),
-            Optional.ofNullable(ex.getMessage()).orElse("no details provided"),
-            ex
-        ));
+      }
+
+      if (request != null) {
+        sendBulkRequest(request, headers);
+        requests.add(request);
+        request = null;
+      }
+    } finally {
+      if (request != null) {
+        // never sent, give the buffer back right away
+        bulkBuffers.add(request.buffer);
       }
     }
 
-    if (!records.isEmpty()) {
-      try {
-        HttpEntity entity = new StringEntity(bulkRequest.toString(), ContentType.APPLICATION_JSON);
-        Response response;
-        response = delegate.performRequest(
-            "POST",
-            "/_bulk",
-            conf.params,
-            entity,
-            delegate.getAuthenticationHeader(conf.connection.securityConfig.securityUser.get(),
-                conf.connection.securityConfig.securityPassword.get())
-        );
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        response.getEntity().writeTo(baos);
-        JsonObject json = new JsonParser().parse(baos.toString()).getAsJsonObject();
-        baos.close();
-
-        // Handle errors in bulk requests individually.
-        boolean errors = json.get("errors").getAsBoolean();
-        if (errors) {
-          List<ErrorItem> errorItems;
-          switch (getContext().getOnErrorRecord()) {
-            case DISCARD:
-              break;
-            case TO_ERROR:
-              errorItems = extractErrorItems(json);
-              for (ErrorItem item : errorItems) {
-                Record record = records.get(item.index);
-                getContext().toError(record, Errors.ELASTICSEARCH_16, record.getHeader().getSourceId(), item.reason);
-              }
-              break;
-            case STOP_PIPELINE:
-              errorItems = extractErrorItems(json);
-              throw new StageException(Errors.ELASTICSEARCH_17, errorItems.size(), "one or more operations failed");
-            default:
-              throw new IllegalStateException(Utils.format("Unknown OnError value '{}'", getContext().getOnErrorRecord()));
+    for (BulkRequest sent : requests) {
+      handleBulkResponse(sent);
+    }
+  }
+
+  private BulkRequestBuffer takeBulkBuffer() throws StageException {
+    try {
+      BulkRequestBuffer buffer = bulkBuffers.take();
+      buffer.reset();
+      return buffer;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.ELASTICSEARCH_54, ex);
+    }
+  }
+
+  private void sendBulkRequest(BulkRequest request, Header[] headers) {
+    delegate.performRequestAsync(
+        "POST",
+        "/_bulk",
+        conf.params,
+        request.buffer.toEntity(),
+        new ResponseListener() {
+          @Override
+          public void onSuccess(Response response) {
+            bulkBuffers.add(request.buffer);
+            request.response.complete(response);
+          }
+
+          @Override
+          public void onFailure(Exception ex) {
+            bulkBuffers.add(request.buffer);
+            request.response.completeExceptionally(ex);
           }
+        },
+        headers
+    );
+  }
+
+  private void handleBulkResponse(BulkRequest request) throws StageException {
+    List<Record> records = request.records;
+    try {
+      Response response = request.response.get();
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      response.getEntity().writeTo(baos);
+      JsonObject json = new JsonParser().parse(baos.toString()).getAsJsonObject();
+      baos.close();
+
+      // Handle errors in bulk requests individually.
+      boolean errors = json.get("errors").getAsBoolean();
+      if (errors) {
+        List<ErrorItem> errorItems;
+        switch (getContext().getOnErrorRecord()) {
+          case DISCARD:
+            break;
+          case TO_ERROR:
+            errorItems = extractErrorItems(json);
+            for (ErrorItem item : errorItems) {
+              Record record = records.get(item.index);
+              getContext().toError(record, Errors.ELASTICSEARCH_16, record.getHeader().getSourceId(), item.reason);
+            }
+            break;
+          case STOP_PIPELINE:
+            errorItems = extractErrorItems(json);
+            throw new StageException(Errors.ELASTICSEARCH_17, errorItems.size(), "one or more operations failed");
+          default:
+            throw new IllegalStateException(Utils.format("Unknown OnError value '{}'", getContext().getOnErrorRecord()));
         }
-      } catch (IOException ex) {
-        errorRecordHandler.onError(records, new StageException(
-            Errors.ELASTICSEARCH_17,
-            records.size(),
-            Optional.ofNullable(ex.getMessage()).orElse("no details provided"),
-            ex
-        ));
       }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.ELASTICSEARCH_54, ex);
+    } catch (IOException | ExecutionException ex) {
+      Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+      errorRecordHandler.onError(records, new StageException(
+          Errors.ELASTICSEARCH_17,
+          records.size(),
+          Optional.ofNullable(cause.getMessage()).orElse("no details provided"),
+          cause
+      ));
     }
   }
 
@@ -421,34 +497,59 @@ public class ElasticsearchTarget extends BaseTarget {
     return batchTime;
   }
 
-  private String getOperation( String index, String type, String id, String parent, String routing,
-      String additionalProperties, String record, int opCode) {
+  private void writeOperation(BulkRequestBuffer buffer, String index, String type, String id, String parent,
+      String routing, String additionalProperties, Record record, int opCode) throws IOException, StageException {
+    int start = buffer.size();
     StringBuilder op = new StringBuilder();
-    switch (opCode) {
-      case OperationType.UPSERT_CODE:
-        getOperationMetadata("index", index, type, id, parent, routing, additionalProperties, op);
-        op.append(String.format("%s%n", record));
-        break;
-      case OperationType.INSERT_CODE:
-        getOperationMetadata("create", index, type, id, parent, routing, additionalProperties, op);
-        op.append(String.format("%s%n", record));
-        break;
-      case OperationType.UPDATE_CODE:
-        getOperationMetadata("update", index, type, id, parent, routing, additionalProperties, op);
-        op.append(String.format("{\"doc\":%s}%n", record));
-        break;
-      case OperationType.MERGE_CODE:
-        getOperationMetadata("update", index, type, id, parent, routing, additionalProperties, op);
-        op.append(String.format("{\"doc_as_upsert\": \"true\", \"doc\":%s}%n", record));
-        break;
-      case OperationType.DELETE_CODE:
-        getOperationMetadata("delete", index, type, id, parent, routing, additionalProperties, op);
-        break;
-      default:
-        LOG.error("Operation {} not supported", opCode);
-        throw new UnsupportedOperationException(String.format("Unsupported Operation: %s", opCode));
+    try {
+      switch (opCode) {
+        case OperationType.UPSERT_CODE:
+          getOperationMetadata("index", index, type, id, parent, routing, additionalProperties, op);
+          buffer.write(op.toString());
+          writeDocument(buffer, "", record, "");
+          break;
+        case OperationType.INSERT_CODE:
+          getOperationMetadata("create", index, type, id, parent, routing, additionalProperties, op);
+          buffer.write(op.toString());
+          writeDocument(buffer, "", record, "");
+          break;
+        case OperationType.UPDATE_CODE:
+          getOperationMetadata("update", index, type, id, parent, routing, additionalProperties, op);
+          buffer.write(op.toString());
+          writeDocument(buffer, "{\"doc\":", record, "}");
+          break;
+        case OperationType.MERGE_CODE:
+          getOperationMetadata("update", index, type, id, parent, routing, additionalProperties, op);
+          buffer.write(op.toString());
+          writeDocument(buffer, "{\"doc_as_upsert\": \"true\", \"doc\":", record, "}");
+          break;
+        case OperationType.DELETE_CODE:
+          getOperationMetadata("delete", index, type, id, parent, routing, additionalProperties, op);
+          buffer.write(op.toString());
+          break;
+        default:
+          LOG.error("Operation {} not supported", opCode);
+          throw new UnsupportedOperationException(String.format("Unsupported Operation: %s", opCode));
+      }
+    } catch (IOException | StageException | RuntimeException ex) {
+      // don't leave half an operation in the request
+      buffer.truncate(start);
+      throw ex;
     }
-    return op.toString();
+  }
+
+  /**
+   * Writes the record as JSON in a single line, straight into the request buffer.
+   */
+  private void writeDocument(BulkRequestBuffer buffer, String prefix, Record record, String suffix)
+      throws IOException, StageException {
+    buffer.write(prefix);
+    int start = buffer.size();
+    try (DataGenerator generator = generatorFactory.getGenerator(buffer)) {
+      generator.write(record);
+    }
+    buffer.removeLineBreaks(start);
+    buffer.write(String.format("%s%n", suffix));
   }
 
   private void getOperationMetadata( String operation, String index, String type, String id, String parent,
@@ -505,6 +606,16 @@ public class ElasticsearchTarget extends BaseTarget {
     return errorItems;
   }
 
+  private static class BulkRequest {
+    final BulkRequestBuffer buffer;
+    final List<Record> records = new ArrayList<>();
+    final CompletableFuture<Response> response = new CompletableFuture<>();
+
+    BulkRequest(BulkRequestBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
   private static class ErrorItem {
     int index;
     String reason;
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.elasticsearch;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBulkRequestBuffer {
+
+  @Test
+  public void testRemoveLineBreaks() throws Exception {
+    BulkRequestBuffer buffer = new BulkRequestBuffer(4);
+    buffer.write("{\"index\":{}}\n");
+    int start = buffer.size();
+    buffer.write("\n{\"a\":\"x\\ny\",\n\"b\":1}\n");
+    buffer.removeLineBreaks(start);
+    buffer.write("\n");
+
+    HttpEntity entity = buffer.toEntity();
+    Assert.assertEquals(buffer.size(), entity.getContentLength());
+    Assert.assertEquals("{\"index\":{}}\n{\"a\":\"x\\ny\",\"b\":1}\n", EntityUtils.toString(entity));
+  }
+
+  @Test
+  public void testTruncateAndReuse() throws Exception {
+    BulkRequestBuffer buffer = new BulkRequestBuffer(4);
+    buffer.write("{\"delete\":{}}\n");
+    int start = buffer.size();
+    buffer.write("{\"index\":");
+    buffer.truncate(start);
+    Assert.assertEquals("{\"delete\":{}}\n", EntityUtils.toString(buffer.toEntity()));
+
+    buffer.reset();
+    buffer.write("{\"create\":{}}\n");
+    Assert.assertEquals("{\"create\":{}}\n", EntityUtils.toString(buffer.toEntity()));
+  }
+}
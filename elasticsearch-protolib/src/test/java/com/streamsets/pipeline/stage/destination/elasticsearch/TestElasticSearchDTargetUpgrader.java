@@ -194,4 +194,15 @@ public class TestElasticSearchDTargetUpgrader {
     UpgraderTestUtils.assertExists(configs, "elasticSearchConfig.connection.securityConfig.sslTrustStorePath", "");
     UpgraderTestUtils.assertExists(configs, "elasticSearchConfig.connection.securityConfig.sslTrustStorePassword", "");
   }
+
+  @Test
+  public void testV12ToV13() throws StageException {
+    Mockito.doReturn(12).when(context).getFromVersion();
+    Mockito.doReturn(13).when(context).getToVersion();
+
+    configs = elasticSearchTargetUpgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "elasticSearchConfig.maxBulkRequestSizeKB", 10240);
+    UpgraderTestUtils.assertExists(configs, "elasticSearchConfig.maxConcurrentBulkRequests", 1);
+  }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.elasticsearch;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.elasticsearch.ElasticsearchStageDelegate;
+import com.streamsets.pipeline.lib.operation.OperationType;
+import com.streamsets.pipeline.sdk.DataCollectorServicesUtils;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.sdk.TargetRunner;
+import com.streamsets.pipeline.stage.config.elasticsearch.ElasticsearchTargetConfig;
+import com.streamsets.pipeline.stage.config.elasticsearch.Errors;
+import com.streamsets.pipeline.stage.connection.elasticsearch.SecurityConfig;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestElasticsearchTarget {
+  // with a 1 KB bulk request size each request holds 2 of these documents
+  private static final String DOCUMENT = StringUtils.repeat("x", 600);
+
+  private ElasticsearchStageDelegate delegate;
+  private BlockingQueue<SentRequest> sentRequests;
+  private volatile boolean respondRightAway;
+  private ExecutorService executor;
+
+  @BeforeClass
+  public static void setUpClass() {
+    DataCollectorServicesUtils.loadDefaultServices();
+  }
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    sentRequests = new LinkedBlockingQueue<>();
+    respondRightAway = true;
+    executor = Executors.newSingleThreadExecutor();
+
+    delegate = Mockito.mock(ElasticsearchStageDelegate.class);
+    Mockito.when(delegate.init(Mockito.anyString(), Mockito.anyListOf(Stage.ConfigIssue.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[1]);
+    Mockito.when(delegate.getAuthenticationHeader(Mockito.anyString(), Mockito.anyString())).thenReturn(new Header[0]);
+    Mockito.doAnswer(invocation -> {
+      Object[] args = invocation.getArguments();
+      // the entity wraps a buffer reused once the request completes, read it right away
+      SentRequest request = new SentRequest(EntityUtils.toString((HttpEntity) args[3]), (ResponseListener) args[4]);
+      if (respondRightAway) {
+        request.respond();
+      }
+      sentRequests.add(request);
+      return null;
+    }).when(delegate).performRequestAsync(
+        Mockito.eq("POST"),
+        Mockito.eq("/_bulk"),
+        Mockito.anyMap(),
+        Mockito.any(HttpEntity.class),
+        Mockito.any(ResponseListener.class),
+        Mockito.<Header>anyVararg()
+    );
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private ElasticsearchTarget createTarget(int maxConcurrentBulkRequests) {
+    ElasticsearchTargetConfig conf = new ElasticsearchTargetConfig();
+    conf.connection.serverUrl = "127.0.0.1";
+    conf.connection.port = "9200";
+    conf.timeDriver = "${time:now()}";
+    conf.timeZoneID = "UTC";
+    conf.indexTemplate = "${record:value('/index')}";
+    conf.typeTemplate = "${record:value('/type')}";
+    conf.docIdTemplate = "";
+    conf.parentIdTemplate = "";
+    conf.routingTemplate = "";
+    conf.charset = "UTF-8";
+    conf.defaultOperation = ElasticsearchOperationType.INDEX;
+    conf.unsupportedAction = UnsupportedOperationAction.SEND_TO_ERROR;
+    conf.connection.useSecurity = false;
+    conf.connection.securityConfig = new SecurityConfig();
+    conf.rawAdditionalProperties = "{}";
+    conf.maxBulkRequestSizeKB = 1;
+    conf.maxConcurrentBulkRequests = maxConcurrentBulkRequests;
+
+    return new ElasticsearchTarget(conf) {
+      @Override
+      ElasticsearchStageDelegate createDelegate() {
+        return delegate;
+      }
+    };
+  }
+
+  private static List<Record> createRecords(int count) {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Record record = RecordCreator.create();
+      Map<String, Field> map = new HashMap<>();
+      map.put("a", Field.create(DOCUMENT));
+      map.put("index", Field.create("i"));
+      map.put("type", Field.create("t"));
+      map.put("id", Field.create(i));
+      record.set(Field.create(map));
+      records.add(record);
+    }
+    return records;
+  }
+
+  private SentRequest nextRequest() throws InterruptedException {
+    SentRequest request = sentRequests.poll(10, TimeUnit.SECONDS);
+    Assert.assertNotNull("Bulk request was not sent", request);
+    return request;
+  }
+
+  private void assertNoRequest() throws InterruptedException {
+    Assert.assertNull(
+        "No buffer should be free to send another bulk request",
+        sentRequests.poll(200, TimeUnit.MILLISECONDS)
+    );
+  }
+
+  @Test
+  public void testBulkRequestsSplitBySize() throws Exception {
+    TargetRunner runner = new TargetRunner.Builder(ElasticSearchDTarget.class, createTarget(1)).build();
+    try {
+      runner.runInit();
+      runner.runWrite(createRecords(7));
+      Assert.assertTrue(runner.getErrorRecords().isEmpty());
+      Assert.assertTrue(runner.getErrors().isEmpty());
+
+      List<SentRequest> requests = new ArrayList<>(sentRequests);
+      Assert.assertEquals(4, requests.size());
+      Assert.assertEquals(Arrays.asList(0, 1), requests.get(0).getIds());
+      Assert.assertEquals(Arrays.asList(2, 3), requests.get(1).getIds());
+      Assert.assertEquals(Arrays.asList(4, 5), requests.get(2).getIds());
+      Assert.assertEquals(Arrays.asList(6), requests.get(3).getIds());
+      // a request is sent as soon as it reaches the maximum size, the last one holds what is left of the batch
+      for (int i = 0; i < 3; i++) {
+        Assert.assertTrue(requests.get(i).body.length() >= 1024);
+      }
+      Assert.assertTrue(requests.get(3).body.length() < 1024);
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testConcurrentBulkRequestsInFlight() throws Exception {
+    respondRightAway = false;
+    TargetRunner runner = new TargetRunner.Builder(ElasticSearchDTarget.class, createTarget(2)).build();
+    try {
+      runner.runInit();
+      Future<?> write = executor.submit(() -> {
+        runner.runWrite(createRecords(7));
+        return null;
+      });
+
+      // two requests in flight at once, the third one waits for a buffer
+      SentRequest first = nextRequest();
+      SentRequest second = nextRequest();
+      assertNoRequest();
+      Assert.assertFalse(write.isDone());
+
+      // requests can complete in any order
+      second.respond();
+      SentRequest third = nextRequest();
+      assertNoRequest();
+      first.respond();
+      SentRequest fourth = nextRequest();
+      Assert.assertFalse(write.isDone());
+      third.respond();
+      fourth.respond();
+      write.get(10, TimeUnit.SECONDS);
+
+      Assert.assertEquals(Arrays.asList(0, 1), first.getIds());
+      Assert.assertEquals(Arrays.asList(2, 3), second.getIds());
+      Assert.assertEquals(Arrays.asList(4, 5), third.getIds());
+      Assert.assertEquals(Arrays.asList(6), fourth.getIds());
+      Assert.assertTrue(runner.getErrorRecords().isEmpty());
+      Assert.assertTrue(runner.getErrors().isEmpty());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBulkItemErrorsMappedToRecords() throws Exception {
+    TargetRunner runner = new TargetRunner.Builder(ElasticSearchDTarget.class, createTarget(2))
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+    try {
+      runner.runInit();
+      List<Record> records = createRecords(8);
+      // never makes it to a request, the records after it must not shift
+      records.get(1).getHeader().setAttribute(OperationType.SDC_OPERATION_TYPE, "unknown");
+      records.get(3).set("/fail", Field.create(true));
+      records.get(6).set("/fail", Field.create(true));
+      runner.runWrite(records);
+      Assert.assertTrue(runner.getErrors().isEmpty());
+
+      List<SentRequest> requests = new ArrayList<>(sentRequests);
+      Assert.assertEquals(4, requests.size());
+      Assert.assertEquals(Arrays.asList(0, 2), requests.get(0).getIds());
+      Assert.assertEquals(Arrays.asList(3, 4), requests.get(1).getIds());
+      Assert.assertEquals(Arrays.asList(5, 6), requests.get(2).getIds());
+      Assert.assertEquals(Arrays.asList(7), requests.get(3).getIds());
+
+      List<Record> errorRecords = runner.getErrorRecords();
+      Assert.assertEquals(3, errorRecords.size());
+      Assert.assertEquals(1, errorRecords.get(0).get("/id").getValueAsInteger());
+      Assert.assertEquals(Errors.ELASTICSEARCH_13.getCode(), errorRecords.get(0).getHeader().getErrorCode());
+      Assert.assertEquals(3, errorRecords.get(1).get("/id").getValueAsInteger());
+      Assert.assertEquals(Errors.ELASTICSEARCH_16.getCode(), errorRecords.get(1).getHeader().getErrorCode());
+      Assert.assertTrue(errorRecords.get(1).getHeader().getErrorMessage().contains("failed 3"));
+      Assert.assertEquals(6, errorRecords.get(2).get("/id").getValueAsInteger());
+      Assert.assertEquals(Errors.ELASTICSEARCH_16.getCode(), errorRecords.get(2).getHeader().getErrorCode());
+      Assert.assertTrue(errorRecords.get(2).getHeader().getErrorMessage().contains("failed 6"));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  /**
+   * Bulk request sent to the mocked client. Its response fails the documents with a "fail" field.
+   */
+  private static class SentRequest {
+    final String body;
+    final ResponseListener listener;
+    final List<JsonObject> documents = new ArrayList<>();
+
+    SentRequest(String body, ResponseListener listener) {
+      this.body = body;
+      this.listener = listener;
+      JsonParser parser = new JsonParser();
+      String[] lines = body.split("\n");
+      // every operation is an index, an action line followed by the document line
+      for (int i = 1; i < lines.length; i += 2) {
+        documents.add(parser.parse(lines[i]).getAsJsonObject());
+      }
+    }
+
+    List<Integer> getIds() {
+      List<Integer> ids = new ArrayList<>();
+      for (JsonObject document : documents) {
+        ids.add(document.get("id").getAsInt());
+      }
+      return ids;
+    }
+
+    void respond() {
+      boolean errors = false;
+      JsonArray items = new JsonArray();
+      for (JsonObject document : documents) {
+        JsonObject item = new JsonObject();
+        if (document.has("fail")) {
+          errors = true;
+          JsonObject error = new JsonObject();
+          error.addProperty("reason", "failed " + document.get("id").getAsInt());
+          item.addProperty("status", 400);
+          item.add("error", error);
+        } else {
+          item.addProperty("status", 201);
+        }
+        JsonObject operation = new JsonObject();
+        operation.add("index", item);
+        items.add(operation);
+      }
+      JsonObject json = new JsonObject();
+      json.addProperty("errors", errors);
+      json.add("items", items);
+
+      Response response = Mockito.mock(Response.class);
+      Mockito.when(response.getEntity()).thenReturn(new StringEntity(json.toString(), ContentType.APPLICATION_JSON));
+      listener.onSuccess(response);
+    }
+  }
+}
@@ -50,6 +50,8 @@ import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
 @ConfigGroups(Groups.class)
 @HideConfigs(value = {
     "conf.allowLateDirectory",
+    "conf.fileDiscoveryMode",
+    "conf.splitSizeMB",
     "conf.dataFormatConfig.verifyChecksum",
     "conf.dataFormatConfig.avroSchemaSource"
 })
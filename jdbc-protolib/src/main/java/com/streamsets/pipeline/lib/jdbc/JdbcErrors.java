@@ -161,6 +161,8 @@ public enum JdbcErrors implements ErrorCode {
   JDBC_412("Poll interval (s) '{}' cannot be greater than Batch Time Wait (ms) '{}'"), //Postgres
   JDBC_413("Could not create the WAL receiver: {}"), //Postgres
   JDBC_414("This database does not support the Quote Character: {}"),
+  JDBC_415("Batch lookup requires at least one key column"),
+  JDBC_416("No results for lookup key: '{}'"),
 
   JDBC_500("The JDBC URL must be 'jdbc:<vendor>://<HOST>[:<PORT>][/<DB>]...'"),
   JDBC_501("Connection must be secured, either by SSL encryption or SSH Tunneling"),
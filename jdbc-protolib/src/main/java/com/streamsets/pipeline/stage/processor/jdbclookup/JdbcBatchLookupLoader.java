@@ -0,0 +1,357 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.DataType;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
+import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
+import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
+import com.streamsets.pipeline.lib.jdbc.multithread.util.OffsetQueryUtil;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loads lookup values for keys, a key being the values of the key columns, with a parameterized query.
+ * <p/>
+ * Keys are resolved in chunks of up to maxKeysPerQuery keys, every chunk runs the same prepared statement (the last
+ * chunk is padded repeating its last key) so that a batch of distinct keys costs a handful of queries. A statement
+ * binds at most MAX_BIND_PARAMETERS values, fewer keys go in a query when there are too many key columns for
+ * maxKeysPerQuery.
+ * <p/>
+ * Values of numeric key columns are bound with their type and compared as numbers when mapping the rows back to the
+ * keys, so that e.g. the key "01" of an INTEGER column gets the row of 1. Other key columns are bound and compared as
+ * strings.
+ */
+public class JdbcBatchLookupLoader extends CacheLoader<List<String>, Optional<List<Map<String, Field>>>> {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchLookupLoader.class);
+  private static final Set<Field.Type> NUMERIC_TYPES = EnumSet.of(
+      Field.Type.SHORT,
+      Field.Type.INTEGER,
+      Field.Type.LONG,
+      Field.Type.FLOAT,
+      Field.Type.DOUBLE,
+      Field.Type.DECIMAL
+  );
+  // SQL Server accepts up to 2100 parameters per statement, the lowest limit among the supported databases
+  static final int MAX_BIND_PARAMETERS = 2000;
+
+  private final List<String> keyColumns;
+  private final String lookupQuery;
+  private final String metadataQuery;
+  private final int maxKeysPerQuery;
+  private final int fetchSize;
+  private final int maxClobSize;
+  private final int maxBlobSize;
+  private final ErrorRecordHandler errorRecordHandler;
+  private final Map<String, DataType> columnsToTypes;
+  private final DataSource dataSource;
+  private final Meter selectMeter;
+  private final Timer selectTimer;
+  private final JdbcUtil jdbcUtil;
+  private final DatabaseVendor vendor;
+  private final UnknownTypeAction unknownTypeAction;
+  // Types of the key columns, resolved from the metadata of the batch query on the first load
+  private volatile Field.Type[] keyTypes;
+
+  public JdbcBatchLookupLoader(
+    Stage.Context context,
+    DataSource dataSource,
+    String batchQuery,
+    List<String> keyColumns,
+    int maxKeysPerQuery,
+    int fetchSize,
+    Map<String, DataType> columnsToTypes,
+    int maxClobSize,
+    int maxBlobSize,
+    ErrorRecordHandler errorRecordHandler,
+    DatabaseVendor vendor,
+    UnknownTypeAction unknownTypeAction
+  ) {
+    this.dataSource = dataSource;
+    this.keyColumns = keyColumns;
+    this.maxKeysPerQuery = getKeysPerQuery(maxKeysPerQuery, keyColumns.size());
+    this.lookupQuery = createLookupQuery(batchQuery, keyColumns, this.maxKeysPerQuery);
+    this.metadataQuery = "SELECT * FROM (" + batchQuery + ") sdc_lookup WHERE 1 = 0";
+    this.fetchSize = fetchSize;
+    this.columnsToTypes = columnsToTypes;
+    this.maxClobSize = maxClobSize;
+    this.maxBlobSize = maxBlobSize;
+    this.errorRecordHandler = errorRecordHandler;
+    this.selectMeter = context.createMeter("Select Queries");
+    this.selectTimer = context.createTimer("Select Queries");
+    this.jdbcUtil = UtilsProvider.getJdbcUtil();
+    this.vendor = vendor;
+    this.unknownTypeAction = unknownTypeAction;
+  }
+
+  /**
+   * Returns the number of keys of a query, lowering the configured maximum so that the statement doesn't bind more than
+   * MAX_BIND_PARAMETERS values.
+   */
+  static int getKeysPerQuery(int maxKeysPerQuery, int keyColumnCount) {
+    int keysPerQuery = Math.max(1, Math.min(maxKeysPerQuery, MAX_BIND_PARAMETERS / keyColumnCount));
+    if (keysPerQuery < maxKeysPerQuery) {
+      LOG.warn(
+          "Looking up {} keys per query instead of {}, {} key columns would exceed {} parameters",
+          keysPerQuery,
+          maxKeysPerQuery,
+          keyColumnCount,
+          MAX_BIND_PARAMETERS
+      );
+    }
+    return keysPerQuery;
+  }
+
+  /**
+   * Wraps the batch query filtering it by the key columns, a single column is matched with an IN list and several
+   * columns with a disjunction of conjunctions.
+   */
+  static String createLookupQuery(String batchQuery, List<String> keyColumns, int maxKeysPerQuery) {
+    StringBuilder sb = new StringBuilder("SELECT * FROM (").append(batchQuery).append(") sdc_lookup WHERE ");
+    if (keyColumns.size() == 1) {
+      sb.append(keyColumns.get(0)).append(" IN (");
+      for (int i = 0; i < maxKeysPerQuery; i++) {
+        sb.append(i == 0 ? "?" : ", ?");
+      }
+      sb.append(")");
+    } else {
+      for (int i = 0; i < maxKeysPerQuery; i++) {
+        sb.append(i == 0 ? "(" : " OR (");
+        for (int j = 0; j < keyColumns.size(); j++) {
+          sb.append(j == 0 ? "" : " AND ").append(keyColumns.get(j)).append(" = ?");
+        }
+        sb.append(")");
+      }
+    }
+    return sb.toString();
+  }
+
+  String getLookupQuery() {
+    return lookupQuery;
+  }
+
+  @Override
+  public Optional<List<Map<String, Field>>> load(List<String> key) throws Exception {
+    return loadAll(ImmutableList.of(key)).get(key);
+  }
+
+  @Override
+  public Map<List<String>, Optional<List<Map<String, Field>>>> loadAll(
+      Iterable<? extends List<String>> keys
+  ) throws Exception {
+    Map<List<String>, Optional<List<Map<String, Field>>>> result = new HashMap<>();
+    try (
+      Connection connection = dataSource.getConnection();
+      PreparedStatement stmt = connection.prepareStatement(lookupQuery)
+    ) {
+      Field.Type[] types = getKeyTypes(connection, stmt);
+
+      // Keys that differ only as strings (e.g. "1" and "01" for a numeric column) are looked up once
+      Map<List<Object>, List<List<String>>> keysByValues = new LinkedHashMap<>();
+      for (List<String> key : keys) {
+        keysByValues.computeIfAbsent(toKeyValues(types, key), k -> new ArrayList<>()).add(key);
+      }
+      Map<List<Object>, List<Map<String, Field>>> lookupItems = new HashMap<>();
+      List<List<Object>> lookupKeys = new ArrayList<>();
+      for (List<Object> keyValues : keysByValues.keySet()) {
+        lookupItems.put(keyValues, new ArrayList<>());
+        if (canMatch(types, keyValues)) {
+          lookupKeys.add(keyValues);
+        }
+      }
+
+      stmt.setFetchSize(fetchSize);
+      for (List<List<Object>> chunk : Iterables.partition(lookupKeys, maxKeysPerQuery)) {
+        lookupChunk(stmt, types, chunk, lookupItems);
+      }
+
+      for (Map.Entry<List<Object>, List<List<String>>> entry : keysByValues.entrySet()) {
+        List<Map<String, Field>> items = lookupItems.get(entry.getKey());
+        for (List<String> key : entry.getValue()) {
+          // If no lookup items were found, use defaults
+          result.put(key, items.isEmpty() ? Optional.empty() : Optional.of(new ArrayList<>(items)));
+        }
+      }
+    } catch (SQLException e) {
+      LOG.error(JdbcErrors.JDBC_02.getMessage(), lookupQuery, e);
+      throw new OnRecordErrorException(JdbcErrors.JDBC_02, lookupQuery, e.getMessage());
+    }
+    return result;
+  }
+
+  private Field.Type[] getKeyTypes(Connection connection, PreparedStatement stmt) throws SQLException {
+    if (keyTypes == null) {
+      ResultSetMetaData metaData = stmt.getMetaData();
+      if (metaData != null) {
+        keyTypes = getKeyTypes(metaData);
+      } else {
+        // Driver can't describe the statement before executing it
+        try (Statement metadataStmt = connection.createStatement();
+             ResultSet resultSet = metadataStmt.executeQuery(metadataQuery)) {
+          keyTypes = getKeyTypes(resultSet.getMetaData());
+        }
+      }
+    }
+    return keyTypes;
+  }
+
+  private Field.Type[] getKeyTypes(ResultSetMetaData metaData) throws SQLException {
+    Field.Type[] types = new Field.Type[keyColumns.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = Field.Type.STRING;
+      for (int column = 1; column <= metaData.getColumnCount(); column++) {
+        if (keyColumns.get(i).equalsIgnoreCase(metaData.getColumnLabel(column))) {
+          Field.Type type = OffsetQueryUtil.SQL_TYPE_TO_FIELD_TYPE.get(metaData.getColumnType(column));
+          if (NUMERIC_TYPES.contains(type)) {
+            types[i] = type;
+          }
+          break;
+        }
+      }
+    }
+    LOG.debug("Key columns {} are looked up as {}", keyColumns, Arrays.asList(types));
+    return types;
+  }
+
+  /**
+   * A value that isn't a number can't match a numeric column, binding it would fail the query of the whole chunk.
+   */
+  private static boolean canMatch(Field.Type[] types, List<Object> keyValues) {
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] != Field.Type.STRING && keyValues.get(i) instanceof String) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<Object> toKeyValues(Field.Type[] types, List<?> key) {
+    List<Object> values = new ArrayList<>(key.size());
+    for (int i = 0; i < key.size(); i++) {
+      values.add(toKeyValue(types[i], key.get(i)));
+    }
+    return values;
+  }
+
+  /**
+   * Normalizes a key value, from the record or from the result set, so that equal values of the column compare equal.
+   * A value that can't be converted to the type of the column is kept as a string.
+   */
+  private static Object toKeyValue(Field.Type type, Object value) {
+    if (value == null) {
+      return null;
+    }
+    if (type != Field.Type.STRING) {
+      try {
+        Object converted = Field.create(type, value).getValue();
+        return converted instanceof BigDecimal ? ((BigDecimal) converted).stripTrailingZeros() : converted;
+      } catch (IllegalArgumentException e) {
+        LOG.debug("Looking up '{}' as a string, it's not a {} value: {}", value, type, e.toString());
+      }
+    }
+    return value.toString();
+  }
+
+  private void lookupChunk(
+      PreparedStatement stmt,
+      Field.Type[] types,
+      List<List<Object>> chunk,
+      Map<List<Object>, List<Map<String, Field>>> lookupItems
+  ) throws SQLException, StageException {
+    int parameter = 1;
+    for (int i = 0; i < maxKeysPerQuery; i++) {
+      List<Object> keyValues = chunk.get(Math.min(i, chunk.size() - 1));
+      for (Object value : keyValues) {
+        if (value == null || value instanceof String) {
+          stmt.setString(parameter++, (String) value);
+        } else {
+          stmt.setObject(parameter++, value);
+        }
+      }
+    }
+
+    LOG.debug("Executing SQL: {} for {} keys", lookupQuery, chunk.size());
+    Timer.Context t = selectTimer.time();
+    try (ResultSet resultSet = stmt.executeQuery()) {
+      // Stop timer immediately so that we're calculating only query execution time and not the processing time
+      t.stop();
+      t = null;
+
+      int numColumns = resultSet.getMetaData().getColumnCount();
+      while (resultSet.next()) {
+        List<Object> key = new ArrayList<>(keyColumns.size());
+        for (int i = 0; i < keyColumns.size(); i++) {
+          key.add(toKeyValue(types[i], resultSet.getObject(keyColumns.get(i))));
+        }
+        List<Map<String, Field>> items = lookupItems.get(key);
+        if (items == null) {
+          // the database matched a key that compares differently once normalized, nothing to map it to
+          LOG.debug("Ignoring row for key {} not present in the batch", key);
+          continue;
+        }
+
+        LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(resultSet,
+          maxClobSize,
+          maxBlobSize,
+          columnsToTypes,
+          errorRecordHandler,
+          unknownTypeAction,
+          vendor
+        );
+        if (fields.size() != numColumns) {
+          throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
+        }
+        items.add(fields);
+      }
+    } finally {
+      // If the timer wasn't stopped due to exception yet, stop it now
+      if (t != null) {
+        t.stop();
+      }
+      selectMeter.mark();
+    }
+  }
+}
@@ -40,7 +40,7 @@ import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
 import java.util.List;
 
 @StageDef(
-    version = 6,
+    version = 7,
     label = "JDBC Lookup",
     description = "Lookup values via JDBC to enrich records.",
     icon = "rdbms.png",
@@ -61,10 +61,84 @@ public class JdbcLookupDProcessor extends DProcessor {
       elDefs = {RecordEL.class},
       evaluation = ConfigDef.Evaluation.EXPLICIT,
       displayPosition = 20,
-      group = "JDBC"
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "false"
   )
   public String query;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Batch Lookup",
+      description = "Looks up the distinct keys of each batch with a few parameterized queries instead of running " +
+          "a query per record",
+      displayPosition = 15,
+      group = "JDBC"
+  )
+  public boolean batchLookup = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.TEXT,
+      mode = ConfigDef.Mode.SQL,
+      label = "Batch SQL Query",
+      description = "SELECT <column>, ... FROM <table name>. Rows are filtered by the key columns, matching the keys " +
+          "of the records of the batch",
+      displayPosition = 20,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  public String batchQuery;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Key Columns",
+      defaultValue = "",
+      description = "Columns of the batch query identifying the row to look up for a record. Values of numeric " +
+          "columns are compared as numbers, e.g. 01 matches 1, values of other columns are compared as strings",
+      displayPosition = 25,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  @ListBeanModel
+  public List<JdbcLookupKeyColumn> keyColumns;
+
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "500",
+      label = "Max Keys per Query",
+      description = "Maximum number of keys looked up by a single query. Lowered so that a query binds at most " +
+          "2000 values, one per key column of each key",
+      min = 1,
+      displayPosition = 26,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  public int maxKeysPerQuery = 500;
+
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1000",
+      label = "Fetch Size",
+      description = "Number of rows to fetch from the database in a single round trip",
+      min = 1,
+      displayPosition = 27,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  public int fetchSize = 1000;
+
   @ConfigDef(
       displayMode = ConfigDef.DisplayMode.ADVANCED,
       required = true,
@@ -179,7 +253,12 @@ public class JdbcLookupDProcessor extends DProcessor {
       maxClobSize,
       maxBlobSize,
       getHikariConfigBean(),
-      cacheConfig
+      cacheConfig,
+      batchLookup,
+      batchQuery,
+      keyColumns,
+      maxKeysPerQuery,
+      fetchSize
     );
   }
 }
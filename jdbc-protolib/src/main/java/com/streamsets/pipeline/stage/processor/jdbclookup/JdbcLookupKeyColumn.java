@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.lib.el.RecordEL;
+
+public class JdbcLookupKeyColumn {
+
+  /**
+   * Constructor used for unit testing purposes
+   * @param columnName
+   * @param keyExpression
+   */
+  public JdbcLookupKeyColumn(final String columnName, final String keyExpression) {
+    this.columnName = columnName;
+    this.keyExpression = keyExpression;
+  }
+
+  /**
+   * Parameter-less constructor required.
+   */
+  public JdbcLookupKeyColumn() {}
+
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.BASIC,
+      required = true,
+      type = ConfigDef.Type.STRING,
+      defaultValue = "",
+      label = "Column Name",
+      description = "Column of the batch query result to match.",
+      displayPosition = 10
+  )
+  public String columnName;
+
+  @ConfigDef(
+      displayMode = ConfigDef.DisplayMode.BASIC,
+      required = true,
+      type = ConfigDef.Type.STRING,
+      defaultValue = "${record:value('/')}",
+      label = "Key Expression",
+      description = "Expression evaluated for each record, the column must be equal to its result.",
+      elDefs = {RecordEL.class},
+      evaluation = ConfigDef.Evaluation.EXPLICIT,
+      displayPosition = 20
+  )
+  public String keyExpression;
+}
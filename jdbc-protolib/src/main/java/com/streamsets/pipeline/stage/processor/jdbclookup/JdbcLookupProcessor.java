@@ -54,6 +54,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -83,6 +84,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private final CacheConfig cacheConfig;
 
   private ELEval queryEval;
+  private ELEval keyEval;
 
   private final String query;
   private final boolean validateColumnMappings;
@@ -91,6 +93,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private final int maxClobSize;
   private final int maxBlobSize;
   private final HikariPoolConfigBean hikariConfigBean;
+  private final boolean batchLookup;
+  private final String batchQuery;
+  private final List<JdbcLookupKeyColumn> keyColumns;
+  private final int maxKeysPerQuery;
+  private final int fetchSize;
 
   private ErrorRecordHandler errorRecordHandler;
   private HikariDataSource dataSource = null;
@@ -99,6 +106,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private Map<String, DataType> columnsToTypes = new HashMap<>();
 
   private LoadingCache<String, Optional<List<Map<String, Field>>>> cache;
+  private LoadingCache<List<String>, Optional<List<Map<String, Field>>>> batchCache;
   private Optional<List<Map<String, Field>>> defaultValue;
   private CacheCleaner cacheCleaner;
   private final MissingValuesBehavior missingValuesBehavior;
@@ -119,6 +127,42 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       int maxBlobSize,
       HikariPoolConfigBean hikariConfigBean,
       CacheConfig cacheConfig
+  ) {
+    this(
+        query,
+        validateColumnMappings,
+        columnMappings,
+        multipleValuesBehavior,
+        missingValuesBehavior,
+        unknownTypeAction,
+        maxClobSize,
+        maxBlobSize,
+        hikariConfigBean,
+        cacheConfig,
+        false,
+        null,
+        null,
+        0,
+        0
+    );
+  }
+
+  public JdbcLookupProcessor(
+      String query,
+      Boolean validateColumnMappings,
+      List<JdbcFieldColumnMapping> columnMappings,
+      MultipleValuesBehavior multipleValuesBehavior,
+      MissingValuesBehavior missingValuesBehavior,
+      UnknownTypeAction unknownTypeAction,
+      int maxClobSize,
+      int maxBlobSize,
+      HikariPoolConfigBean hikariConfigBean,
+      CacheConfig cacheConfig,
+      boolean batchLookup,
+      String batchQuery,
+      List<JdbcLookupKeyColumn> keyColumns,
+      int maxKeysPerQuery,
+      int fetchSize
   ) {
     this.query = query;
     this.validateColumnMappings = validateColumnMappings;
@@ -130,6 +174,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     this.maxBlobSize = maxBlobSize;
     this.hikariConfigBean = hikariConfigBean;
     this.cacheConfig = cacheConfig;
+    this.batchLookup = batchLookup;
+    this.batchQuery = batchQuery;
+    this.keyColumns = keyColumns;
+    this.maxKeysPerQuery = maxKeysPerQuery;
+    this.fetchSize = fetchSize;
   }
 
   /** {@inheritDoc} */
@@ -146,6 +195,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     Processor.Context context = getContext();
 
     queryEval = getContext().createELEval("query");
+    keyEval = getContext().createELEval("keyExpression");
+
+    if (batchLookup && (keyColumns == null || keyColumns.isEmpty())) {
+      issues.add(context.createConfigIssue(Groups.JDBC.name(), "keyColumns", JdbcErrors.JDBC_415));
+    }
 
     issues = hikariConfigBean.validateConfigs(context, issues);
 
@@ -170,7 +224,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     if(issues.isEmpty() && this.validateColumnMappings) {
       try (Connection validationConnection = dataSource.getConnection();
            Statement statement = validationConnection.createStatement()) {
-        String preparedQuery = prepareQuery(query);
+        String preparedQuery = batchLookup ? batchQuery : prepareQuery(query);
         statement.setFetchSize(1);
         statement.setMaxRows(1);
         List<String> columnNamesFromDb = getColumnsFromValidationQuery(issues, context, statement, preparedQuery);
@@ -191,7 +245,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       }
     }
 
-    if (issues.isEmpty()) {
+    if (issues.isEmpty() && batchLookup) {
+      batchCache = buildBatchCache();
+      cacheCleaner = new CacheCleaner(batchCache, "JdbcLookupProcessor", 10 * 60 * 1000);
+    } else if (issues.isEmpty()) {
       cache = buildCache();
       cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
       if (cacheConfig.enabled) {
@@ -355,6 +412,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
+    if (batchLookup) {
+      processBatchLookup(batch, batchMaker);
+      return;
+    }
     //Cache warming
     if (preprocessThreads > 0) {
       preprocess(batch);
@@ -363,6 +424,61 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     super.process(batch, batchMaker);
   }
 
+  private void processBatchLookup(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
+    // Evaluate the key of every record first, so that the distinct keys are looked up together
+    List<Record> records = new ArrayList<>();
+    List<List<String>> recordKeys = new ArrayList<>();
+    Iterator<Record> it = batch.getRecords();
+    while (it.hasNext()) {
+      Record record = it.next();
+      ELVars elVars = getContext().createELVars();
+      RecordEL.setRecordInContext(elVars, record);
+      List<String> key = new ArrayList<>(keyColumns.size());
+      for (JdbcLookupKeyColumn keyColumn : keyColumns) {
+        try {
+          key.add(keyEval.eval(elVars, keyColumn.keyExpression, String.class));
+        } catch (ELEvalException e) {
+          LOG.error(JdbcErrors.JDBC_01.getMessage(), keyColumn.keyExpression, e);
+          errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_01, keyColumn.keyExpression));
+          key = null;
+          break;
+        }
+      }
+      if (key != null) {
+        records.add(record);
+        recordKeys.add(key);
+      }
+    }
+    if (records.isEmpty()) {
+      return;
+    }
+
+    Map<List<String>, Optional<List<Map<String, Field>>>> values;
+    try {
+      values = batchCache.getAll(new HashSet<>(recordKeys));
+    } catch (UncheckedExecutionException | ExecutionException e) {
+      if (e.getCause() instanceof OnRecordErrorException) {
+        // The lookup failed for the whole batch
+        OnRecordErrorException error = (OnRecordErrorException) e.getCause();
+        for (Record record : records) {
+          errorRecordHandler.onError(new OnRecordErrorException(record, error.getErrorCode(), error.getParams()));
+        }
+        return;
+      }
+      Throwables.propagateIfPossible(e.getCause(), StageException.class);
+      throw new IllegalStateException(e); // The cache loader shouldn't throw anything that isn't a StageException.
+    }
+
+    for (int i = 0; i < records.size(); i++) {
+      List<String> key = recordKeys.get(i);
+      try {
+        addLookupValues(records.get(i), values.get(key), JdbcErrors.JDBC_416, key.toString(), batchMaker);
+      } catch (OnRecordErrorException error) { // NOSONAR
+        errorRecordHandler.onError(new OnRecordErrorException(records.get(i), error.getErrorCode(), error.getParams()));
+      }
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
@@ -371,57 +487,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       RecordEL.setRecordInContext(elVars, record);
       String preparedQuery = queryEval.eval(elVars, query, String.class);
       Optional<List<Map<String, Field>>> entry = cache.get(preparedQuery);
-
-      if (!entry.isPresent()) {
-        // No results
-        switch (missingValuesBehavior) {
-          case SEND_TO_ERROR:
-            LOG.error(JdbcErrors.JDBC_04.getMessage(), preparedQuery);
-            errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_04, preparedQuery));
-            break;
-          case PASS_RECORD_ON:
-            batchMaker.addRecord(record);
-            break;
-          default:
-            throw new IllegalStateException("Unknown missing value behavior: " + missingValuesBehavior);
-        }
-      } else {
-        List<Map<String, Field>> values = entry.get();
-        switch (multipleValuesBehavior) {
-          case FIRST_ONLY:
-            setFieldsInRecord(record, values.get(0));
-            batchMaker.addRecord(record);
-            break;
-          case SPLIT_INTO_MULTIPLE_RECORDS:
-            int i = 0;
-            for(Map<String, Field> lookupItem : values) {
-              Record newRecord = getContext().cloneRecord(record, String.valueOf(i++));
-              setFieldsInRecord(newRecord, lookupItem);
-              batchMaker.addRecord(newRecord);
-            }
-            break;
-          case ALL_AS_LIST:
-            Map<String, List<Field>> valuesMap = new HashMap<>();
-            for (Map<String, Field> lookupItem : values) {
-              lookupItem.forEach((k, v) -> {
-                if (valuesMap.get(k) == null) {
-                  List<Field> lookupValue = new ArrayList<>();
-                  valuesMap.put(k, lookupValue);
-                }
-                valuesMap.get(k).add(v);
-              });
-            }
-            Map<String, Field> valueMap = new HashMap<>();
-            valuesMap.forEach( (k,v) -> valueMap.put(k, Field.create(v)));
-            setFieldsInRecord(record, valueMap);
-            batchMaker.addRecord(record);
-            break;
-          default:
-            throw new IllegalStateException("Unknown multiple value behavior: " + multipleValuesBehavior);
-        }
-
-      }
-
+      addLookupValues(record, entry, JdbcErrors.JDBC_04, preparedQuery, batchMaker);
     } catch (ELEvalException e) {
       LOG.error(JdbcErrors.JDBC_01.getMessage(), query, e);
       throw new OnRecordErrorException(record, JdbcErrors.JDBC_01, query);
@@ -433,6 +499,64 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  private void addLookupValues(
+      Record record,
+      Optional<List<Map<String, Field>>> entry,
+      JdbcErrors missingError,
+      String lookup,
+      SingleLaneBatchMaker batchMaker
+  ) throws StageException {
+    if (!entry.isPresent()) {
+      // No results
+      switch (missingValuesBehavior) {
+        case SEND_TO_ERROR:
+          LOG.error(missingError.getMessage(), lookup);
+          errorRecordHandler.onError(new OnRecordErrorException(record, missingError, lookup));
+          break;
+        case PASS_RECORD_ON:
+          batchMaker.addRecord(record);
+          break;
+        default:
+          throw new IllegalStateException("Unknown missing value behavior: " + missingValuesBehavior);
+      }
+    } else {
+      List<Map<String, Field>> values = entry.get();
+      switch (multipleValuesBehavior) {
+        case FIRST_ONLY:
+          setFieldsInRecord(record, values.get(0));
+          batchMaker.addRecord(record);
+          break;
+        case SPLIT_INTO_MULTIPLE_RECORDS:
+          int i = 0;
+          for(Map<String, Field> lookupItem : values) {
+            Record newRecord = getContext().cloneRecord(record, String.valueOf(i++));
+            setFieldsInRecord(newRecord, lookupItem);
+            batchMaker.addRecord(newRecord);
+          }
+          break;
+        case ALL_AS_LIST:
+          Map<String, List<Field>> valuesMap = new HashMap<>();
+          for (Map<String, Field> lookupItem : values) {
+            lookupItem.forEach((k, v) -> {
+              if (valuesMap.get(k) == null) {
+                List<Field> lookupValue = new ArrayList<>();
+                valuesMap.put(k, lookupValue);
+              }
+              valuesMap.get(k).add(v);
+            });
+          }
+          Map<String, Field> valueMap = new HashMap<>();
+          valuesMap.forEach( (k,v) -> valueMap.put(k, Field.create(v)));
+          setFieldsInRecord(record, valueMap);
+          batchMaker.addRecord(record);
+          break;
+        default:
+          throw new IllegalStateException("Unknown multiple value behavior: " + multipleValuesBehavior);
+      }
+
+    }
+  }
+
   private String prepareQuery(String query) {
     String preparedQuery = query.replaceAll("(\\$\\{)(.*?)(\\})", "0");
     return preparedQuery;
@@ -506,4 +630,27 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     );
     return LookupUtils.buildCache(loader, cacheConfig, defaultValue);
   }
+
+  @SuppressWarnings("unchecked")
+  private LoadingCache<List<String>, Optional<List<Map<String, Field>>>> buildBatchCache() {
+    List<String> keyColumnNames = new ArrayList<>(keyColumns.size());
+    for (JdbcLookupKeyColumn keyColumn : keyColumns) {
+      keyColumnNames.add(keyColumn.columnName);
+    }
+    JdbcBatchLookupLoader loader = new JdbcBatchLookupLoader(
+      getContext(),
+      dataSource,
+      batchQuery,
+      keyColumnNames,
+      maxKeysPerQuery,
+      fetchSize,
+      columnsToTypes,
+      maxClobSize,
+      maxBlobSize,
+      errorRecordHandler,
+      hikariConfigBean.getVendor(),
+      unknownTypeAction
+    );
+    return LookupUtils.buildCache(loader, cacheConfig, defaultValue);
+  }
 }
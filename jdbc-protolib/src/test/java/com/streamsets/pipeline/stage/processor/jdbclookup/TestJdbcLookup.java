@@ -22,6 +22,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.jdbc.DataType;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.JdbcFieldColumnMapping;
 import com.streamsets.pipeline.lib.jdbc.JdbcHikariPoolConfigBean;
 import com.streamsets.pipeline.lib.jdbc.connection.JdbcConnection;
@@ -782,4 +783,197 @@ public class TestJdbcLookup {
       processorRunner.runDestroy();
     }
   }
+
+  private Record createNameRecord(String firstName, String lastName) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    fields.put("first_name", Field.create(firstName));
+    fields.put("last_name", Field.create(lastName));
+    record.set(Field.createListMap(fields));
+    return record;
+  }
+
+  @Test
+  public void testBatchLookup() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id"));
+    List<JdbcLookupKeyColumn> keyColumns = ImmutableList.of(
+        new JdbcLookupKeyColumn("FIRST_NAME", "${record:value('/first_name')}"),
+        new JdbcLookupKeyColumn("LAST_NAME", "${record:value('/last_name')}")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("batchQuery", "SELECT P_ID, FIRST_NAME, LAST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("keyColumns", keyColumns)
+        // several queries for the batch, the last one padded
+        .addConfiguration("maxKeysPerQuery", 2)
+        .addConfiguration("fetchSize", 10)
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", true)
+        .addOutputLane("lane")
+        .build();
+
+    List<Record> records = ImmutableList.of(
+        createNameRecord("Adam", "Kunicki"),
+        createNameRecord("Jon", "Natkins"),
+        createNameRecord("Jon", "Daulton"),
+        createNameRecord("Adam", "Kunicki"),
+        createNameRecord("Jon", "Kunicki")
+    );
+    processorRunner.runInit();
+    try {
+      StageRunner.Output output = processorRunner.runProcess(records);
+      List<Record> outputRecords = output.getRecords().get("lane");
+      Assert.assertEquals(5, outputRecords.size());
+      Assert.assertEquals(1, outputRecords.get(0).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(2, outputRecords.get(1).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(3, outputRecords.get(2).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(1, outputRecords.get(3).get("/p_id").getValueAsInteger());
+      Assert.assertFalse(outputRecords.get(4).has("/p_id"));
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupNumericKey() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(
+        new JdbcFieldColumnMapping("LAST_NAME", "/last_name")
+    );
+    List<JdbcLookupKeyColumn> keyColumns = ImmutableList.of(
+        new JdbcLookupKeyColumn("P_ID", "${record:value('/id')}")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("batchQuery", "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("keyColumns", keyColumns)
+        .addConfiguration("maxKeysPerQuery", 2)
+        .addConfiguration("fetchSize", 10)
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", true)
+        .addOutputLane("lane")
+        .build();
+
+    // Keys that match the INTEGER column as numbers but not as strings, an integer field and a key that isn't a number
+    List<Record> records = ImmutableList.of(
+        createIdRecord(Field.create("01")),
+        createIdRecord(Field.create(2)),
+        createIdRecord(Field.create("3")),
+        createIdRecord(Field.create("004")),
+        createIdRecord(Field.create("six"))
+    );
+    processorRunner.runInit();
+    try {
+      StageRunner.Output output = processorRunner.runProcess(records);
+      List<Record> outputRecords = output.getRecords().get("lane");
+      Assert.assertEquals(5, outputRecords.size());
+      Assert.assertEquals("Kunicki", outputRecords.get(0).get("/last_name").getValueAsString());
+      Assert.assertEquals("Natkins", outputRecords.get(1).get("/last_name").getValueAsString());
+      Assert.assertEquals("Daulton", outputRecords.get(2).get("/last_name").getValueAsString());
+      Assert.assertEquals("Pancha", outputRecords.get(3).get("/last_name").getValueAsString());
+      Assert.assertFalse(outputRecords.get(4).has("/last_name"));
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  private Record createIdRecord(Field id) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    fields.put("id", id);
+    record.set(Field.createListMap(fields));
+    return record;
+  }
+
+  @Test
+  public void testBatchLookupMissingValueToError() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id"));
+    List<JdbcLookupKeyColumn> keyColumns = ImmutableList.of(
+        new JdbcLookupKeyColumn("LAST_NAME", "${record:value('/last_name')}")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("batchQuery", "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("keyColumns", keyColumns)
+        .addConfiguration("maxKeysPerQuery", 500)
+        .addConfiguration("fetchSize", 1000)
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.SPLIT_INTO_MULTIPLE_RECORDS)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", true)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("lane")
+        .build();
+
+    List<Record> records = ImmutableList.of(
+        createNameRecord("Girish", "Pancha"),
+        createNameRecord("Nobody", "Here")
+    );
+    processorRunner.runInit();
+    try {
+      StageRunner.Output output = processorRunner.runProcess(records);
+      List<Record> outputRecords = output.getRecords().get("lane");
+      Assert.assertEquals(2, outputRecords.size());
+      Assert.assertEquals(4, outputRecords.get(0).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(5, outputRecords.get(1).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(1, processorRunner.getErrorRecords().size());
+      Assert.assertEquals(
+          JdbcErrors.JDBC_416.name(),
+          processorRunner.getErrorRecords().get(0).getHeader().getErrorCode()
+      );
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupKeysPerQueryWithinBindParameters() throws Exception {
+    Assert.assertEquals(500, JdbcBatchLookupLoader.getKeysPerQuery(500, 1));
+    Assert.assertEquals(500, JdbcBatchLookupLoader.getKeysPerQuery(500, 4));
+    Assert.assertEquals(JdbcBatchLookupLoader.MAX_BIND_PARAMETERS, JdbcBatchLookupLoader.getKeysPerQuery(5000, 1));
+    Assert.assertEquals(JdbcBatchLookupLoader.MAX_BIND_PARAMETERS / 3, JdbcBatchLookupLoader.getKeysPerQuery(1000, 3));
+    Assert.assertEquals(1, JdbcBatchLookupLoader.getKeysPerQuery(500, JdbcBatchLookupLoader.MAX_BIND_PARAMETERS + 1));
+  }
+
+  @Test
+  public void testBatchLookupWithoutKeyColumns() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id"));
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("batchQuery", "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("keyColumns", ImmutableList.of())
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", false)
+        .addOutputLane("lane")
+        .build();
+
+    List<Stage.ConfigIssue> issues = processorRunner.runValidateConfigs();
+    Assert.assertEquals(1, issues.size());
+    Assert.assertTrue(issues.get(0).toString().contains(JdbcErrors.JDBC_415.name()));
+  }
 }
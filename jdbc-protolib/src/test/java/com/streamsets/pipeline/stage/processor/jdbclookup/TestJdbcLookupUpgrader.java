@@ -97,4 +97,17 @@ public class TestJdbcLookupUpgrader {
 
     UpgraderTestUtils.assertExists(upgradedConfigs, "validateColumnMappings", false);
   }
+
+  @Test
+  public void testUpgradeV6toV7() throws StageException {
+    Mockito.doReturn(6).when(context).getFromVersion();
+    Mockito.doReturn(7).when(context).getToVersion();
+
+    List<Config> upgradedConfigs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchLookup", false);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchQuery", "");
+    UpgraderTestUtils.assertExists(upgradedConfigs, "maxKeysPerQuery", 500);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "fetchSize", 1000);
+  }
 }
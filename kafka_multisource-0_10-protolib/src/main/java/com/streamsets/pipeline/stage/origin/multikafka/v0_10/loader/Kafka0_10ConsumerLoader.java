@@ -23,9 +23,11 @@ import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 import org.apache.kafka.common.PartitionInfo;
@@ -158,6 +160,11 @@ public class Kafka0_10ConsumerLoader extends KafkaConsumerLoader {
       delegate.subscribe(topics);
     }
 
+    @Override
+    public void subscribe(List topics, ConsumerRebalanceListener listener) {
+      delegate.subscribe(topics, listener);
+    }
+
     @Override
     public ConsumerRecords poll(long timeout) {
       return delegate.poll(timeout);
@@ -175,5 +182,10 @@ public class Kafka0_10ConsumerLoader extends KafkaConsumerLoader {
 
     @Override
     public void commitSync(Map offsetsMap) { delegate.commitSync(offsetsMap); }
+
+    @Override
+    public void commitAsync(Map offsetsMap, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsetsMap, callback);
+    }
   }
 }
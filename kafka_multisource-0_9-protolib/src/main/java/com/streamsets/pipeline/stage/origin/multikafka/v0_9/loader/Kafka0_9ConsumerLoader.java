@@ -22,10 +22,12 @@ import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
 
 import java.util.List;
@@ -72,6 +74,11 @@ public class Kafka0_9ConsumerLoader extends KafkaConsumerLoader {
       delegate.subscribe(topics);
     }
 
+    @Override
+    public void subscribe(List topics, ConsumerRebalanceListener listener) {
+      delegate.subscribe(topics, listener);
+    }
+
     @Override
     public ConsumerRecords poll(long timeout) {
       return delegate.poll(timeout);
@@ -89,5 +96,10 @@ public class Kafka0_9ConsumerLoader extends KafkaConsumerLoader {
 
     @Override
     public void commitSync(Map offsetsMap) { delegate.commitSync(offsetsMap); }
+
+    @Override
+    public void commitAsync(Map offsetsMap, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsetsMap, callback);
+    }
   }
 }
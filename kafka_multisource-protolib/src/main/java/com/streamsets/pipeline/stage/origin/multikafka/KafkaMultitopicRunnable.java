@@ -16,6 +16,8 @@
 
 package com.streamsets.pipeline.stage.origin.multikafka;
 
+import com.codahale.metrics.Timer;
+import com.google.common.base.Throwables;
 import com.streamsets.pipeline.api.BatchContext;
 import com.streamsets.pipeline.api.DeliveryGuarantee;
 import com.streamsets.pipeline.api.Field;
@@ -31,6 +33,7 @@ import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
@@ -40,18 +43,25 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class KafkaMultitopicRunnable implements Callable<Long> {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaMultitopicRunnable.class);
 
   private static final long MIN_CONSUMER_POLLING_INTERVAL_MS = 100;
+  static final String COMMIT_LATENCY_TIMER = "Offset Commit Latency";
+  static final String COMMIT_LAG_GAUGE = "Offset Commit Lag";
   private final MultiSdcKafkaConsumer<String, byte[]> consumer;
   private final long threadID;
   private final List<String> topicList;
@@ -63,6 +73,18 @@ public class KafkaMultitopicRunnable implements Callable<Long> {
 
   Map<TopicPartition, OffsetAndMetadata> offsetsMap;
 
+  // commit metrics, the lag is the number of messages polled and not committed yet
+  private final Timer commitLatency;
+  private final Map<String, Object> commitLagGauge;
+  private final Map<TopicPartition, Long> polledOffsets = new HashMap<>();
+  private final Map<TopicPartition, Long> committedOffsets = new HashMap<>();
+
+  // pipelined commits, messages are processed on a separate thread while the consumer thread polls and commits
+  private ExecutorService processor;
+  private Future<?> processing;
+  private final Map<TopicPartition, OffsetAndMetadata> processedOffsets = new HashMap<>();
+  private final Map<TopicPartition, OffsetAndMetadata> sentOffsets = new HashMap<>();
+
   public KafkaMultitopicRunnable(
       long threadID,
       MultiSdcKafkaConsumer<String, byte[]> consumer,
@@ -81,6 +103,8 @@ public class KafkaMultitopicRunnable implements Callable<Long> {
     this.conf = conf;
     this.batchSize = batchSize;
     offsetsMap = new HashMap<>();
+    commitLatency = context.createTimer(COMMIT_LATENCY_TIMER);
+    commitLagGauge = context.createGauge(COMMIT_LAG_GAUGE).getValue();
   }
 
   BatchContext batchContext = null;
@@ -101,18 +125,30 @@ public class KafkaMultitopicRunnable implements Callable<Long> {
     LOG.info("Minimum Kafka consumer Poll interval is set to: {}", MIN_CONSUMER_POLLING_INTERVAL_MS);
 
     try {
-      consumer.subscribe(topicList);
+      if (conf.pipelinedCommits) {
+        processor = Executors.newSingleThreadExecutor(r -> new Thread(r, "kafkaProcessorThread-" + threadID));
+        consumer.subscribe(topicList, new CommitOnRevokeListener());
+      } else {
+        consumer.subscribe(topicList);
+      }
       // protected loop. want it to finish completely, or not start at all.
       // only 2 conditions that we want to halt execution. must handle gracefully
 
       while (!getContext().isStopped() && !Thread.interrupted()) {
-        produceRecords();
+        if (conf.pipelinedCommits) {
+          produceRecordsPipelined();
+        } else {
+          produceRecords();
+        }
       }
 
     } catch (Exception e) { //NOSONAR
       LOG.error("Encountered error in multi kafka thread {} during read {}", threadID, e.getMessage(), e);
       throw new StageException(KafkaErrors.KAFKA_29, e);
     } finally {
+      if (conf.pipelinedCommits) {
+        stopProcessing();
+      }
       consumer.unsubscribe();
       consumer.close();
     }
@@ -127,67 +163,108 @@ public class KafkaMultitopicRunnable implements Callable<Long> {
 
   private void produceRecords() {
     long startTime = System.currentTimeMillis();
-    List<Record> records = new ArrayList<>();
     long pollInterval = Math.max(MIN_CONSUMER_POLLING_INTERVAL_MS,
         conf.batchWaitTime - (System.currentTimeMillis() - startTime)
     );
 
     ConsumerRecords<String, byte[]> messages = consumer.poll(pollInterval);
+    updatePolledOffsets(messages);
 
     if (!messages.isEmpty()) {
-      LOG.info("Received {} messages from Kafka", Collections.singletonList(messages).size());
-      // start a new batch, get a new error record handler for batch.
-      batchContext = getContext().startBatch();
-      errorRecordHandler = new CountingDefaultErrorRecordHandler(getContext(), batchContext);
-      for (ConsumerRecord<String, byte[]> item : messages) {
-
-        // We still support Kafka 0.9 that doesn't have support for timestamp. Thus this code simply calls those
-        // methods in a safe manner and fills defaults in case that those methods do not exists. This fragment can
-        // be dropped (or this patch reverted) when we drop support for Kafka 0.9.
-        long timestamp;
-        String timestampType;
-        try {
-          timestamp = item.timestamp();
-          timestampType = item.timestampType().name;
-        } catch (NoSuchMethodError ex) {
-          LOG.debug("Kafka does not support timestamp in this version, skipping");
-          timestamp = -1;
-          timestampType = "";
-        }
+      processMessages(messages, startTime, pollInterval);
+    }
+  }
 
-        records.addAll(createRecord(errorRecordHandler, item, timestamp, timestampType));
-
-        //If we already reached the max number of records or the maximum wait time we send the batch and start a new one
-        if (records.size() >= batchSize || System.currentTimeMillis() - startTime >= pollInterval) {
-          LOG.info("Record or time limit reached, restarting batch");
-          startTime = System.currentTimeMillis();
-          records.forEach(batchContext.getBatchMaker()::addRecord);
-          commitSyncAndProcess();
-          recordsProcessed += records.size();
-          records.clear();
-          batchContext = getContext().startBatch();
-          errorRecordHandler = new CountingDefaultErrorRecordHandler(getContext(), batchContext);
-        }
+  /**
+   * Polls the next messages while the previous ones are processed. The processed offsets are committed asynchronously,
+   * failed commits are retried with the next commit.
+   */
+  private void produceRecordsPipelined() throws StageException, InterruptedException, ExecutionException {
+    long pollInterval = Math.max(MIN_CONSUMER_POLLING_INTERVAL_MS, conf.batchWaitTime);
+
+    ConsumerRecords<String, byte[]> messages = consumer.poll(pollInterval);
+    updatePolledOffsets(messages);
+    commitProcessedOffsetsAsync();
+
+    if (!messages.isEmpty()) {
+      // one batch in flight at a time, so messages are processed in order
+      waitForProcessing();
+      commitProcessedOffsetsAsync();
+      if (!getContext().isPreview() && getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE) {
+        commitSync(getNextOffsets(messages));
+      }
+      processing = processor.submit(() -> processMessages(messages, System.currentTimeMillis(), pollInterval));
+    }
+  }
+
+  private void processMessages(ConsumerRecords<String, byte[]> messages, long startTime, long pollInterval) {
+    List<Record> records = new ArrayList<>();
+    LOG.info("Received {} messages from Kafka", Collections.singletonList(messages).size());
+    // start a new batch, get a new error record handler for batch.
+    batchContext = getContext().startBatch();
+    errorRecordHandler = new CountingDefaultErrorRecordHandler(getContext(), batchContext);
+    for (ConsumerRecord<String, byte[]> item : messages) {
+
+      // We still support Kafka 0.9 that doesn't have support for timestamp. Thus this code simply calls those
+      // methods in a safe manner and fills defaults in case that those methods do not exists. This fragment can
+      // be dropped (or this patch reverted) when we drop support for Kafka 0.9.
+      long timestamp;
+      String timestampType;
+      try {
+        timestamp = item.timestamp();
+        timestampType = item.timestampType().name;
+      } catch (NoSuchMethodError ex) {
+        LOG.debug("Kafka does not support timestamp in this version, skipping");
+        timestamp = -1;
+        timestampType = "";
       }
 
-      messagesProcessed += messages.count();
+      records.addAll(createRecord(errorRecordHandler, item, timestamp, timestampType));
 
-      if (!records.isEmpty()) { // Some errors that are dangling after the batches are full
-        LOG.info("Messages exhausted, sending extra records");
+      //If we already reached the max number of records or the maximum wait time we send the batch and start a new one
+      if (records.size() >= batchSize || System.currentTimeMillis() - startTime >= pollInterval) {
+        LOG.info("Record or time limit reached, restarting batch");
+        startTime = System.currentTimeMillis();
         records.forEach(batchContext.getBatchMaker()::addRecord);
         commitSyncAndProcess();
         recordsProcessed += records.size();
-      } else if (errorRecordHandler.getErrorRecordCount() > 0) { // All the records are errors, so records is empty
-        LOG.info("The batch only contains error records, sending them anyway");
-        commitSyncAndProcess();
+        records.clear();
+        batchContext = getContext().startBatch();
+        errorRecordHandler = new CountingDefaultErrorRecordHandler(getContext(), batchContext);
       }
     }
+
+    messagesProcessed += messages.count();
+
+    if (!records.isEmpty()) { // Some errors that are dangling after the batches are full
+      LOG.info("Messages exhausted, sending extra records");
+      records.forEach(batchContext.getBatchMaker()::addRecord);
+      commitSyncAndProcess();
+      recordsProcessed += records.size();
+    } else if (errorRecordHandler.getErrorRecordCount() > 0) { // All the records are errors, so records is empty
+      LOG.info("The batch only contains error records, sending them anyway");
+      commitSyncAndProcess();
+    }
   }
 
   private void commitSyncAndProcess() {
     LOG.info("Committing and processing batch");
+    if (conf.pipelinedCommits) {
+      // on the processor thread, the consumer thread commits the processed offsets
+      boolean batchSuccessful = getContext().processBatch(batchContext);
+      if (!getContext().isPreview() &&
+          batchSuccessful &&
+          getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_LEAST_ONCE) {
+        synchronized (processedOffsets) {
+          processedOffsets.putAll(offsetsMap);
+        }
+      }
+      offsetsMap.clear();
+      return;
+    }
+
     if (!getContext().isPreview() && getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE) {
-      consumer.commitSync(offsetsMap);
+      commitSync(offsetsMap);
       offsetsMap.clear();
     }
 
@@ -196,11 +273,154 @@ public class KafkaMultitopicRunnable implements Callable<Long> {
     if (!getContext().isPreview() &&
         batchSuccessful &&
         getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_LEAST_ONCE) {
-      consumer.commitSync(offsetsMap);
+      commitSync(offsetsMap);
       offsetsMap.clear();
     }
   }
 
+  private void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    if (!offsets.isEmpty()) {
+      Timer.Context timer = commitLatency.time();
+      consumer.commitSync(offsets);
+      timer.stop();
+      updateCommittedOffsets(offsets);
+    }
+  }
+
+  private void commitProcessedOffsetsAsync() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = drainProcessedOffsets();
+    if (!offsets.isEmpty()) {
+      sentOffsets.putAll(offsets);
+      Timer.Context timer = commitLatency.time();
+      // callbacks run on this thread, in the order of the commits
+      consumer.commitAsync(offsets, (committed, ex) -> {
+        timer.stop();
+        if (ex == null) {
+          updateCommittedOffsets(offsets);
+        } else {
+          LOG.warn("Could not commit offsets {}, retrying with the next commit: {}", offsets, ex.toString(), ex);
+          retryCommit(offsets);
+        }
+      });
+    }
+  }
+
+  /**
+   * Queues the offsets of a failed commit again, unless a later commit of the partition is already on its way.
+   */
+  private void retryCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    synchronized (processedOffsets) {
+      offsets.forEach((partition, offset) -> {
+        if (offset.equals(sentOffsets.get(partition))) {
+          processedOffsets.putIfAbsent(partition, offset);
+        }
+      });
+    }
+  }
+
+  private Map<TopicPartition, OffsetAndMetadata> drainProcessedOffsets() {
+    synchronized (processedOffsets) {
+      Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(processedOffsets);
+      processedOffsets.clear();
+      return offsets;
+    }
+  }
+
+  private void waitForProcessing() throws StageException, InterruptedException, ExecutionException {
+    if (processing != null) {
+      try {
+        processing.get();
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), StageException.class);
+        throw e;
+      }
+      processing = null;
+    }
+  }
+
+  /**
+   * Waits for the batch in flight and commits all the processed offsets synchronously.
+   */
+  private void commitProcessedOffsetsSync() {
+    try {
+      waitForProcessing();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) { //NOSONAR
+      // already reported by the consumer thread, the offsets processed before are still committed
+      LOG.debug("Batch in flight failed: {}", e.toString(), e);
+    }
+    commitSync(drainProcessedOffsets());
+  }
+
+  private void stopProcessing() {
+    try {
+      commitProcessedOffsetsSync();
+    } catch (Exception e) { //NOSONAR
+      LOG.warn("Could not commit offsets on stop: {}", e.toString(), e);
+    } finally {
+      processor.shutdownNow();
+    }
+  }
+
+  /**
+   * Commits the processed offsets before the partitions are assigned to another consumer, so it does not read them
+   * again.
+   */
+  private class CommitOnRevokeListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      LOG.debug("Partitions {} revoked, committing processed offsets", partitions);
+      commitProcessedOffsetsSync();
+      partitions.forEach(partition -> {
+        polledOffsets.remove(partition);
+        committedOffsets.remove(partition);
+        sentOffsets.remove(partition);
+      });
+      updateCommitLag();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      // nothing to do, consumption resumes from the committed offsets
+    }
+  }
+
+  private static Map<TopicPartition, OffsetAndMetadata> getNextOffsets(ConsumerRecords<String, byte[]> messages) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition partition : messages.partitions()) {
+      List<ConsumerRecord<String, byte[]>> records = messages.records(partition);
+      offsets.put(partition, new OffsetAndMetadata(records.get(records.size() - 1).offset() + 1));
+    }
+    return offsets;
+  }
+
+  private void updatePolledOffsets(ConsumerRecords<String, byte[]> messages) {
+    for (TopicPartition partition : messages.partitions()) {
+      List<ConsumerRecord<String, byte[]>> records = messages.records(partition);
+      // until the first commit, count from the first message read of the partition
+      committedOffsets.putIfAbsent(partition, records.get(0).offset());
+      polledOffsets.put(partition, records.get(records.size() - 1).offset() + 1);
+    }
+    updateCommitLag();
+  }
+
+  private void updateCommittedOffsets(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    offsets.forEach((partition, offset) -> committedOffsets.put(partition, offset.offset()));
+    updateCommitLag();
+  }
+
+  private void updateCommitLag() {
+    long lag = 0;
+    for (Map.Entry<TopicPartition, Long> entry : polledOffsets.entrySet()) {
+      Long committed = committedOffsets.get(entry.getKey());
+      if (committed != null) {
+        lag += Math.max(0, entry.getValue() - committed);
+      }
+    }
+    commitLagGauge.put("Thread " + threadID, lag);
+  }
+
   private List<Record> createRecord(
       ErrorRecordHandler errorRecordHandler, ConsumerRecord<String, byte[]> item, long timestamp, String timestampType
   ) {
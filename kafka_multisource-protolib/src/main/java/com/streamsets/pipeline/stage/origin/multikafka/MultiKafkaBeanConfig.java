@@ -128,6 +128,19 @@ public class MultiKafkaBeanConfig {
   )
   public int batchWaitTime;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Pipelined Offset Commits",
+      description = "Polls the next messages while the pipeline processes the current batch and commits offsets " +
+          "asynchronously. Offsets are committed synchronously when partitions are revoked and when the pipeline stops",
+      displayPosition = 75,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "KAFKA"
+  )
+  public boolean pipelinedCommits = false;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -15,8 +15,10 @@
  */
 package com.streamsets.pipeline.stage.origin.multikafka;
 
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
 
 import java.util.List;
@@ -31,6 +33,8 @@ public interface MultiSdcKafkaConsumer<K, V> {
 
   void subscribe(List<String> topics);
 
+  void subscribe(List<String> topics, ConsumerRebalanceListener listener);
+
   ConsumerRecords<K, V> poll(long timeout);
 
   void unsubscribe();
@@ -38,4 +42,6 @@ public interface MultiSdcKafkaConsumer<K, V> {
   void close();
 
   void commitSync(Map<TopicPartition, OffsetAndMetadata> offsetsMap);
+
+  void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsetsMap, OffsetCommitCallback callback);
 }
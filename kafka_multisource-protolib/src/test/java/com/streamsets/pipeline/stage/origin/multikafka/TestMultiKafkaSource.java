@@ -31,15 +31,19 @@ import com.streamsets.pipeline.sdk.StageRunner;
 import com.streamsets.pipeline.lib.kafka.connection.KafkaSecurityOptions;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoader;
 import com.streamsets.pipeline.stage.origin.multikafka.loader.MockKafkaConsumerLoader;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
@@ -165,6 +169,69 @@ public class TestMultiKafkaSource {
     }
   }
 
+  @Test
+  public void testPipelinedCommits() throws StageException, InterruptedException {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 1;
+    conf.pipelinedCommits = true;
+
+    ConsumerRecords<String, byte[]> consumerRecords1 = generateConsumerRecords(5, "topic", 0);
+    ConsumerRecords<String, byte[]> consumerRecords2 = generateConsumerRecords(5, "topic", 1);
+    ConsumerRecords<String, byte[]> emptyRecords = generateConsumerRecords(0, "topic", 0);
+
+    Consumer mockConsumer = Mockito.mock(Consumer.class);
+    List<Consumer> consumerList = Collections.singletonList(mockConsumer);
+    Mockito
+        .when(mockConsumer.poll(Mockito.anyInt()))
+        .thenReturn(consumerRecords1)
+        .thenReturn(consumerRecords2)
+        .thenReturn(emptyRecords);
+
+    conf.connectionConfig.connection.securityConfig.userKeytab = Mockito.mock(CredentialValue.class);
+    Mockito.when(conf.connectionConfig.connection.securityConfig.userKeytab.get()).thenReturn("");
+
+    MockKafkaConsumerLoader.consumers = consumerList.iterator();
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source).addOutputLane("lane")
+        .build();
+    sourceRunner.runInit();
+
+    MultiKafkaPushSourceTestCallback callback = new MultiKafkaPushSourceTestCallback(sourceRunner, 2);
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      int records = callback.waitForAllBatches();
+
+      source.await();
+      Assert.assertEquals(10, records);
+      Assert.assertFalse(source.isRunning());
+
+      Mockito.verify(mockConsumer).subscribe(
+          Mockito.eq(conf.topicList),
+          Mockito.any(ConsumerRebalanceListener.class)
+      );
+      // the first batch is committed asynchronously while polling, the last one either before or on stop
+      ArgumentCaptor<Map> committed = ArgumentCaptor.forClass(Map.class);
+      Mockito.verify(mockConsumer).commitAsync(
+          Mockito.eq(Collections.singletonMap(new TopicPartition("topic", 0), new OffsetAndMetadata(1))),
+          Mockito.any(OffsetCommitCallback.class)
+      );
+      Mockito.verify(mockConsumer, Mockito.atLeastOnce()).commitAsync(
+          committed.capture(),
+          Mockito.any(OffsetCommitCallback.class)
+      );
+      Mockito.verify(mockConsumer, Mockito.atMost(1)).commitSync(committed.capture());
+      Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+      committed.getAllValues().forEach(offsets::putAll);
+      Assert.assertEquals(new OffsetAndMetadata(1), offsets.get(new TopicPartition("topic", 1)));
+    } catch (Exception e) {
+      Assert.fail(e.getMessage());
+      throw e;
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
   @Test(expected = ExecutionException.class)
   public void testPollFail() throws StageException, InterruptedException, ExecutionException {
     MultiKafkaBeanConfig conf = getConfig();
@@ -168,4 +168,22 @@ public class TestMultiKafkaSourceUpgrader {
     configs = upgrader.upgrade(configs, context);
     UpgraderTestUtils.assertExists(configs, stageConfigPath + ".overrideConfigurations", false);
   }
+
+  @Test
+  public void testV10toV11() {
+    Mockito.doReturn(10).when(context).getFromVersion();
+    Mockito.doReturn(11).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "conf.dataFormatConfig.jsonParser", "LEGACY_PARSER");
+  }
+
+  @Test
+  public void testV11toV12() {
+    Mockito.doReturn(11).when(context).getFromVersion();
+    Mockito.doReturn(12).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "conf.pipelinedCommits", false);
+  }
 }
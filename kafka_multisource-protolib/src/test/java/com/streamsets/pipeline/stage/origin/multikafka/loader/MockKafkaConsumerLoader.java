@@ -19,9 +19,11 @@ import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.kafka.KafkaAutoOffsetReset;
 import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
 
 import java.util.Iterator;
@@ -76,6 +78,11 @@ public class MockKafkaConsumerLoader extends KafkaConsumerLoader {
       delegate.subscribe(topics);
     }
 
+    @Override
+    public void subscribe(List topics, ConsumerRebalanceListener listener) {
+      delegate.subscribe(topics, listener);
+    }
+
     @Override
     public ConsumerRecords poll(long timeout) {
       return delegate.poll(timeout);
@@ -93,5 +100,10 @@ public class MockKafkaConsumerLoader extends KafkaConsumerLoader {
 
     @Override
     public void commitSync(Map offsetsMap) { delegate.commitSync(offsetsMap); }
+
+    @Override
+    public void commitAsync(Map offsetsMap, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsetsMap, callback);
+    }
   }
 }
@@ -265,4 +265,13 @@ public class TestKafkaSourceUpgrader {
     Assert.assertEquals(0, ((List)configs.stream().filter(config -> (stageConfigPath + ".kafkaConsumerConfigs").equals(
         config.getName())).findFirst().get().getValue()).size());
   }
+
+  @Test
+  public void testV15ToV16() {
+    Mockito.doReturn(15).when(context).getFromVersion();
+    Mockito.doReturn(16).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "kafkaConfigBean.dataFormatConfig.jsonParser", "LEGACY_PARSER");
+  }
 }
@@ -26,7 +26,7 @@ import com.streamsets.pipeline.api.lineage.LineageEventType;
 import com.streamsets.pipeline.api.lineage.LineageSpecificAttribute;
 import com.streamsets.pipeline.kafka.api.PartitionStrategy;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -36,7 +36,6 @@ import com.streamsets.pipeline.stage.destination.lib.ToOriginResponseConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -49,6 +48,7 @@ import java.util.Set;
 public class KafkaTarget extends BaseTarget {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaTarget.class);
+  private static final int INITIAL_BUFFER_SIZE = 1024;
 
   private final KafkaTargetConfig conf;
   private final ToOriginResponseConfig responseConf;
@@ -57,6 +57,7 @@ public class KafkaTarget extends BaseTarget {
   private SdcKafkaProducer kafkaProducer;
   private ErrorRecordHandler errorRecordHandler;
   private Set<String> accessedTopic;
+  private RecordSerializer serializer;
 
   public KafkaTarget(KafkaTargetConfig conf, ToOriginResponseConfig responseConf) {
     this.conf = conf;
@@ -72,6 +73,9 @@ public class KafkaTarget extends BaseTarget {
     kafkaProducer = conf.getKafkaProducer();
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
     accessedTopic = new HashSet<>();
+    if (issues.isEmpty()) {
+      serializer = new RecordSerializer(conf.dataGeneratorFormatConfig.getDataGeneratorFactory(), INITIAL_BUFFER_SIZE);
+    }
     return issues;
   }
 
@@ -151,19 +155,15 @@ public class KafkaTarget extends BaseTarget {
           for (Map.Entry<Object, List<Record>> entry : perPartition.entrySet()) {
             Object partition = entry.getKey();
             List<Record> list = entry.getValue();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream(1024 * list.size());
             Record currentRecord = null;
             try {
-              DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory()
-                .getGenerator(baos);
               for (Record record : list) {
                 currentRecord = record;
-                generator.write(record);
+                serializer.write(record);
                 count++;
               }
               currentRecord = null;
-              generator.close();
-              byte[] bytes = baos.toByteArray();
+              byte[] bytes = serializer.finish();
               // multiple records squashed.. so using partition as the message key
               kafkaProducer.enqueueMessage(entryTopic, bytes, partition);
             } catch (StageException ex) {
@@ -295,16 +295,19 @@ public class KafkaTarget extends BaseTarget {
   }
 
   private Object serializeRecord(Record record) throws StageException, IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-    DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(baos);
-    generator.write(record);
-    generator.close();
-    return baos.toByteArray();
+    return serializer.serialize(record);
   }
 
   @Override
   public void destroy() {
     LOG.info("Wrote {} number of records to Kafka Broker", recordCounter);
+    if (serializer != null) {
+      try {
+        serializer.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing the record serializer: {}", ex.toString(), ex);
+      }
+    }
     conf.destroy(getContext());
   }
 
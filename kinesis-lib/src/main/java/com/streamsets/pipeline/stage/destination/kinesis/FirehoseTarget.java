@@ -32,8 +32,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
-import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.lib.aws.AWSKinesisUtil;
@@ -43,7 +42,6 @@ import com.streamsets.pipeline.stage.lib.kinesis.KinesisUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -66,7 +64,7 @@ public class FirehoseTarget extends BaseTarget {
   private final FirehoseConfigBean conf;
 
   private ErrorRecordHandler errorRecordHandler;
-  private DataGeneratorFactory generatorFactory;
+  private RecordSerializer serializer;
   private AmazonKinesisFirehose firehoseClient;
 
   private long recordCounter = 0L;
@@ -88,7 +86,7 @@ public class FirehoseTarget extends BaseTarget {
       return issues;
     }
 
-    generatorFactory = conf.dataFormatConfig.getDataGeneratorFactory();
+    serializer = new RecordSerializer(conf.dataFormatConfig.getDataGeneratorFactory(), conf.maxRecordSize * KB);
     Regions region = Regions.DEFAULT_REGION;
     try {
       AmazonKinesisFirehoseClientBuilder builder = AmazonKinesisFirehoseClientBuilder.standard();
@@ -158,13 +156,8 @@ public class FirehoseTarget extends BaseTarget {
       Record record = batchIterator.next();
       sdcRecords.add(record);
 
-      ByteArrayOutputStream bytes = new ByteArrayOutputStream(conf.maxRecordSize * KB);
       try {
-        DataGenerator generator = generatorFactory.getGenerator(bytes);
-        generator.write(record);
-        generator.close();
-
-        ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+        ByteBuffer data = ByteBuffer.wrap(serializer.serialize(record));
         com.amazonaws.services.kinesisfirehose.model.Record firehoseRecord =
             new com.amazonaws.services.kinesisfirehose.model.Record();
         firehoseRecord.setData(data);
@@ -224,6 +217,13 @@ public class FirehoseTarget extends BaseTarget {
 
   @Override
   public void destroy() {
+    if (serializer != null) {
+      try {
+        serializer.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing the record serializer: {}", ex.toString(), ex);
+      }
+    }
     super.destroy();
     LOG.info("Wrote {} records.", recordCounter);
   }
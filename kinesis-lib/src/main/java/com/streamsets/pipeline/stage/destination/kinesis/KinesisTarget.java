@@ -34,8 +34,7 @@ import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
-import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.destination.lib.ResponseType;
@@ -50,7 +49,6 @@ import com.streamsets.pipeline.stage.lib.kinesis.RandomPartitioner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -69,13 +67,14 @@ import static com.streamsets.pipeline.stage.lib.kinesis.KinesisUtil.ONE_MB;
 
 public class KinesisTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(KinesisTarget.class);
+  private static final int INITIAL_BUFFER_SIZE = 1024;
 
   private final KinesisProducerConfigBean conf;
   private final ToOriginResponseConfig responseConf;
   private final Properties additionalConfigs = new Properties();
 
   private ErrorRecordHandler errorRecordHandler;
-  private DataGeneratorFactory generatorFactory;
+  private RecordSerializer serializer;
   private KinesisProducer kinesisProducer;
   private Partitioner partitioner;
 
@@ -133,7 +132,7 @@ public class KinesisTarget extends BaseTarget {
           KINESIS_CONFIG_BEAN + ".dataGeneratorFormatConfig",
           issues
       );
-      generatorFactory = conf.dataFormatConfig.getDataGeneratorFactory();
+      serializer = new RecordSerializer(conf.dataFormatConfig.getDataGeneratorFactory(), INITIAL_BUFFER_SIZE);
       try {
         KinesisProducerConfiguration producerConfig = KinesisProducerConfiguration.fromProperties(additionalConfigs);
 
@@ -203,6 +202,13 @@ public class KinesisTarget extends BaseTarget {
       kinesisProducer.destroy();
       kinesisProducer = null;
     }
+    if (serializer != null) {
+      try {
+        serializer.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing the record serializer: {}", ex.toString(), ex);
+      }
+    }
 
     super.destroy();
   }
@@ -215,23 +221,20 @@ public class KinesisTarget extends BaseTarget {
 
     while (batchIterator.hasNext()) {
       Record record = batchIterator.next();
-      ByteArrayOutputStream bytes = new ByteArrayOutputStream(ONE_MB);
       try {
-        DataGenerator generator = generatorFactory.getGenerator(bytes);
-        generator.write(record);
-        generator.close();
+        byte[] bytes = serializer.serialize(record);
 
-        if (bytes.size() > ONE_MB) {
+        if (bytes.length > ONE_MB) {
           errorRecordHandler.onError(
               new OnRecordErrorException(
                   record,
                   Errors.KINESIS_08,
-                  bytes.size()
+                  bytes.length
               )
           );
           continue;
         }
-        ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+        ByteBuffer data = ByteBuffer.wrap(bytes);
 
         String partitionerKey = null;
         if (conf.partitionStrategy == PartitionStrategy.EXPRESSION) {
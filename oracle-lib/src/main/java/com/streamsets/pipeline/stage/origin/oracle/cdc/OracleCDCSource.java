@@ -50,7 +50,6 @@ import com.streamsets.pipeline.stage.origin.jdbc.cdc.ChangeTypeValues;
 import com.streamsets.pipeline.stage.origin.jdbc.cdc.SchemaAndTable;
 import com.streamsets.pipeline.stage.origin.jdbc.cdc.SchemaTableConfigBean;
 import com.zaxxer.hikari.HikariDataSource;
-import net.jcip.annotations.GuardedBy;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -92,10 +91,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -184,6 +180,8 @@ public class OracleCDCSource extends BaseSource {
   private static final String XID = PREFIX + "xid";
   private static final String SEQ = "SEQ";
   private static final HashQueue<RecordSequence> EMPTY_LINKED_HASHSET = new InMemoryHashQueue<>(0);
+  // records of each transaction kept in memory before spilling to the log when buffering on disk
+  private static final int TXN_IN_MEMORY_RECORDS = 16;
 
   private static final String SENDING_TO_ERROR_AS_CONFIGURED = ". Sending to error as configured";
   private static final String UNSUPPORTED_TO_ERR = JDBC_85.getMessage() + SENDING_TO_ERROR_AS_CONFIGURED;
@@ -217,11 +215,11 @@ public class OracleCDCSource extends BaseSource {
   private static final int MISSING_LOG_FILE = 1291;
   private static final int QUERY_TIMEOUT = 1013;
 
-  private final Lock bufferedRecordsLock = new ReentrantLock();
   private final BlockingQueue<StageException> stageExceptions = new LinkedBlockingQueue<>(1);
 
-  @GuardedBy(value = "bufferedRecordsLock")
-  private final Map<TransactionIdKey, HashQueue<RecordSequence>> bufferedRecords = new HashMap<>();
+  private final TransactionBuffer<TransactionIdKey, RecordSequence> bufferedRecords =
+      new TransactionBuffer<>(TransactionBuffer.DEFAULT_STRIPES);
+  private SpillLog spillLog;
   private final Map<TransactionIdKey, List<String>> rollbacks = new HashMap<>();
 
   private final AtomicReference<BigDecimal> cachedSCNForRedoLogs = new AtomicReference<>(BigDecimal.ZERO);
@@ -618,23 +616,14 @@ public class OracleCDCSource extends BaseSource {
             TransactionIdKey key = new TransactionIdKey(xid);
 
             int bufferedRecordsSize = 0;
-            int totRecs = 0;
-            bufferedRecordsLock.lock();
-            try {
-              if (useLocalBuffering &&
-                  bufferedRecords.containsKey(key) &&
-                  bufferedRecords.get(key).contains(new RecordSequence(null, null, 0, 0, rsId, ssn, null))) {
-                continue;
-              }
-              if (LOG.isDebugEnabled()) {
-                bufferedRecordsSize = bufferedRecords.size();
-                for (Map.Entry<OracleCDCSource.TransactionIdKey, HashQueue<RecordSequence>> r :
-                    bufferedRecords.entrySet()) {
-                  totRecs += r.getValue().size();
-                }
-              }
-            } finally {
-              bufferedRecordsLock.unlock();
+            long totRecs = 0;
+            if (useLocalBuffering &&
+                bufferedRecords.contains(key, new RecordSequence(null, null, 0, 0, rsId, ssn, null))) {
+              continue;
+            }
+            if (LOG.isDebugEnabled()) {
+              bufferedRecordsSize = bufferedRecords.size();
+              totRecs = bufferedRecords.getRecordCount();
             }
             Offset offset = null;
             if (LOG.isDebugEnabled()) {
@@ -689,13 +678,10 @@ public class OracleCDCSource extends BaseSource {
                   unparseable.offer(queryString);
                 }
               } else {
-                bufferedRecordsLock.lock();
-                try {
-                  HashQueue<RecordSequence> records = bufferedRecords.computeIfAbsent(key, x -> {
-                    x.setTxnStartTime(tsDate);
-                    return createTransactionBuffer(key.txnId);
-                  });
-
+                bufferedRecords.update(key, x -> {
+                  x.setTxnStartTime(tsDate);
+                  return createTransactionBuffer(key.txnId);
+                }, records -> {
                   int nextSeq = records.isEmpty() ? 1 : records.tail().seq + 1;
                   RecordSequence node = new RecordSequence(attributes, queryString, nextSeq, op, rsId, ssn, tsDate);
 
@@ -735,40 +721,33 @@ public class OracleCDCSource extends BaseSource {
                   } else {
                     records.add(node);
                   }
-                } finally {
-                  bufferedRecordsLock.unlock();
-                }
+                });
               }
             } else if (!getContext().isPreview() && useLocalBuffering && (op == COMMIT_CODE || op == ROLLBACK_CODE)) {
               // so this commit was previously processed or it is a rollback, so don't care.
               if (op == ROLLBACK_CODE || scnDecimal.compareTo(lastCommitSCN) < 0) {
-                bufferedRecordsLock.lock();
-                try {
-                  bufferedRecords.remove(key);
-                  LOG.info(ROLLBACK_MESSAGE, key.txnId);
-                } finally {
-                  bufferedRecordsLock.unlock();
+                HashQueue<RecordSequence> records = bufferedRecords.remove(key);
+                if (records != null) {
+                  records.close();
                 }
+                LOG.info(ROLLBACK_MESSAGE, key.txnId);
               } else {
-                bufferedRecordsLock.lock();
-                try {
-                  HashQueue<RecordSequence> records = bufferedRecords.getOrDefault(key, EMPTY_LINKED_HASHSET);
-                  if (lastCommitSCN.equals(scnDecimal) && xid.equals(lastTxnId)) {
-                    removeProcessedRecords(records, sequenceNumber);
-                  }
-                  int bufferedRecordsToBeRemoved = records.size();
-                  LOG.debug(FOUND_RECORDS_IN_TRANSACTION, bufferedRecordsToBeRemoved, xid);
-                  lastCommitSCN = scnDecimal;
-                  lastTxnId = xid;
-
-                  if (useNewAddRecordsToQueue) {
-                    sequenceNumber = addRecordsToQueue(tsDate, scn, xid);
-                  } else {
-                    sequenceNumber = addRecordsToQueueOLD(tsDate, scn, xid);
-                  }
-
-                } finally {
-                  bufferedRecordsLock.unlock();
+                HashQueue<RecordSequence> records = bufferedRecords.remove(key);
+                if (records == null) {
+                  records = EMPTY_LINKED_HASHSET;
+                }
+                if (lastCommitSCN.equals(scnDecimal) && xid.equals(lastTxnId)) {
+                  removeProcessedRecords(records, sequenceNumber);
+                }
+                int bufferedRecordsToBeRemoved = records.size();
+                LOG.debug(FOUND_RECORDS_IN_TRANSACTION, bufferedRecordsToBeRemoved, xid);
+                lastCommitSCN = scnDecimal;
+                lastTxnId = xid;
+
+                if (useNewAddRecordsToQueue) {
+                  sequenceNumber = addRecordsToQueue(records, tsDate, scn, xid);
+                } else {
+                  sequenceNumber = addRecordsToQueueOLD(records, tsDate, scn, xid);
                 }
               }
             } else {
@@ -1031,19 +1010,10 @@ public class OracleCDCSource extends BaseSource {
   }
 
   private int addRecordsToQueueOLD(
-      LocalDateTime commitTimestamp, String commitScn, String xid
+      HashQueue<RecordSequence> records, LocalDateTime commitTimestamp, String commitScn, String xid
   ) throws InterruptedException {
-    TransactionIdKey key = new TransactionIdKey(xid);
     int seq = 0;
-    bufferedRecordsLock.lock();
-    HashQueue<RecordSequence> records;
-    try {
-      records = bufferedRecords.getOrDefault(key, EMPTY_LINKED_HASHSET);
-      records.completeInserts();
-      bufferedRecords.remove(key);
-    } finally {
-      bufferedRecordsLock.unlock();
-    }
+    records.completeInserts();
     final List<FutureWrapper> parseFutures = new ArrayList<>();
     while (!records.isEmpty()) {
       RecordSequence r = records.remove();
@@ -1115,22 +1085,10 @@ public class OracleCDCSource extends BaseSource {
   }
 
   private int addRecordsToQueue(
-      LocalDateTime commitTimestamp, String commitScn, String xid
+      HashQueue<RecordSequence> records, LocalDateTime commitTimestamp, String commitScn, String xid
   ) throws InterruptedException {
-
-    TransactionIdKey key = new TransactionIdKey(xid);
     int seq = 0;
-
-    HashQueue<RecordSequence> records;
-
-    bufferedRecordsLock.lock();
-    try {
-      records = bufferedRecords.getOrDefault(key, EMPTY_LINKED_HASHSET);
-      records.completeInserts();
-      bufferedRecords.remove(key);
-    } finally {
-      bufferedRecordsLock.unlock();
-    }
+    records.completeInserts();
 
     final List<FutureWrapper> parseFutures = new LinkedList<>();
     while (!records.isEmpty()) {
@@ -1635,6 +1593,7 @@ public class OracleCDCSource extends BaseSource {
         }
         Files.createDirectories(txnBufferLocation.toPath());
         LOG.info("Created " + txnBufferLocation.toString());
+        spillLog = new SpillLog(txnBufferLocation, SpillLog.DEFAULT_SEGMENT_SIZE);
       } catch (IOException ex) {
         Throwables.propagate(ex);
       }
@@ -1944,11 +1903,10 @@ public class OracleCDCSource extends BaseSource {
       dataSource.close();
     }
 
-    bufferedRecordsLock.lock();
-    try {
-      this.bufferedRecords.forEach((x, y) -> y.close());
-    } finally {
-      bufferedRecordsLock.unlock();
+    bufferedRecords.close();
+    if (spillLog != null) {
+      spillLog.close();
+      spillLog = null;
     }
     generationStarted = false;
 
@@ -2002,42 +1960,33 @@ public class OracleCDCSource extends BaseSource {
     if (!useLocalBuffering) {
       return;
     }
-    bufferedRecordsLock.lock();
-    try {
-      AtomicInteger txnDiscarded = new AtomicInteger(0);
-      AtomicInteger recordsDiscarded = new AtomicInteger(0);
-      LOG.info("Removing expired transactions.");
-      Iterator<Map.Entry<TransactionIdKey, HashQueue<RecordSequence>>> iter = bufferedRecords.entrySet().iterator();
-      while (iter.hasNext()) {
-        Map.Entry<TransactionIdKey, HashQueue<RecordSequence>> entry = iter.next();
-        if (expired(entry, startTime)) {
-          LOG.info("Removing transaction with id: " + entry.getKey().txnId);
-          if (!configBean.discardExpired) {
-            for (RecordSequence x : entry.getValue()) {
-              try {
-                Record record = generateRecord(x.sqlString, x.headers, x.opCode);
-                if (record != null) {
-                  expiredRecords.offer(new RecordTxnInfo(record, entry.getKey().txnId, entry.getKey().txnStartTime));
-                }
-              } catch (UnparseableSQLException ex) {
-                unparseable.offer(x.sqlString);
-              } catch (Exception ex) {
-                LOG.error("Error while generating expired record from SQL: " + x.sqlString);
-              }
-              recordsDiscarded.incrementAndGet();
+    int recordsDiscarded = 0;
+    LOG.info("Removing expired transactions.");
+    List<Map.Entry<TransactionIdKey, HashQueue<RecordSequence>>> expiredTransactions =
+        bufferedRecords.removeIf((key, records) -> expired(key, records, startTime));
+    for (Map.Entry<TransactionIdKey, HashQueue<RecordSequence>> entry : expiredTransactions) {
+      LOG.info("Removing transaction with id: " + entry.getKey().txnId);
+      if (!configBean.discardExpired) {
+        for (RecordSequence x : entry.getValue()) {
+          try {
+            Record record = generateRecord(x.sqlString, x.headers, x.opCode);
+            if (record != null) {
+              expiredRecords.offer(new RecordTxnInfo(record, entry.getKey().txnId, entry.getKey().txnStartTime));
             }
+          } catch (UnparseableSQLException ex) {
+            unparseable.offer(x.sqlString);
+          } catch (Exception ex) {
+            LOG.error("Error while generating expired record from SQL: " + x.sqlString);
           }
-          txnDiscarded.incrementAndGet();
-          iter.remove();
+          recordsDiscarded++;
         }
       }
-      LOG.info(Utils.format("Removed {} transactions and a total of {} records.",
-          txnDiscarded.get(),
-          recordsDiscarded.get()
-      ));
-    } finally {
-      bufferedRecordsLock.unlock();
+      entry.getValue().close();
     }
+    LOG.info(Utils.format("Removed {} transactions and a total of {} records.",
+        expiredTransactions.size(),
+        recordsDiscarded
+    ));
   }
 
   /**
@@ -2045,14 +1994,15 @@ public class OracleCDCSource extends BaseSource {
    * and if no records have actually been sent to the pipeline. If a record has been sent, then a commit was seen,
    * so it is not expired.
    *
-   * @param entry
+   * @param key
+   * @param records
    * @return
    */
-  private boolean expired(Map.Entry<TransactionIdKey, HashQueue<RecordSequence>> entry, LocalDateTime startTime) {
+  private boolean expired(TransactionIdKey key, HashQueue<RecordSequence> records, LocalDateTime startTime) {
     return startTime != null &&
         // Can be null if starting from SCN and first batch is not complete yet.
-        entry.getKey().txnStartTime.isBefore(startTime.minusSeconds(configBean.txnWindow)) &&
-        entry.getValue().peek().seq == 1;
+        key.txnStartTime.isBefore(startTime.minusSeconds(configBean.txnWindow)) &&
+        records.peek().seq == 1;
   }
 
   @VisibleForTesting
@@ -2066,14 +2016,9 @@ public class OracleCDCSource extends BaseSource {
   }
 
   private HashQueue<RecordSequence> createTransactionBuffer(String txnId) {
-    try {
-      return configBean.bufferLocation == BufferingValues.IN_MEMORY
-             ? new InMemoryHashQueue<>()
-             : new FileBackedHashQueue<>(new File(txnBufferLocation, txnId));
-    } catch (IOException ex) {
-      LOG.error("Error while creating transaction buffer", ex);
-      throw new RuntimeException(ex);
-    }
+    return configBean.bufferLocation == BufferingValues.IN_MEMORY
+           ? new InMemoryHashQueue<>()
+           : new SpillLogHashQueue(spillLog, TXN_IN_MEMORY_RECORDS);
   }
 
   private class TransactionIdKey {
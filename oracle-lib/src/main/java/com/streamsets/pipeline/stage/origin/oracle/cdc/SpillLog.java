@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.oracle.cdc;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append only log shared by all the transaction buffers spilling to disk, split in segment files.
+ * <p/>
+ * An append returns the address of the entry, the segment id in the upper 32 bits and the offset within the segment
+ * in the lower 32 bits. Segments count their live entries, once all the entries of a segment have been released and
+ * the log has moved on to a newer segment, the segment file is deleted.
+ */
+class SpillLog implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SpillLog.class);
+
+  static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private final File directory;
+  private final int segmentSize;
+  private final Map<Integer, Segment> segments = new HashMap<>();
+  private Segment active;
+  private int nextSegmentId;
+
+  SpillLog(File directory, int segmentSize) throws IOException {
+    Utils.checkArgument(segmentSize > 0, "segmentSize must be greater than zero");
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    Files.createDirectories(directory.toPath());
+  }
+
+  /**
+   * Appends the data to the active segment, rolling to a new segment if it does not fit.
+   *
+   * @return the address of the entry.
+   */
+  synchronized long append(byte[] data) throws IOException {
+    int entrySize = Integer.BYTES + data.length;
+    if (active == null || (active.size > 0 && active.size + entrySize > segmentSize)) {
+      roll();
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(entrySize);
+    buffer.putInt(data.length).put(data);
+    buffer.flip();
+    long offset = active.size;
+    while (buffer.hasRemaining()) {
+      active.channel.write(buffer, offset + buffer.position());
+    }
+    active.size += entrySize;
+    active.live++;
+    return ((long) active.id << 32) | offset;
+  }
+
+  /**
+   * Reads the entry at the given address, the entry must not have been released.
+   */
+  byte[] read(long address) throws IOException {
+    FileChannel channel;
+    synchronized (this) {
+      channel = getSegment(address).channel;
+    }
+    long offset = address & 0xFFFFFFFFL;
+    ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+    readFully(channel, length, offset);
+    ByteBuffer data = ByteBuffer.allocate(length.getInt(0));
+    readFully(channel, data, offset + Integer.BYTES);
+    return data.array();
+  }
+
+  /**
+   * Releases the entry at the given address, deleting its segment if it was the last live entry in it.
+   */
+  synchronized void release(long address) {
+    Segment segment = getSegment(address);
+    segment.live--;
+    if (segment.live == 0 && segment != active) {
+      delete(segment);
+    }
+  }
+
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  @Override
+  public synchronized void close() {
+    segments.values().forEach(this::closeChannel);
+    segments.clear();
+    active = null;
+    if (!directory.delete()) {
+      LOG.debug("Could not delete spill directory '{}'", directory);
+    }
+  }
+
+  private Segment getSegment(long address) {
+    Segment segment = segments.get((int) (address >>> 32));
+    Utils.checkState(segment != null, Utils.formatL("Spill log entry '{}' already released", address));
+    return segment;
+  }
+
+  private void roll() throws IOException {
+    if (active != null && active.live == 0) {
+      delete(active);
+    }
+    int id = nextSegmentId++;
+    FileChannel channel = FileChannel.open(
+        new File(directory, "segment-" + id + ".log").toPath(),
+        StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.DELETE_ON_CLOSE
+    );
+    active = new Segment(id, channel);
+    segments.put(id, active);
+  }
+
+  private void delete(Segment segment) {
+    segments.remove(segment.id);
+    closeChannel(segment);
+  }
+
+  private void closeChannel(Segment segment) {
+    try {
+      segment.channel.close();
+    } catch (IOException ex) {
+      LOG.warn("Error while closing spill log segment '{}': {}", segment.id, ex, ex);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException(Utils.format("Unexpected end of spill log segment at '{}'", position));
+      }
+    }
+  }
+
+  private static class Segment {
+    final int id;
+    final FileChannel channel;
+    long size;
+    int live;
+
+    Segment(int id, FileChannel channel) {
+      this.id = id;
+      this.channel = channel;
+    }
+  }
+}
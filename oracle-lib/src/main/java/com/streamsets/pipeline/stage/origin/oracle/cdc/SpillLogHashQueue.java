@@ -0,0 +1,329 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.oracle.cdc;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Transaction buffer keeping the first records of the transaction in memory and spilling the rest to a
+ * {@link SpillLog} shared by all transactions.
+ * <p/>
+ * The queue is the per transaction index of the log: it maps the key of each record to either the record itself or
+ * the address of the record in the log. Spilled records are released from the log as they are removed from the
+ * queue and when the queue is closed on commit, rollback or expiration.
+ */
+class SpillLogHashQueue implements HashQueue<RecordSequence> {
+  private static final byte SSN_STRING = 0;
+  private static final byte SSN_DECIMAL = 1;
+  private static final byte SSN_OBJECT = 2;
+
+  private final SpillLog log;
+  private final int maxInMemory;
+  private final LinkedHashMap<RsIdSsn, Object> index = new LinkedHashMap<>();
+  private int inMemory;
+  private RecordSequence tail;
+
+  SpillLogHashQueue(SpillLog log, int maxInMemory) {
+    this.log = log;
+    this.maxInMemory = maxInMemory;
+  }
+
+  @Override
+  public RecordSequence tail() {
+    return tail;
+  }
+
+  @Override
+  public int size() {
+    return index.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return index.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return index.containsKey(key((RecordSequence) o));
+  }
+
+  @NotNull
+  @Override
+  public Iterator<RecordSequence> iterator() {
+    return new SpillLogHashQueueIterator();
+  }
+
+  @NotNull
+  @Override
+  public Object[] toArray() {
+    throw new UnsupportedOperationException();
+  }
+
+  @NotNull
+  @Override
+  public <T> T[] toArray(@NotNull T[] a) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean add(RecordSequence e) {
+    RsIdSsn key = key(e);
+    if (index.containsKey(key)) {
+      return false;
+    }
+    if (inMemory < maxInMemory) {
+      index.put(key, e);
+      inMemory++;
+    } else {
+      try {
+        index.put(key, log.append(serialize(e)));
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+    tail = e;
+    return true;
+  }
+
+  @Override
+  public boolean offer(RecordSequence e) {
+    return add(e);
+  }
+
+  @Override
+  public RecordSequence remove() {
+    Iterator<RecordSequence> it = iterator();
+    RecordSequence head = it.next(); // throws expected exception if queue is empty
+    it.remove();
+    return head;
+  }
+
+  @Override
+  public RecordSequence poll() {
+    return index.isEmpty() ? null : remove();
+  }
+
+  @Override
+  public RecordSequence element() {
+    return iterator().next(); // throws expected exception if queue is empty
+  }
+
+  @Override
+  public RecordSequence peek() {
+    return index.isEmpty() ? null : element();
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean containsAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(@NotNull Collection<? extends RecordSequence> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean retainAll(@NotNull Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    index.values().forEach(this::release);
+    index.clear();
+    inMemory = 0;
+    tail = null;
+  }
+
+  @Override
+  public void close() {
+    clear();
+  }
+
+  @Override
+  public void completeInserts() {
+    // no op
+  }
+
+  private void release(Object value) {
+    if (value instanceof Long) {
+      log.release((Long) value);
+    } else {
+      inMemory--;
+    }
+  }
+
+  private RecordSequence get(Object value) {
+    if (value instanceof RecordSequence) {
+      return (RecordSequence) value;
+    }
+    try {
+      return deserialize(log.read((Long) value));
+    } catch (IOException | ClassNotFoundException ex) {
+      throw new IllegalStateException("Error while reading spilled record: " + ex, ex);
+    }
+  }
+
+  private static RsIdSsn key(RecordSequence record) {
+    return new RsIdSsn(record.rsId, record.ssn.toString());
+  }
+
+  static byte[] serialize(RecordSequence record) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(record.seq);
+    out.writeInt(record.opCode);
+    writeString(out, record.rsId);
+    writeString(out, record.sqlString);
+    if (record.ssn instanceof String) {
+      out.writeByte(SSN_STRING);
+      writeString(out, (String) record.ssn);
+    } else if (record.ssn instanceof BigDecimal) {
+      out.writeByte(SSN_DECIMAL);
+      writeString(out, record.ssn.toString());
+    } else {
+      out.writeByte(SSN_OBJECT);
+      ByteArrayOutputStream objectBytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(objectBytes)) {
+        objectOut.writeObject(record.ssn);
+      }
+      out.writeInt(objectBytes.size());
+      objectBytes.writeTo(out);
+    }
+    out.writeBoolean(record.timestamp != null);
+    if (record.timestamp != null) {
+      out.writeLong(record.timestamp.toEpochSecond(ZoneOffset.UTC));
+      out.writeInt(record.timestamp.getNano());
+    }
+    out.writeInt(record.headers.size());
+    for (Map.Entry<String, String> header : record.headers.entrySet()) {
+      writeString(out, header.getKey());
+      writeString(out, header.getValue());
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  static RecordSequence deserialize(byte[] data) throws IOException, ClassNotFoundException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    int seq = in.readInt();
+    int opCode = in.readInt();
+    String rsId = readString(in);
+    String sql = readString(in);
+    Object ssn;
+    switch (in.readByte()) {
+      case SSN_STRING:
+        ssn = readString(in);
+        break;
+      case SSN_DECIMAL:
+        ssn = new BigDecimal(readString(in));
+        break;
+      default:
+        byte[] objectBytes = new byte[in.readInt()];
+        in.readFully(objectBytes);
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(objectBytes))) {
+          ssn = objectIn.readObject();
+        }
+    }
+    LocalDateTime timestamp = null;
+    if (in.readBoolean()) {
+      timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+    int headerCount = in.readInt();
+    Map<String, String> headers = new HashMap<>(headerCount * 2);
+    for (int i = 0; i < headerCount; i++) {
+      headers.put(readString(in), readString(in));
+    }
+    return new RecordSequence(headers, sql, seq, opCode, rsId, ssn, timestamp);
+  }
+
+  // writeUTF is limited to 64KB, redo SQL can be larger
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private class SpillLogHashQueueIterator implements Iterator<RecordSequence> {
+
+    private final Iterator<Object> underlyingIter = index.values().iterator();
+    private Object current;
+
+    @Override
+    public boolean hasNext() {
+      return underlyingIter.hasNext();
+    }
+
+    @Override
+    public RecordSequence next() {
+      current = underlyingIter.next();
+      return get(current);
+    }
+
+    @Override
+    public void remove() {
+      underlyingIter.remove();
+      release(current);
+      if (index.isEmpty()) {
+        tail = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.oracle.cdc;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Buffer of the open transactions, split in stripes by transaction key.
+ * <p/>
+ * Each stripe has its own lock, so threads working on different transactions rarely contend. Committed, rolled back
+ * and expired transactions are removed from their stripe before their records are processed, no lock is held while
+ * the records are parsed and queued.
+ *
+ * @param <K> transaction key type.
+ * @param <E> buffered record type.
+ */
+class TransactionBuffer<K, E> {
+  static final int DEFAULT_STRIPES = 16;
+
+  private final Stripe<K, E>[] stripes;
+
+  @SuppressWarnings("unchecked")
+  TransactionBuffer(int concurrency) {
+    Utils.checkArgument(concurrency > 0, "concurrency must be greater than zero");
+    int size = 1;
+    while (size < concurrency) {
+      size <<= 1;
+    }
+    stripes = new Stripe[size];
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new Stripe<>();
+    }
+  }
+
+  private Stripe<K, E> stripe(K key) {
+    int h = key.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+
+  /**
+   * Returns if the transaction has a buffered record equal to the given one.
+   */
+  boolean contains(K key, E record) {
+    Stripe<K, E> stripe = stripe(key);
+    stripe.lock.lock();
+    try {
+      HashQueue<E> records = stripe.transactions.get(key);
+      return records != null && records.contains(record);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /**
+   * Runs the action on the records of the transaction while holding the stripe lock, creating the transaction buffer
+   * with the factory if the transaction is not buffered yet.
+   */
+  void update(K key, Function<K, HashQueue<E>> factory, Consumer<HashQueue<E>> action) {
+    Stripe<K, E> stripe = stripe(key);
+    stripe.lock.lock();
+    try {
+      action.accept(stripe.transactions.computeIfAbsent(key, factory));
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /**
+   * Removes the transaction, the caller owns the returned records and must close them.
+   *
+   * @return the records of the transaction or null if the transaction is not buffered.
+   */
+  HashQueue<E> remove(K key) {
+    Stripe<K, E> stripe = stripe(key);
+    stripe.lock.lock();
+    try {
+      return stripe.transactions.remove(key);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /**
+   * Removes the transactions matching the predicate, the caller owns the returned records and must close them.
+   */
+  List<Map.Entry<K, HashQueue<E>>> removeIf(BiPredicate<K, HashQueue<E>> predicate) {
+    List<Map.Entry<K, HashQueue<E>>> removed = new ArrayList<>();
+    for (Stripe<K, E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        Iterator<Map.Entry<K, HashQueue<E>>> it = stripe.transactions.entrySet().iterator();
+        while (it.hasNext()) {
+          Map.Entry<K, HashQueue<E>> entry = it.next();
+          if (predicate.test(entry.getKey(), entry.getValue())) {
+            removed.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            it.remove();
+          }
+        }
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Returns the number of buffered transactions.
+   */
+  int size() {
+    int size = 0;
+    for (Stripe<K, E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        size += stripe.transactions.size();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of buffered records across all transactions.
+   */
+  long getRecordCount() {
+    long count = 0;
+    for (Stripe<K, E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        for (HashQueue<E> records : stripe.transactions.values()) {
+          count += records.size();
+        }
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Closes and removes all the buffered transactions.
+   */
+  void close() {
+    for (Stripe<K, E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        stripe.transactions.values().forEach(HashQueue::close);
+        stripe.transactions.clear();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  private static class Stripe<K, E> {
+    final ReentrantLock lock = new ReentrantLock();
+    final Map<K, HashQueue<E>> transactions = new HashMap<>();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.oracle.cdc;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+
+public class TestSpillLogHashQueue {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File spillDir;
+  private SpillLog log;
+
+  @Before
+  public void setUp() throws Exception {
+    spillDir = new File(tempFolder.getRoot(), "spill");
+    log = new SpillLog(spillDir, 1024);
+  }
+
+  @After
+  public void tearDown() {
+    log.close();
+  }
+
+  private static RecordSequence createRecord(int seq) {
+    return new RecordSequence(
+        new HashMap<>(ImmutableMap.of("seq", String.valueOf(seq), "rowId", "row-" + seq)),
+        "insert into t values (" + seq + ")",
+        seq,
+        1,
+        "rs-" + seq,
+        new BigDecimal(seq),
+        LocalDateTime.of(2020, 1, 1, 10, 0, 0, seq)
+    );
+  }
+
+  @Test
+  public void testSpillKeepsOrder() throws Exception {
+    SpillLogHashQueue queue = new SpillLogHashQueue(log, 2);
+    for (int i = 1; i <= 50; i++) {
+      Assert.assertTrue(queue.add(createRecord(i)));
+    }
+    Assert.assertEquals(50, queue.size());
+    Assert.assertEquals(50, queue.tail().seq);
+    Assert.assertTrue(queue.contains(createRecord(30)));
+    Assert.assertFalse(queue.contains(createRecord(51)));
+    Assert.assertFalse(queue.add(createRecord(30)));
+    // 48 records of roughly 100 bytes spilled into 1KB segments
+    Assert.assertTrue(log.getSegmentCount() > 1);
+
+    for (int i = 1; i <= 50; i++) {
+      RecordSequence record = queue.remove();
+      Assert.assertEquals(i, record.seq);
+      Assert.assertEquals(1, record.opCode);
+      Assert.assertEquals("rs-" + i, record.rsId);
+      Assert.assertEquals(new BigDecimal(i), record.ssn);
+      Assert.assertEquals("insert into t values (" + i + ")", record.sqlString);
+      Assert.assertEquals(LocalDateTime.of(2020, 1, 1, 10, 0, 0, i), record.timestamp);
+      Assert.assertEquals("row-" + i, record.headers.get("rowId"));
+    }
+    Assert.assertTrue(queue.isEmpty());
+    Assert.assertNull(queue.tail());
+    // only the active segment is left
+    Assert.assertEquals(1, log.getSegmentCount());
+  }
+
+  @Test
+  public void testSegmentsReclaimedOnClose() throws Exception {
+    SpillLogHashQueue committed = new SpillLogHashQueue(log, 0);
+    SpillLogHashQueue rolledBack = new SpillLogHashQueue(log, 0);
+    for (int i = 1; i <= 20; i++) {
+      committed.add(createRecord(i));
+      rolledBack.add(createRecord(i));
+    }
+    int segments = log.getSegmentCount();
+    Assert.assertTrue(segments > 1);
+
+    rolledBack.close();
+    // segments still have live records of the other transaction
+    Assert.assertEquals(segments, log.getSegmentCount());
+
+    Iterator<RecordSequence> it = committed.iterator();
+    while (it.hasNext() && it.next().seq <= 10) {
+      it.remove();
+    }
+    Assert.assertEquals(10, committed.size());
+    Assert.assertEquals(11, committed.peek().seq);
+    Assert.assertTrue(log.getSegmentCount() < segments);
+
+    committed.close();
+    Assert.assertEquals(1, log.getSegmentCount());
+  }
+
+  @Test
+  public void testLargeStatement() throws Exception {
+    SpillLogHashQueue queue = new SpillLogHashQueue(log, 0);
+    String sql = StringUtils.repeat('x', 100 * 1024);
+    queue.add(new RecordSequence(new HashMap<>(), sql, 1, 1, "rs", "ssn", null));
+    RecordSequence record = queue.remove();
+    Assert.assertEquals(sql, record.sqlString);
+    Assert.assertEquals("ssn", record.ssn);
+    Assert.assertNull(record.timestamp);
+  }
+}
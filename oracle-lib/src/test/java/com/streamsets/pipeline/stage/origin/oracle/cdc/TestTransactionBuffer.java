@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.oracle.cdc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestTransactionBuffer {
+
+  @Test
+  public void testUpdateAndRemove() {
+    TransactionBuffer<String, Integer> buffer = new TransactionBuffer<>(4);
+    buffer.update("t1", k -> new InMemoryHashQueue<>(), records -> records.add(1));
+    buffer.update("t1", k -> new InMemoryHashQueue<>(), records -> records.add(2));
+    buffer.update("t2", k -> new InMemoryHashQueue<>(), records -> records.add(3));
+
+    Assert.assertEquals(2, buffer.size());
+    Assert.assertEquals(3, buffer.getRecordCount());
+    Assert.assertTrue(buffer.contains("t1", 2));
+    Assert.assertFalse(buffer.contains("t1", 3));
+    Assert.assertFalse(buffer.contains("t3", 1));
+
+    HashQueue<Integer> records = buffer.remove("t1");
+    Assert.assertEquals(2, records.size());
+    Assert.assertEquals(2, (int) records.tail());
+    Assert.assertNull(buffer.remove("t1"));
+    Assert.assertEquals(1, buffer.size());
+  }
+
+  @Test
+  public void testRemoveIf() {
+    TransactionBuffer<String, Integer> buffer = new TransactionBuffer<>(TransactionBuffer.DEFAULT_STRIPES);
+    for (int i = 0; i < 100; i++) {
+      final int value = i;
+      buffer.update("t" + i, k -> new InMemoryHashQueue<>(), records -> records.add(value));
+    }
+    List<Map.Entry<String, HashQueue<Integer>>> removed = buffer.removeIf((k, records) -> records.peek() % 2 == 0);
+    Assert.assertEquals(50, removed.size());
+    for (Map.Entry<String, HashQueue<Integer>> entry : removed) {
+      Assert.assertEquals("t" + entry.getValue().peek(), entry.getKey());
+    }
+    Assert.assertEquals(50, buffer.size());
+    buffer.close();
+    Assert.assertEquals(0, buffer.size());
+  }
+
+  @Test(timeout = 10000)
+  public void testConcurrentTransactions() throws Exception {
+    TransactionBuffer<String, Integer> buffer = new TransactionBuffer<>(TransactionBuffer.DEFAULT_STRIPES);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 1000; i++) {
+            final int value = i;
+            buffer.update("t" + (i % 50), k -> new InMemoryHashQueue<>(), r -> r.add(thread * 1000 + value));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    Assert.assertEquals(50, buffer.size());
+    Assert.assertEquals(4000, buffer.getRecordCount());
+  }
+}
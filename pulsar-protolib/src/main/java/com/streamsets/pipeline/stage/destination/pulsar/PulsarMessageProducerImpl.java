@@ -31,12 +31,12 @@ import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.api.service.dataformats.DataFormatGeneratorService;
-import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
 import com.streamsets.pipeline.api.service.dataformats.DataGeneratorException;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.pulsar.config.PulsarErrors;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.support.service.ResettableDataGenerator;
 import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.ProducerBuilder;
 import org.apache.pulsar.client.api.PulsarClient;
@@ -58,6 +58,7 @@ import java.util.concurrent.TimeUnit;
 public class PulsarMessageProducerImpl implements PulsarMessageProducer {
 
   private static final Logger LOG = LoggerFactory.getLogger(PulsarMessageProducerImpl.class);
+  private static final int INITIAL_BUFFER_SIZE = 1024;
 
   private final PulsarTargetConfig pulsarConfig;
   private final Stage.Context context;
@@ -67,11 +68,16 @@ public class PulsarMessageProducerImpl implements PulsarMessageProducer {
   private ErrorRecordHandler errorHandler;
   private PulsarClient pulsarClient;
   private LoadingCache<String, Producer> messageProducers;
+  // Serialization buffer and generator reused for every message of every batch, the producer is only used by its own
+  // stage instance
+  private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+  private final ResettableDataGenerator generator;
 
   public PulsarMessageProducerImpl(PulsarTargetConfig pulsarTargetConfig, Stage.Context context) {
     this.pulsarConfig = Preconditions.checkNotNull(pulsarTargetConfig);
     this.context = Preconditions.checkNotNull(context);
     this.dataFormatGeneratorService = Preconditions.checkNotNull(context.getService(DataFormatGeneratorService.class));
+    this.generator = new ResettableDataGenerator(dataFormatGeneratorService, byteArrayOutputStream);
   }
 
   public PulsarClient getPulsarClient() {
@@ -154,18 +160,20 @@ public class PulsarMessageProducerImpl implements PulsarMessageProducer {
 
     if (batch != null) {
       Iterator<Record> recordIterator = batch.getRecords();
-      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 
       while (recordIterator.hasNext()) {
         byteArrayOutputStream.reset();
         Record record = recordIterator.next();
 
         try {
-          try (DataGenerator generator = dataFormatGeneratorService.getGenerator(byteArrayOutputStream)) {
+          try {
             generator.write(record);
+            generator.finish();
           } catch (DataGeneratorException e) {
+            generator.discard();
             handleError(record, e);
           } catch (IOException e) {
+            generator.discard();
             throw new StageException(PulsarErrors.PULSAR_01, e.getMessage(), e);
           }
 
@@ -228,6 +236,11 @@ public class PulsarMessageProducerImpl implements PulsarMessageProducer {
 
   @Override
   public void close() {
+    try {
+      generator.close();
+    } catch (IOException e) {
+      LOG.warn("Exception closing the data generator: {}", e.toString(), e);
+    }
     pulsarConfig.destroy();
   }
 
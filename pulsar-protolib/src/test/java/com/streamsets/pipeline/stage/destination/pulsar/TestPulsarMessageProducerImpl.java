@@ -20,6 +20,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Target;
@@ -181,6 +182,41 @@ public class TestPulsarMessageProducerImpl {
     }
   }
 
+  @Test
+  public void testPutBatchRecordsReusesGenerator() throws Exception {
+    DataFormatGeneratorService dataFormatGeneratorService = Mockito.mock(DataFormatGeneratorService.class);
+    ResettableGenerator generator = new ResettableGenerator();
+    Mockito.when(dataFormatGeneratorService.getGenerator(Mockito.any())).thenReturn(generator);
+    Mockito.when(context.getService(DataFormatGeneratorService.class)).thenReturn(dataFormatGeneratorService);
+    Mockito.when(context.createELEval(Mockito.any())).thenReturn(Mockito.mock(ELEval.class));
+    Mockito.when(context.createELVars()).thenReturn(Mockito.mock(ELVars.class));
+
+    PulsarMessageProducerImpl pulsarMessageProducer = new PulsarMessageProducerImpl(TestUtilsPulsar.getTargetConfig(),
+        context
+    );
+    Assert.assertTrue(pulsarMessageProducer.init(context).isEmpty());
+
+    TypedMessageBuilder typedMessageBuilderMock = Mockito.mock(TypedMessageBuilder.class);
+    Mockito.when(typedMessageBuilderMock.key(Mockito.anyString())).thenReturn(typedMessageBuilderMock);
+    Mockito.when(typedMessageBuilderMock.value(Mockito.any())).thenReturn(typedMessageBuilderMock);
+    Producer producerMock = Mockito.mock(Producer.class);
+    Mockito.when(producerMock.newMessage()).thenReturn(typedMessageBuilderMock);
+    LoadingCache<String, Producer> messageProducersMock = Mockito.mock(LoadingCache.class);
+    Mockito.when(messageProducersMock.get(Mockito.any())).thenReturn(producerMock);
+    pulsarMessageProducer.setMessageProducers(messageProducersMock);
+
+    int records = TestUtilsPulsar.getRecordsList().size();
+    pulsarMessageProducer.put(TestUtilsPulsar.getBatch());
+    pulsarMessageProducer.put(TestUtilsPulsar.getBatch());
+
+    // A single generator, reset after every message and closed with the producer
+    Mockito.verify(dataFormatGeneratorService, Mockito.times(1)).getGenerator(Mockito.any());
+    Assert.assertEquals(2 * records, generator.resets);
+    Assert.assertFalse(generator.closed);
+    pulsarMessageProducer.close();
+    Assert.assertTrue(generator.closed);
+  }
+
   @Test(expected = StageException.class)
   public void testPutStageException() throws StageException {
     DataFormatGeneratorService dataFormatGeneratorService = Mockito.mock(DataFormatGeneratorService.class);
@@ -296,4 +332,27 @@ public class TestPulsarMessageProducerImpl {
     }
   }
 
+
+  public static class ResettableGenerator implements DataGenerator {
+    private int resets;
+    private boolean closed;
+
+    @Override
+    public void write(Record record) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    public boolean reset() {
+      resets++;
+      return true;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
 }
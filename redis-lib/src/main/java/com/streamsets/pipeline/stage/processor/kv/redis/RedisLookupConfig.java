@@ -63,6 +63,21 @@ public class RedisLookupConfig {
   @ValueChooserModel(LookupModeChooserValues.class)
   public LookupMode mode;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Keys per Round Trip",
+      description = "Maximum number of keys resolved with a single pipelined request to Redis in batch mode.",
+      defaultValue = "1000",
+      min = 1,
+      displayPosition = 15,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      dependsOn = "mode",
+      triggeredByValue = "BATCH"
+  )
+  public int maxKeysPerRoundTrip = 1000;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
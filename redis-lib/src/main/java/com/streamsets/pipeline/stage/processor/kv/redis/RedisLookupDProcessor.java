@@ -24,7 +24,7 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Redis Lookup Processor",
     description = "Performs key-value lookups in Redis.",
     icon = "redis.png",
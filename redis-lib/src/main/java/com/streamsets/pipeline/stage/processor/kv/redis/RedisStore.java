@@ -22,6 +22,8 @@ import org.apache.commons.lang3.tuple.Pair;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -92,14 +94,72 @@ public class RedisStore extends CacheLoader<Pair<String, DataType>, LookupValue>
     return values;
   }
 
+  /**
+   * Looks up the given keys pipelining the requests, each chunk of up to
+   * {@link RedisLookupConfig#maxKeysPerRoundTrip} keys costs a single round trip to Redis.
+   */
   public List<LookupValue> get(List<Pair<String, DataType>> keys) {
-    List<LookupValue> result = new ArrayList<>();
-    for(Pair<String, DataType> key : keys) {
-      result.add(get(key));
+    List<LookupValue> result = new ArrayList<>(keys.size());
+    try (Jedis jedis = pool.getResource()) {
+      for (List<Pair<String, DataType>> chunk : Lists.partition(keys, conf.maxKeysPerRoundTrip)) {
+        result.addAll(get(jedis, chunk));
+      }
     }
     return result;
   }
 
+  private List<LookupValue> get(Jedis jedis, List<Pair<String, DataType>> keys) {
+    Pipeline pipeline = jedis.pipelined();
+
+    // all STRING keys are resolved with one MGET, the other types need a command per key
+    List<String> stringKeys = new ArrayList<>();
+    List<Response<?>> responses = new ArrayList<>(keys.size());
+    for (Pair<String, DataType> pair : keys) {
+      String key = pair.getLeft();
+      switch (pair.getRight()) {
+        case STRING:
+          stringKeys.add(key);
+          responses.add(null);
+          break;
+        case LIST:
+          responses.add(pipeline.lrange(key, 0, -1));
+          break;
+        case HASH:
+          responses.add(pipeline.hgetAll(key));
+          break;
+        case SET:
+          responses.add(pipeline.smembers(key));
+          break;
+        default:
+          responses.add(null);
+      }
+    }
+    Response<List<String>> strings = null;
+    if (!stringKeys.isEmpty()) {
+      strings = pipeline.mget(stringKeys.toArray(new String[stringKeys.size()]));
+    }
+    pipeline.sync();
+
+    Iterator<String> stringValues = (strings == null) ? null : strings.get().iterator();
+    List<LookupValue> values = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      DataType type = keys.get(i).getRight();
+      switch (type) {
+        case STRING:
+          values.add(new LookupValue(stringValues.next(), type));
+          break;
+        case LIST:
+        case HASH:
+        case SET:
+          values.add(new LookupValue(responses.get(i).get(), type));
+          break;
+        default:
+          values.add(null);
+      }
+    }
+    return values;
+  }
+
   public void put(String key, String value) {
     // Persist any new keys to Redis.
     Jedis jedis = pool.getResource();
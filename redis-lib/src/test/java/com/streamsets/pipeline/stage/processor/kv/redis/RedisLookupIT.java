@@ -257,6 +257,35 @@ public class RedisLookupIT {
     assertArrayEquals(expected.toArray(), values.toArray());
   }
 
+  @Test
+  public void testGetMultipleKeysInSeveralRoundTrips() throws Exception {
+    List<Pair<String, DataType>> keys = ImmutableList.of(
+        Pair.of("key1", DataType.STRING),
+        Pair.of("lkey1", DataType.LIST),
+        Pair.of("key2", DataType.STRING),
+        Pair.of("skey1", DataType.SET),
+        Pair.of("key4", DataType.STRING)
+    );
+
+    List<LookupValue> expected = ImmutableList.of(
+        new LookupValue("value1", DataType.STRING),
+        new LookupValue(ImmutableList.of("lvalue1_3", "lvalue1_2", "lvalue1_1"), DataType.LIST),
+        new LookupValue("value2", DataType.STRING),
+        new LookupValue(ImmutableSet.of("svalue1_3", "svalue1_2", "svalue1_1"), DataType.SET),
+        new LookupValue(null, DataType.STRING)
+    );
+    RedisLookupConfig conf = new RedisLookupConfig();
+    conf.cache.enabled = false;
+    conf.uri = "redis://" + redis.getContainerIpAddress() + ":" + redis.getMappedPort(REDIS_PORT);
+    conf.mode = LookupMode.BATCH;
+    conf.maxKeysPerRoundTrip = 2;
+
+    RedisStore redisStore = new RedisStore(conf);
+    List<LookupValue> values = redisStore.get(keys);
+    redisStore.close();
+    assertArrayEquals(expected.toArray(), values.toArray());
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testPutSingleKey() throws Exception{
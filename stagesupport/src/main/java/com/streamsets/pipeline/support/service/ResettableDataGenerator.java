@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.support.service;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.service.dataformats.DataFormatGeneratorService;
+import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
+import com.streamsets.pipeline.api.service.dataformats.DataGeneratorException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Generator of a {@link DataFormatGeneratorService} reused across standalone messages written to the same output, for
+ * destinations that send one message per record.
+ * <p/>
+ * The service API has no way to reset a generator, so generators that can start a new message on the same output
+ * expose a public <code>boolean reset()</code> method: the ones of the data format service and the wrappers the data
+ * collector puts around them do. Generators without it, or that can't be reset for their data format, are closed after
+ * every message and a new one is created for the next. Not thread safe.
+ */
+public class ResettableDataGenerator implements DataGenerator {
+  private static final String RESET = "reset";
+
+  private final DataFormatGeneratorService service;
+  private final OutputStream outputStream;
+  private DataGenerator generator;
+  private Method resetMethod;
+
+  public ResettableDataGenerator(DataFormatGeneratorService service, OutputStream outputStream) {
+    this.service = service;
+    this.outputStream = outputStream;
+  }
+
+  @Override
+  public void write(Record record) throws IOException, DataGeneratorException {
+    if (generator == null) {
+      generator = service.getGenerator(outputStream);
+      resetMethod = findResetMethod(generator);
+    }
+    generator.write(record);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (generator != null) {
+      generator.flush();
+    }
+  }
+
+  /**
+   * Completes the message, everything written so far is in the output stream once it returns.
+   */
+  public void finish() throws IOException {
+    if (generator != null && !reset(generator, resetMethod)) {
+      DataGenerator finished = generator;
+      generator = null;
+      finished.close();
+    }
+  }
+
+  /**
+   * Drops the generator after a failed write, the next message starts with a new one.
+   */
+  public void discard() {
+    DataGenerator discarded = generator;
+    generator = null;
+    if (discarded != null) {
+      try {
+        discarded.close();
+      } catch (IOException | RuntimeException ex) {
+        // The message is dropped anyway
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (generator != null) {
+      DataGenerator closed = generator;
+      generator = null;
+      closed.close();
+    }
+  }
+
+  /**
+   * Returns the public <code>boolean reset()</code> method of the given generator, null if it has none.
+   */
+  public static Method findResetMethod(DataGenerator generator) {
+    try {
+      Method reset = generator.getClass().getMethod(RESET);
+      return reset.getReturnType() == boolean.class ? reset : null;
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Resets the given generator with the method returned by {@link #findResetMethod(DataGenerator)}.
+   *
+   * @return <code>true</code> if the generator was reset, <code>false</code> if it can't be.
+   */
+  public static boolean reset(DataGenerator generator, Method resetMethod) throws IOException {
+    if (resetMethod == null) {
+      return false;
+    }
+    try {
+      return (boolean) resetMethod.invoke(generator);
+    } catch (InvocationTargetException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IOException(ex.getCause());
+    } catch (IllegalAccessException ex) {
+      return false;
+    }
+  }
+}